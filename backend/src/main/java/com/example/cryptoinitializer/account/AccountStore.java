@@ -0,0 +1,403 @@
+package com.example.cryptoinitializer.account;
+
+import com.example.cryptoinitializer.journal.AccountSnapshot;
+import com.example.cryptoinitializer.model.UserAccount;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * The accounts of all users, at most {@code crypto.accounts.max-resident} of them in
+ * memory. When there are more, the {@link EvictionPolicy} picks which to evict, and
+ * accounts untouched for {@code expire-after-access-ms} are evicted as well. An evicted
+ * account is written to a file of its own in {@code spill-dir} and read back the next
+ * time it is looked up. The journal stays the durable record: spill files are not synced
+ * and are discarded on startup, when recovery rebuilds every account.
+ *
+ * <p>Lookups of resident accounts take no lock, and nothing that may block runs while a
+ * map bin is locked, so virtual threads never pin on the map. A lookup that misses
+ * installs a placeholder, which other lookups of the key wait for, then loads or creates
+ * the account outside the map and completes the placeholder with it. Eviction takes the
+ * account's own lock (skipping the account if a trade holds it), writes the account
+ * while it is still resident, marks it evicted, so a writer holding the old copy notices
+ * and looks it up again, and only then removes it. Iterations read a spilled account
+ * behind a placeholder as well, so the file is not loaded and deleted under them.
+ * Accesses are reported to the policy only when its lock is free; under contention some
+ * are dropped, which costs the policy a little precision rather than every lookup a
+ * lock. The size bound is enforced after inserting, so it can be exceeded briefly while
+ * another thread is already evicting or a snapshot is being taken.
+ */
+@Component
+public class AccountStore {
+    private static final Logger logger = LoggerFactory.getLogger(AccountStore.class);
+    private static final String SPILL_SUFFIX = ".bin";
+    /** Victims in a row that may be skipped because a trade holds them. */
+    private static final int MAX_SKIPPED_VICTIMS = 16;
+
+    @Value("${crypto.accounts.max-resident:10000}")
+    private int maxResident = 10000;
+
+    /** Evicts accounts idle for this long; 0 keeps them until the size bound needs room. */
+    @Value("${crypto.accounts.expire-after-access-ms:1800000}")
+    private long expireAfterAccessMs = 1800000;
+
+    @Value("${crypto.accounts.eviction-policy:W_TINY_LFU}")
+    private EvictionPolicy.Type policyType = EvictionPolicy.Type.W_TINY_LFU;
+
+    @Value("${crypto.accounts.spill-dir:data/journal/accounts}")
+    private String spillDir = "data/journal/accounts";
+
+    private final Map<String, Entry> resident = new ConcurrentHashMap<>();
+    private final Set<String> spilled = ConcurrentHashMap.newKeySet();
+    private final ReentrantLock policyLock = new ReentrantLock();
+    // Held while evicting, and by iterations that must not see accounts move to disk
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private EvictionPolicy policy;
+    private Path directory;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    private static final class Entry {
+        // The account once it is in memory; null for a placeholder, after which the key
+        // has to be looked up again
+        final CompletableFuture<UserAccount> account;
+        volatile long accessedAt;
+
+        Entry(CompletableFuture<UserAccount> account) {
+            this.account = account;
+            this.accessedAt = System.currentTimeMillis();
+        }
+
+        static Entry of(UserAccount account) {
+            return new Entry(CompletableFuture.completedFuture(account));
+        }
+
+        static Entry placeholder() {
+            return new Entry(new CompletableFuture<>());
+        }
+
+        /** The account, or null while this is a placeholder. */
+        UserAccount loaded() {
+            return account.getNow(null);
+        }
+    }
+
+    @PostConstruct
+    public void open() throws IOException {
+        if (maxResident <= 0) {
+            throw new IllegalArgumentException("crypto.accounts.max-resident must be positive");
+        }
+        policy = policyType.create(maxResident);
+        directory = Path.of(spillDir);
+        Files.createDirectories(directory);
+        // Left over from a previous run; recovery rebuilds those accounts from the journal
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.filter(path -> path.getFileName().toString().endsWith(SPILL_SUFFIX)).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    /** The account, loading it from disk if it was evicted, or null if it does not exist. */
+    public UserAccount get(String userId) {
+        return lookup(userId, false);
+    }
+
+    /** Like {@link #get}, but creates the account if it does not exist. */
+    public UserAccount getOrCreate(String userId) {
+        return lookup(userId, true);
+    }
+
+    private UserAccount lookup(String userId, boolean create) {
+        Entry entry = resident.get(userId);
+        UserAccount account = entry == null ? null : entry.loaded();
+        if (account != null) {
+            hits.increment();
+            touch(userId, entry);
+            return account;
+        }
+        misses.increment();
+        while (true) {
+            entry = resident.get(userId);
+            if (entry == null) {
+                Entry loading = Entry.placeholder();
+                if (resident.putIfAbsent(userId, loading) == null) {
+                    return insert(userId, loading, create);
+                }
+                continue;
+            }
+            // Parks rather than pins while another thread loads the account or an iteration
+            // reads its spill file
+            account = entry.account.join();
+            if (account != null) {
+                touch(userId, entry);
+                return account;
+            }
+        }
+    }
+
+    /**
+     * Fills the placeholder this thread installed: with the spilled account, a new one if
+     * {@code create} is set, or nothing, in which case the placeholder is removed. An
+     * eviction adds the key to {@code spilled} before removing its entry, so with the
+     * placeholder in place the check cannot miss an account on its way to disk.
+     */
+    private UserAccount insert(String userId, Entry loading, boolean create) {
+        UserAccount account = null;
+        try {
+            account = spilled.contains(userId) ? load(userId) : create ? new UserAccount(userId) : null;
+        } finally {
+            if (account == null) {
+                // Waiting lookups look again, and load or create it themselves if need be
+                resident.remove(userId, loading);
+                loading.account.complete(null);
+            }
+        }
+        if (account == null) {
+            return null;
+        }
+        policyLock.lock();
+        try {
+            policy.recordInsert(userId);
+        } finally {
+            policyLock.unlock();
+        }
+        loading.accessedAt = System.currentTimeMillis();
+        loading.account.complete(account);
+        evictIfNeeded();
+        return account;
+    }
+
+    private void touch(String userId, Entry entry) {
+        entry.accessedAt = System.currentTimeMillis();
+        if (policyLock.tryLock()) {
+            try {
+                policy.recordAccess(userId);
+            } finally {
+                policyLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Passes a consistent copy of every account, resident or not, to {@code consumer}, one
+     * account at a time, without its trades: spilled accounts are only read up to their
+     * positions. Eviction waits until the iteration is done.
+     */
+    public void forEach(Consumer<AccountSnapshot> consumer) {
+        evictionLock.lock();
+        try {
+            // With eviction held off accounts only move from disk to memory, so collecting
+            // the spilled keys first cannot miss one
+            Set<String> keys = new LinkedHashSet<>(spilled);
+            keys.addAll(resident.keySet());
+            for (String userId : keys) {
+                AccountSnapshot snapshot = snapshotOf(userId);
+                if (snapshot != null) {
+                    consumer.accept(snapshot);
+                }
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private AccountSnapshot snapshotOf(String userId) {
+        while (true) {
+            Entry entry = resident.get(userId);
+            if (entry == null) {
+                // Holds off a lookup that would load the file, and delete it, while it is read
+                Entry reading = Entry.placeholder();
+                if (resident.putIfAbsent(userId, reading) != null) {
+                    continue;
+                }
+                try {
+                    return spilled.contains(userId) ? readSpilled(userId, false) : null;
+                } finally {
+                    resident.remove(userId, reading);
+                    reading.account.complete(null);
+                }
+            }
+            UserAccount account = entry.account.join();
+            if (account != null) {
+                // Locked outside the map, whose bins a trade holding this lock may need
+                account.lock();
+                try {
+                    return AccountSnapshot.of(account).withoutHistory();
+                } finally {
+                    account.unlock();
+                }
+            }
+        }
+    }
+
+    /** Evicts accounts that have not been looked up for {@code expire-after-access-ms}. */
+    @Scheduled(fixedDelayString = "${crypto.accounts.expiry-check-ms:60000}")
+    public void expireIdle() {
+        if (expireAfterAccessMs <= 0) {
+            return;
+        }
+        long cutoff = System.currentTimeMillis() - expireAfterAccessMs;
+        evictionLock.lock();
+        try {
+            resident.forEach((userId, entry) -> {
+                if (entry.accessedAt < cutoff && entry.loaded() != null) {
+                    evict(userId, expirations);
+                }
+            });
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private void evictIfNeeded() {
+        // Whoever holds the lock is already making room, or a snapshot is running
+        if (resident.size() <= maxResident || !evictionLock.tryLock()) {
+            return;
+        }
+        try {
+            int skipped = 0;
+            while (resident.size() > maxResident && skipped < MAX_SKIPPED_VICTIMS) {
+                String victim;
+                policyLock.lock();
+                try {
+                    victim = policy.victim();
+                } finally {
+                    policyLock.unlock();
+                }
+                if (victim == null) {
+                    return;
+                }
+                if (!evict(victim, evictions)) {
+                    // Mid-trade, so hardly a good victim anyway
+                    skipped++;
+                    policyLock.lock();
+                    try {
+                        policy.recordAccess(victim);
+                    } finally {
+                        policyLock.unlock();
+                    }
+                }
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Spills and removes an account unless it is not resident or its lock is held. The
+     * caller holds the eviction lock, so only lookups, which never replace a resident
+     * entry, race with this.
+     */
+    private boolean evict(String userId, LongAdder counter) {
+        Entry entry = resident.get(userId);
+        UserAccount account = entry == null ? null : entry.loaded();
+        if (account == null || !account.tryLock()) {
+            return false;
+        }
+        try {
+            // Still resident while it is written; its lock keeps writers waiting, and once it
+            // is marked evicted they look it up again, which finds it spilled
+            writeSpilled(AccountSnapshot.of(account));
+            account.markEvicted();
+            spilled.add(userId);
+            resident.remove(userId, entry);
+        } catch (IOException e) {
+            logger.warn("Failed to evict account {}, keeping it in memory", userId, e);
+            return false;
+        } finally {
+            account.unlock();
+        }
+        policyLock.lock();
+        try {
+            policy.recordRemoval(userId);
+        } finally {
+            policyLock.unlock();
+        }
+        counter.increment();
+        return true;
+    }
+
+    private UserAccount load(String userId) {
+        AccountSnapshot snapshot = readSpilled(userId, true);
+        UserAccount account = new UserAccount(userId);
+        account.lock();
+        try {
+            snapshot.applyTo(account);
+        } finally {
+            account.unlock();
+        }
+        spilled.remove(userId);
+        try {
+            Files.deleteIfExists(spillFile(userId));
+        } catch (IOException e) {
+            // Overwritten when the account is next evicted
+            logger.debug("Could not delete spill file of {}", userId, e);
+        }
+        loads.increment();
+        return account;
+    }
+
+    private void writeSpilled(AccountSnapshot snapshot) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(spillFile(snapshot.state().userId()))))) {
+            snapshot.write(out);
+        }
+    }
+
+    private AccountSnapshot readSpilled(String userId, boolean withHistory) {
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(spillFile(userId))))) {
+            return withHistory ? AccountSnapshot.read(in) : AccountSnapshot.readState(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot load evicted account " + userId, e);
+        }
+    }
+
+    /** User ids can be any string, so files are named after a hash of them. */
+    private Path spillFile(String userId) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(userId.getBytes(StandardCharsets.UTF_8));
+            return directory.resolve(HexFormat.of().formatHex(hash) + SPILL_SUFFIX);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public AccountStoreStats stats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long lookups = hitCount + missCount;
+        return new AccountStoreStats(resident.size(), spilled.size(), maxResident, policyType, hitCount, missCount,
+                lookups == 0 ? 0 : (double) hitCount / lookups, loads.sum(), evictions.sum(), expirations.sum());
+    }
+}
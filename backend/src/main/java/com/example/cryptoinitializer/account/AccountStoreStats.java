@@ -0,0 +1,26 @@
+package com.example.cryptoinitializer.account;
+
+/**
+ * Counters of the {@link AccountStore} since startup.
+ *
+ * @param resident    accounts in memory
+ * @param spilled     accounts evicted to disk and not loaded since
+ * @param hits        lookups answered from memory
+ * @param misses      lookups that had to load, create or give up on an account
+ * @param hitRate     hits over all lookups, or 0 before the first one
+ * @param loads       accounts read back from disk
+ * @param evictions   accounts evicted to stay within {@code maxResident}
+ * @param expirations accounts evicted after sitting idle
+ */
+public record AccountStoreStats(
+        int resident,
+        int spilled,
+        int maxResident,
+        EvictionPolicy.Type policy,
+        long hits,
+        long misses,
+        double hitRate,
+        long loads,
+        long evictions,
+        long expirations) {
+}
@@ -0,0 +1,41 @@
+package com.example.cryptoinitializer.account;
+
+/**
+ * Decides which resident account to evict when the {@link AccountStore} is over capacity.
+ * The store tells the policy about every key it inserts and removes and about the accesses
+ * it manages to record, and asks for a victim when it needs room. Implementations are
+ * not thread-safe; the store calls them under its own lock.
+ */
+public interface EvictionPolicy {
+
+    void recordInsert(String key);
+
+    void recordAccess(String key);
+
+    void recordRemoval(String key);
+
+    /**
+     * The key that should go next, or null if the policy tracks none. The key stays
+     * tracked until {@link #recordRemoval} is called, so a victim that cannot be evicted
+     * right now can be passed over with {@link #recordAccess}.
+     */
+    String victim();
+
+    enum Type {
+        /** Least recently used. */
+        LRU,
+        /**
+         * Window TinyLFU: a small LRU window for new keys in front of a segmented LRU whose
+         * entries are only displaced by keys that have been used more often recently.
+         * Resists one-off scans, such as a crawler walking user ids, that flush plain LRU.
+         */
+        W_TINY_LFU;
+
+        public EvictionPolicy create(int capacity) {
+            return switch (this) {
+                case LRU -> new LruPolicy();
+                case W_TINY_LFU -> new WindowTinyLfuPolicy(capacity);
+            };
+        }
+    }
+}
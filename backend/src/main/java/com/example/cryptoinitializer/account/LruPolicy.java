@@ -0,0 +1,29 @@
+package com.example.cryptoinitializer.account;
+
+import java.util.LinkedHashMap;
+
+/** Evicts the least recently used key. */
+final class LruPolicy implements EvictionPolicy {
+    // Access order: iteration starts at the least recently used key
+    private final LinkedHashMap<String, Boolean> keys = new LinkedHashMap<>(16, 0.75f, true);
+
+    @Override
+    public void recordInsert(String key) {
+        keys.put(key, Boolean.TRUE);
+    }
+
+    @Override
+    public void recordAccess(String key) {
+        keys.get(key);
+    }
+
+    @Override
+    public void recordRemoval(String key) {
+        keys.remove(key);
+    }
+
+    @Override
+    public String victim() {
+        return keys.isEmpty() ? null : keys.firstEntry().getKey();
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.cryptoinitializer.account;
+
+import java.util.LinkedHashMap;
+
+/**
+ * Window TinyLFU. New keys enter a window LRU holding about 1% of the capacity; keys
+ * pushed out of the window join the probation segment of the main space, and a key used
+ * again while on probation moves to the protected segment (80% of the main space), whose
+ * own overflow drops back to probation. When room is needed, the newest arrival on
+ * probation competes with the oldest entry there and whichever the
+ * {@link FrequencySketch} has seen less often goes.
+ */
+final class WindowTinyLfuPolicy implements EvictionPolicy {
+    private final int windowCapacity;
+    private final int protectedCapacity;
+    private final FrequencySketch sketch;
+
+    // All access ordered, least recently used first
+    private final LinkedHashMap<String, Boolean> window = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<String, Boolean> probation = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<String, Boolean> protectedKeys = new LinkedHashMap<>(16, 0.75f, true);
+
+    WindowTinyLfuPolicy(int capacity) {
+        this.windowCapacity = Math.max(1, capacity / 100);
+        this.protectedCapacity = Math.max(0, capacity - windowCapacity) * 4 / 5;
+        this.sketch = new FrequencySketch(capacity);
+    }
+
+    @Override
+    public void recordInsert(String key) {
+        sketch.increment(key);
+        window.put(key, Boolean.TRUE);
+        if (window.size() > windowCapacity) {
+            String oldest = window.pollFirstEntry().getKey();
+            probation.put(oldest, Boolean.TRUE);
+        }
+    }
+
+    @Override
+    public void recordAccess(String key) {
+        sketch.increment(key);
+        if (window.get(key) != null || protectedKeys.get(key) != null) {
+            return;
+        }
+        if (probation.remove(key) != null) {
+            protectedKeys.put(key, Boolean.TRUE);
+            if (protectedKeys.size() > protectedCapacity) {
+                String demoted = protectedKeys.pollFirstEntry().getKey();
+                probation.put(demoted, Boolean.TRUE);
+            }
+        }
+    }
+
+    @Override
+    public void recordRemoval(String key) {
+        if (window.remove(key) == null && probation.remove(key) == null) {
+            protectedKeys.remove(key);
+        }
+    }
+
+    @Override
+    public String victim() {
+        if (probation.size() > 1) {
+            String oldest = probation.firstEntry().getKey();
+            String candidate = probation.lastEntry().getKey();
+            // Ties go against the newcomer, so a scan of one-off keys cannot flush the main space
+            return sketch.frequency(candidate) > sketch.frequency(oldest) ? oldest : candidate;
+        }
+        if (!probation.isEmpty()) {
+            return probation.firstEntry().getKey();
+        }
+        if (!protectedKeys.isEmpty()) {
+            return protectedKeys.firstEntry().getKey();
+        }
+        return window.isEmpty() ? null : window.firstEntry().getKey();
+    }
+}
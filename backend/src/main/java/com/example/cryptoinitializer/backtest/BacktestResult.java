@@ -0,0 +1,20 @@
+package com.example.cryptoinitializer.backtest;
+
+import java.util.List;
+
+/**
+ * The outcome of a {@link Backtester} run.
+ *
+ * @param ticks          ticks in the history
+ * @param accounts       simulated accounts over all scenarios
+ * @param simulatedTicks ticks times accounts, i.e. the ticks every account had to process
+ * @param elapsedNanos   wall-clock time of the run
+ */
+public record BacktestResult(int ticks, int accounts, long simulatedTicks, long elapsedNanos,
+                             List<ScenarioResult> scenarios) {
+
+    /** Simulated ticks per second of wall-clock time. */
+    public double ticksPerSecond() {
+        return elapsedNanos == 0 ? 0 : simulatedTicks * 1e9 / elapsedNanos;
+    }
+}
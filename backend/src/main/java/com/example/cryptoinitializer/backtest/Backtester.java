@@ -0,0 +1,234 @@
+package com.example.cryptoinitializer.backtest;
+
+import com.example.cryptoinitializer.model.CostBasisMethod;
+import com.example.cryptoinitializer.model.FixedPoint;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Replays a {@link TickHistory} to the simulated accounts of several {@link Scenario}s
+ * and reports, per scenario, an equity curve, returns and drawdowns.
+ *
+ * <p>Accounts do not affect each other or the prices, so the work is split by account
+ * rather than by time. A fork/join task halves its range of accounts until at most
+ * {@code batchSize} are left, then replays the whole history to those, keeping its own
+ * prices. A batch advances all its accounts tick by tick, which keeps the prices and the
+ * accounts in cache. Tasks share nothing but the immutable history, and their partial
+ * results are added up as they join, so the outcome does not depend on how the work was
+ * split. Live accounts are never touched.
+ */
+public final class Backtester {
+    public static final int DEFAULT_BATCH_SIZE = 64;
+    public static final int DEFAULT_CURVE_POINTS = 100;
+
+    private final CostBasisMethod costBasisMethod;
+    private final ForkJoinPool pool;
+    private final int batchSize;
+    private final int curvePoints;
+
+    /**
+     * @param pool        runs the replay; its parallelism is the number of cores used
+     * @param batchSize   accounts a task replays without splitting further
+     * @param curvePoints points per equity curve, evenly spaced by tick
+     */
+    public Backtester(CostBasisMethod costBasisMethod, ForkJoinPool pool, int batchSize, int curvePoints) {
+        if (batchSize < 1 || curvePoints < 1) {
+            throw new IllegalArgumentException("Batch size and curve points must be positive");
+        }
+        this.costBasisMethod = costBasisMethod;
+        this.pool = pool;
+        this.batchSize = batchSize;
+        this.curvePoints = curvePoints;
+    }
+
+    public Backtester(CostBasisMethod costBasisMethod) {
+        this(costBasisMethod, ForkJoinPool.commonPool(), DEFAULT_BATCH_SIZE, DEFAULT_CURVE_POINTS);
+    }
+
+    public BacktestResult run(TickHistory history, List<Scenario> scenarios) {
+        if (history.size() == 0) {
+            throw new IllegalArgumentException("The history has no ticks");
+        }
+        if (scenarios.isEmpty()) {
+            throw new IllegalArgumentException("Nothing to backtest without a scenario");
+        }
+        int[] firstAccount = new int[scenarios.size() + 1];
+        for (int i = 0; i < scenarios.size(); i++) {
+            firstAccount[i + 1] = Math.addExact(firstAccount[i], scenarios.get(i).accounts());
+        }
+        int accounts = firstAccount[scenarios.size()];
+        int points = Math.min(curvePoints, history.size());
+        int[] samples = new int[points];
+        for (int i = 0; i < points; i++) {
+            samples[i] = (int) ((long) (i + 1) * history.size() / points) - 1;
+        }
+
+        Run run = new Run(history, List.copyOf(scenarios), firstAccount, samples);
+        long start = System.nanoTime();
+        Partial total = pool.invoke(new Replay(run, 0, accounts));
+        long elapsed = System.nanoTime() - start;
+
+        List<ScenarioResult> results = new ArrayList<>(scenarios.size());
+        for (int i = 0; i < scenarios.size(); i++) {
+            results.add(total.toResult(i, run));
+        }
+        return new BacktestResult(history.size(), accounts, (long) history.size() * accounts, elapsed,
+                List.copyOf(results));
+    }
+
+    /** What every task of one run shares, none of it modified. */
+    private record Run(TickHistory history, List<Scenario> scenarios, int[] firstAccount, int[] samples) {
+
+        int scenarioOf(int account) {
+            int index = Arrays.binarySearch(firstAccount, account);
+            // Scenarios are never empty, so a hit is the first account of scenario index
+            return index >= 0 ? index : -index - 2;
+        }
+    }
+
+    /** Results of a range of accounts, per scenario; ranges are added up as tasks join. */
+    private static final class Partial {
+        final long[][] curve;
+        final long[] finalEquity;
+        final double[] worstReturn;
+        final double[] bestReturn;
+        // Summed as FixedPoint, so like equity the total does not depend on the order of joins
+        final long[] maxDrawdown;
+        final double[] worstMaxDrawdown;
+        final long[] trades;
+        final long[] rejected;
+
+        Partial(int scenarios, int points) {
+            curve = new long[scenarios][points];
+            finalEquity = new long[scenarios];
+            worstReturn = new double[scenarios];
+            bestReturn = new double[scenarios];
+            maxDrawdown = new long[scenarios];
+            worstMaxDrawdown = new double[scenarios];
+            trades = new long[scenarios];
+            rejected = new long[scenarios];
+            Arrays.fill(worstReturn, Double.POSITIVE_INFINITY);
+            Arrays.fill(bestReturn, Double.NEGATIVE_INFINITY);
+        }
+
+        void add(int scenario, SimulatedAccount account, long initialBalance) {
+            double accountReturn = (double) account.equity() / initialBalance - 1;
+            finalEquity[scenario] = Math.addExact(finalEquity[scenario], account.equity());
+            worstReturn[scenario] = Math.min(worstReturn[scenario], accountReturn);
+            bestReturn[scenario] = Math.max(bestReturn[scenario], accountReturn);
+            maxDrawdown[scenario] = Math.addExact(maxDrawdown[scenario],
+                    Math.round(account.maxDrawdown() * FixedPoint.SCALE));
+            worstMaxDrawdown[scenario] = Math.max(worstMaxDrawdown[scenario], account.maxDrawdown());
+            trades[scenario] += account.trades();
+            rejected[scenario] += account.rejected();
+        }
+
+        Partial merge(Partial other) {
+            for (int s = 0; s < curve.length; s++) {
+                for (int p = 0; p < curve[s].length; p++) {
+                    curve[s][p] = Math.addExact(curve[s][p], other.curve[s][p]);
+                }
+                finalEquity[s] = Math.addExact(finalEquity[s], other.finalEquity[s]);
+                worstReturn[s] = Math.min(worstReturn[s], other.worstReturn[s]);
+                bestReturn[s] = Math.max(bestReturn[s], other.bestReturn[s]);
+                maxDrawdown[s] = Math.addExact(maxDrawdown[s], other.maxDrawdown[s]);
+                worstMaxDrawdown[s] = Math.max(worstMaxDrawdown[s], other.worstMaxDrawdown[s]);
+                trades[s] += other.trades[s];
+                rejected[s] += other.rejected[s];
+            }
+            return this;
+        }
+
+        ScenarioResult toResult(int s, Run run) {
+            Scenario scenario = run.scenarios().get(s);
+            int accounts = scenario.accounts();
+            List<EquityPoint> points = new ArrayList<>(curve[s].length);
+            long peak = scenario.initialBalance();
+            for (int p = 0; p < curve[s].length; p++) {
+                long equity = curve[s][p] / accounts;
+                peak = Math.max(peak, equity);
+                points.add(new EquityPoint(run.history().timeAt(run.samples()[p]), equity,
+                        peak > 0 ? (double) (peak - equity) / peak : 0));
+            }
+            long averageFinal = finalEquity[s] / accounts;
+            return new ScenarioResult(scenario.name(), accounts, scenario.initialBalance(), averageFinal,
+                    (double) averageFinal / scenario.initialBalance() - 1, worstReturn[s], bestReturn[s],
+                    (double) maxDrawdown[s] / FixedPoint.SCALE / accounts, worstMaxDrawdown[s], trades[s], rejected[s], List.copyOf(points));
+        }
+    }
+
+    /** Replays the history to the accounts {@code [from, to)}, numbered across all scenarios. */
+    private final class Replay extends RecursiveTask<Partial> {
+        private final Run run;
+        private final int from;
+        private final int to;
+
+        Replay(Run run, int from, int to) {
+            this.run = run;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Partial compute() {
+            if (to - from <= batchSize) {
+                return replay();
+            }
+            int middle = (from + to) >>> 1;
+            Replay left = new Replay(run, from, middle);
+            left.fork();
+            Partial right = new Replay(run, middle, to).compute();
+            return left.join().merge(right);
+        }
+
+        private Partial replay() {
+            TickHistory history = run.history();
+            long[] prices = new long[history.symbols().size()];
+            int count = to - from;
+            SimulatedAccount[] accounts = new SimulatedAccount[count];
+            Strategy[] strategies = new Strategy[count];
+            int[] scenarioOf = new int[count];
+            for (int i = 0; i < count; i++) {
+                int scenarioIndex = run.scenarioOf(from + i);
+                Scenario scenario = run.scenarios().get(scenarioIndex);
+                int index = from + i - run.firstAccount()[scenarioIndex];
+                scenarioOf[i] = scenarioIndex;
+                accounts[i] = new SimulatedAccount(scenario.name() + "-" + index, scenario.initialBalance(),
+                        history, prices, costBasisMethod);
+                strategies[i] = scenario.strategies().apply(index);
+            }
+
+            Partial partial = new Partial(run.scenarios().size(), run.samples().length);
+            int[] samples = run.samples();
+            int nextSample = 0;
+            for (int tick = 0; tick < history.size(); tick++) {
+                int symbol = history.symbolAt(tick);
+                long price = history.priceAt(tick);
+                prices[symbol] = price;
+                for (int i = 0; i < count; i++) {
+                    SimulatedAccount account = accounts[i];
+                    if (account.holding(symbol) != 0) {
+                        account.mark(symbol);
+                    }
+                    strategies[i].onTick(account, symbol, price);
+                }
+                if (tick == samples[nextSample]) {
+                    long[][] curve = partial.curve;
+                    for (int i = 0; i < count; i++) {
+                        curve[scenarioOf[i]][nextSample] = Math.addExact(curve[scenarioOf[i]][nextSample],
+                                accounts[i].equity());
+                    }
+                    nextSample++;
+                }
+            }
+            for (int i = 0; i < count; i++) {
+                partial.add(scenarioOf[i], accounts[i], run.scenarios().get(scenarioOf[i]).initialBalance());
+            }
+            return partial;
+        }
+    }
+}
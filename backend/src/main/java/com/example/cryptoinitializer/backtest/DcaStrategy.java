@@ -0,0 +1,34 @@
+package com.example.cryptoinitializer.backtest;
+
+/**
+ * Dollar-cost averaging: buys {@code amount} worth of one pair on every {@code every}-th
+ * tick of it, or what is left of the cash once that is less, and never sells.
+ */
+public final class DcaStrategy implements Strategy {
+    private final int symbol;
+    private final long amount;
+    private final int every;
+    private int ticks;
+
+    /**
+     * @param symbol the pair to buy, as an index into the history's symbols
+     * @param amount cash to spend per buy, a {@link com.example.cryptoinitializer.model.FixedPoint} value
+     * @param every  ticks of the pair between buys
+     */
+    public DcaStrategy(int symbol, long amount, int every) {
+        if (amount <= 0 || every < 1) {
+            throw new IllegalArgumentException("DCA needs a positive amount and interval");
+        }
+        this.symbol = symbol;
+        this.amount = amount;
+        this.every = every;
+    }
+
+    @Override
+    public void onTick(SimulatedAccount account, int symbol, long price) {
+        if (symbol != this.symbol || ++ticks % every != 0) {
+            return;
+        }
+        account.buyFor(symbol, Math.min(amount, account.balance()));
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.cryptoinitializer.backtest;
+
+import com.example.cryptoinitializer.model.FixedPointSerializer;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+/**
+ * A point of a scenario's equity curve.
+ *
+ * @param epochMicros time of the tick the point was taken at
+ * @param equity      average equity of the scenario's accounts
+ * @param drawdown    how far {@code equity} is below the curve's highest point so far, as
+ *                    a fraction of that high
+ */
+public record EquityPoint(long epochMicros,
+                          @JsonSerialize(using = FixedPointSerializer.class) long equity,
+                          double drawdown) {
+}
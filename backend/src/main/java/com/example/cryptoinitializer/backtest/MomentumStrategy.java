@@ -0,0 +1,53 @@
+package com.example.cryptoinitializer.backtest;
+
+/**
+ * Trend following on one pair: keeps an exponential moving average of its price, buys
+ * with {@code fraction} of the cash once the price rises more than {@code band} above the
+ * average and sells everything once it falls more than {@code band} below it. Waits for
+ * {@code warmup} ticks of the pair before trading, so the average means something.
+ */
+public final class MomentumStrategy implements Strategy {
+    private final int symbol;
+    private final double alpha;
+    private final double band;
+    private final double fraction;
+    private final int warmup;
+    private double average;
+    private int ticks;
+
+    /**
+     * @param symbol   the pair to trade, as an index into the history's symbols
+     * @param period   ticks the moving average roughly spans
+     * @param band     distance from the average, as a fraction of it, that signals a trend
+     * @param fraction share of the cash to buy with
+     */
+    public MomentumStrategy(int symbol, int period, double band, double fraction) {
+        if (period < 1 || band < 0 || fraction <= 0 || fraction > 1) {
+            throw new IllegalArgumentException("Momentum needs a period of at least 1, a band of at least 0 "
+                    + "and a fraction of the cash between 0 and 1");
+        }
+        this.symbol = symbol;
+        this.alpha = 2.0 / (period + 1);
+        this.band = band;
+        this.fraction = fraction;
+        this.warmup = period;
+    }
+
+    @Override
+    public void onTick(SimulatedAccount account, int symbol, long price) {
+        if (symbol != this.symbol) {
+            return;
+        }
+        average = ticks++ == 0 ? price : average + alpha * (price - average);
+        if (ticks < warmup) {
+            return;
+        }
+        if (account.holding(symbol) == 0) {
+            if (price > average * (1 + band)) {
+                account.buyFor(symbol, (long) (account.balance() * fraction));
+            }
+        } else if (price < average * (1 - band)) {
+            account.sellAll(symbol);
+        }
+    }
+}
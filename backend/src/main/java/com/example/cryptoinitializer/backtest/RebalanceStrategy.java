@@ -0,0 +1,92 @@
+package com.example.cryptoinitializer.backtest;
+
+import com.example.cryptoinitializer.model.FixedPoint;
+
+import java.math.RoundingMode;
+
+/**
+ * Threshold rebalancing: holds each pair at a target share of equity, with the rest in
+ * cash. Once every target pair is quoted, and again whenever any share has drifted more
+ * than {@code threshold} from its target, it trades all of them back to target, selling
+ * first so the sales pay for the buys.
+ */
+public final class RebalanceStrategy implements Strategy {
+    private final double[] targets;
+    private final double threshold;
+    private boolean quoted;
+
+    /**
+     * @param targets   share of equity per pair, indexed like the history's symbols; 0 for
+     *                  pairs not held. Must not add up to more than 1.
+     * @param threshold drift from a target, as a share of equity, that triggers a rebalance
+     */
+    public RebalanceStrategy(double[] targets, double threshold) {
+        double total = 0;
+        for (double target : targets) {
+            if (target < 0) {
+                throw new IllegalArgumentException("Targets must not be negative");
+            }
+            total += target;
+        }
+        if (total > 1 + 1e-9) {
+            throw new IllegalArgumentException("Targets add up to more than the whole account");
+        }
+        if (threshold <= 0) {
+            throw new IllegalArgumentException("The threshold must be positive");
+        }
+        this.targets = targets.clone();
+        this.threshold = threshold;
+    }
+
+    @Override
+    public void onTick(SimulatedAccount account, int symbol, long price) {
+        if (symbol >= targets.length || targets[symbol] == 0 && account.holding(symbol) == 0) {
+            return;
+        }
+        if (!quoted) {
+            for (int i = 0; i < targets.length; i++) {
+                if (targets[i] > 0 && account.price(i) == 0) {
+                    return;
+                }
+            }
+            quoted = true;
+            rebalance(account);
+        } else if (drifted(account)) {
+            rebalance(account);
+        }
+    }
+
+    private boolean drifted(SimulatedAccount account) {
+        double equity = account.equity();
+        for (int i = 0; i < targets.length; i++) {
+            if (Math.abs(account.value(i) / equity - targets[i]) > threshold) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void rebalance(SimulatedAccount account) {
+        long equity = account.equity();
+        for (int i = 0; i < targets.length; i++) {
+            long excess = account.value(i) - target(equity, i);
+            if (excess > 0) {
+                long quantity = Math.min(account.holding(i),
+                        FixedPoint.divide(excess, account.price(i), RoundingMode.DOWN));
+                if (quantity > 0) {
+                    account.sell(i, quantity);
+                }
+            }
+        }
+        for (int i = 0; i < targets.length; i++) {
+            long shortfall = target(equity, i) - account.value(i);
+            if (shortfall > 0) {
+                account.buyFor(i, Math.min(shortfall, account.balance()));
+            }
+        }
+    }
+
+    private long target(long equity, int symbol) {
+        return (long) (equity * targets[symbol]);
+    }
+}
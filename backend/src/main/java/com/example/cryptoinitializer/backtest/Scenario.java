@@ -0,0 +1,25 @@
+package com.example.cryptoinitializer.backtest;
+
+import java.util.function.IntFunction;
+
+/**
+ * A group of simulated accounts trading the same way: {@code accounts} accounts that
+ * start with {@code initialBalance} of cash, a {@link
+ * com.example.cryptoinitializer.model.FixedPoint} value, and each trade by the strategy
+ * {@code strategies} returns for its index. The index lets accounts of one scenario vary
+ * their parameters.
+ */
+public record Scenario(String name, int accounts, long initialBalance, IntFunction<Strategy> strategies) {
+
+    public Scenario {
+        if (name == null || name.isBlank()) {
+            throw new IllegalArgumentException("A scenario needs a name");
+        }
+        if (accounts < 1) {
+            throw new IllegalArgumentException("Scenario " + name + " needs at least one account");
+        }
+        if (initialBalance <= 0) {
+            throw new IllegalArgumentException("Scenario " + name + " needs a positive initial balance");
+        }
+    }
+}
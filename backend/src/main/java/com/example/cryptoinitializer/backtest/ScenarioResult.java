@@ -0,0 +1,31 @@
+package com.example.cryptoinitializer.backtest;
+
+import com.example.cryptoinitializer.model.FixedPointSerializer;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.util.List;
+
+/**
+ * How the accounts of one {@link Scenario} fared. Returns and drawdowns are fractions,
+ * e.g. -0.25 for a quarter lost.
+ *
+ * @param averageReturn      return of the average final equity
+ * @param worstReturn        return of the account that did worst
+ * @param bestReturn         return of the account that did best
+ * @param averageMaxDrawdown deepest drawdown of each account, averaged
+ * @param worstMaxDrawdown   deepest drawdown of any account
+ * @param equityCurve        average equity over time, ending with the last tick
+ */
+public record ScenarioResult(String name,
+                             int accounts,
+                             @JsonSerialize(using = FixedPointSerializer.class) long initialBalance,
+                             @JsonSerialize(using = FixedPointSerializer.class) long averageFinalEquity,
+                             double averageReturn,
+                             double worstReturn,
+                             double bestReturn,
+                             double averageMaxDrawdown,
+                             double worstMaxDrawdown,
+                             long trades,
+                             long rejected,
+                             List<EquityPoint> equityCurve) {
+}
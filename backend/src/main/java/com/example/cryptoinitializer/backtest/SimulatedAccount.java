@@ -0,0 +1,157 @@
+package com.example.cryptoinitializer.backtest;
+
+import com.example.cryptoinitializer.model.AccountState;
+import com.example.cryptoinitializer.model.CostBasisMethod;
+import com.example.cryptoinitializer.model.FixedPoint;
+import com.example.cryptoinitializer.service.UserService;
+import com.example.cryptoinitializer.trade.TradeRejectedException;
+
+import java.math.RoundingMode;
+
+/**
+ * An account that only exists for a backtest. Trades go through the same rules as live
+ * ones ({@link UserService#buy} and {@link UserService#sell}), at the latest price of the
+ * history, but are neither journaled nor seen by any live account. Alongside its
+ * {@link AccountState} it keeps every position marked at the latest price, like the
+ * portfolio valuation does, so its equity is current after every tick at the cost of one
+ * multiplication, and its deepest drawdown is tracked tick by tick.
+ *
+ * <p>Amounts are {@link FixedPoint} values and pairs are indexes into the history's
+ * symbols. Used by one thread at a time.
+ */
+public final class SimulatedAccount {
+    private final TickHistory history;
+    // The latest price per pair, shared with the other accounts replayed on the same thread
+    private final long[] prices;
+    private final CostBasisMethod costBasisMethod;
+    private final long[] quantities;
+    private final long[] values;
+    private AccountState state;
+    private long marketValue;
+    private long peak;
+    private double maxDrawdown;
+    private int trades;
+    private int rejected;
+
+    SimulatedAccount(String id, long balance, TickHistory history, long[] prices, CostBasisMethod costBasisMethod) {
+        this.history = history;
+        this.prices = prices;
+        this.costBasisMethod = costBasisMethod;
+        this.quantities = new long[history.symbols().size()];
+        this.values = new long[quantities.length];
+        this.state = AccountState.initial(id, balance);
+        this.peak = balance;
+    }
+
+    public TickHistory history() {
+        return history;
+    }
+
+    public AccountState state() {
+        return state;
+    }
+
+    /** The latest price of {@code symbol}, 0 if it has not ticked yet. */
+    public long price(int symbol) {
+        return prices[symbol];
+    }
+
+    public long balance() {
+        return state.balance();
+    }
+
+    public long holding(int symbol) {
+        return quantities[symbol];
+    }
+
+    /** The holding in {@code symbol} at its latest price. */
+    public long value(int symbol) {
+        return values[symbol];
+    }
+
+    /** Cash plus every holding at its latest price. */
+    public long equity() {
+        return state.balance() + marketValue;
+    }
+
+    /** The largest fall from a previous high of {@link #equity()}, as a fraction of that high. */
+    public double maxDrawdown() {
+        return maxDrawdown;
+    }
+
+    public int trades() {
+        return trades;
+    }
+
+    public int rejected() {
+        return rejected;
+    }
+
+    /** Buys {@code quantity} of {@code symbol} at its latest price; false if the trade was rejected. */
+    public boolean buy(int symbol, long quantity) {
+        return trade(true, symbol, quantity);
+    }
+
+    /** Sells {@code quantity} of {@code symbol} at its latest price; false if the trade was rejected. */
+    public boolean sell(int symbol, long quantity) {
+        return trade(false, symbol, quantity);
+    }
+
+    /**
+     * Buys as much of {@code symbol} as {@code amount} of cash pays for, rounding the
+     * quantity down. False if that is nothing or the trade was rejected.
+     */
+    public boolean buyFor(int symbol, long amount) {
+        long price = prices[symbol];
+        if (price <= 0 || amount <= 0) {
+            return false;
+        }
+        long quantity = FixedPoint.divide(amount, price, RoundingMode.DOWN);
+        // Costs round up, which can take the last unit over the amount
+        if (quantity > 0 && FixedPoint.multiply(price, quantity, RoundingMode.UP) > amount) {
+            quantity--;
+        }
+        return quantity > 0 && buy(symbol, quantity);
+    }
+
+    /** Sells the whole holding in {@code symbol}; false if there is none or the trade was rejected. */
+    public boolean sellAll(int symbol) {
+        return quantities[symbol] > 0 && sell(symbol, quantities[symbol]);
+    }
+
+    private boolean trade(boolean buy, int symbol, long quantity) {
+        long price = prices[symbol];
+        if (price <= 0) {
+            // Not quoted yet, which live trading rejects as an unknown symbol
+            rejected++;
+            return false;
+        }
+        String pair = history.symbol(symbol);
+        try {
+            state = buy
+                    ? UserService.buy(state, pair, quantity, price, costBasisMethod)
+                    : UserService.sell(state, pair, quantity, price, costBasisMethod);
+        } catch (TradeRejectedException e) {
+            rejected++;
+            return false;
+        }
+        trades++;
+        quantities[symbol] = state.holding(pair);
+        mark(symbol);
+        return true;
+    }
+
+    /** Marks the holding in {@code symbol} at its latest price, then updates the drawdown. */
+    void mark(int symbol) {
+        long value = FixedPoint.multiply(quantities[symbol], prices[symbol], RoundingMode.HALF_UP);
+        marketValue += value - values[symbol];
+        values[symbol] = value;
+
+        long equity = equity();
+        if (equity > peak) {
+            peak = equity;
+        } else if (peak > 0) {
+            maxDrawdown = Math.max(maxDrawdown, (double) (peak - equity) / peak);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.cryptoinitializer.backtest;
+
+/**
+ * The trading rules of one simulated account. Told about every tick of the history in
+ * order, once the account has been marked at the new price, and trades through the
+ * account. Each account has an instance of its own, which can keep whatever state it
+ * needs without synchronization.
+ */
+@FunctionalInterface
+public interface Strategy {
+
+    /**
+     * Called for every tick.
+     *
+     * @param symbol the pair that ticked, as an index into the history's symbols
+     * @param price  its new price
+     */
+    void onTick(SimulatedAccount account, int symbol, long price);
+}
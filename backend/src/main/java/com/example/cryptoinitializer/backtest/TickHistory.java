@@ -0,0 +1,161 @@
+package com.example.cryptoinitializer.backtest;
+
+import com.example.cryptoinitializer.feed.KrakenTickerDecoder;
+import com.example.cryptoinitializer.feed.ReplayFeedSource;
+import com.example.cryptoinitializer.feed.TickerState;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A market history as a sequence of price changes: for every tick the pair, as an index
+ * into {@link #symbols()}, its new price and its time in epoch microseconds. Held in
+ * parallel primitive arrays, so replaying it allocates nothing and any number of threads
+ * can share one copy. Immutable.
+ */
+public final class TickHistory {
+    private final List<String> symbols;
+    private final int[] symbolIndexes;
+    private final long[] prices;
+    private final long[] times;
+
+    private TickHistory(List<String> symbols, int[] symbolIndexes, long[] prices, long[] times) {
+        this.symbols = symbols;
+        this.symbolIndexes = symbolIndexes;
+        this.prices = prices;
+        this.times = times;
+    }
+
+    /**
+     * Reads a recording in the format {@link ReplayFeedSource} replays, keeping the pairs
+     * in {@code symbols}. Frames are decoded the way the live feed decodes them, and as
+     * there, a pair ticks when its ask changes.
+     */
+    public static TickHistory load(Path recording, Collection<String> symbols) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(recording, StandardCharsets.UTF_8)) {
+            return decode(reader.lines().toList(), symbols);
+        }
+    }
+
+    /** Same as {@link #load}, for the lines of a recording already in memory. */
+    public static TickHistory decode(List<String> lines, Collection<String> symbols) throws IOException {
+        KrakenTickerDecoder decoder = new KrakenTickerDecoder(new ObjectMapper(), symbols);
+        Builder builder = new Builder();
+        long untimedMicros = 0;
+        for (String line : lines) {
+            if (line.isBlank()) {
+                continue;
+            }
+            ReplayFeedSource.RecordedLine recorded = ReplayFeedSource.RecordedLine.parse(line);
+            long micros = recorded.epochMicros();
+            if (micros < 0) {
+                micros = untimedMicros;
+                untimedMicros += TimeUnit.MILLISECONDS.toMicros(ReplayFeedSource.UNTIMED_INTERVAL_MS);
+            }
+            if (decoder.decode(recorded.frame()) != KrakenTickerDecoder.FrameKind.TICKER) {
+                continue;
+            }
+            for (int i = 0; i < decoder.getUpdatedCount(); i++) {
+                TickerState ticker = decoder.getUpdated(i);
+                if (ticker.isAskChanged()) {
+                    builder.add(micros, ticker.getSymbol(), ticker.getAsk());
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /** Number of ticks. */
+    public int size() {
+        return prices.length;
+    }
+
+    /** The pairs, in the order they first ticked. */
+    public List<String> symbols() {
+        return symbols;
+    }
+
+    public String symbol(int index) {
+        return symbols.get(index);
+    }
+
+    /** The index of {@code symbol}, -1 if it never ticks. */
+    public int indexOf(String symbol) {
+        return symbols.indexOf(symbol);
+    }
+
+    /** The pair of the tick at {@code tick}, as an index into {@link #symbols()}. */
+    public int symbolAt(int tick) {
+        return symbolIndexes[tick];
+    }
+
+    public long priceAt(int tick) {
+        return prices[tick];
+    }
+
+    public long timeAt(int tick) {
+        return times[tick];
+    }
+
+    /** Collects ticks in time order. */
+    public static final class Builder {
+        private final List<String> symbols = new ArrayList<>();
+        private final Map<String, Integer> indexes = new HashMap<>();
+        private int[] symbolIndexes = new int[1024];
+        private long[] prices = new long[1024];
+        private long[] times = new long[1024];
+        private int size;
+
+        private Builder() {
+        }
+
+        /**
+         * Adds a tick of {@code symbol} to {@code price}, a {@link
+         * com.example.cryptoinitializer.model.FixedPoint} value.
+         *
+         * @throws IllegalArgumentException if the price is not positive or the tick is
+         *                                  older than the one before
+         */
+        public Builder add(long epochMicros, String symbol, long price) {
+            if (price <= 0) {
+                throw new IllegalArgumentException("Price of " + symbol + " must be positive");
+            }
+            if (size > 0 && epochMicros < times[size - 1]) {
+                throw new IllegalArgumentException("Ticks must be added in time order");
+            }
+            if (size == prices.length) {
+                symbolIndexes = Arrays.copyOf(symbolIndexes, size * 2);
+                prices = Arrays.copyOf(prices, size * 2);
+                times = Arrays.copyOf(times, size * 2);
+            }
+            symbolIndexes[size] = indexes.computeIfAbsent(symbol, s -> {
+                symbols.add(s);
+                return symbols.size() - 1;
+            });
+            prices[size] = price;
+            times[size] = epochMicros;
+            size++;
+            return this;
+        }
+
+        public TickHistory build() {
+            return new TickHistory(List.copyOf(symbols), Arrays.copyOf(symbolIndexes, size),
+                    Arrays.copyOf(prices, size), Arrays.copyOf(times, size));
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.cryptoinitializer.candle;
+
+import com.example.cryptoinitializer.model.FixedPointSerializer;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+/**
+ * One OHLCV candle. Prices are asks. {@code volume} is the growth of the 24-hour volume
+ * Kraken reports over the candle, an approximation of what traded in it, since the ticker
+ * carries no per-trade sizes.
+ *
+ * @param time  start of the candle, epoch millis
+ * @param ticks number of ticks folded into the candle
+ */
+public record Candle(long time,
+                     @JsonSerialize(using = FixedPointSerializer.class) long open,
+                     @JsonSerialize(using = FixedPointSerializer.class) long high,
+                     @JsonSerialize(using = FixedPointSerializer.class) long low,
+                     @JsonSerialize(using = FixedPointSerializer.class) long close,
+                     @JsonSerialize(using = FixedPointSerializer.class) long volume,
+                     long ticks) {
+}
@@ -0,0 +1,117 @@
+package com.example.cryptoinitializer.candle;
+
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Candles of every interval for one symbol.
+ *
+ * <p>Ticks only touch the finest series. When a candle closes it is folded into the next
+ * interval up, which closes its own candle in turn at its boundary, so each level is
+ * derived from the one below and the raw ticks are never read twice. The newest candle
+ * of each level is therefore still missing from the levels above; queries merge those
+ * open candles in, so the latest candle of any interval is always current.
+ *
+ * <p>There is a single writer. Readers copy what they need under a sequence lock and try
+ * again if a tick landed meanwhile, so recording never waits and never allocates.
+ */
+final class CandleBook {
+    private final CandleSeries[] levels;
+    private volatile long version; // Odd while the writer is updating
+    private long lastVolume = -1;
+
+    CandleBook() {
+        CandleInterval[] intervals = CandleInterval.values();
+        levels = new CandleSeries[intervals.length];
+        for (int i = 0; i < intervals.length; i++) {
+            levels[i] = new CandleSeries(intervals[i]);
+        }
+    }
+
+    /**
+     * Records a tick. {@code volume24h} is the 24-hour volume the tick reported, or -1 if
+     * it reported none. Writer thread only.
+     */
+    void record(long time, long price, long volume24h) {
+        long traded = lastVolume >= 0 && volume24h > lastVolume ? volume24h - lastVolume : 0;
+        if (volume24h >= 0) {
+            lastVolume = volume24h;
+        }
+        version++;
+        // Keeps the candle writes below from becoming visible before the odd version
+        VarHandle.storeStoreFence();
+        merge(0, time, price, price, price, price, traded, 1);
+        version++;
+    }
+
+    private void merge(int level, long time, long open, long high, long low, long close, long volume, long ticks) {
+        CandleSeries series = levels[level];
+        if (series.merge(time, open, high, low, close, volume, ticks) && level + 1 < levels.length) {
+            // The candle before the one just started has closed
+            int closed = series.slotOf(series.size() - 2);
+            merge(level + 1, series.time(closed), series.open(closed), series.high(closed), series.low(closed),
+                    series.close(closed), series.volume(closed), series.ticks(closed));
+        }
+    }
+
+    /**
+     * Up to the {@code limit} newest candles of {@code interval} overlapping
+     * {@code [from, to]} (epoch millis), oldest first.
+     */
+    List<Candle> query(CandleInterval interval, long from, long to, int limit) {
+        while (true) {
+            long before = version;
+            if ((before & 1) == 0) {
+                try {
+                    List<Candle> candles = read(interval, from, to, limit);
+                    VarHandle.acquireFence();
+                    if (version == before) {
+                        return candles;
+                    }
+                } catch (IndexOutOfBoundsException e) {
+                    // Read a half-written state, try again
+                }
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    private List<Candle> read(CandleInterval interval, long from, long to, int limit) {
+        // The bucket of an open range would overflow
+        long first = from == Long.MIN_VALUE ? from : interval.bucket(from);
+        CandleSeries series = levels[interval.ordinal()];
+        int end = to == Long.MAX_VALUE ? series.size() : series.lowerBound(to + 1);
+        int start = Math.max(series.lowerBound(first), end - limit);
+
+        List<Candle> candles = new ArrayList<>(end - start + 1);
+        for (int i = start; i < end; i++) {
+            int slot = series.slotOf(i);
+            candles.add(new Candle(series.time(slot), series.open(slot), series.high(slot), series.low(slot),
+                    series.close(slot), series.volume(slot), series.ticks(slot)));
+        }
+
+        // Open candles of the finer levels, from the oldest to the newest
+        for (int level = interval.ordinal() - 1; level >= 0; level--) {
+            CandleSeries finer = levels[level];
+            if (finer.size() == 0) {
+                continue;
+            }
+            int slot = finer.slotOf(finer.size() - 1);
+            long bucket = interval.bucket(finer.time(slot));
+            if (bucket < first || bucket > to) {
+                continue;
+            }
+            Candle last = candles.isEmpty() ? null : candles.get(candles.size() - 1);
+            if (last != null && last.time() == bucket) {
+                candles.set(candles.size() - 1, new Candle(bucket, last.open(),
+                        Math.max(last.high(), finer.high(slot)), Math.min(last.low(), finer.low(slot)),
+                        finer.close(slot), last.volume() + finer.volume(slot), last.ticks() + finer.ticks(slot)));
+            } else if (last == null || last.time() < bucket) {
+                candles.add(new Candle(bucket, finer.open(slot), finer.high(slot), finer.low(slot),
+                        finer.close(slot), finer.volume(slot), finer.ticks(slot)));
+            }
+        }
+        return candles.size() > limit ? candles.subList(candles.size() - limit, candles.size()) : candles;
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.cryptoinitializer.candle;
+
+/**
+ * Candle widths, finest first. Every interval but the first is built from closed candles
+ * of the one before it, and keeps a fixed number of candles.
+ */
+public enum CandleInterval {
+    SECOND_1("1s", 1_000L, 3_600),         // 1 hour
+    MINUTE_1("1m", 60_000L, 1_440),        // 1 day
+    MINUTE_5("5m", 300_000L, 2_016),       // 1 week
+    HOUR_1("1h", 3_600_000L, 720),         // 30 days
+    DAY_1("1d", 86_400_000L, 365);         // 1 year
+
+    private final String label;
+    private final long millis;
+    private final int capacity;
+
+    CandleInterval(String label, long millis, int capacity) {
+        this.label = label;
+        this.millis = millis;
+        this.capacity = capacity;
+    }
+
+    public String label() { return label; }
+
+    public long millis() { return millis; }
+
+    /** How many candles are kept; older ones are overwritten. */
+    public int capacity() { return capacity; }
+
+    /** Start of the candle that {@code epochMillis} falls in. */
+    public long bucket(long epochMillis) {
+        return Math.floorDiv(epochMillis, millis) * millis;
+    }
+
+    public static CandleInterval parse(String label) {
+        for (CandleInterval interval : values()) {
+            if (interval.label.equals(label)) {
+                return interval;
+            }
+        }
+        throw new IllegalArgumentException("Unknown candle interval: " + label + ", expected 1s, 1m, 5m, 1h or 1d");
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.cryptoinitializer.candle;
+
+/**
+ * Fixed-size ring of candles of one interval, stored column by column in primitive
+ * arrays. Candles are kept in time order; once the ring is full the oldest is
+ * overwritten. Not thread-safe: {@link CandleBook} guards it.
+ */
+final class CandleSeries {
+    final CandleInterval interval;
+
+    private final long[] times;
+    private final long[] opens;
+    private final long[] highs;
+    private final long[] lows;
+    private final long[] closes;
+    private final long[] volumes;
+    private final long[] ticks;
+    private long count; // Candles ever started
+
+    CandleSeries(CandleInterval interval) {
+        this.interval = interval;
+        int capacity = interval.capacity();
+        this.times = new long[capacity];
+        this.opens = new long[capacity];
+        this.highs = new long[capacity];
+        this.lows = new long[capacity];
+        this.closes = new long[capacity];
+        this.volumes = new long[capacity];
+        this.ticks = new long[capacity];
+    }
+
+    /**
+     * Folds a tick or a finer candle starting at {@code time} into the candle it falls in.
+     * Returns true if that started a new candle, closing the previous one. Time never moves
+     * backwards here: anything older than the newest candle is folded into it.
+     */
+    boolean merge(long time, long open, long high, long low, long close, long volume, long tickCount) {
+        long bucket = interval.bucket(time);
+        if (count > 0) {
+            int newest = slot(count - 1);
+            if (bucket <= times[newest]) {
+                highs[newest] = Math.max(highs[newest], high);
+                lows[newest] = Math.min(lows[newest], low);
+                closes[newest] = close;
+                volumes[newest] += volume;
+                ticks[newest] += tickCount;
+                return false;
+            }
+        }
+        int slot = slot(count);
+        times[slot] = bucket;
+        opens[slot] = open;
+        highs[slot] = high;
+        lows[slot] = low;
+        closes[slot] = close;
+        volumes[slot] = volume;
+        ticks[slot] = tickCount;
+        count++;
+        return count > 1;
+    }
+
+    /** Number of candles held, at most the interval's capacity. */
+    int size() {
+        return (int) Math.min(count, times.length);
+    }
+
+    /** Ring slot of the {@code index}-th held candle, oldest first. */
+    int slotOf(int index) {
+        return slot(count - size() + index);
+    }
+
+    /** Index of the first held candle starting at or after {@code time}; {@link #size()} if none. */
+    int lowerBound(long time) {
+        int low = 0;
+        int high = size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (times[slotOf(mid)] < time) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    long time(int slot) { return times[slot]; }
+    long open(int slot) { return opens[slot]; }
+    long high(int slot) { return highs[slot]; }
+    long low(int slot) { return lows[slot]; }
+    long close(int slot) { return closes[slot]; }
+    long volume(int slot) { return volumes[slot]; }
+    long ticks(int slot) { return ticks[slot]; }
+
+    private int slot(long position) {
+        return (int) (position % times.length);
+    }
+}
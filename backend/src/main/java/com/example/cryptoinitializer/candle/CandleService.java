@@ -0,0 +1,74 @@
+package com.example.cryptoinitializer.candle;
+
+import com.example.cryptoinitializer.feed.TickerState;
+import com.example.cryptoinitializer.service.CryptoDataService;
+import com.example.cryptoinitializer.service.TickListener;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Builds OHLCV candles from the tick stream and serves them. Memory is bounded: each
+ * symbol gets a {@link CandleBook} of fixed-size rings, allocated on its first tick.
+ *
+ * <p>Ticks arrive after conflation, so a move that was reversed within one pipeline batch
+ * can be missing from a candle's high or low.
+ */
+@Service
+public class CandleService implements TickListener {
+    public static final int DEFAULT_LIMIT = 500;
+    public static final int MAX_LIMIT = 5000;
+
+    private final Map<String, CandleBook> books = new ConcurrentHashMap<>();
+
+    @Autowired
+    private CryptoDataService cryptoDataService;
+
+    @PostConstruct
+    public void init() {
+        cryptoDataService.addTickListener(this);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        cryptoDataService.removeTickListener(this);
+    }
+
+    @Override
+    public void onTick(TickerState ticker, long epochMillis) {
+        if (!ticker.hasAsk()) {
+            return;
+        }
+        CandleBook book = books.get(ticker.getSymbol());
+        if (book == null) {
+            book = books.computeIfAbsent(ticker.getSymbol(), k -> new CandleBook());
+        }
+        book.record(epochMillis, ticker.getAsk(), ticker.hasVolume() ? ticker.getVolume() : -1);
+    }
+
+    /**
+     * Up to {@code limit} of the newest candles overlapping {@code [from, to]} (epoch
+     * millis, either may be null), oldest first. The last candle may still be open.
+     */
+    public List<Candle> getCandles(String symbol, CandleInterval interval, Long from, Long to, int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_LIMIT);
+        }
+        if (from != null && to != null && from > to) {
+            throw new IllegalArgumentException("'from' must not be after 'to'");
+        }
+        CandleBook book = books.get(symbol);
+        if (book == null) {
+            if (cryptoDataService.getCryptoCurrency(symbol) == null) {
+                throw new IllegalArgumentException("Cryptocurrency not found: " + symbol);
+            }
+            return List.of();
+        }
+        return book.query(interval, from == null ? Long.MIN_VALUE : from, to == null ? Long.MAX_VALUE : to, limit);
+    }
+}
@@ -0,0 +1,288 @@
+package com.example.cryptoinitializer.cluster;
+
+import com.example.cryptoinitializer.feed.MarketDataSource;
+import jakarta.websocket.ContainerProvider;
+import jakarta.websocket.WebSocketContainer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.handler.BinaryWebSocketHandler;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * The market data source of a cluster node. One node, the feed node, runs the configured
+ * source ({@code crypto.feed.source}) and its {@link TickBroadcaster} sends the ticks on;
+ * every other node follows it over {@code /ws/cluster/ticks} and sees the same prices
+ * without a connection to Kraken of its own.
+ *
+ * <p>The feed node is the first node in {@code crypto.cluster.nodes} that is up. Every
+ * {@code crypto.cluster.election-interval-ms} each node asks the nodes ahead of it in
+ * that order whether they are, over {@code /api/cluster}, and either follows the first
+ * that answers or, if none does, takes over the feed itself. A node that comes back
+ * takes the feed back from those behind it. As every node reads the same list, nodes that
+ * can all reach each other agree without a vote; a partition can leave a feed node on
+ * each side, each ingesting the same market.
+ *
+ * <p>Ticks from the feed node are turned back into Kraken frames, so everything after the
+ * source behaves the same on every node. The feed node follows the pairs of its own
+ * {@code SymbolUniverse}; the others pick out of its ticks the pairs they know, which are
+ * the same as long as pairs are changed through the admin API of any node.
+ */
+@Component
+@Primary
+@ConditionalOnProperty(name = "crypto.cluster.enabled", havingValue = "true")
+public class ClusterFeedSource implements MarketDataSource {
+    private static final Logger logger = LoggerFactory.getLogger(ClusterFeedSource.class);
+    static final String TICKS_PATH = "/ws/cluster/ticks";
+    private static final int MAX_MESSAGE_BYTES = 4 * 1024 * 1024;
+
+    @Autowired
+    private ClusterTopology topology;
+
+    @Autowired
+    private List<MarketDataSource> sources;
+
+    @Value("${crypto.cluster.election-interval-ms:1000}")
+    private long electionIntervalMs = 1000;
+
+    @Value("${crypto.cluster.probe-timeout-ms:500}")
+    private long probeTimeoutMs = 500;
+
+    /** A followed feed node that has sent nothing, not even a heartbeat, for this long is considered lost. */
+    @Value("${crypto.cluster.heartbeat-timeout-ms:5000}")
+    private long heartbeatTimeoutMs = 5000;
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .build();
+    // Frames from the upstream source and from the feed node may overlap while switching
+    private final ReentrantLock sinkLock = new ReentrantLock();
+
+    private volatile Consumer<String> sink;
+    private volatile WebSocketSession followed;
+    private volatile long lastMessageAt;
+    // Only changed on the scheduler thread
+    private volatile ClusterNode feedNode;
+    private volatile ScheduledExecutorService scheduler;
+
+    // Only touched on the scheduler thread
+    private List<String> symbols;
+    private boolean connecting;
+
+    @Override
+    public synchronized void start(Collection<String> symbols, Consumer<String> sink) {
+        this.symbols = new ArrayList<>(symbols);
+        this.sink = sink;
+        scheduler = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("cluster-feed").daemon().factory());
+        scheduler.scheduleWithFixedDelay(this::elect, 0, electionIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /** Kept for the next takeover, and passed on to the upstream source while this is the feed node. */
+    @Override
+    public void updateSymbols(Collection<String> symbols) {
+        ScheduledExecutorService current = scheduler;
+        if (current == null) {
+            return;
+        }
+        List<String> updated = new ArrayList<>(symbols);
+        try {
+            current.execute(() -> {
+                this.symbols = updated;
+                if (topology.self().equals(feedNode)) {
+                    upstream().updateSymbols(updated);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Stopped
+        }
+    }
+
+    @Override
+    public synchronized void stop() {
+        sink = null;
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            try {
+                scheduler.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (topology.self().equals(feedNode)) {
+            upstream().stop();
+        }
+        closeQuietly(followed);
+        followed = null;
+    }
+
+    @Override
+    public boolean isConnected() {
+        if (topology.self().equals(feedNode)) {
+            return upstream().isConnected();
+        }
+        WebSocketSession session = followed;
+        return session != null && session.isOpen()
+                && System.nanoTime() - lastMessageAt <= TimeUnit.MILLISECONDS.toNanos(heartbeatTimeoutMs);
+    }
+
+    private MarketDataSource upstream() {
+        return sources.stream()
+                .filter(source -> source != this)
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("No market data source for the feed node"));
+    }
+
+    private void elect() {
+        try {
+            ClusterNode elected = topology.self();
+            for (ClusterNode node : topology.nodes()) {
+                if (node.equals(topology.self()) || isUp(node)) {
+                    elected = node;
+                    break;
+                }
+            }
+            if (!elected.equals(feedNode)) {
+                switchTo(elected);
+            } else if (!elected.equals(topology.self()) && !connecting && !isConnected()) {
+                logger.warn("Lost the tick stream from feed node {}, reconnecting", elected.id());
+                follow(elected);
+            }
+        } catch (RuntimeException e) {
+            logger.error("Feed election failed", e);
+        }
+    }
+
+    private void switchTo(ClusterNode elected) {
+        logger.info("Feed node is now {}{}", elected.id(), elected.equals(topology.self()) ? " (this node)" : "");
+        ClusterNode previous = feedNode;
+        feedNode = elected;
+        topology.setFeedNode(elected);
+        if (topology.self().equals(previous)) {
+            upstream().stop();
+        }
+        WebSocketSession session = followed;
+        followed = null;
+        closeQuietly(session);
+        if (elected.equals(topology.self())) {
+            upstream().start(symbols, frame -> deliver(frame, elected));
+        } else {
+            follow(elected);
+        }
+    }
+
+    private boolean isUp(ClusterNode node) {
+        HttpRequest probe = HttpRequest.newBuilder(node.resolve("/api/cluster"))
+                .timeout(Duration.ofMillis(probeTimeoutMs))
+                .GET()
+                .build();
+        try {
+            return httpClient.send(probe, HttpResponse.BodyHandlers.discarding()).statusCode() == 200;
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void follow(ClusterNode node) {
+        connecting = true;
+        URI url = URI.create(node.resolve(TICKS_PATH).toString().replaceFirst("^http", "ws"));
+        BinaryWebSocketHandler handler = new BinaryWebSocketHandler() {
+            @Override
+            protected void handleBinaryMessage(WebSocketSession session, BinaryMessage message) {
+                if (session != followed) {
+                    return;
+                }
+                lastMessageAt = System.nanoTime();
+                List<TickCodec.Tick> ticks = new ArrayList<>();
+                TickCodec.Kind kind = TickCodec.decode(message.getPayload(), ticks::add);
+                if (!ticks.isEmpty()) {
+                    deliver(TickCodec.toKrakenFrame(kind, ticks), node);
+                }
+            }
+
+            @Override
+            public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+                if (session == followed) {
+                    logger.warn("Tick stream from feed node {} closed: {}", node.id(), status);
+                }
+            }
+        };
+        WebSocketContainer container = ContainerProvider.getWebSocketContainer();
+        container.setDefaultMaxBinaryMessageBufferSize(MAX_MESSAGE_BYTES);
+        ScheduledExecutorService current = scheduler;
+        new StandardWebSocketClient(container).execute(handler, new WebSocketHttpHeaders(), url)
+                .whenComplete((session, error) -> {
+                    try {
+                        current.execute(() -> connected(node, session, error));
+                    } catch (RuntimeException e) {
+                        // Stopped while connecting
+                        closeQuietly(session);
+                    }
+                });
+    }
+
+    private void connected(ClusterNode node, WebSocketSession session, Throwable error) {
+        connecting = false;
+        if (error != null) {
+            logger.warn("Failed to follow feed node {}: {}", node.id(), error.toString());
+            return;
+        }
+        if (sink == null || !node.equals(feedNode)) {
+            closeQuietly(session);
+            return;
+        }
+        lastMessageAt = System.nanoTime();
+        followed = session;
+        logger.info("Following ticks from feed node {}", node.id());
+    }
+
+    /** Passes a frame on unless it comes from a feed node that has been replaced since. */
+    private void deliver(String frame, ClusterNode from) {
+        sinkLock.lock();
+        try {
+            Consumer<String> current = sink;
+            if (current != null && from.equals(feedNode)) {
+                current.accept(frame);
+            }
+        } finally {
+            sinkLock.unlock();
+        }
+    }
+
+    private static void closeQuietly(WebSocketSession session) {
+        try {
+            if (session != null) {
+                session.close();
+            }
+        } catch (IOException e) {
+            logger.debug("Error closing cluster tick session", e);
+        }
+    }
+}
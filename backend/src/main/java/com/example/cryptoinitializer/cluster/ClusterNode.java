@@ -0,0 +1,16 @@
+package com.example.cryptoinitializer.cluster;
+
+import java.net.URI;
+
+/**
+ * One backend instance of the cluster.
+ *
+ * @param url where the node serves HTTP, e.g. {@code http://localhost:8081}
+ */
+public record ClusterNode(String id, URI url) {
+
+    /** {@code path} on this node, e.g. {@code /api/cluster}. */
+    public URI resolve(String path) {
+        return URI.create(url.toString().replaceAll("/+$", "") + path);
+    }
+}
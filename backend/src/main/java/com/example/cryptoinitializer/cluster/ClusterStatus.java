@@ -0,0 +1,14 @@
+package com.example.cryptoinitializer.cluster;
+
+import java.util.List;
+
+/**
+ * How this node sees the cluster.
+ *
+ * @param nodeId   this node
+ * @param enabled  whether clustering is on; if not, this node is the only one
+ * @param feedNode the node ingesting the market data feed, null while none is known
+ * @param nodes    every node, in order of precedence for the feed
+ */
+public record ClusterStatus(String nodeId, boolean enabled, String feedNode, List<ClusterNode> nodes) {
+}
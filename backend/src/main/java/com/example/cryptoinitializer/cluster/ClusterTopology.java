@@ -0,0 +1,120 @@
+package com.example.cryptoinitializer.cluster;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The nodes of the cluster, which of them this is, and which owns each user.
+ *
+ * <p>Membership is static: {@code crypto.cluster.nodes} lists every node as
+ * {@code id=url}, in the same order on every node, and {@code crypto.cluster.node-id}
+ * says which one this is. Users are spread over the nodes with a {@link HashRing}, so
+ * every node agrees on each user's owner without asking the others. Only the owner keeps
+ * the account, journals its trades and values it; other nodes forward its requests.
+ *
+ * <p>With the cluster disabled, the default, this node is the only one and owns everyone.
+ */
+@Component
+public class ClusterTopology {
+    /** Names the node that handled a user's request. */
+    public static final String NODE_HEADER = "X-Crypto-Node";
+    /** Set on forwarded requests to the id of the node that forwarded them. */
+    public static final String FORWARDED_HEADER = "X-Crypto-Forwarded-By";
+    /** 421, the answer to a forwarded request for a user of another node; Spring has no constant for it. */
+    public static final HttpStatusCode MISDIRECTED_REQUEST = HttpStatusCode.valueOf(421);
+
+    @Value("${crypto.cluster.enabled:false}")
+    private boolean enabled = false;
+
+    @Value("${crypto.cluster.node-id:}")
+    private String nodeId = "";
+
+    @Value("${crypto.cluster.nodes:}")
+    private String nodes = "";
+
+    @Value("${crypto.cluster.virtual-nodes:128}")
+    private int virtualNodes = 128;
+
+    private List<ClusterNode> members;
+    private ClusterNode self;
+    private HashRing ring;
+    private volatile ClusterNode feedNode;
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            self = new ClusterNode(nodeId.isEmpty() ? "local" : nodeId, null);
+            members = List.of(self);
+            feedNode = self;
+            return;
+        }
+        members = parse(nodes);
+        self = members.stream()
+                .filter(node -> node.id().equals(nodeId))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException(
+                        "crypto.cluster.node-id '" + nodeId + "' is not one of crypto.cluster.nodes"));
+        ring = new HashRing(members, virtualNodes);
+    }
+
+    static List<ClusterNode> parse(String nodes) {
+        List<ClusterNode> parsed = new ArrayList<>();
+        Set<String> ids = new HashSet<>();
+        for (String entry : nodes.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            int equals = entry.indexOf('=');
+            if (equals <= 0) {
+                throw new IllegalStateException("Expected id=url in crypto.cluster.nodes, got '" + entry.trim() + "'");
+            }
+            String id = entry.substring(0, equals).trim();
+            if (!ids.add(id)) {
+                throw new IllegalStateException("Node " + id + " is listed twice in crypto.cluster.nodes");
+            }
+            parsed.add(new ClusterNode(id, URI.create(entry.substring(equals + 1).trim())));
+        }
+        if (parsed.isEmpty()) {
+            throw new IllegalStateException("crypto.cluster.nodes lists no nodes");
+        }
+        return List.copyOf(parsed);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public ClusterNode self() {
+        return self;
+    }
+
+    /** Every node, in the configured order, which is also their order of precedence for the feed. */
+    public List<ClusterNode> nodes() {
+        return members;
+    }
+
+    public ClusterNode ownerOf(String userId) {
+        return enabled ? ring.ownerOf(userId) : self;
+    }
+
+    public boolean isLocal(String userId) {
+        return !enabled || ring.ownerOf(userId).equals(self);
+    }
+
+    /** The node ingesting the market data feed, null while none is known. */
+    public ClusterNode feedNode() {
+        return feedNode;
+    }
+
+    void setFeedNode(ClusterNode feedNode) {
+        this.feedNode = feedNode;
+    }
+}
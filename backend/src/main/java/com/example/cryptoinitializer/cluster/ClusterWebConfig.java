@@ -0,0 +1,18 @@
+package com.example.cryptoinitializer.cluster;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class ClusterWebConfig implements WebMvcConfigurer {
+
+    @Autowired
+    private UserShardInterceptor userShardInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(userShardInterceptor).addPathPatterns("/api/**");
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.cryptoinitializer.cluster;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Consistent hashing of keys onto nodes. Every node is placed on a 64-bit ring at
+ * {@code virtualNodes} points, and a key belongs to the first point at or after its own
+ * hash. Adding or removing a node therefore only moves the keys between it and its
+ * neighbours, about {@code 1/n} of them, and the many points per node keep the shares
+ * even. The hash depends only on the bytes of the key, so every JVM builds the same ring.
+ */
+public final class HashRing {
+    private final long[] points;
+    private final ClusterNode[] owners;
+
+    public HashRing(List<ClusterNode> nodes, int virtualNodes) {
+        if (nodes.isEmpty() || virtualNodes < 1) {
+            throw new IllegalArgumentException("A ring needs at least one node and one point per node");
+        }
+        int size = nodes.size() * virtualNodes;
+        long[] hashes = new long[size];
+        for (int n = 0; n < nodes.size(); n++) {
+            for (int v = 0; v < virtualNodes; v++) {
+                hashes[n * virtualNodes + v] = hash(nodes.get(n).id() + "#" + v);
+            }
+        }
+        // Sort the points, keeping track of whose they are
+        Integer[] byHash = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            byHash[i] = i;
+        }
+        Arrays.sort(byHash, (a, b) -> Long.compare(hashes[a], hashes[b]));
+        points = new long[size];
+        owners = new ClusterNode[size];
+        for (int i = 0; i < size; i++) {
+            points[i] = hashes[byHash[i]];
+            owners[i] = nodes.get(byHash[i] / virtualNodes);
+        }
+    }
+
+    public ClusterNode ownerOf(String key) {
+        int index = Arrays.binarySearch(points, hash(key));
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return owners[index == points.length ? 0 : index];
+    }
+
+    /** 64-bit FNV-1a of the UTF-8 bytes, with MurmurHash3's finalizer to spread similar keys. */
+    static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
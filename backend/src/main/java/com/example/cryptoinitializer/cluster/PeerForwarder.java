@@ -0,0 +1,138 @@
+package com.example.cryptoinitializer.cluster;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+/**
+ * Sends requests on to other nodes: a user's requests to the node that owns the user, the
+ * queries that gather every node's share of the leaderboard, and changes to the pairs
+ * followed, which every node makes. Forwarded requests carry
+ * {@link ClusterTopology#FORWARDED_HEADER}, so a node that gets one for a user it does not
+ * own knows the two disagree about the ring instead of forwarding it again.
+ *
+ * <p>The calling thread waits for the answer, which is cheap with virtual threads enabled.
+ * A node that cannot be reached within {@code crypto.cluster.forward-timeout-ms} fails the
+ * request with {@link PeerUnavailableException}; nothing is retried, as the request may
+ * have been a trade.
+ */
+@Component
+public class PeerForwarder {
+    private static final String[] FORWARDED_REQUEST_HEADERS = {HttpHeaders.CONTENT_TYPE, HttpHeaders.ACCEPT};
+
+    @Autowired
+    private ClusterTopology topology;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${crypto.cluster.forward-timeout-ms:5000}")
+    private long forwardTimeoutMs = 5000;
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(2))
+            .build();
+
+    /** Relays {@code request} unchanged to {@code owner} and copies its answer into {@code response}. */
+    public void forward(HttpServletRequest request, HttpServletResponse response, ClusterNode owner)
+            throws IOException {
+        String query = request.getQueryString();
+        byte[] body = request.getInputStream().readAllBytes();
+        HttpRequest.Builder builder = HttpRequest.newBuilder(owner.resolve(
+                        request.getRequestURI() + (query == null ? "" : "?" + query)))
+                .method(request.getMethod(), body.length == 0 ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofByteArray(body));
+        for (String header : FORWARDED_REQUEST_HEADERS) {
+            String value = request.getHeader(header);
+            if (value != null) {
+                builder.header(header, value);
+            }
+        }
+        HttpResponse<byte[]> answer = send(owner, builder);
+        response.setStatus(answer.statusCode());
+        answer.headers().firstValue(HttpHeaders.CONTENT_TYPE).ifPresent(response::setContentType);
+        response.setHeader(ClusterTopology.NODE_HEADER, owner.id());
+        response.getOutputStream().write(answer.body());
+    }
+
+    /** POSTs {@code body} as JSON to {@code path} on {@code node} and returns its answer as is. */
+    public ResponseEntity<byte[]> post(ClusterNode node, String path, Object body) {
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot forward request: " + e.getOriginalMessage(), e);
+        }
+        HttpResponse<byte[]> answer = send(node, HttpRequest.newBuilder(node.resolve(path))
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(json)));
+        ResponseEntity.BodyBuilder forwarded = ResponseEntity.status(answer.statusCode())
+                .header(ClusterTopology.NODE_HEADER, node.id());
+        answer.headers().firstValue(HttpHeaders.CONTENT_TYPE)
+                .ifPresent(type -> forwarded.header(HttpHeaders.CONTENT_TYPE, type));
+        return forwarded.body(answer.body());
+    }
+
+    /** DELETEs {@code path} on {@code node} and returns its status. */
+    public int delete(ClusterNode node, String path) {
+        return send(node, HttpRequest.newBuilder(node.resolve(path)).DELETE()).statusCode();
+    }
+
+    /** GETs {@code path} on {@code node}, which must answer 200 with JSON for a {@code type}. */
+    public <T> T get(ClusterNode node, String path, Class<T> type) {
+        HttpResponse<byte[]> answer = send(node, HttpRequest.newBuilder(node.resolve(path)).GET());
+        if (answer.statusCode() != 200) {
+            throw new PeerUnavailableException("Node " + node.id() + " answered " + answer.statusCode()
+                    + " to " + path, null);
+        }
+        try {
+            return objectMapper.readValue(answer.body(), type);
+        } catch (IOException e) {
+            throw new PeerUnavailableException("Node " + node.id() + " sent an unreadable answer to " + path, e);
+        }
+    }
+
+    private HttpResponse<byte[]> send(ClusterNode node, HttpRequest.Builder builder) {
+        HttpRequest request = builder
+                .header(ClusterTopology.FORWARDED_HEADER, topology.self().id())
+                .timeout(Duration.ofMillis(forwardTimeoutMs))
+                .build();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            outcome = "answered";
+            return response;
+        } catch (IOException e) {
+            throw new PeerUnavailableException("Node " + node.id() + " is unavailable: " + e, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PeerUnavailableException("Interrupted while waiting for node " + node.id(), e);
+        } finally {
+            sample.stop(Timer.builder("crypto.cluster.forwarded")
+                    .description("Requests sent on to another node, until it answered")
+                    .tag("node", node.id())
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+    }
+}
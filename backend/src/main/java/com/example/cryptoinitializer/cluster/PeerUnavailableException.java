@@ -0,0 +1,9 @@
+package com.example.cryptoinitializer.cluster;
+
+/** Another node could not be reached, or did not answer in time. Reported as 503. */
+public class PeerUnavailableException extends RuntimeException {
+
+    public PeerUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,220 @@
+package com.example.cryptoinitializer.cluster;
+
+import com.example.cryptoinitializer.feed.TickerState;
+import com.example.cryptoinitializer.service.CryptoDataService;
+import com.example.cryptoinitializer.service.TickListener;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.BinaryWebSocketHandler;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Rebroadcasts the ticks this node applies to the nodes connected to
+ * {@code /ws/cluster/ticks}, in {@link TickCodec}'s binary form. Only the feed node has
+ * peers connected; the others follow it.
+ *
+ * <p>Ticks are gathered per symbol and sent every {@code crypto.cluster.tick-flush-ms}, so
+ * a symbol that ticked several times in between is sent once, with its latest values. A
+ * peer that connects first gets the latest values of every symbol, like the snapshot
+ * Kraken sends on subscribe, and while nothing ticks it gets a heartbeat every
+ * {@value #HEARTBEAT_INTERVAL_MS} ms, so it can tell a quiet market from a lost feed node.
+ *
+ * <p>As with browsers on {@code /ws/prices}, each peer has at most one send in flight and
+ * symbols that change meanwhile wait in its backlog, at most once each. A peer whose send
+ * takes longer than {@code crypto.cluster.send-time-limit-ms} is disconnected; it
+ * reconnects and starts over from a snapshot.
+ */
+@Component
+@ConditionalOnProperty(name = "crypto.cluster.enabled", havingValue = "true")
+public class TickBroadcaster extends BinaryWebSocketHandler implements TickListener {
+    private static final Logger logger = LoggerFactory.getLogger(TickBroadcaster.class);
+    static final long HEARTBEAT_INTERVAL_MS = 1000;
+    private static final byte[] HEARTBEAT = TickCodec.encode(TickCodec.Kind.HEARTBEAT, List.of());
+
+    @Autowired
+    private CryptoDataService cryptoDataService;
+
+    @Value("${crypto.cluster.send-time-limit-ms:5000}")
+    private long sendTimeLimitMs = 5000;
+
+    private final Map<String, TickCodec.Tick> latest = new ConcurrentHashMap<>();
+    private final Set<String> changed = ConcurrentHashMap.newKeySet();
+    private final Map<String, Peer> peers = new ConcurrentHashMap<>();
+    private final ExecutorService sendExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private long lastFlushAt;
+
+    @PostConstruct
+    public void init() {
+        cryptoDataService.addTickListener(this);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        cryptoDataService.removeTickListener(this);
+        sendExecutor.shutdownNow();
+    }
+
+    @Override
+    public void onTick(TickerState ticker, long epochMillis) {
+        latest.put(ticker.getSymbol(), TickCodec.Tick.of(ticker));
+        changed.add(ticker.getSymbol());
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) {
+        logger.info("Cluster peer connected for ticks from {}", session.getRemoteAddress());
+        Peer peer = new Peer(session);
+        peers.put(session.getId(), peer);
+        peer.dispatch(TickCodec.encode(TickCodec.Kind.SNAPSHOT, latest.values()));
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        peers.remove(session.getId());
+    }
+
+    @Override
+    public void handleTransportError(WebSocketSession session, Throwable exception) {
+        logger.debug("Transport error on cluster tick session {}", session.getId(), exception);
+        drop(session, CloseStatus.SERVER_ERROR);
+    }
+
+    @Scheduled(fixedDelayString = "${crypto.cluster.tick-flush-ms:20}")
+    public void flush() {
+        List<String> symbols = new ArrayList<>(changed.size());
+        for (Iterator<String> it = changed.iterator(); it.hasNext(); ) {
+            symbols.add(it.next());
+            it.remove();
+        }
+        long now = System.currentTimeMillis();
+        boolean heartbeat = now - lastFlushAt >= HEARTBEAT_INTERVAL_MS;
+        if (symbols.isEmpty() && !heartbeat) {
+            return;
+        }
+        lastFlushAt = now;
+        for (Peer peer : peers.values()) {
+            peer.publish(symbols);
+        }
+        evictSlowPeers();
+    }
+
+    public int getPeerCount() {
+        return peers.size();
+    }
+
+    private void evictSlowPeers() {
+        long now = System.nanoTime();
+        long limit = TimeUnit.MILLISECONDS.toNanos(sendTimeLimitMs);
+        for (Peer peer : peers.values()) {
+            long startedAt = peer.sendStartedAt;
+            if (startedAt != 0 && now - startedAt > limit) {
+                logger.warn("Closing slow cluster peer {}", peer.session.getRemoteAddress());
+                drop(peer.session, CloseStatus.SESSION_NOT_RELIABLE);
+            }
+        }
+    }
+
+    private void drop(WebSocketSession session, CloseStatus status) {
+        peers.remove(session.getId());
+        try {
+            session.close(status);
+        } catch (Exception e) {
+            logger.debug("Failed to close cluster tick session {}", session.getId(), e);
+        }
+    }
+
+    private final class Peer {
+        private final WebSocketSession session;
+        private final Set<String> backlog = ConcurrentHashMap.newKeySet();
+        // Taken by the snapshot until it is sent
+        private final AtomicBoolean busy = new AtomicBoolean(true);
+        private volatile long sendStartedAt;
+
+        Peer(WebSocketSession session) {
+            this.session = session;
+        }
+
+        /** Sends the latest values of {@code symbols}, or a heartbeat if there are none. */
+        void publish(Collection<String> symbols) {
+            backlog.addAll(symbols);
+            if (busy.compareAndSet(false, true)) {
+                dispatch(backlog.isEmpty() ? HEARTBEAT : null);
+            }
+        }
+
+        /** Sends {@code first}, if any, and then the backlog; the caller holds {@link #busy}. */
+        void dispatch(byte[] first) {
+            try {
+                sendExecutor.execute(() -> sendAll(first));
+            } catch (Exception e) {
+                busy.set(false);
+            }
+        }
+
+        private void sendAll(byte[] first) {
+            try {
+                if (first != null) {
+                    send(first);
+                }
+                while (true) {
+                    while (!backlog.isEmpty()) {
+                        send(TickCodec.encode(TickCodec.Kind.UPDATE, drainBacklog()));
+                    }
+                    busy.set(false);
+                    // Catch up on whatever changed after the backlog was last seen empty
+                    if (backlog.isEmpty() || !busy.compareAndSet(false, true)) {
+                        return;
+                    }
+                }
+            } catch (Exception e) {
+                logger.debug("Failed to send to cluster peer {}", session.getRemoteAddress(), e);
+                drop(session, CloseStatus.SERVER_ERROR);
+            }
+        }
+
+        private List<TickCodec.Tick> drainBacklog() {
+            List<TickCodec.Tick> ticks = new ArrayList<>(backlog.size());
+            for (Iterator<String> it = backlog.iterator(); it.hasNext(); ) {
+                TickCodec.Tick tick = latest.get(it.next());
+                it.remove();
+                if (tick != null) {
+                    ticks.add(tick);
+                }
+            }
+            return ticks;
+        }
+
+        private void send(byte[] message) throws Exception {
+            if (!session.isOpen()) {
+                return;
+            }
+            sendStartedAt = System.nanoTime();
+            try {
+                session.sendMessage(new BinaryMessage(message));
+            } finally {
+                sendStartedAt = 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.cryptoinitializer.cluster;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Sends every request for a user, i.e. every handler mapped with a {@code {userId}} path
+ * variable such as those of {@code UserController}, to the node that owns the user. The
+ * owner handles it as usual; any other node forwards it there and relays the answer.
+ */
+@Component
+public class UserShardInterceptor implements HandlerInterceptor {
+
+    @Autowired
+    private ClusterTopology topology;
+
+    @Autowired
+    private PeerForwarder peerForwarder;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws IOException {
+        if (!topology.isEnabled() || !(handler instanceof HandlerMethod)) {
+            return true;
+        }
+        @SuppressWarnings("unchecked")
+        Map<String, String> variables =
+                (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        String userId = variables == null ? null : variables.get("userId");
+        if (userId == null) {
+            return true;
+        }
+        ClusterNode owner = topology.ownerOf(userId);
+        if (owner.equals(topology.self())) {
+            response.setHeader(ClusterTopology.NODE_HEADER, owner.id());
+            return true;
+        }
+        String forwardedBy = request.getHeader(ClusterTopology.FORWARDED_HEADER);
+        if (forwardedBy != null) {
+            // The sender thinks we own the user; one of us is configured differently
+            reject(response, ClusterTopology.MISDIRECTED_REQUEST, "User " + userId + " belongs to node " + owner.id()
+                    + ", not " + topology.self().id() + " as node " + forwardedBy + " assumed");
+            return false;
+        }
+        try {
+            peerForwarder.forward(request, response, owner);
+        } catch (PeerUnavailableException e) {
+            reject(response, HttpStatus.SERVICE_UNAVAILABLE, e.getMessage());
+        }
+        return false;
+    }
+
+    private static void reject(HttpServletResponse response, HttpStatusCode status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        response.getOutputStream().write(message.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.cryptoinitializer.controller;
+
+import com.example.cryptoinitializer.account.AccountStore;
+import com.example.cryptoinitializer.account.AccountStoreStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/accounts")
+@CrossOrigin(origins = "*")
+public class AccountStoreController {
+
+    @Autowired
+    private AccountStore accountStore;
+
+    /** Resident and spilled account counts, hit rate and evictions of the account store. */
+    @GetMapping("/stats")
+    public AccountStoreStats getStats() {
+        return accountStore.stats();
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.cryptoinitializer.controller;
+
+import com.example.cryptoinitializer.cluster.ClusterNode;
+import com.example.cryptoinitializer.cluster.ClusterStatus;
+import com.example.cryptoinitializer.cluster.ClusterTopology;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/cluster")
+@CrossOrigin(origins = "*")
+public class ClusterController {
+
+    @Autowired
+    private ClusterTopology topology;
+
+    /** This node, the feed node and all nodes. Also what nodes probe to tell whether a node is up. */
+    @GetMapping
+    public ClusterStatus getStatus() {
+        ClusterNode feedNode = topology.feedNode();
+        return new ClusterStatus(topology.self().id(), topology.isEnabled(),
+                feedNode == null ? null : feedNode.id(), topology.nodes());
+    }
+
+    /** The node that owns {@code userId}, which handles all of the user's requests. */
+    @GetMapping("/owner")
+    public ClusterNode getOwner(@RequestParam String userId) {
+        return topology.ownerOf(userId);
+    }
+}
@@ -1,14 +1,23 @@
 package com.example.cryptoinitializer.controller;
 
+import com.example.cryptoinitializer.candle.CandleInterval;
+import com.example.cryptoinitializer.candle.CandleService;
 import com.example.cryptoinitializer.model.CryptoCurrency;
+import com.example.cryptoinitializer.model.FeedStatus;
+import com.example.cryptoinitializer.model.MarketSnapshot;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import com.example.cryptoinitializer.service.CryptoDataService;
-
-import java.util.List;
+import com.example.cryptoinitializer.service.MarketSnapshotService;
 
 @RestController
 @RequestMapping("/api/crypto")
@@ -18,14 +27,52 @@ public class CryptoController {
     @Autowired
     private CryptoDataService cryptoDataService;
 
+    @Autowired
+    private MarketSnapshotService marketSnapshotService;
+
+    @Autowired
+    private CandleService candleService;
+
     @GetMapping("/ping")
     public String ping() {
         return "pong";
     }
 
     @GetMapping("/top20")
-    public List<CryptoCurrency> getTop20Cryptocurrencies() {
-        return cryptoDataService.getTop20Cryptocurrencies();
+    public ResponseEntity<byte[]> getTop20Cryptocurrencies(WebRequest request) {
+        MarketSnapshot snapshot = marketSnapshotService.getSnapshot();
+        if (request.checkNotModified(snapshot.etag())) {
+            return null; // 304, headers already set
+        }
+        return ResponseEntity.ok()
+                .eTag(snapshot.etag())
+                .cacheControl(CacheControl.noCache())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(snapshot.json());
+    }
+
+    @GetMapping("/feed")
+    public FeedStatus getFeedStatus() {
+        return cryptoDataService.getFeedStatus();
+    }
+
+    /**
+     * OHLCV candles for a symbol written with a dash, e.g. {@code BTC-USD}. {@code from}
+     * and {@code to} are epoch millis.
+     */
+    @GetMapping("/{symbol}/candles")
+    public ResponseEntity<?> getCandles(
+            @PathVariable String symbol,
+            @RequestParam(defaultValue = "1m") String interval,
+            @RequestParam(required = false) Long from,
+            @RequestParam(required = false) Long to,
+            @RequestParam(defaultValue = "" + CandleService.DEFAULT_LIMIT) int limit) {
+        try {
+            return ResponseEntity.ok(candleService.getCandles(symbol.replace('-', '/'),
+                    CandleInterval.parse(interval), from, to, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     @GetMapping("/zdr")
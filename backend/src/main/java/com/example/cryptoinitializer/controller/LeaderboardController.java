@@ -0,0 +1,80 @@
+package com.example.cryptoinitializer.controller;
+
+import com.example.cryptoinitializer.cluster.ClusterNode;
+import com.example.cryptoinitializer.cluster.ClusterTopology;
+import com.example.cryptoinitializer.cluster.PeerForwarder;
+import com.example.cryptoinitializer.cluster.PeerUnavailableException;
+import com.example.cryptoinitializer.portfolio.Leaderboard;
+import com.example.cryptoinitializer.portfolio.PortfolioService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/leaderboard")
+@CrossOrigin(origins = "*")
+public class LeaderboardController {
+
+    @Autowired
+    private PortfolioService portfolioService;
+
+    @Autowired
+    private ClusterTopology topology;
+
+    @Autowired
+    private PeerForwarder peerForwarder;
+
+    /**
+     * The users with the highest equity, refreshed at most once per leaderboard-refresh-ms.
+     * In a cluster each node ranks the users it owns and this merges every node's top
+     * {@code limit}, unless {@code local} asks for this node's alone.
+     */
+    @GetMapping
+    public ResponseEntity<?> getLeaderboard(
+            @RequestParam(defaultValue = "" + PortfolioService.DEFAULT_LEADERBOARD_SIZE) int limit,
+            @RequestParam(defaultValue = "false") boolean local) {
+        try {
+            Leaderboard own = portfolioService.getLeaderboard(limit);
+            if (!topology.isEnabled() || local) {
+                return ResponseEntity.ok(own);
+            }
+            List<Leaderboard> boards = new ArrayList<>();
+            boards.add(own);
+            for (ClusterNode node : topology.nodes()) {
+                if (!node.equals(topology.self())) {
+                    boards.add(peerForwarder.get(node, "/api/leaderboard?local=true&limit=" + limit,
+                            Leaderboard.class));
+                }
+            }
+            return ResponseEntity.ok(merge(boards, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (PeerUnavailableException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(e.getMessage());
+        }
+    }
+
+    /** Reranks the entries of several nodes' leaderboards, as of the oldest of them. */
+    static Leaderboard merge(List<Leaderboard> boards, int limit) {
+        List<Leaderboard.Entry> entries = new ArrayList<>();
+        long computedAt = Long.MAX_VALUE;
+        int users = 0;
+        for (Leaderboard board : boards) {
+            entries.addAll(board.entries());
+            computedAt = Math.min(computedAt, board.computedAt());
+            users += board.users();
+        }
+        entries.sort(Comparator.comparingLong(Leaderboard.Entry::equity).reversed()
+                .thenComparing(Leaderboard.Entry::userId));
+        List<Leaderboard.Entry> ranked = new ArrayList<>(Math.min(limit, entries.size()));
+        for (int i = 0; i < entries.size() && i < limit; i++) {
+            ranked.add(new Leaderboard.Entry(i + 1, entries.get(i).userId(), entries.get(i).equity()));
+        }
+        return new Leaderboard(computedAt, users, List.copyOf(ranked));
+    }
+}
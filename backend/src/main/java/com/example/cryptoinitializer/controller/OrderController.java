@@ -0,0 +1,66 @@
+package com.example.cryptoinitializer.controller;
+
+import com.example.cryptoinitializer.order.Order;
+import com.example.cryptoinitializer.order.OrderService;
+import com.example.cryptoinitializer.order.OrderSide;
+import com.example.cryptoinitializer.order.OrderType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/user")
+@CrossOrigin(origins = "*")
+public class OrderController {
+
+    @Autowired
+    private OrderService orderService;
+
+    @GetMapping("/{userId}/orders")
+    public List<Order> getOpenOrders(@PathVariable String userId) {
+        return orderService.getOpenOrders(userId);
+    }
+
+    /**
+     * Places a limit, stop or stop-limit order. Body: {@code symbol}, {@code side} (BUY or
+     * SELL), {@code type} (LIMIT, STOP or STOP_LIMIT), {@code quantity}, and
+     * {@code limitPrice} and/or {@code stopPrice} as the type requires.
+     */
+    @PostMapping("/{userId}/orders")
+    public ResponseEntity<?> placeOrder(
+            @PathVariable String userId,
+            @RequestBody Map<String, String> request) {
+        try {
+            Order order = orderService.placeOrder(userId, request.get("symbol"),
+                    parse(OrderSide.class, request.get("side")),
+                    parse(OrderType.class, request.get("type")),
+                    decimal(request.get("quantity")),
+                    decimal(request.get("limitPrice")),
+                    decimal(request.get("stopPrice")));
+            return ResponseEntity.ok(order);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @DeleteMapping("/{userId}/orders/{orderId}")
+    public ResponseEntity<?> cancelOrder(@PathVariable String userId, @PathVariable long orderId) {
+        try {
+            return ResponseEntity.ok(orderService.cancelOrder(userId, orderId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    private static <E extends Enum<E>> E parse(Class<E> type, String value) {
+        return value == null ? null : Enum.valueOf(type, value.toUpperCase());
+    }
+
+    private static BigDecimal decimal(String value) {
+        return value == null ? null : new BigDecimal(value);
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.cryptoinitializer.controller;
+
+import com.example.cryptoinitializer.cluster.ClusterNode;
+import com.example.cryptoinitializer.cluster.ClusterTopology;
+import com.example.cryptoinitializer.cluster.PeerForwarder;
+import com.example.cryptoinitializer.cluster.PeerUnavailableException;
+import com.example.cryptoinitializer.model.Instrument;
+import com.example.cryptoinitializer.service.SymbolUniverse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Adds and removes the pairs the simulator follows. In a cluster a change made on one node
+ * is made on every other node too; a node that cannot be reached turns the answer into a
+ * 503 naming it, while the nodes that could be reached keep the change, so the request can
+ * simply be repeated.
+ */
+@RestController
+@RequestMapping("/api/admin/symbols")
+@CrossOrigin(origins = "*")
+public class SymbolAdminController {
+    private static final String PATH = "/api/admin/symbols";
+
+    @Autowired
+    private SymbolUniverse symbolUniverse;
+
+    @Autowired
+    private ClusterTopology topology;
+
+    @Autowired
+    private PeerForwarder peerForwarder;
+
+    @GetMapping
+    public List<Instrument> getInstruments() {
+        return symbolUniverse.getInstruments();
+    }
+
+    /** Follows a pair. Body: {@code symbol}, e.g. {@code DOT/USD}, and {@code name}; renames a followed pair. */
+    @PostMapping
+    public ResponseEntity<?> addInstrument(@RequestBody Instrument request,
+                                           @RequestHeader(name = ClusterTopology.FORWARDED_HEADER, required = false)
+                                           String forwardedBy) {
+        try {
+            Instrument added = symbolUniverse.add(request.symbol(), request.name());
+            List<String> failed = propagate(forwardedBy,
+                    node -> peerForwarder.post(node, PATH, added).getStatusCode().value());
+            return failed.isEmpty() ? ResponseEntity.ok(added) : unavailable(failed);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /** Stops following a pair written with a dash, e.g. {@code DOT-USD}; positions in it are kept. */
+    @DeleteMapping("/{symbol}")
+    public ResponseEntity<?> removeInstrument(@PathVariable String symbol,
+                                              @RequestHeader(name = ClusterTopology.FORWARDED_HEADER, required = false)
+                                              String forwardedBy) {
+        symbolUniverse.remove(symbol.replace('-', '/'));
+        List<String> failed = propagate(forwardedBy, node -> peerForwarder.delete(node, PATH + "/" + symbol));
+        return failed.isEmpty() ? ResponseEntity.noContent().build() : unavailable(failed);
+    }
+
+    /** Makes the same change on every other node unless this one was sent it by a node; returns the nodes that failed. */
+    private List<String> propagate(String forwardedBy, Function<ClusterNode, Integer> change) {
+        List<String> failed = new ArrayList<>();
+        if (!topology.isEnabled() || forwardedBy != null) {
+            return failed;
+        }
+        for (ClusterNode node : topology.nodes()) {
+            if (node.equals(topology.self())) {
+                continue;
+            }
+            try {
+                int status = change.apply(node);
+                if (status / 100 != 2) {
+                    failed.add(node.id() + " (" + status + ")");
+                }
+            } catch (PeerUnavailableException e) {
+                failed.add(node.id());
+            }
+        }
+        return failed;
+    }
+
+    private static ResponseEntity<String> unavailable(List<String> failed) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body("Changed on this node but not on " + String.join(", ", failed));
+    }
+}
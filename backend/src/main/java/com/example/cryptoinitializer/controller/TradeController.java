@@ -0,0 +1,83 @@
+package com.example.cryptoinitializer.controller;
+
+import com.example.cryptoinitializer.cluster.ClusterNode;
+import com.example.cryptoinitializer.cluster.ClusterTopology;
+import com.example.cryptoinitializer.cluster.PeerForwarder;
+import com.example.cryptoinitializer.cluster.PeerUnavailableException;
+import com.example.cryptoinitializer.trade.BatchTradeRequest;
+import com.example.cryptoinitializer.trade.BatchTradeService;
+import com.example.cryptoinitializer.trade.TradeInstruction;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashSet;
+import java.util.Set;
+
+@RestController
+@RequestMapping("/api/trades")
+@CrossOrigin(origins = "*")
+public class TradeController {
+
+    @Autowired
+    private BatchTradeService batchTradeService;
+
+    @Autowired
+    private ClusterTopology topology;
+
+    @Autowired
+    private PeerForwarder peerForwarder;
+
+    /**
+     * Executes a batch of trades. Body: {@code mode} (ALL_OR_NOTHING, the default, or
+     * BEST_EFFORT) and {@code trades}, each with {@code userId}, {@code symbol},
+     * {@code side} (BUY or SELL) and {@code quantity}. Returns one outcome per trade; a
+     * batch that is empty or too large is rejected as a whole. In a cluster all users of a
+     * batch must belong to the same node, which executes it.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<?> executeBatch(@RequestBody BatchTradeRequest request,
+                                          @RequestHeader(name = ClusterTopology.FORWARDED_HEADER, required = false)
+                                          String forwardedBy) {
+        try {
+            ClusterNode owner = ownerOf(request);
+            if (owner == null) {
+                return ResponseEntity.ok(batchTradeService.execute(request));
+            }
+            if (owner.equals(topology.self())) {
+                return ResponseEntity.ok()
+                        .header(ClusterTopology.NODE_HEADER, owner.id())
+                        .body(batchTradeService.execute(request));
+            }
+            if (forwardedBy != null) {
+                return ResponseEntity.status(ClusterTopology.MISDIRECTED_REQUEST)
+                        .body("Batch belongs to node " + owner.id() + ", not " + topology.self().id());
+            }
+            return peerForwarder.post(owner, "/api/trades/batch", request);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (PeerUnavailableException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(e.getMessage());
+        }
+    }
+
+    /** The node owning every user of the batch, null if it names none. */
+    private ClusterNode ownerOf(BatchTradeRequest request) {
+        if (!topology.isEnabled() || request.trades() == null) {
+            return null;
+        }
+        Set<ClusterNode> owners = new HashSet<>();
+        for (TradeInstruction trade : request.trades()) {
+            if (trade != null && trade.userId() != null) {
+                owners.add(topology.ownerOf(trade.userId()));
+            }
+        }
+        if (owners.size() > 1) {
+            // Executing it on several nodes could not keep all-or-nothing
+            throw new IllegalArgumentException("Batch spans users of several nodes; split it per node (see "
+                    + "/api/cluster/owner)");
+        }
+        return owners.isEmpty() ? null : owners.iterator().next();
+    }
+}
@@ -1,14 +1,18 @@
 package com.example.cryptoinitializer.controller;
 
+import com.example.cryptoinitializer.history.TransactionQuery;
 import com.example.cryptoinitializer.model.Transaction;
 import com.example.cryptoinitializer.model.UserAccount;
+import com.example.cryptoinitializer.portfolio.Portfolio;
+import com.example.cryptoinitializer.portfolio.PortfolioService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import com.example.cryptoinitializer.service.UserService;
 
 import java.math.BigDecimal;
-import java.util.List;
+import java.time.LocalDateTime;
 import java.util.Map;
 
 @RestController
@@ -19,14 +23,36 @@ public class UserController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private PortfolioService portfolioService;
+
     @GetMapping("/{userId}/account")
     public UserAccount getUserAccount(@PathVariable String userId) {
         return userService.getUserAccount(userId);
     }
 
+    /** Market value, unrealized P&L and allocation of each holding, at the latest prices. */
+    @GetMapping("/{userId}/portfolio")
+    public Portfolio getPortfolio(@PathVariable String userId) {
+        return portfolioService.getPortfolio(userId);
+    }
+
+    /** A page of the user's transactions, newest first. Follow {@code nextCursor} for older pages. */
     @GetMapping("/{userId}/transactions")
-    public List<Transaction> getUserTransactions(@PathVariable String userId) {
-        return userService.getUserTransactions(userId);
+    public ResponseEntity<?> getUserTransactions(
+            @PathVariable String userId,
+            @RequestParam(required = false) String symbol,
+            @RequestParam(required = false) Transaction.TransactionType type,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + TransactionQuery.DEFAULT_LIMIT) int limit) {
+        try {
+            TransactionQuery query = new TransactionQuery(symbol, type, from, to, cursor, limit);
+            return ResponseEntity.ok(userService.queryTransactions(userId, query));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     @PostMapping("/{userId}/buy")
@@ -0,0 +1,46 @@
+package com.example.cryptoinitializer.feed;
+
+/**
+ * A {@link com.example.cryptoinitializer.model.FixedPoint} value with a staged update
+ * that only becomes visible on {@link #commit()}.
+ */
+final class DecimalField {
+    private long value;
+    private boolean present;
+
+    private long pendingValue;
+    private boolean pending;
+
+    void stage(long value) {
+        pendingValue = value;
+        pending = true;
+    }
+
+    void discard() {
+        pending = false;
+    }
+
+    /**
+     * Moves the staged value into the committed slot.
+     *
+     * @return true if the value changed
+     */
+    boolean commit() {
+        if (!pending) {
+            return false;
+        }
+        pending = false;
+        boolean changed = !present || value != pendingValue;
+        value = pendingValue;
+        present = true;
+        return changed;
+    }
+
+    boolean isPresent() {
+        return present;
+    }
+
+    long get() {
+        return value;
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.cryptoinitializer.feed;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded single-producer, single-consumer ring of raw frames, each stamped with the
+ * {@link System#nanoTime()} it was enqueued at. {@link #offer} never blocks: when the
+ * ring is full the frame is refused and the caller decides what to do with it.
+ *
+ * <p>One thread may offer at a time and one thread may drain at a time. Positions only
+ * grow; each side caches the other's position and only re-reads it when the cached one
+ * leaves it short of room or frames.
+ */
+final class FrameRing {
+
+    /** Receives drained frames in order. */
+    @FunctionalInterface
+    interface Handler {
+        void accept(String frame, long enqueuedAt);
+    }
+
+    private final String[] frames;
+    private final long[] enqueuedAt;
+    private final int mask;
+
+    private final AtomicLong head = new AtomicLong(); // Next position to drain
+    private final AtomicLong tail = new AtomicLong(); // Next position to fill
+
+    private long cachedHead; // Producer only
+    private long cachedTail; // Consumer only
+
+    FrameRing(int capacity) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two: " + capacity);
+        }
+        this.frames = new String[capacity];
+        this.enqueuedAt = new long[capacity];
+        this.mask = capacity - 1;
+    }
+
+    /** Adds a frame unless the ring is full. Producer thread only. */
+    boolean offer(String frame, long now) {
+        long position = tail.get();
+        if (position - cachedHead >= frames.length) {
+            cachedHead = head.get();
+            if (position - cachedHead >= frames.length) {
+                return false;
+            }
+        }
+        int index = (int) position & mask;
+        frames[index] = frame;
+        enqueuedAt[index] = now;
+        // A full volatile write, so a consumer that checks the ring before parking sees it
+        tail.set(position + 1);
+        return true;
+    }
+
+    /** Hands up to {@code max} frames to {@code handler} and returns how many. Consumer thread only. */
+    int drain(Handler handler, int max) {
+        long position = head.getPlain();
+        if (cachedTail - position < max) {
+            cachedTail = tail.get();
+            if (position >= cachedTail) {
+                return 0;
+            }
+        }
+        int count = (int) Math.min(max, cachedTail - position);
+        for (int i = 0; i < count; i++) {
+            int index = (int) position & mask;
+            String frame = frames[index];
+            long stamp = enqueuedAt[index];
+            frames[index] = null;
+            // Free the slot before handling the frame, so the producer is never held up by it
+            head.lazySet(++position);
+            handler.accept(frame, stamp);
+        }
+        return count;
+    }
+
+    boolean isEmpty() {
+        return head.get() >= tail.get();
+    }
+
+    int size() {
+        // Read head first, so the result is never negative
+        long position = head.get();
+        return (int) (tail.get() - position);
+    }
+
+    int capacity() {
+        return frames.length;
+    }
+}
@@ -0,0 +1,359 @@
+package com.example.cryptoinitializer.feed;
+
+import com.example.cryptoinitializer.model.FixedPoint;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.util.Collection;
+
+/**
+ * Streaming decoder for Kraken v2 ticker frames.
+ *
+ * <p>Instead of building a {@code JsonNode} tree for every frame, the decoder walks the
+ * token stream once and parses {@code ask}, {@code bid}, {@code last} and {@code volume}
+ * from the raw number characters straight into {@link FixedPoint} fields of a
+ * {@link TickerState} kept per symbol. Symbols are resolved from the raw characters too,
+ * so decoding a frame creates no {@code String} or {@code BigDecimal}.
+ *
+ * <p>Values from the {@code data} array are staged and only committed once the whole frame
+ * has been read and is known to be a ticker frame, so field order inside the frame does not
+ * matter.
+ *
+ * <p>Not thread-safe: one instance is meant to be fed from a single receive thread. Only
+ * {@link #setSymbols} may be called from elsewhere.
+ */
+public class KrakenTickerDecoder {
+
+    public enum FrameKind { TICKER, RESPONSE, OTHER }
+
+    private final ObjectMapper objectMapper;
+    // Replaced as a whole when the symbols change; read once per frame
+    private volatile SymbolIndex index;
+
+    private TickerState[] updated;
+    private int updatedCount;
+    private int entryCount;
+
+    private final TextSlot symbolSlot = new TextSlot();
+    private final NumberSlot askSlot = new NumberSlot();
+    private final NumberSlot bidSlot = new NumberSlot();
+    private final NumberSlot lastSlot = new NumberSlot();
+    private final NumberSlot volumeSlot = new NumberSlot();
+
+    private String responseMethod;
+    private String responseResult;
+
+    public KrakenTickerDecoder(ObjectMapper objectMapper, Collection<String> symbols) {
+        this.objectMapper = objectMapper;
+        this.index = new SymbolIndex(symbols, null);
+        this.updated = new TickerState[Math.max(symbols.size(), 1)];
+    }
+
+    /**
+     * Tracks {@code symbols} from the next frame on. Symbols tracked before keep their
+     * state; the others start empty. Unlike decoding this may be called from any thread,
+     * one call at a time.
+     */
+    public void setSymbols(Collection<String> symbols) {
+        index = new SymbolIndex(symbols, index);
+    }
+
+    /**
+     * Decodes one frame. For {@link FrameKind#TICKER} frames the touched symbols are
+     * available through {@link #getUpdatedCount()} and {@link #getUpdated(int)} until the
+     * next call.
+     */
+    public FrameKind decode(String payload) throws IOException {
+        updatedCount = 0;
+        entryCount = 0;
+        responseMethod = null;
+        responseResult = null;
+
+        boolean tickerChannel = false;
+        boolean tickerType = false;
+        boolean hasResult = false;
+        SymbolIndex symbols = index;
+
+        try (JsonParser parser = objectMapper.createParser(payload)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return FrameKind.OTHER;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken token = parser.nextToken();
+                switch (field) {
+                    case "channel" -> tickerChannel = token == JsonToken.VALUE_STRING && textEquals(parser, "ticker");
+                    case "type" -> tickerType = token == JsonToken.VALUE_STRING
+                            && (textEquals(parser, "ticker") || textEquals(parser, "update")
+                            || textEquals(parser, "snapshot"));
+                    case "data" -> {
+                        if (token == JsonToken.START_ARRAY) {
+                            readData(parser, symbols);
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                    case "method" -> responseMethod = parser.getValueAsString();
+                    case "result" -> {
+                        hasResult = true;
+                        responseResult = token.isStructStart()
+                                ? parser.readValueAsTree().toString()
+                                : parser.getValueAsString();
+                    }
+                    default -> parser.skipChildren();
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            discardStaged();
+            throw e;
+        }
+
+        if (tickerChannel && tickerType) {
+            int committed = 0;
+            try {
+                for (; committed < updatedCount; committed++) {
+                    updated[committed].commit();
+                }
+            } finally {
+                for (int i = committed + 1; i < updatedCount; i++) {
+                    updated[i].discard();
+                }
+                updatedCount = Math.min(committed, updatedCount);
+            }
+            return FrameKind.TICKER;
+        }
+        discardStaged();
+        return hasResult && responseMethod != null ? FrameKind.RESPONSE : FrameKind.OTHER;
+    }
+
+    /** Number of symbols tracked. */
+    public int getSymbolCount() {
+        return index.count;
+    }
+
+    /** Number of symbols updated by the last ticker frame. */
+    public int getUpdatedCount() {
+        return updatedCount;
+    }
+
+    public TickerState getUpdated(int index) {
+        return updated[index];
+    }
+
+    /** Number of entries in the {@code data} array of the last frame, known or not. */
+    public int getEntryCount() {
+        return entryCount;
+    }
+
+    public String getResponseMethod() {
+        return responseMethod;
+    }
+
+    public String getResponseResult() {
+        return responseResult;
+    }
+
+    /** The state kept for a symbol, or null if the symbol is not tracked. */
+    public TickerState getState(String symbol) {
+        return index.get(symbol);
+    }
+
+    private void readData(JsonParser parser, SymbolIndex symbols) throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY && token != null) {
+            if (token == JsonToken.START_OBJECT) {
+                entryCount++;
+                readEntry(parser, symbols);
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    private void readEntry(JsonParser parser, SymbolIndex symbols) throws IOException {
+        symbolSlot.clear();
+        askSlot.clear();
+        bidSlot.clear();
+        lastSlot.clear();
+        volumeSlot.clear();
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken token = parser.nextToken();
+            switch (field) {
+                case "symbol" -> {
+                    if (token == JsonToken.VALUE_STRING) {
+                        symbolSlot.capture(parser);
+                    }
+                }
+                case "ask" -> readNumber(parser, token, askSlot);
+                case "bid" -> readNumber(parser, token, bidSlot);
+                case "last" -> readNumber(parser, token, lastSlot);
+                case "volume" -> readNumber(parser, token, volumeSlot);
+                default -> parser.skipChildren();
+            }
+        }
+
+        TickerState state = symbolSlot.present ? symbols.lookup(symbolSlot.chars, symbolSlot.length) : null;
+        if (state == null) {
+            return;
+        }
+        askSlot.stageInto(state.ask);
+        bidSlot.stageInto(state.bid);
+        lastSlot.stageInto(state.last);
+        volumeSlot.stageInto(state.volume);
+        if (state.markStaged()) {
+            if (updatedCount == updated.length) {
+                TickerState[] grown = new TickerState[updated.length * 2];
+                System.arraycopy(updated, 0, grown, 0, updatedCount);
+                updated = grown;
+            }
+            updated[updatedCount++] = state;
+        }
+    }
+
+    /** Accepts a plain number, a numeric string, or an array whose first element is the price. */
+    private static void readNumber(JsonParser parser, JsonToken token, NumberSlot slot) throws IOException {
+        if (token == JsonToken.START_ARRAY) {
+            JsonToken first = parser.nextToken();
+            if (first != null && first.isScalarValue()) {
+                readNumber(parser, first, slot);
+            } else if (first != JsonToken.END_ARRAY) {
+                parser.skipChildren();
+            }
+            if (first != JsonToken.END_ARRAY) {
+                JsonToken rest;
+                while ((rest = parser.nextToken()) != JsonToken.END_ARRAY && rest != null) {
+                    parser.skipChildren();
+                }
+            }
+        } else if (token == JsonToken.VALUE_NUMBER_FLOAT || token == JsonToken.VALUE_NUMBER_INT
+                || token == JsonToken.VALUE_STRING) {
+            slot.capture(parser);
+        } else {
+            parser.skipChildren();
+        }
+    }
+
+    private void discardStaged() {
+        for (int i = 0; i < updatedCount; i++) {
+            updated[i].discard();
+        }
+        updatedCount = 0;
+    }
+
+    private static boolean textEquals(JsonParser parser, String expected) throws IOException {
+        int length = parser.getTextLength();
+        return length == expected.length()
+                && regionEquals(expected, parser.getTextCharacters(), parser.getTextOffset(), length);
+    }
+
+    private static boolean regionEquals(String s, char[] chars, int offset, int length) {
+        for (int i = 0; i < length; i++) {
+            if (s.charAt(i) != chars[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Open addressing table from symbol to state, probed with the raw characters of the
+     * symbol so that no {@code String} has to be created. Immutable once built.
+     */
+    private static final class SymbolIndex {
+        private final TickerState[] table;
+        private final int mask;
+        private final int count;
+
+        /** Takes over the state of symbols already in {@code previous}, if any. */
+        SymbolIndex(Collection<String> symbols, SymbolIndex previous) {
+            int capacity = Integer.highestOneBit(Math.max(symbols.size(), 1) * 4 - 1) << 1;
+            table = new TickerState[capacity];
+            mask = capacity - 1;
+            int added = 0;
+            for (String symbol : symbols) {
+                int slot = symbol.hashCode() & mask;
+                while (table[slot] != null && !table[slot].getSymbol().equals(symbol)) {
+                    slot = (slot + 1) & mask;
+                }
+                if (table[slot] == null) {
+                    TickerState existing = previous == null ? null : previous.get(symbol);
+                    table[slot] = existing != null ? existing : new TickerState(symbol);
+                    added++;
+                }
+            }
+            count = added;
+        }
+
+        TickerState get(String symbol) {
+            int slot = symbol.hashCode() & mask;
+            for (TickerState state = table[slot]; state != null; state = table[slot = (slot + 1) & mask]) {
+                if (state.getSymbol().equals(symbol)) {
+                    return state;
+                }
+            }
+            return null;
+        }
+
+        /** Same as {@link #get}, for the symbol in {@code chars[0, length)}; hashes like {@link String#hashCode}. */
+        TickerState lookup(char[] chars, int length) {
+            int h = 0;
+            for (int i = 0; i < length; i++) {
+                h = 31 * h + chars[i];
+            }
+            int slot = h & mask;
+            for (TickerState state = table[slot]; state != null; state = table[slot = (slot + 1) & mask]) {
+                String symbol = state.getSymbol();
+                if (symbol.length() == length && regionEquals(symbol, chars, 0, length)) {
+                    return state;
+                }
+            }
+            return null;
+        }
+    }
+
+    /** Reusable buffer for the symbol of the entry currently being read. */
+    private static final class TextSlot {
+        private char[] chars = new char[24];
+        private int length;
+        private boolean present;
+
+        void clear() {
+            present = false;
+        }
+
+        void capture(JsonParser parser) throws IOException {
+            int len = parser.getTextLength();
+            if (chars.length < len) {
+                chars = new char[Math.max(len, chars.length * 2)];
+            }
+            System.arraycopy(parser.getTextCharacters(), parser.getTextOffset(), chars, 0, len);
+            length = len;
+            present = true;
+        }
+    }
+
+    /** Reusable holder for one numeric field of the entry currently being read. */
+    private static final class NumberSlot {
+        private long value;
+        private boolean present;
+
+        void clear() {
+            present = false;
+        }
+
+        void capture(JsonParser parser) throws IOException {
+            value = FixedPoint.parse(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+            present = true;
+        }
+
+        void stageInto(DecimalField field) {
+            if (present) {
+                field.stage(value);
+            }
+        }
+    }
+}
@@ -0,0 +1,410 @@
+package com.example.cryptoinitializer.feed;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * The live Kraken v2 ticker feed. If {@code crypto.feed.kraken.record-file} is set, every
+ * frame received is also appended there in the format {@link ReplayFeedSource} reads.
+ * Frames are buffered and flushed once a second and on {@link #stop}, so the receiving
+ * thread never waits on the file while holding up the other connections.
+ *
+ * <p>{@link #start} returns immediately; connecting, subscribing and reconnecting all
+ * happen on a background thread. A lost connection is retried with exponential backoff
+ * and jitter, reset once frames flow again. Kraken sends a heartbeat every second while
+ * subscribed, so a session that has been silent for {@code heartbeat-timeout-ms} is
+ * treated as dead and replaced, rather than waiting for TCP to notice. Each new session
+ * resubscribes, and the snapshot Kraken answers with refreshes every price the gap left
+ * behind. The source can be started again after {@link #stop}, as a cluster node does
+ * when it takes over the feed once more.
+ *
+ * <p>The symbols are spread over as many connections as it takes to keep each to
+ * {@code symbols-per-connection}, so following hundreds of pairs neither needs one huge
+ * subscription nor puts every tick on one socket. Each connection reconnects on its own,
+ * and symbols added or removed while running are subscribed or unsubscribed on the
+ * connection they belong to, see {@link SubscriptionChunks}. Frames from all connections
+ * reach the sink one at a time.
+ */
+@Component
+@ConditionalOnProperty(name = "crypto.feed.source", havingValue = "kraken", matchIfMissing = true)
+public class KrakenWebSocketSource implements MarketDataSource {
+    private static final Logger logger = LoggerFactory.getLogger(KrakenWebSocketSource.class);
+    private static final long RECORDER_FLUSH_MS = 1000;
+
+    @Value("${crypto.feed.kraken.url:wss://ws.kraken.com/v2}")
+    private String url = "wss://ws.kraken.com/v2";
+
+    @Value("${crypto.feed.kraken.record-file:}")
+    private String recordFile = "";
+
+    @Value("${crypto.feed.kraken.reconnect-initial-ms:1000}")
+    private long reconnectInitialMs = 1000;
+
+    @Value("${crypto.feed.kraken.reconnect-max-ms:60000}")
+    private long reconnectMaxMs = 60000;
+
+    @Value("${crypto.feed.kraken.heartbeat-timeout-ms:10000}")
+    private long heartbeatTimeoutMs = 10000;
+
+    @Value("${crypto.feed.kraken.symbols-per-connection:100}")
+    private int symbolsPerConnection = 100;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    // Connections receive on threads of their own
+    private final ReentrantLock sinkLock = new ReentrantLock();
+    private volatile ScheduledExecutorService scheduler;
+
+    private volatile Consumer<String> sink;
+    private volatile List<Connection> connections = List.of();
+    private BufferedWriter recorder;
+    private Counter reconnects;
+
+    // Only touched on the scheduler thread
+    private SubscriptionChunks chunks;
+
+    @Override
+    public synchronized void start(Collection<String> symbols, Consumer<String> sink) {
+        this.sink = recordFile.isEmpty() ? sink : recording(sink);
+        reconnects = Counter.builder("crypto.feed.reconnects")
+                .description("Reconnects scheduled after a failed connect or a lost session")
+                .register(meterRegistry);
+        chunks = new SubscriptionChunks(symbolsPerConnection);
+        connections = List.of();
+        scheduler = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("kraken-feed").daemon().factory());
+        List<String> initial = new ArrayList<>(symbols);
+        scheduler.execute(() -> assign(initial));
+        long period = Math.max(heartbeatTimeoutMs / 4, 1);
+        scheduler.scheduleWithFixedDelay(this::checkHeartbeats, period, period, TimeUnit.MILLISECONDS);
+        BufferedWriter writer = recorder;
+        if (writer != null) {
+            scheduler.scheduleWithFixedDelay(() -> flushRecorder(writer), RECORDER_FLUSH_MS, RECORDER_FLUSH_MS,
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public void updateSymbols(Collection<String> symbols) {
+        ScheduledExecutorService current = scheduler;
+        if (current == null) {
+            return;
+        }
+        List<String> updated = new ArrayList<>(symbols);
+        try {
+            current.execute(() -> assign(updated));
+        } catch (RejectedExecutionException e) {
+            // Stopped; a restart subscribes to whatever it is given then
+        }
+    }
+
+    @Override
+    @PreDestroy
+    public synchronized void stop() {
+        sink = null;
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        for (Connection connection : connections) {
+            connection.close();
+        }
+        try {
+            if (recorder != null) {
+                recorder.close();
+                recorder = null;
+            }
+        } catch (IOException e) {
+            logger.debug("Error closing Kraken feed", e);
+        }
+    }
+
+    /** Whether every connection with symbols is up and delivering frames. */
+    @Override
+    public boolean isConnected() {
+        boolean any = false;
+        for (Connection connection : connections) {
+            if (connection.hasSymbols()) {
+                if (!connection.isConnected()) {
+                    return false;
+                }
+                any = true;
+            }
+        }
+        return any;
+    }
+
+    /** Number of connections, including any left without symbols. */
+    int getConnectionCount() {
+        return connections.size();
+    }
+
+    private void assign(List<String> symbols) {
+        List<Connection> updated = new ArrayList<>(connections);
+        for (SubscriptionChunks.Change change : chunks.update(symbols)) {
+            if (change.index() == updated.size()) {
+                updated.add(new Connection(change.index()));
+            }
+            updated.get(change.index()).apply(change);
+        }
+        connections = List.copyOf(updated);
+    }
+
+    private void checkHeartbeats() {
+        for (Connection connection : connections) {
+            connection.checkHeartbeat();
+        }
+    }
+
+    private static void flushRecorder(BufferedWriter writer) {
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            logger.warn("Failed to flush recorded feed frames", e);
+        }
+    }
+
+    private void deliver(String frame) {
+        sinkLock.lock();
+        try {
+            Consumer<String> current = sink;
+            if (current != null) {
+                current.accept(frame);
+            }
+        } finally {
+            sinkLock.unlock();
+        }
+    }
+
+    /**
+     * One WebSocket session and the symbols subscribed on it. Apart from the session and
+     * the time of its last frame, only touched on the scheduler thread.
+     */
+    private final class Connection {
+        private final int index;
+        private volatile List<String> symbols = List.of();
+        private volatile WebSocketSession session;
+        private volatile long lastFrameAt;
+        private int failedAttempts;
+        private boolean connecting;
+
+        Connection(int index) {
+            this.index = index;
+        }
+
+        boolean hasSymbols() {
+            return !symbols.isEmpty();
+        }
+
+        boolean isConnected() {
+            WebSocketSession current = session;
+            return current != null && current.isOpen()
+                    && System.nanoTime() - lastFrameAt <= TimeUnit.MILLISECONDS.toNanos(heartbeatTimeoutMs);
+        }
+
+        void apply(SubscriptionChunks.Change change) {
+            symbols = chunks.symbols(index);
+            WebSocketSession current = session;
+            if (symbols.isEmpty()) {
+                logger.info("WebSocket connection {} has no symbols left, closing it", index);
+                session = null;
+                closeQuietly(current);
+            } else if (current == null) {
+                // Subscribes to all of them once connected
+                connect();
+            } else {
+                if (!change.unsubscribe().isEmpty()) {
+                    send(current, "unsubscribe", change.unsubscribe());
+                }
+                if (!change.subscribe().isEmpty()) {
+                    send(current, "subscribe", change.subscribe());
+                }
+            }
+        }
+
+        void close() {
+            WebSocketSession current = session;
+            session = null;
+            closeQuietly(current);
+        }
+
+        private void connect() {
+            if (sink == null || connecting || session != null || symbols.isEmpty()) {
+                return;
+            }
+            connecting = true;
+            WebSocketHandler webSocketHandler = new TextWebSocketHandler() {
+                @Override
+                public void handleTextMessage(WebSocketSession session, TextMessage message) {
+                    if (session == Connection.this.session) {
+                        lastFrameAt = System.nanoTime();
+                        deliver(message.getPayload());
+                    }
+                }
+
+                @Override
+                public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+                    if (session == Connection.this.session) {
+                        logger.warn("WebSocket connection {} closed: {}", index, status);
+                        scheduler.execute(() -> reconnect(session));
+                    }
+                }
+            };
+
+            // A session completing after a restart must not land on the new scheduler
+            ScheduledExecutorService current = scheduler;
+            try {
+                new StandardWebSocketClient().execute(webSocketHandler, new WebSocketHttpHeaders(), URI.create(url))
+                        .whenComplete((session, error) -> {
+                            try {
+                                current.execute(() -> connected(session, error));
+                            } catch (RuntimeException e) {
+                                // Stopped while connecting
+                                closeQuietly(session);
+                            }
+                        });
+            } catch (RuntimeException e) {
+                connected(null, e);
+            }
+        }
+
+        private void connected(WebSocketSession session, Throwable error) {
+            connecting = false;
+            if (error != null) {
+                logger.warn("Failed to connect WebSocket connection {}: {}", index, error.toString());
+                scheduleReconnect();
+                return;
+            }
+            if (sink == null || symbols.isEmpty()) {
+                closeQuietly(session);
+                return;
+            }
+            lastFrameAt = System.nanoTime();
+            this.session = session;
+            logger.info("WebSocket connection {} established successfully", index);
+            send(session, "subscribe", symbols);
+        }
+
+        /** Replaces {@code session} if it is still the current one. */
+        private void reconnect(WebSocketSession session) {
+            if (session != this.session) {
+                return;
+            }
+            this.session = null;
+            closeQuietly(session);
+            scheduleReconnect();
+        }
+
+        private void scheduleReconnect() {
+            if (sink == null || symbols.isEmpty()) {
+                return;
+            }
+            // Full jitter keeps many instances from reconnecting in lockstep after an outage
+            long ceiling = Math.min(reconnectMaxMs, reconnectInitialMs << Math.min(failedAttempts, 20));
+            long delay = ThreadLocalRandom.current().nextLong(ceiling / 2, ceiling + 1);
+            failedAttempts++;
+            reconnects.increment();
+            logger.info("Reconnecting WebSocket connection {} in {} ms (attempt {})", index, delay, failedAttempts);
+            scheduler.schedule(this::connect, delay, TimeUnit.MILLISECONDS);
+        }
+
+        void checkHeartbeat() {
+            WebSocketSession current = session;
+            if (current == null) {
+                return;
+            }
+            long silentMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lastFrameAt);
+            if (!current.isOpen() || silentMs > heartbeatTimeoutMs) {
+                logger.warn("WebSocket connection {} silent for {} ms, reconnecting", index, silentMs);
+                reconnect(current);
+            } else {
+                // Frames are flowing again, so the next outage starts from the shortest delay
+                failedAttempts = 0;
+            }
+        }
+
+        private void send(WebSocketSession session, String method, List<String> symbols) {
+            try {
+                String message = objectMapper.writeValueAsString(Map.of(
+                        "method", method,
+                        "params", Map.of(
+                                "channel", "ticker",
+                                "symbol", symbols
+                        )
+                ));
+
+                logger.info("Sending {} message on connection {}: {}", method, index, message);
+                session.sendMessage(new TextMessage(message));
+            } catch (Exception e) {
+                logger.error("Error sending {} message", method, e);
+                reconnect(session);
+            }
+        }
+    }
+
+    private static void closeQuietly(WebSocketSession session) {
+        try {
+            if (session != null) {
+                session.close();
+            }
+        } catch (IOException e) {
+            logger.debug("Error closing WebSocket session", e);
+        }
+    }
+
+    private Consumer<String> recording(Consumer<String> sink) {
+        try {
+            recorder = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(Path.of(recordFile),
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND), StandardCharsets.UTF_8), 1 << 16);
+        } catch (IOException e) {
+            logger.error("Cannot record the feed to {}", recordFile, e);
+            return sink;
+        }
+        BufferedWriter writer = recorder;
+        return frame -> {
+            try {
+                writer.write(ReplayFeedSource.formatLine(
+                        TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis()), frame));
+            } catch (IOException e) {
+                logger.warn("Failed to record feed frame", e);
+            }
+            sink.accept(frame);
+        };
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.cryptoinitializer.feed;
+
+import java.util.Collection;
+import java.util.function.Consumer;
+
+/**
+ * Where ticker frames come from. Every source delivers Kraken v2 ticker frames as text,
+ * so the decoder and everything after it behave the same whichever source is configured
+ * with {@code crypto.feed.source}: {@code kraken} (default), {@code replay} or
+ * {@code synthetic}.
+ */
+public interface MarketDataSource {
+
+    /**
+     * Starts delivering frames for {@code symbols} to {@code sink}. Frames are delivered
+     * from one thread at a time, never concurrently.
+     */
+    void start(Collection<String> symbols, Consumer<String> sink);
+
+    /**
+     * Delivers frames for {@code symbols} from now on, instead of those it was started
+     * with. Sources that deliver whatever they have regardless, such as a replay, need not
+     * do anything.
+     */
+    default void updateSymbols(Collection<String> symbols) {
+    }
+
+    void stop();
+
+    boolean isConnected();
+}
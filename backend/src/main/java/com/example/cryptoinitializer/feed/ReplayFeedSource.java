@@ -0,0 +1,132 @@
+package com.example.cryptoinitializer.feed;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Replays recorded ticker frames from a file, one frame per line, each optionally
+ * preceded by its receive time in epoch microseconds and a tab (as written by
+ * {@link KrakenWebSocketSource}). Frames are replayed with their recorded spacing divided
+ * by {@code crypto.feed.replay.speed}, so 1 is real time and 10 ten times faster; 0
+ * replays as fast as the consumer keeps up. Lines without a time are spaced
+ * {@value #UNTIMED_INTERVAL_MS} ms apart.
+ */
+@Component
+@ConditionalOnProperty(name = "crypto.feed.source", havingValue = "replay")
+public class ReplayFeedSource implements MarketDataSource {
+    private static final Logger logger = LoggerFactory.getLogger(ReplayFeedSource.class);
+    public static final long UNTIMED_INTERVAL_MS = 100;
+
+    @Value("${crypto.feed.replay.file:}")
+    private String file = "";
+
+    @Value("${crypto.feed.replay.speed:1}")
+    private double speed = 1;
+
+    /** Start over at the end of the file instead of going quiet. */
+    @Value("${crypto.feed.replay.loop:true}")
+    private boolean loop = true;
+
+    private volatile Thread thread;
+    private volatile boolean connected;
+
+    /** One line of a recording; {@code epochMicros} is -1 if the line has no time. */
+    public record RecordedLine(long epochMicros, String frame) {
+
+        public static RecordedLine parse(String line) {
+            int tab = line.indexOf('\t');
+            if (tab > 0 && Character.isDigit(line.charAt(0))) {
+                return new RecordedLine(Long.parseLong(line, 0, tab, 10), line.substring(tab + 1));
+            }
+            return new RecordedLine(-1, line);
+        }
+    }
+
+    static String formatLine(long epochMicros, String frame) {
+        return epochMicros + "\t" + frame + "\n";
+    }
+
+    @Override
+    public synchronized void start(Collection<String> symbols, Consumer<String> sink) {
+        if (file.isEmpty()) {
+            throw new IllegalStateException("crypto.feed.replay.file is not set");
+        }
+        // Assigned before it runs, the thread stops as soon as it is no longer the current one
+        thread = Thread.ofPlatform().name("feed-replay").daemon().unstarted(() -> replay(Path.of(file), sink));
+        thread.start();
+    }
+
+    @Override
+    public synchronized void stop() {
+        Thread current = thread;
+        thread = null;
+        if (current != null) {
+            current.interrupt();
+        }
+    }
+
+    @Override
+    public boolean isConnected() {
+        return connected;
+    }
+
+    private void replay(Path path, Consumer<String> sink) {
+        connected = true;
+        try {
+            do {
+                replayOnce(path, sink);
+            } while (loop && thread == Thread.currentThread());
+        } catch (IOException e) {
+            logger.error("Failed to replay {}", path, e);
+        } finally {
+            connected = false;
+        }
+    }
+
+    private void replayOnce(Path path, Consumer<String> sink) throws IOException {
+        long startNanos = System.nanoTime();
+        long firstMicros = -1;
+        long untimedMicros = 0;
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null && thread == Thread.currentThread()) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                RecordedLine recorded = RecordedLine.parse(line);
+                long micros = recorded.epochMicros();
+                String frame = recorded.frame();
+                if (micros < 0) {
+                    micros = untimedMicros;
+                    untimedMicros += TimeUnit.MILLISECONDS.toMicros(UNTIMED_INTERVAL_MS);
+                }
+                if (firstMicros < 0) {
+                    firstMicros = micros;
+                }
+                if (speed > 0) {
+                    long due = startNanos + (long) ((micros - firstMicros) * 1000 / speed);
+                    for (long wait = due - System.nanoTime(); wait > 0; wait = due - System.nanoTime()) {
+                        LockSupport.parkNanos(wait);
+                        if (Thread.interrupted()) {
+                            return;
+                        }
+                    }
+                }
+                sink.accept(frame);
+            }
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.cryptoinitializer.feed;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Splits the symbols subscribed to over connections of at most {@code perConnection}
+ * symbols each. When the symbols change, those that stay keep their connection, removed
+ * ones are unsubscribed where they were, and added ones first fill up connections with
+ * room, so a change costs a message or two instead of resubscribing everything. A
+ * connection left without symbols keeps its index and is the first to be filled again.
+ */
+final class SubscriptionChunks {
+
+    /** What changes for the connection at {@code index}, which is new if past the previous {@link #size()}. */
+    record Change(int index, List<String> subscribe, List<String> unsubscribe) {
+    }
+
+    private final int perConnection;
+    private final List<Set<String>> chunks = new ArrayList<>();
+
+    SubscriptionChunks(int perConnection) {
+        if (perConnection < 1) {
+            throw new IllegalArgumentException("A connection needs room for at least one symbol");
+        }
+        this.perConnection = perConnection;
+    }
+
+    /** Assigns {@code symbols} to connections and returns what changed, by connection. */
+    List<Change> update(Collection<String> symbols) {
+        Set<String> unassigned = new LinkedHashSet<>(symbols);
+        List<List<String>> subscribe = new ArrayList<>();
+        List<List<String>> unsubscribe = new ArrayList<>();
+        for (Set<String> chunk : chunks) {
+            List<String> removed = new ArrayList<>();
+            for (Iterator<String> it = chunk.iterator(); it.hasNext(); ) {
+                String symbol = it.next();
+                if (!unassigned.remove(symbol)) {
+                    it.remove();
+                    removed.add(symbol);
+                }
+            }
+            unsubscribe.add(removed);
+            subscribe.add(new ArrayList<>());
+        }
+        Iterator<String> remaining = unassigned.iterator();
+        for (int i = 0; remaining.hasNext(); i++) {
+            if (i == chunks.size()) {
+                chunks.add(new LinkedHashSet<>());
+                subscribe.add(new ArrayList<>());
+                unsubscribe.add(List.of());
+            }
+            Set<String> chunk = chunks.get(i);
+            while (chunk.size() < perConnection && remaining.hasNext()) {
+                String symbol = remaining.next();
+                chunk.add(symbol);
+                subscribe.get(i).add(symbol);
+            }
+        }
+        List<Change> changes = new ArrayList<>();
+        for (int i = 0; i < chunks.size(); i++) {
+            if (!subscribe.get(i).isEmpty() || !unsubscribe.get(i).isEmpty()) {
+                changes.add(new Change(i, List.copyOf(subscribe.get(i)), List.copyOf(unsubscribe.get(i))));
+            }
+        }
+        return changes;
+    }
+
+    /** Number of connections, including any left without symbols. */
+    int size() {
+        return chunks.size();
+    }
+
+    /** The symbols of the connection at {@code index}. */
+    List<String> symbols(int index) {
+        return List.copyOf(chunks.get(index));
+    }
+}
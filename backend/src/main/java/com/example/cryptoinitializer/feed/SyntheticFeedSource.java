@@ -0,0 +1,208 @@
+package com.example.cryptoinitializer.feed;
+
+import com.example.cryptoinitializer.model.FixedPoint;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Generates ticker frames for any number of symbols without a network. Each tick moves
+ * one symbol, picked at random, by a normally distributed step of
+ * {@code crypto.feed.synthetic.volatility-bp} basis points; the spread is one basis
+ * point. Each symbol reports a fixed 24-hour volume, so they rank by volume as on Kraken.
+ * A fixed {@code seed} makes the sequence of frames repeatable. Symbols added while it
+ * runs get a price of their own, announced in a fresh snapshot.
+ */
+@Component
+@ConditionalOnProperty(name = "crypto.feed.source", havingValue = "synthetic")
+public class SyntheticFeedSource implements MarketDataSource {
+    private static final long MIN_PRICE = 100; // 0.000001
+    private static final long MAX_PRICE = FixedPoint.fromLong(1_000_000_000L);
+
+    /** Frames per second across all symbols; 0 generates as fast as the consumer keeps up. */
+    @Value("${crypto.feed.synthetic.ticks-per-second:20}")
+    private int ticksPerSecond = 20;
+
+    @Value("${crypto.feed.synthetic.volatility-bp:10}")
+    private double volatilityBp = 10;
+
+    @Value("${crypto.feed.synthetic.seed:42}")
+    private long seed = 42;
+
+    private volatile Thread thread;
+    // Picked up by the generating thread before its next frame
+    private volatile String[] symbols;
+
+    @Override
+    public synchronized void start(Collection<String> symbols, Consumer<String> sink) {
+        String[] names = symbols.toArray(new String[0]);
+        if (names.length == 0) {
+            throw new IllegalArgumentException("No symbols to generate");
+        }
+        this.symbols = names;
+        // Assigned before it runs, the thread stops as soon as it is no longer the current one
+        thread = Thread.ofPlatform().name("feed-synthetic").daemon().unstarted(() -> generate(names, sink));
+        thread.start();
+    }
+
+    @Override
+    public void updateSymbols(Collection<String> symbols) {
+        if (symbols.isEmpty()) {
+            throw new IllegalArgumentException("No symbols to generate");
+        }
+        this.symbols = symbols.toArray(new String[0]);
+    }
+
+    @Override
+    public synchronized void stop() {
+        Thread current = thread;
+        thread = null;
+        if (current != null) {
+            current.interrupt();
+        }
+    }
+
+    @Override
+    public boolean isConnected() {
+        return thread != null;
+    }
+
+    private void generate(String[] symbols, Consumer<String> sink) {
+        Walk walk = new Walk(symbols, seed, volatilityBp);
+        // Every symbol gets a price up front, like the snapshot Kraken sends on subscribe
+        sink.accept(walk.snapshot());
+
+        long interval = ticksPerSecond > 0 ? TimeUnit.SECONDS.toNanos(1) / ticksPerSecond : 0;
+        long due = System.nanoTime();
+        while (thread == Thread.currentThread()) {
+            if (interval > 0) {
+                due += interval;
+                for (long wait = due - System.nanoTime(); wait > 0; wait = due - System.nanoTime()) {
+                    LockSupport.parkNanos(wait);
+                    if (Thread.interrupted()) {
+                        return;
+                    }
+                }
+            }
+            String[] requested = symbols;
+            if (requested != walk.symbols) {
+                walk.setSymbols(requested);
+                sink.accept(walk.snapshot());
+            }
+            sink.accept(walk.next());
+        }
+    }
+
+    /** The random walk itself, separate from the thread that paces it. */
+    static final class Walk {
+        private String[] symbols;
+        private long[] asks;
+        private long[] volumes;
+        private final SplittableRandom random;
+        private final double volatility;
+        private final StringBuilder frame = new StringBuilder(256);
+
+        Walk(String[] symbols, long seed, double volatilityBp) {
+            this.random = new SplittableRandom(seed);
+            this.volatility = volatilityBp / 10_000;
+            this.symbols = new String[0];
+            this.asks = new long[0];
+            this.volumes = new long[0];
+            setSymbols(symbols);
+        }
+
+        /** Walks {@code symbols} from now on; symbols walked before keep their price. */
+        void setSymbols(String[] symbols) {
+            Map<String, Long> previous = new HashMap<>();
+            for (int i = 0; i < this.symbols.length; i++) {
+                previous.put(this.symbols[i], asks[i]);
+            }
+            long[] updated = new long[symbols.length];
+            long[] updatedVolumes = new long[symbols.length];
+            for (int i = 0; i < symbols.length; i++) {
+                Long ask = previous.get(symbols[i]);
+                // Log-uniform between 0.01 and 100,000, so tiny and large prices are both covered
+                updated[i] = ask != null ? ask : Math.round(Math.pow(10, random.nextDouble(-2, 5)) * FixedPoint.SCALE);
+                updatedVolumes[i] = volume(symbols[i]);
+            }
+            this.symbols = symbols;
+            this.asks = updated;
+            this.volumes = updatedVolumes;
+        }
+
+        String snapshot() {
+            frame.setLength(0);
+            frame.append("{\"channel\":\"ticker\",\"type\":\"snapshot\",\"data\":[");
+            for (int i = 0; i < symbols.length; i++) {
+                if (i > 0) {
+                    frame.append(',');
+                }
+                appendEntry(i);
+            }
+            return frame.append("]}").toString();
+        }
+
+        String next() {
+            int i = random.nextInt(symbols.length);
+            double step = random.nextGaussian() * volatility;
+            asks[i] = Math.clamp(Math.round(asks[i] * (1 + step)), MIN_PRICE, MAX_PRICE);
+
+            frame.setLength(0);
+            frame.append("{\"channel\":\"ticker\",\"type\":\"update\",\"data\":[");
+            appendEntry(i);
+            return frame.append("]}").toString();
+        }
+
+        private void appendEntry(int i) {
+            long ask = asks[i];
+            long bid = ask - Math.max(1, ask / 10_000);
+            frame.append("{\"symbol\":\"").append(symbols[i]).append("\",\"bid\":");
+            appendFixed(bid);
+            frame.append(",\"ask\":");
+            appendFixed(ask);
+            frame.append(",\"last\":");
+            appendFixed(ask);
+            frame.append(",\"volume\":");
+            appendFixed(volumes[i]);
+            frame.append('}');
+        }
+
+        /**
+         * A fixed 24-hour volume per symbol, log-uniform between 1 and 10,000,000 and
+         * derived from the symbol alone, so that the symbols rank by volume the same way
+         * every run without drawing from the walk's random numbers.
+         */
+        static long volume(String symbol) {
+            double unit = (new SplittableRandom(symbol.hashCode()).nextLong() >>> 11) * 0x1.0p-53;
+            return Math.round(Math.pow(10, unit * 7)) * FixedPoint.SCALE;
+        }
+
+        /** Appends a non-negative {@link FixedPoint} value without trailing zeros. */
+        private void appendFixed(long value) {
+            frame.append(value / FixedPoint.SCALE);
+            long fraction = value % FixedPoint.SCALE;
+            if (fraction == 0) {
+                return;
+            }
+            int digits = FixedPoint.DECIMALS;
+            while (fraction % 10 == 0) {
+                fraction /= 10;
+                digits--;
+            }
+            frame.append('.');
+            // Leading zeros of the fraction
+            for (int pad = digits - (int) Math.log10(fraction) - 1; pad > 0; pad--) {
+                frame.append('0');
+            }
+            frame.append(fraction);
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package com.example.cryptoinitializer.feed;
+
+import com.example.cryptoinitializer.model.FeedStatus;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Moves ticker decoding off the thread that receives frames.
+ *
+ * <p>The receive thread only {@link #offer offers} the raw frame to a bounded
+ * {@link FrameRing}; if the ring is full the frame is dropped and counted rather than
+ * blocking the socket. A single apply thread drains whatever has queued up, decodes each
+ * frame into the per-symbol {@link TickerState}s, and then hands every touched symbol to
+ * the apply callback once, with its latest values. Ticks for a symbol that is already
+ * waiting in the batch are conflated into it, so a burst costs one apply per symbol
+ * however many frames it held.
+ *
+ * <p>Counters and latencies are written by one thread each and can be read at any time
+ * through {@link #stats()}, or as meters once {@link #bindTo bound} to a registry.
+ */
+public class TickPipeline {
+    private static final Logger logger = LoggerFactory.getLogger(TickPipeline.class);
+    private static final int SPINS_BEFORE_PARK = 100;
+
+    private final FrameRing ring;
+    private final KrakenTickerDecoder decoder;
+    private final Consumer<TickerState> apply;
+    private TickerState[] batch;
+    private final FrameRing.Handler decodeFrame = this::decode;
+
+    private volatile Thread thread;
+    private volatile boolean parked;
+    private int batchSize;
+
+    // Producer counters
+    private volatile long received;
+    private volatile long dropped;
+
+    // Apply thread counters
+    private volatile long decoded;
+    private volatile long ticks;
+    private volatile long applied;
+    private volatile long conflated;
+    private final Latency queueWait = new Latency();
+    private final Latency decodeTime = new Latency();
+    private final Latency applyTime = new Latency();
+
+    /**
+     * @param capacity frames the ring can hold, a power of two
+     * @param apply    called on the apply thread for each symbol changed in a batch
+     */
+    public TickPipeline(int capacity, KrakenTickerDecoder decoder, Consumer<TickerState> apply) {
+        this.ring = new FrameRing(capacity);
+        this.decoder = decoder;
+        this.apply = apply;
+        this.batch = new TickerState[Math.max(decoder.getSymbolCount(), 1)];
+    }
+
+    public synchronized void start() {
+        if (thread == null) {
+            // Assigned before it runs, the thread stops as soon as it is no longer the current one
+            thread = Thread.ofPlatform().name("feed-apply").daemon().unstarted(this::run);
+            thread.start();
+        }
+    }
+
+    public synchronized void stop() {
+        Thread current = thread;
+        thread = null;
+        if (current != null) {
+            LockSupport.unpark(current);
+        }
+    }
+
+    /**
+     * Queues a frame for decoding. Returns false if the ring was full and the frame was
+     * dropped. Only one thread may offer at a time.
+     */
+    public boolean offer(String frame) {
+        received++;
+        if (!ring.offer(frame, System.nanoTime())) {
+            dropped++;
+            return false;
+        }
+        if (parked) {
+            LockSupport.unpark(thread);
+        }
+        return true;
+    }
+
+    /**
+     * Decodes and applies one frame on the calling thread, without queueing or conflation.
+     * For callers that feed the pipeline's decoder themselves while nothing is offered.
+     *
+     * @throws IllegalStateException once a frame has been offered, as the apply thread
+     *                               would then be using the decoder too
+     */
+    public void process(String frame) {
+        if (received != 0) {
+            throw new IllegalStateException("Frames are being offered, process them through the ring");
+        }
+        decode(frame, System.nanoTime());
+        applyBatch();
+    }
+
+    public FeedStatus.Pipeline stats() {
+        return new FeedStatus.Pipeline(ring.size(), ring.capacity(), received, dropped, decoded, ticks,
+                applied, conflated, queueWait.snapshot(), decodeTime.snapshot(), applyTime.snapshot());
+    }
+
+    /**
+     * Registers meters reading the pipeline's own counters, so recording costs nothing
+     * beyond what {@link #stats()} already needs.
+     */
+    public void bindTo(MeterRegistry registry) {
+        counter(registry, "crypto.feed.frames", "received", "Frames offered by the source", p -> p.received);
+        counter(registry, "crypto.feed.frames", "dropped", "Frames refused because the queue was full",
+                p -> p.dropped);
+        counter(registry, "crypto.feed.frames", "decoded", "Frames decoded", p -> p.decoded);
+        counter(registry, "crypto.feed.ticks", "decoded", "Symbol updates found in decoded frames", p -> p.ticks);
+        counter(registry, "crypto.feed.ticks", "applied", "Symbol updates applied after conflation", p -> p.applied);
+        counter(registry, "crypto.feed.ticks", "conflated", "Symbol updates superseded within a batch",
+                p -> p.conflated);
+        Gauge.builder("crypto.feed.queue.depth", ring, FrameRing::size)
+                .description("Frames waiting to be decoded")
+                .register(registry);
+        queueWait.bindTo(registry, "crypto.feed.queue.wait", "Time from receipt until decoding started");
+        decodeTime.bindTo(registry, "crypto.feed.decode", "Time to decode one frame");
+        applyTime.bindTo(registry, "crypto.feed.apply", "Time to apply one batch of ticks");
+    }
+
+    private void counter(MeterRegistry registry, String name, String stage, String description,
+                         ToDoubleFunction<TickPipeline> count) {
+        FunctionCounter.builder(name, this, count)
+                .description(description)
+                .tag("stage", stage)
+                .register(registry);
+    }
+
+    private void run() {
+        int idle = 0;
+        while (thread == Thread.currentThread()) {
+            if (ring.drain(decodeFrame, ring.capacity()) > 0) {
+                applyBatch();
+                idle = 0;
+            } else if (++idle < SPINS_BEFORE_PARK) {
+                Thread.onSpinWait();
+            } else {
+                parked = true;
+                // Checked again after publishing the flag, so a frame offered meanwhile is not missed
+                if (ring.isEmpty() && thread == Thread.currentThread()) {
+                    LockSupport.park(this);
+                }
+                parked = false;
+                idle = 0;
+            }
+        }
+    }
+
+    private void decode(String frame, long enqueuedAt) {
+        long start = System.nanoTime();
+        queueWait.record(start - enqueuedAt);
+        try {
+            logger.debug("Received feed frame: {}", frame);
+            KrakenTickerDecoder.FrameKind kind = decoder.decode(frame);
+            if (kind == KrakenTickerDecoder.FrameKind.TICKER) {
+                for (int i = 0; i < decoder.getUpdatedCount(); i++) {
+                    TickerState ticker = decoder.getUpdated(i);
+                    if (ticker.pending) {
+                        conflated++;
+                    } else {
+                        ticker.pending = true;
+                        if (batchSize == batch.length) {
+                            // Symbols were added since the pipeline was created
+                            batch = Arrays.copyOf(batch, batch.length * 2);
+                        }
+                        batch[batchSize++] = ticker;
+                    }
+                }
+                ticks += decoder.getUpdatedCount();
+            } else if (kind == KrakenTickerDecoder.FrameKind.RESPONSE) {
+                logger.info("Received response for method '{}': {}",
+                        decoder.getResponseMethod(), decoder.getResponseResult());
+            }
+        } catch (Exception e) {
+            logger.error("Error decoding feed frame", e);
+        }
+        decoded++;
+        decodeTime.record(System.nanoTime() - start);
+    }
+
+    private void applyBatch() {
+        if (batchSize == 0) {
+            return;
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < batchSize; i++) {
+            TickerState ticker = batch[i];
+            batch[i] = null;
+            ticker.pending = false;
+            try {
+                apply.accept(ticker);
+            } catch (Exception e) {
+                logger.error("Error applying tick for {}", ticker.getSymbol(), e);
+            }
+        }
+        applied += batchSize;
+        batchSize = 0;
+        applyTime.record(System.nanoTime() - start);
+    }
+
+    /** Count, total and maximum of one stage's latency. Written by a single thread. */
+    private static final class Latency {
+        private volatile long count;
+        private volatile long totalNanos;
+        private volatile long maxNanos;
+
+        void record(long nanos) {
+            count++;
+            totalNanos += nanos;
+            if (nanos > maxNanos) {
+                maxNanos = nanos;
+            }
+        }
+
+        void bindTo(MeterRegistry registry, String name, String description) {
+            FunctionTimer.builder(name, this, latency -> latency.count, latency -> latency.totalNanos,
+                            TimeUnit.NANOSECONDS)
+                    .description(description)
+                    .register(registry);
+            TimeGauge.builder(name + ".max", this, TimeUnit.NANOSECONDS, latency -> latency.maxNanos)
+                    .description(description + ", longest since startup")
+                    .register(registry);
+        }
+
+        FeedStatus.Latency snapshot() {
+            long n = count;
+            return new FeedStatus.Latency(n, n == 0 ? 0 : totalNanos / n / 1000.0, maxNanos / 1000.0);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.cryptoinitializer.feed;
+
+import com.example.cryptoinitializer.model.SymbolTable;
+
+/**
+ * Latest ticker values for one symbol, updated in place by {@link KrakenTickerDecoder}.
+ * Only the fields the simulator uses are kept; everything else in the frame is skipped.
+ * Values are {@link com.example.cryptoinitializer.model.FixedPoint} longs.
+ */
+public final class TickerState {
+    private final String symbol;
+    private final int id;
+
+    final DecimalField ask = new DecimalField();
+    final DecimalField bid = new DecimalField();
+    final DecimalField last = new DecimalField();
+    final DecimalField volume = new DecimalField();
+
+    private boolean staged;
+    private boolean askChanged;
+
+    // Set by TickPipeline while the symbol is waiting to be applied in the current batch
+    boolean pending;
+
+    TickerState(String symbol) {
+        this.symbol = symbol;
+        this.id = SymbolTable.id(symbol);
+    }
+
+    boolean markStaged() {
+        boolean first = !staged;
+        staged = true;
+        return first;
+    }
+
+    void commit() {
+        try {
+            askChanged = ask.commit();
+            bid.commit();
+            last.commit();
+            volume.commit();
+        } finally {
+            discard();
+        }
+    }
+
+    void discard() {
+        staged = false;
+        ask.discard();
+        bid.discard();
+        last.discard();
+        volume.discard();
+    }
+
+    public String getSymbol() { return symbol; }
+
+    /** The symbol's {@link SymbolTable} id, for indexing per-symbol state without hashing the symbol. */
+    public int getId() { return id; }
+
+    /** Whether an ask has been seen for this symbol yet. */
+    public boolean hasAsk() { return ask.isPresent(); }
+
+    public boolean hasBid() { return bid.isPresent(); }
+    public boolean hasLast() { return last.isPresent(); }
+
+    /** Whether a 24-hour volume has been seen for this symbol yet. */
+    public boolean hasVolume() { return volume.isPresent(); }
+
+    public long getAsk() { return ask.get(); }
+    public long getBid() { return bid.get(); }
+    public long getLast() { return last.get(); }
+    public long getVolume() { return volume.get(); }
+
+    /** Whether the ask changed in the frame that last touched this symbol. */
+    public boolean isAskChanged() { return askChanged; }
+}
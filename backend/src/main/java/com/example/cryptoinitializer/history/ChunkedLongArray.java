@@ -0,0 +1,59 @@
+package com.example.cryptoinitializer.history;
+
+import java.util.Arrays;
+
+/**
+ * Growable array of longs with one writer and any number of concurrent readers.
+ *
+ * <p>Values live in fixed-size chunks that never move once allocated, so growing only
+ * copies the small array of chunk references. The writer stores a value before
+ * publishing the new size through a volatile write; a reader that reads {@link #size()}
+ * first can then read every index below it without locking.
+ */
+public final class ChunkedLongArray {
+    private static final int CHUNK_BITS = 10;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private volatile long[][] chunks = new long[1][];
+    private volatile int size;
+
+    public int size() {
+        return size;
+    }
+
+    public long get(int index) {
+        return chunks[index >>> CHUNK_BITS][index & CHUNK_MASK];
+    }
+
+    /** Appends a value. Only one thread may append at a time. */
+    public void add(long value) {
+        int index = size;
+        int chunk = index >>> CHUNK_BITS;
+        long[][] current = chunks;
+        if (chunk == current.length) {
+            current = Arrays.copyOf(current, current.length * 2);
+        }
+        if (current[chunk] == null) {
+            current[chunk] = new long[CHUNK_SIZE];
+            chunks = current;
+        }
+        current[chunk][index & CHUNK_MASK] = value;
+        size = index + 1;
+    }
+
+    /** Index of the first value in {@code [from, to)} that is {@code >= key}, assuming they ascend. */
+    public int lowerBound(int from, int to, long key) {
+        int low = from;
+        int high = to;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (get(mid) < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,215 @@
+package com.example.cryptoinitializer.history;
+
+import com.example.cryptoinitializer.journal.JournalRecord;
+import com.example.cryptoinitializer.model.SymbolTable;
+import com.example.cryptoinitializer.model.Transaction;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Append-only transaction history of one account, stored as primitive columns and indexed
+ * by symbol and by time.
+ *
+ * <p>A trade takes one slot in each column: symbol id and type packed together, the
+ * {@link com.example.cryptoinitializer.model.FixedPoint FixedPoint} amounts, the
+ * timestamp in nanoseconds since the epoch and the two halves of its UUID. That is 64
+ * bytes plus 8 for the symbol index, against several hundred for a {@link Transaction}
+ * with its strings, decimals and date. Transactions are only built for the entries a
+ * caller actually reads.
+ *
+ * <p>Appends come from one writer at a time (the account's lock holder) and readers never
+ * lock: every column is a chunked array whose size is published after its contents, and
+ * the history publishes its own size last, so everything below a size a reader has seen
+ * is complete in every column and index.
+ *
+ * <p>The time index relies on the timestamp column never decreasing; if the clock steps
+ * back, an entry is recorded at the previous entry's time. Each symbol keeps the
+ * positions of its entries, so a page filtered by symbol or time range only touches
+ * matching entries. Type is filtered while scanning.
+ */
+public final class TransactionHistory {
+    private static final JournalRecord.Type[] TYPES = JournalRecord.Type.values();
+
+    private final String userId;
+    private final ChunkedLongArray symbolAndType = new ChunkedLongArray();
+    private final ChunkedLongArray quantities = new ChunkedLongArray();
+    private final ChunkedLongArray prices = new ChunkedLongArray();
+    private final ChunkedLongArray totals = new ChunkedLongArray();
+    private final ChunkedLongArray profitLosses = new ChunkedLongArray();
+    private final ChunkedLongArray timestamps = new ChunkedLongArray();
+    private final ChunkedLongArray idHigh = new ChunkedLongArray();
+    private final ChunkedLongArray idLow = new ChunkedLongArray();
+    private final Map<String, ChunkedLongArray> bySymbol = new ConcurrentHashMap<>();
+    private volatile int size;
+
+    public TransactionHistory(String userId) {
+        this.userId = userId;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** Appends a buy or sell. The caller must hold the account's lock. */
+    public void add(JournalRecord record) {
+        if (record.type() == JournalRecord.Type.RESET) {
+            throw new IllegalArgumentException("Only trades are kept in the history");
+        }
+        int position = size;
+        long timestamp = toNanos(record.timestamp());
+        if (position > 0) {
+            timestamp = Math.max(timestamp, timestamps.get(position - 1));
+        }
+        UUID id = UUID.fromString(record.transactionId());
+
+        symbolAndType.add(((long) SymbolTable.id(record.symbol()) << 8) | record.type().ordinal());
+        quantities.add(record.quantity());
+        prices.add(record.price());
+        totals.add(record.total());
+        profitLosses.add(record.profitLoss());
+        timestamps.add(timestamp);
+        idHigh.add(id.getMostSignificantBits());
+        idLow.add(id.getLeastSignificantBits());
+        bySymbol.computeIfAbsent(record.symbol(), symbol -> new ChunkedLongArray()).add(position);
+        size = position + 1;
+    }
+
+    /** The entry at {@code position}, in the form it was journaled (without a sequence). */
+    public JournalRecord record(int position) {
+        long packed = symbolAndType.get(position);
+        long nanos = timestamps.get(position);
+        return new JournalRecord(0, TYPES[(int) (packed & 0xff)],
+                new UUID(idHigh.get(position), idLow.get(position)).toString(), userId,
+                SymbolTable.name((int) (packed >>> 8)), quantities.get(position), prices.get(position),
+                totals.get(position), profitLosses.get(position),
+                LocalDateTime.ofEpochSecond(Math.floorDiv(nanos, 1_000_000_000L),
+                        (int) Math.floorMod(nanos, 1_000_000_000L), ZoneOffset.UTC));
+    }
+
+    /** Every entry appended so far, oldest first. Later appends do not show up in the list. */
+    public List<JournalRecord> records() {
+        int end = size;
+        return new AbstractList<>() {
+            @Override
+            public JournalRecord get(int index) {
+                return record(checkIndex(index, end));
+            }
+
+            @Override
+            public int size() {
+                return end;
+            }
+        };
+    }
+
+    /** Like {@link #records()}, materializing each entry as a {@link Transaction} when read. */
+    public List<Transaction> view() {
+        int end = size;
+        return new AbstractList<>() {
+            @Override
+            public Transaction get(int index) {
+                return record(checkIndex(index, end)).toTransaction();
+            }
+
+            @Override
+            public int size() {
+                return end;
+            }
+        };
+    }
+
+    public TransactionPage query(TransactionQuery query) {
+        int end = size;
+        int upper = query.cursor() == null ? end : Math.min(parseCursor(query.cursor()), end);
+        int lower = 0;
+        if (query.from() != null) {
+            lower = timestamps.lowerBound(0, upper, toNanos(query.from()));
+        }
+        if (query.to() != null && toNanos(query.to()) < Long.MAX_VALUE) {
+            upper = timestamps.lowerBound(lower, upper, toNanos(query.to()) + 1);
+        }
+
+        List<Transaction> page = new ArrayList<>(Math.min(query.limit(), Math.max(0, upper - lower)));
+        int last = -1;
+        boolean more = false;
+        if (query.symbol() == null) {
+            for (int position = upper - 1; position >= lower; position--) {
+                if (!matchesType(position, query)) {
+                    continue;
+                }
+                if (page.size() == query.limit()) {
+                    more = true;
+                    break;
+                }
+                page.add(record(position).toTransaction());
+                last = position;
+            }
+        } else {
+            ChunkedLongArray positions = bySymbol.get(query.symbol());
+            if (positions != null) {
+                int count = positions.size();
+                int first = positions.lowerBound(0, count, lower);
+                for (int i = positions.lowerBound(first, count, upper) - 1; i >= first; i--) {
+                    int position = (int) positions.get(i);
+                    if (!matchesType(position, query)) {
+                        continue;
+                    }
+                    if (page.size() == query.limit()) {
+                        more = true;
+                        break;
+                    }
+                    page.add(record(position).toTransaction());
+                    last = position;
+                }
+            }
+        }
+        return new TransactionPage(page, more ? Integer.toString(last) : null);
+    }
+
+    private boolean matchesType(int position, TransactionQuery query) {
+        if (query.type() == null) {
+            return true;
+        }
+        JournalRecord.Type type = query.type() == Transaction.TransactionType.BUY
+                ? JournalRecord.Type.BUY : JournalRecord.Type.SELL;
+        return (symbolAndType.get(position) & 0xff) == type.ordinal();
+    }
+
+    private static int checkIndex(int index, int size) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return index;
+    }
+
+    private static int parseCursor(String cursor) {
+        try {
+            int position = Integer.parseInt(cursor);
+            if (position >= 0) {
+                return position;
+            }
+        } catch (NumberFormatException e) {
+            // fall through
+        }
+        throw new IllegalArgumentException("Invalid cursor: " + cursor);
+    }
+
+    /** Nanoseconds since the epoch, saturated for dates beyond what a long can hold. */
+    private static long toNanos(LocalDateTime timestamp) {
+        long seconds = timestamp.toEpochSecond(ZoneOffset.UTC);
+        if (seconds >= Long.MAX_VALUE / 1_000_000_000L) {
+            return Long.MAX_VALUE;
+        }
+        if (seconds <= Long.MIN_VALUE / 1_000_000_000L) {
+            return Long.MIN_VALUE;
+        }
+        return seconds * 1_000_000_000L + timestamp.getNano();
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.cryptoinitializer.history;
+
+import com.example.cryptoinitializer.model.Transaction;
+
+import java.util.List;
+
+/**
+ * One page of transactions, newest first.
+ *
+ * @param nextCursor pass back as {@link TransactionQuery#cursor()} for the next (older) page; null on the last page
+ */
+public record TransactionPage(List<Transaction> transactions, String nextCursor) {
+}
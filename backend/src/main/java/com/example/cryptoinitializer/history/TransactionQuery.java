@@ -0,0 +1,28 @@
+package com.example.cryptoinitializer.history;
+
+import com.example.cryptoinitializer.model.Transaction;
+
+import java.time.LocalDateTime;
+
+/**
+ * A page request over a user's transaction history. Every filter is optional.
+ *
+ * @param from   earliest timestamp to include
+ * @param to     latest timestamp to include
+ * @param cursor {@link TransactionPage#nextCursor()} of the previous page, or null for the newest page
+ */
+public record TransactionQuery(String symbol, Transaction.TransactionType type, LocalDateTime from,
+                               LocalDateTime to, String cursor, int limit) {
+    public static final int DEFAULT_LIMIT = 100;
+    public static final int MAX_LIMIT = 1000;
+
+    public TransactionQuery {
+        if (limit <= 0 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_LIMIT);
+        }
+    }
+
+    public static TransactionQuery latest(int limit) {
+        return new TransactionQuery(null, null, null, null, null, limit);
+    }
+}
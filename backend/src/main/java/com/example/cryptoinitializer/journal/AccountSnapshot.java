@@ -0,0 +1,104 @@
+package com.example.cryptoinitializer.journal;
+
+import com.example.cryptoinitializer.history.TransactionHistory;
+import com.example.cryptoinitializer.model.AccountState;
+import com.example.cryptoinitializer.model.Lot;
+import com.example.cryptoinitializer.model.LotQueue;
+import com.example.cryptoinitializer.model.Position;
+import com.example.cryptoinitializer.model.UserAccount;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One account as captured by a snapshot or spilled to disk.
+ *
+ * @param sequence journal sequence of the last record reflected in {@code state}; replay
+ *                 skips records for this account up to and including it
+ * @param history  the account's trades, oldest first
+ */
+public record AccountSnapshot(long sequence, AccountState state, List<JournalRecord> history) {
+
+    /** Captures {@code account}. The caller must hold its lock. */
+    public static AccountSnapshot of(UserAccount account) {
+        return new AccountSnapshot(account.getJournalSequence(), account.state(), account.history().records());
+    }
+
+    /** The same account without its trades, as snapshots keep it. */
+    public AccountSnapshot withoutHistory() {
+        return new AccountSnapshot(sequence, state, List.of());
+    }
+
+    /** Replaces the state, sequence and history of {@code account}. The caller must hold its lock. */
+    public void applyTo(UserAccount account) {
+        account.setState(state);
+        account.setJournalSequence(sequence);
+        TransactionHistory restored = new TransactionHistory(state.userId());
+        history.forEach(restored::add);
+        account.setHistory(restored);
+    }
+
+    /** Writes the account's state, then its trades, so {@link #readState} can stop short of them. */
+    public void write(DataOutput out) throws IOException {
+        out.writeLong(sequence);
+        out.writeUTF(state.userId());
+        out.writeLong(state.balance());
+        out.writeInt(state.positions().size());
+        for (Position position : state.positions().values()) {
+            out.writeUTF(position.symbol());
+            out.writeLong(position.quantity());
+            out.writeLong(position.totalCost());
+            out.writeLong(position.realizedPnl());
+            LotQueue lots = position.lots();
+            out.writeInt(lots.size());
+            while (!lots.isEmpty()) {
+                lots = lots.prepare(true);
+                Lot lot = lots.oldest();
+                out.writeLong(lot.quantity());
+                out.writeLong(lot.cost());
+                lots = lots.removeOldest();
+            }
+        }
+        out.writeInt(history.size());
+        for (JournalRecord record : history) {
+            record.write(out);
+        }
+    }
+
+    public static AccountSnapshot read(DataInput in) throws IOException {
+        AccountSnapshot account = readState(in);
+        int historySize = in.readInt();
+        List<JournalRecord> history = new ArrayList<>(historySize);
+        for (int i = 0; i < historySize; i++) {
+            history.add(JournalRecord.read(in));
+        }
+        return new AccountSnapshot(account.sequence, account.state, history);
+    }
+
+    /** Reads an account written by {@link #write} without its trades, which are left unread. */
+    public static AccountSnapshot readState(DataInput in) throws IOException {
+        long sequence = in.readLong();
+        String userId = in.readUTF();
+        long balance = in.readLong();
+        int positionCount = in.readInt();
+        Map<String, Position> positions = new HashMap<>();
+        for (int i = 0; i < positionCount; i++) {
+            String symbol = in.readUTF();
+            long quantity = in.readLong();
+            long totalCost = in.readLong();
+            long realizedPnl = in.readLong();
+            int lotCount = in.readInt();
+            LotQueue lots = LotQueue.empty();
+            for (int j = 0; j < lotCount; j++) {
+                lots = lots.addNewest(new Lot(in.readLong(), in.readLong()));
+            }
+            positions.put(symbol, new Position(symbol, quantity, totalCost, realizedPnl, lots));
+        }
+        return new AccountSnapshot(sequence, new AccountState(userId, balance, positions), List.of());
+    }
+}
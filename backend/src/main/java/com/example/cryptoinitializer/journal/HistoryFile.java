@@ -0,0 +1,110 @@
+package com.example.cryptoinitializer.journal;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Trade history journaled between two snapshots, kept once the journal segments holding
+ * it are deleted. Trades are grouped by account, and a reset drops the account's earlier
+ * trades instead of being kept itself, so a file only holds the trades that are still
+ * part of some account's history. Files are framed and written like a
+ * {@link SnapshotFile}; the journal sequences a file covers are part of its name.
+ */
+final class HistoryFile {
+    private static final int MAGIC = 0x43534854;
+
+    private HistoryFile() {
+    }
+
+    /** The trades of one account, in journal order. */
+    static final class Trades {
+        // Whether the account was reset, so that trades before these ones are dropped
+        private boolean reset;
+        private final List<JournalRecord> records = new ArrayList<>();
+
+        boolean reset() {
+            return reset;
+        }
+
+        List<JournalRecord> records() {
+            return records;
+        }
+
+        void add(JournalRecord record) {
+            if (record.type() == JournalRecord.Type.RESET) {
+                reset = true;
+                records.clear();
+            } else {
+                records.add(record);
+            }
+        }
+
+        /** Appends trades journaled after these ones. */
+        void addAll(Trades later) {
+            if (later.reset) {
+                reset = true;
+                records.clear();
+            }
+            records.addAll(later.records);
+        }
+    }
+
+    /** Groups journal records by account, in the order they were read. */
+    static final class Builder {
+        private final Map<String, Trades> accounts = new LinkedHashMap<>();
+
+        void add(JournalRecord record) {
+            accounts.computeIfAbsent(record.userId(), userId -> new Trades()).add(record);
+        }
+
+        /** Adds a file covering the sequences right after the ones added so far. */
+        void addAll(Map<String, Trades> later) {
+            later.forEach((userId, trades) -> accounts.computeIfAbsent(userId, id -> new Trades()).addAll(trades));
+        }
+
+        Map<String, Trades> accounts() {
+            return accounts;
+        }
+    }
+
+    static void write(Path target, Map<String, Trades> accounts) throws IOException {
+        SnapshotFile.writeChecked(target, MAGIC, out -> {
+            for (Map.Entry<String, Trades> entry : accounts.entrySet()) {
+                Trades trades = entry.getValue();
+                out.writeBoolean(true);
+                out.writeUTF(entry.getKey());
+                out.writeBoolean(trades.reset);
+                out.writeInt(trades.records.size());
+                for (JournalRecord record : trades.records) {
+                    record.write(out);
+                }
+            }
+            out.writeBoolean(false);
+        });
+    }
+
+    /**
+     * Reads the trades of every account in {@code source}.
+     *
+     * @throws IOException if the file is truncated or its checksum does not match
+     */
+    static Map<String, Trades> read(Path source) throws IOException {
+        return SnapshotFile.readChecked(source, MAGIC, in -> {
+            Map<String, Trades> accounts = new LinkedHashMap<>();
+            while (in.readBoolean()) {
+                Trades trades = new Trades();
+                accounts.put(in.readUTF(), trades);
+                trades.reset = in.readBoolean();
+                int count = in.readInt();
+                for (int i = 0; i < count; i++) {
+                    trades.records.add(JournalRecord.read(in));
+                }
+            }
+            return accounts;
+        });
+    }
+}
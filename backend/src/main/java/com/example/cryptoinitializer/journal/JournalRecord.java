@@ -0,0 +1,112 @@
+package com.example.cryptoinitializer.journal;
+
+import com.example.cryptoinitializer.model.FixedPoint;
+import com.example.cryptoinitializer.model.Transaction;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * One entry of the trade journal: a fill, or the reset of an account. Amounts are
+ * {@link FixedPoint} values; the transaction id is stored as 16 bytes.
+ *
+ * @param sequence position in the journal, assigned on append
+ */
+public record JournalRecord(long sequence, Type type, String transactionId, String userId, String symbol,
+                            long quantity, long price, long total, long profitLoss, LocalDateTime timestamp) {
+
+    public enum Type { BUY, SELL, RESET }
+
+    public static JournalRecord trade(Type type, String userId, String symbol, long quantity, long price,
+                                      long total, long profitLoss) {
+        return new JournalRecord(0, type, newTransactionId(), userId, symbol, quantity, price, total,
+                profitLoss, LocalDateTime.now());
+    }
+
+    /**
+     * A random version 4 UUID. {@link UUID#randomUUID()} draws from a shared SecureRandom
+     * inside a monitor, which pins the virtual thread of every trade; an id only has to be
+     * unique, not unpredictable.
+     */
+    private static String newTransactionId() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long mostSignificant = random.nextLong() & ~0xF000L | 0x4000L;
+        long leastSignificant = random.nextLong() & 0x3FFFFFFFFFFFFFFFL | 0x8000000000000000L;
+        return new UUID(mostSignificant, leastSignificant).toString();
+    }
+
+    public static JournalRecord reset(String userId) {
+        return new JournalRecord(0, Type.RESET, null, userId, null, 0, 0, 0, 0, LocalDateTime.now());
+    }
+
+    public JournalRecord withSequence(long sequence) {
+        return new JournalRecord(sequence, type, transactionId, userId, symbol, quantity, price, total, profitLoss,
+                timestamp);
+    }
+
+    public Transaction toTransaction() {
+        Transaction transaction = new Transaction();
+        transaction.setId(transactionId);
+        transaction.setUserId(userId);
+        transaction.setCryptoSymbol(symbol);
+        transaction.setType(type == Type.BUY ? Transaction.TransactionType.BUY : Transaction.TransactionType.SELL);
+        transaction.setQuantity(FixedPoint.toBigDecimal(quantity));
+        transaction.setPrice(FixedPoint.toBigDecimal(price));
+        transaction.setTotal(FixedPoint.toBigDecimal(total));
+        transaction.setProfitLoss(FixedPoint.toBigDecimal(profitLoss));
+        transaction.setTimestamp(timestamp);
+        return transaction;
+    }
+
+    void write(DataOutput out) throws IOException {
+        out.writeLong(sequence);
+        out.writeByte(type.ordinal());
+        writeUuid(out, transactionId);
+        out.writeUTF(userId);
+        out.writeUTF(symbol == null ? "" : symbol);
+        out.writeLong(quantity);
+        out.writeLong(price);
+        out.writeLong(total);
+        out.writeLong(profitLoss);
+        out.writeLong(timestamp.toEpochSecond(ZoneOffset.UTC));
+        out.writeInt(timestamp.getNano());
+    }
+
+    static JournalRecord read(DataInput in) throws IOException {
+        long sequence = in.readLong();
+        Type type = Type.values()[in.readByte()];
+        String transactionId = readUuid(in);
+        String userId = in.readUTF();
+        String symbol = in.readUTF();
+        long quantity = in.readLong();
+        long price = in.readLong();
+        long total = in.readLong();
+        long profitLoss = in.readLong();
+        LocalDateTime timestamp = LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+        return new JournalRecord(sequence, type, transactionId, userId, symbol.isEmpty() ? null : symbol,
+                quantity, price, total, profitLoss, timestamp);
+    }
+
+    private static void writeUuid(DataOutput out, String id) throws IOException {
+        if (id == null) {
+            out.writeBoolean(false);
+            return;
+        }
+        UUID uuid = UUID.fromString(id);
+        out.writeBoolean(true);
+        out.writeLong(uuid.getMostSignificantBits());
+        out.writeLong(uuid.getLeastSignificantBits());
+    }
+
+    private static String readUuid(DataInput in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        return new UUID(in.readLong(), in.readLong()).toString();
+    }
+}
@@ -0,0 +1,215 @@
+package com.example.cryptoinitializer.journal;
+
+import com.example.cryptoinitializer.service.UserService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Restores accounts on startup and snapshots them periodically.
+ *
+ * <p>A snapshot is taken while trading continues: each account is captured under its own
+ * lock together with the sequence of the last record applied to it. Snapshots keep the
+ * compact state of each account, and the trades journaled since the previous snapshot go
+ * to a {@link HistoryFile} written just before it, so a snapshot takes time in proportion
+ * to the accounts and the new trades rather than to every trade ever made. Once both are
+ * on disk, the journal segments before the snapshot are deleted.
+ *
+ * <p>Recovery loads the latest snapshot and the history files up to it, then replays the
+ * journal from the snapshot's sequence on; records an account's snapshot already reflects
+ * only add to its history. The history files written since the previous start are merged
+ * into one while they are read anyway.
+ */
+@Service
+public class JournalService {
+    private static final Logger logger = LoggerFactory.getLogger(JournalService.class);
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".bin";
+    private static final String HISTORY_PREFIX = "history-";
+    private static final String HISTORY_SUFFIX = ".bin";
+
+    @Autowired
+    private TradeJournal tradeJournal;
+
+    @Autowired
+    private UserService userService;
+
+    // Not the monitor: a snapshot writes a file and takes account locks, which would pin a
+    // virtual thread to its carrier for the whole snapshot
+    private final ReentrantLock snapshotLock = new ReentrantLock();
+    private long lastSnapshotSequence = -1;
+    // First journal sequence not yet in a history file
+    private long historySequence = 1;
+
+    @PostConstruct
+    public void recover() throws IOException {
+        if (!tradeJournal.isEnabled()) {
+            return;
+        }
+        long start = System.nanoTime();
+        Path snapshot = latestSnapshot();
+        long sequence = 1;
+        int[] accounts = new int[1];
+        if (snapshot != null) {
+            sequence = SnapshotFile.read(snapshot, account -> {
+                userService.restore(account);
+                accounts[0]++;
+            });
+        }
+        long trades = restoreHistory(sequence);
+        long replayed = tradeJournal.replay(sequence, Long.MAX_VALUE, userService::replay);
+        historySequence = sequence;
+        lastSnapshotSequence = sequence - 1;
+        logger.info("Recovered {} accounts from {} with {} trades of history and replayed {} journal records in {} ms",
+                accounts[0], snapshot == null ? "no snapshot" : snapshot.getFileName(), trades, replayed,
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @Scheduled(fixedDelayString = "${crypto.journal.snapshot-interval-ms:300000}",
+            initialDelayString = "${crypto.journal.snapshot-interval-ms:300000}")
+    public void scheduledSnapshot() {
+        try {
+            snapshot();
+        } catch (IOException | UncheckedIOException e) {
+            logger.error("Failed to write account snapshot", e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduledSnapshot();
+    }
+
+    /**
+     * Writes a snapshot of every account unless nothing was journaled since the last one.
+     * Returns the snapshot file, or null if none was written.
+     */
+    public Path snapshot() throws IOException {
+        snapshotLock.lock();
+        try {
+            if (!tradeJournal.isEnabled()) {
+                return null;
+            }
+            long lastSequence = tradeJournal.lastSequence();
+            if (lastSequence == lastSnapshotSequence) {
+                return null;
+            }
+            long sequence = lastSequence + 1;
+            long start = System.nanoTime();
+            // The history first, so a snapshot on disk always has the trades before it
+            HistoryFile.Builder history = new HistoryFile.Builder();
+            tradeJournal.replay(historySequence, sequence, history::add);
+            HistoryFile.write(historyFile(historySequence, sequence), history.accounts());
+
+            // Records up to lastSequence were appended under their account's lock, which is only
+            // released after the new state is published, so capturing each account under that
+            // lock from here on includes all of them
+            Path target = tradeJournal.directory().resolve(String.format("%s%020d%s", SNAPSHOT_PREFIX, sequence,
+                    SNAPSHOT_SUFFIX));
+            SnapshotFile.write(target, sequence, userService::forEachAccount);
+            lastSnapshotSequence = lastSequence;
+            historySequence = sequence;
+
+            for (Path old : files(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX)) {
+                if (!old.equals(target)) {
+                    Files.deleteIfExists(old);
+                }
+            }
+            tradeJournal.deleteSegmentsBefore(sequence);
+            logger.info("Wrote account snapshot {} in {} ms", target.getFileName(), (System.nanoTime() - start) / 1_000_000);
+            return target;
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    /**
+     * Restores the history files covering the journal before {@code sequence}, merges them
+     * into one and returns how many trades they hold. Files a crash left behind, written
+     * for a snapshot that never made it to disk or already merged, are deleted.
+     */
+    private long restoreHistory(long sequence) throws IOException {
+        List<Path> files = files(HISTORY_PREFIX, HISTORY_SUFFIX);
+        // The widest file ending at each sequence: one merged before a crash covers its parts
+        Map<Long, Path> byEnd = new HashMap<>();
+        for (Path file : files) {
+            byEnd.merge(historyRange(file)[1], file,
+                    (kept, other) -> historyRange(kept)[0] <= historyRange(other)[0] ? kept : other);
+        }
+        List<Path> chain = new ArrayList<>();
+        long from = sequence;
+        while (from > 1 && byEnd.containsKey(from)) {
+            Path file = byEnd.get(from);
+            chain.add(0, file);
+            from = historyRange(file)[0];
+        }
+        if (from > 1) {
+            logger.warn("No trade history found before journal sequence {}", from);
+        }
+
+        HistoryFile.Builder history = new HistoryFile.Builder();
+        for (Path file : chain) {
+            history.addAll(HistoryFile.read(file));
+        }
+        Path merged = chain.size() == 1 ? chain.get(0) : null;
+        if (chain.size() > 1) {
+            merged = historyFile(from, sequence);
+            HistoryFile.write(merged, history.accounts());
+        }
+        for (Path file : files) {
+            if (!file.equals(merged)) {
+                Files.deleteIfExists(file);
+            }
+        }
+
+        long trades = 0;
+        for (Map.Entry<String, HistoryFile.Trades> entry : history.accounts().entrySet()) {
+            HistoryFile.Trades account = entry.getValue();
+            userService.restoreHistory(entry.getKey(), account.reset(), account.records());
+            trades += account.records().size();
+        }
+        return trades;
+    }
+
+    private Path historyFile(long from, long to) {
+        return tradeJournal.directory().resolve(String.format("%s%020d-%020d%s", HISTORY_PREFIX, from, to,
+                HISTORY_SUFFIX));
+    }
+
+    /** The journal sequences {@code [from, to)} a history file covers. */
+    private static long[] historyRange(Path file) {
+        String name = file.getFileName().toString();
+        String[] range = name.substring(HISTORY_PREFIX.length(), name.length() - HISTORY_SUFFIX.length()).split("-");
+        return new long[] {Long.parseLong(range[0]), Long.parseLong(range[1])};
+    }
+
+    private Path latestSnapshot() throws IOException {
+        List<Path> snapshots = files(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+        return snapshots.isEmpty() ? null : snapshots.get(snapshots.size() - 1);
+    }
+
+    private List<Path> files(String prefix, String suffix) throws IOException {
+        try (Stream<Path> files = Files.list(tradeJournal.directory())) {
+            return files.filter(path -> path.getFileName().toString().startsWith(prefix))
+                    .filter(path -> path.getFileName().toString().endsWith(suffix))
+                    .sorted(Comparator.naturalOrder())
+                    .toList();
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.cryptoinitializer.journal;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Binary snapshot of every account: a header, one entry per account and a checksum
+ * trailer. Entries hold the account's state but not its trades, which go to a
+ * {@link HistoryFile} written alongside, so a snapshot grows with the number of accounts
+ * and positions only. A snapshot is written to a temporary file and renamed into place,
+ * so a crash while writing leaves the previous snapshot intact.
+ */
+final class SnapshotFile {
+    private static final int MAGIC = 0x43534e50;
+    private static final int VERSION = 1;
+
+    /** Writes the body of a file, after its header. */
+    interface Body {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    /** Reads the body of a file, after its header. */
+    interface Reader<T> {
+        T read(DataInputStream in) throws IOException;
+    }
+
+    private SnapshotFile() {
+    }
+
+    /** Streams the accounts supplied by {@code source} into {@code target}. */
+    static void write(Path target, long sequence, Consumer<Consumer<AccountSnapshot>> source) throws IOException {
+        writeChecked(target, MAGIC, out -> {
+            out.writeLong(sequence);
+            IOException[] error = new IOException[1];
+            source.accept(account -> {
+                if (error[0] == null) {
+                    try {
+                        out.writeBoolean(true);
+                        account.withoutHistory().write(out);
+                    } catch (IOException e) {
+                        error[0] = e;
+                    }
+                }
+            });
+            if (error[0] != null) {
+                throw error[0];
+            }
+            out.writeBoolean(false);
+        });
+    }
+
+    /**
+     * Reads a snapshot, passing each account to {@code consumer}, and returns the journal
+     * sequence it was started at.
+     *
+     * @throws IOException if the file is truncated or its checksum does not match
+     */
+    static long read(Path source, Consumer<AccountSnapshot> consumer) throws IOException {
+        List<AccountSnapshot> accounts = new ArrayList<>();
+        long sequence = readChecked(source, MAGIC, in -> {
+            long started = in.readLong();
+            while (in.readBoolean()) {
+                accounts.add(AccountSnapshot.read(in));
+            }
+            return started;
+        });
+        accounts.forEach(consumer);
+        return sequence;
+    }
+
+    /**
+     * Writes a header, the body and a checksum trailer to a temporary file, forces it and
+     * renames it to {@code target}.
+     */
+    static void writeChecked(Path target, int magic, Body body) throws IOException {
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        CRC32C crc = new CRC32C();
+        try (OutputStream file = Files.newOutputStream(temp);
+             DataOutputStream out = new DataOutputStream(
+                     new BufferedOutputStream(new CheckedOutputStream(file, crc), 1 << 16))) {
+            out.writeInt(magic);
+            out.writeInt(VERSION);
+            body.write(out);
+            out.flush();
+            out.writeInt((int) crc.getValue());
+        }
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Reads a file written by {@link #writeChecked}. The body is only returned once its
+     * checksum has been verified.
+     *
+     * @throws IOException if the file is truncated or its checksum does not match
+     */
+    static <T> T readChecked(Path source, int magic, Reader<T> reader) throws IOException {
+        CRC32C crc = new CRC32C();
+        try (InputStream file = Files.newInputStream(source);
+             BufferedInputStream buffered = new BufferedInputStream(file, 1 << 16);
+             DataInputStream in = new DataInputStream(new CheckedInputStream(buffered, crc))) {
+            if (in.readInt() != magic || in.readInt() != VERSION) {
+                throw new IOException("Unexpected file format: " + source);
+            }
+            T body = reader.read(in);
+            int expected = (int) crc.getValue();
+            if (new DataInputStream(buffered).readInt() != expected) {
+                throw new IOException("Checksum mismatch: " + source);
+            }
+            return body;
+        }
+    }
+}
@@ -0,0 +1,478 @@
+package com.example.cryptoinitializer.journal;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only log of every account change, written to memory-mapped segment files.
+ *
+ * <p>Each record is framed as {@code [length][crc32c][payload]}; a zero length marks the
+ * end of a segment, and a checksum mismatch marks a write torn by a crash, which is
+ * dropped on the next start. Records appended together by {@link #appendAll} share one
+ * frame, so a crash keeps all of them or none. Segments are named after the sequence of
+ * their first record and rolled when full.
+ *
+ * <p>Commits are grouped: {@link #append} only copies the record into the mapping, and a
+ * single flusher thread forces everything appended since its previous flush with one
+ * call. Callers that need durability wait in {@link #awaitDurable}, so however many
+ * trades arrive while a flush is running, they share the next one. A full segment is
+ * handed to the flusher as well, which forces and closes it before the records after it,
+ * so rolling over never makes an append wait for the disk.
+ */
+@Component
+public class TradeJournal {
+    private static final Logger logger = LoggerFactory.getLogger(TradeJournal.class);
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final int HEADER_BYTES = 8;
+
+    @Value("${crypto.journal.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${crypto.journal.dir:data/journal}")
+    private String directory = "data/journal";
+
+    @Value("${crypto.journal.segment-size-mb:64}")
+    private int segmentSizeMb = 64;
+
+    /** Whether trades wait for their record to reach the disk before they are acknowledged. */
+    @Value("${crypto.journal.sync:true}")
+    private boolean sync = true;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition appended = lock.newCondition();
+    private final Condition flushed = lock.newCondition();
+
+    // Guarded by lock
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+    // Rolled segments the flusher has yet to force and close, oldest first
+    private final ArrayDeque<SealedSegment> sealed = new ArrayDeque<>();
+    private int position;
+    private int flushedPosition;
+    private long nextSequence = 1;
+    private long durableSequence;
+    private RuntimeException failure;
+    private boolean running;
+
+    private Thread flusher;
+
+    @PostConstruct
+    public void open() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        Files.createDirectories(directory());
+        List<Path> segments = segments();
+        lock.lock();
+        try {
+            if (segments.isEmpty()) {
+                mapSegment(1);
+            } else {
+                Path last = segments.get(segments.size() - 1);
+                mapSegment(firstSequence(last));
+                recoverTail();
+            }
+            durableSequence = nextSequence - 1;
+            running = true;
+        } finally {
+            lock.unlock();
+        }
+        flusher = Thread.ofPlatform().name("trade-journal-flusher").daemon().start(this::flushLoop);
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        if (flusher == null) {
+            return;
+        }
+        lock.lock();
+        try {
+            running = false;
+            appended.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        lock.lock();
+        try {
+            // Left over only if a flush failed
+            for (SealedSegment old : sealed) {
+                old.forceAndClose();
+            }
+            sealed.clear();
+            segment.force();
+            channel.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Path directory() {
+        return Path.of(directory);
+    }
+
+    /** Sequence of the last record appended, or 0 if the journal is empty. */
+    public long lastSequence() {
+        lock.lock();
+        try {
+            return nextSequence - 1;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Appends a record and returns the sequence assigned to it. The record is not durable
+     * until {@link #awaitDurable} returns for that sequence. Returns 0 if the journal is
+     * disabled.
+     *
+     * @throws IllegalStateException if the journal can no longer be written
+     */
+    public long append(JournalRecord record) {
+        return appendAll(List.of(record));
+    }
+
+    /**
+     * Appends records atomically, with consecutive sequences, and returns the sequence of
+     * the first. Either all of them survive a crash or none does. Returns 0 if the journal
+     * is disabled.
+     *
+     * @throws IllegalArgumentException if the records do not fit in one segment
+     * @throws IllegalStateException    if the journal can no longer be written
+     */
+    public long appendAll(List<JournalRecord> records) {
+        if (!enabled || records.isEmpty()) {
+            return 0;
+        }
+        int[] offsets = new int[records.size()];
+        byte[] payload = encode(records, offsets);
+        if (HEADER_BYTES + payload.length > segmentCapacity()) {
+            throw new IllegalArgumentException("Too many records to journal at once");
+        }
+        lock.lock();
+        try {
+            if (failure != null) {
+                throw new IllegalStateException("Trade journal is unavailable", failure);
+            }
+            long sequence = nextSequence;
+            ByteBuffer buffer = ByteBuffer.wrap(payload);
+            for (int i = 0; i < offsets.length; i++) {
+                buffer.putLong(offsets[i], sequence + i);
+            }
+            CRC32C crc = new CRC32C();
+            crc.update(payload);
+
+            int size = HEADER_BYTES + payload.length;
+            if (position + size > segment.capacity()) {
+                roll(sequence, size);
+            }
+            segment.put(position + HEADER_BYTES, payload);
+            segment.putInt(position + 4, (int) crc.getValue());
+            segment.putInt(position, payload.length);
+            position += size;
+            nextSequence += offsets.length;
+            appended.signal();
+            return sequence;
+        } catch (IOException | UncheckedIOException e) {
+            failure = new IllegalStateException("Trade journal write failed", e);
+            flushed.signalAll();
+            throw failure;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Blocks until every record up to {@code sequence} has been forced to disk. */
+    public void awaitDurable(long sequence) {
+        if (!enabled || !sync || sequence <= 0) {
+            return;
+        }
+        lock.lock();
+        try {
+            while (durableSequence < sequence) {
+                if (failure != null) {
+                    throw new IllegalStateException("Trade journal is unavailable", failure);
+                }
+                flushed.awaitUninterruptibly();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reads every record on disk, oldest first, and returns how many were read. Only
+     * meant for startup, before anything is appended.
+     */
+    public long replay(Consumer<JournalRecord> consumer) throws IOException {
+        return replay(1, Long.MAX_VALUE, consumer);
+    }
+
+    /**
+     * Reads the records with sequences in {@code [from, to)}, oldest first, and returns how
+     * many were read. Segments that end before {@code from} are not opened. May run while
+     * appends go on, once every record before {@code to} has been appended.
+     */
+    public long replay(long from, long to, Consumer<JournalRecord> consumer) throws IOException {
+        if (!enabled) {
+            return 0;
+        }
+        long count = 0;
+        List<Path> segments = segments();
+        for (int i = 0; i < segments.size(); i++) {
+            if (i + 1 < segments.size() && firstSequence(segments.get(i + 1)) <= from) {
+                continue;
+            }
+            if (firstSequence(segments.get(i)) >= to) {
+                break;
+            }
+            try (FileChannel file = FileChannel.open(segments.get(i), StandardOpenOption.READ)) {
+                ByteBuffer buffer = file.map(FileChannel.MapMode.READ_ONLY, 0, file.size());
+                int offset = 0;
+                int length;
+                while ((length = validRecordLength(buffer, offset)) > 0) {
+                    DataInputStream frame = frame(buffer, offset, length);
+                    while (frame.available() > 0) {
+                        JournalRecord record = JournalRecord.read(frame);
+                        if (record.sequence() >= to) {
+                            return count;
+                        }
+                        if (record.sequence() >= from) {
+                            consumer.accept(record);
+                            count++;
+                        }
+                    }
+                    offset += HEADER_BYTES + length;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Deletes segments that only hold records before {@code sequence}. The segment being
+     * written is always kept.
+     */
+    public void deleteSegmentsBefore(long sequence) throws IOException {
+        if (!enabled) {
+            return;
+        }
+        List<Path> segments = segments();
+        for (int i = 0; i < segments.size() - 1; i++) {
+            if (firstSequence(segments.get(i + 1)) > sequence) {
+                break;
+            }
+            Files.deleteIfExists(segments.get(i));
+        }
+    }
+
+    private void flushLoop() {
+        while (true) {
+            List<SealedSegment> rolled;
+            MappedByteBuffer target;
+            int from;
+            int to;
+            long sequence;
+            lock.lock();
+            try {
+                while (running && failure == null && sealed.isEmpty() && durableSequence == nextSequence - 1) {
+                    appended.awaitUninterruptibly();
+                }
+                if (failure != null || (sealed.isEmpty() && durableSequence == nextSequence - 1)) {
+                    return;
+                }
+                rolled = new ArrayList<>(sealed);
+                sealed.clear();
+                target = segment;
+                from = flushedPosition;
+                to = position;
+                sequence = nextSequence - 1;
+            } finally {
+                lock.unlock();
+            }
+
+            // Everything appended while the previous force was running goes out in this one,
+            // segments rolled meanwhile first, as their records come before
+            RuntimeException error = null;
+            try {
+                for (SealedSegment old : rolled) {
+                    old.forceAndClose();
+                }
+                target.force(from, to - from);
+            } catch (IOException | UncheckedIOException e) {
+                error = new IllegalStateException("Trade journal flush failed", e);
+            }
+
+            lock.lock();
+            try {
+                if (error != null) {
+                    failure = error;
+                    logger.error("Trade journal flush failed, rejecting further trades", error);
+                } else {
+                    if (target == segment) {
+                        flushedPosition = Math.max(flushedPosition, to);
+                    }
+                    durableSequence = Math.max(durableSequence, sequence);
+                }
+                flushed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Hands the current segment, which the caller has filled, to the flusher and starts a
+     * new one. Its records only count as durable once the flusher has forced it.
+     */
+    private void roll(long firstSequence, int recordSize) throws IOException {
+        long capacity = segmentCapacity();
+        if (recordSize > capacity) {
+            throw new IOException("Journal record of " + recordSize + " bytes exceeds the segment size");
+        }
+        sealed.add(new SealedSegment(channel, segment, flushedPosition, position));
+        mapSegment(firstSequence);
+        appended.signal();
+    }
+
+    /** A rolled segment whose bytes {@code [from, to)} may not be on disk yet. */
+    private record SealedSegment(FileChannel channel, MappedByteBuffer segment, int from, int to) {
+
+        void forceAndClose() throws IOException {
+            try (channel) {
+                segment.force(from, to - from);
+            }
+        }
+    }
+
+    private void mapSegment(long firstSequence) throws IOException {
+        Path path = directory().resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstSequence, SEGMENT_SUFFIX));
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentCapacity());
+        position = 0;
+        flushedPosition = 0;
+        nextSequence = firstSequence;
+    }
+
+    /** Positions the current segment after its last intact record and drops any torn write. */
+    private void recoverTail() {
+        int length;
+        while ((length = validRecordLength(segment, position)) > 0) {
+            nextSequence = lastSequence(segment, position, length) + 1;
+            position += HEADER_BYTES + length;
+        }
+        int garbage = position + HEADER_BYTES <= segment.capacity() ? segment.getInt(position) : 0;
+        if (garbage != 0) {
+            int end = (int) Math.min(segment.capacity(), position + HEADER_BYTES + Math.max(0L, garbage));
+            logger.warn("Dropping torn journal record at offset {}", position);
+            for (int i = position; i < end; i++) {
+                segment.put(i, (byte) 0);
+            }
+            segment.force();
+        }
+        flushedPosition = position;
+    }
+
+    /** Length of the payload at {@code offset} if an intact record starts there, otherwise 0. */
+    private static int validRecordLength(ByteBuffer buffer, int offset) {
+        if (offset + HEADER_BYTES > buffer.capacity()) {
+            return 0;
+        }
+        int length = buffer.getInt(offset);
+        if (length <= 0 || length > buffer.capacity() - offset - HEADER_BYTES) {
+            return 0;
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(offset + HEADER_BYTES, length));
+        return (int) crc.getValue() == buffer.getInt(offset + 4) ? length : 0;
+    }
+
+    /** Encodes the records back to back, storing where each one starts in {@code offsets}. */
+    private static byte[] encode(List<JournalRecord> records, int[] offsets) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128 * records.size());
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            for (int i = 0; i < offsets.length; i++) {
+                offsets[i] = bytes.size();
+                records.get(i).write(out);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static DataInputStream frame(ByteBuffer buffer, int offset, int length) {
+        byte[] payload = new byte[length];
+        buffer.get(offset + HEADER_BYTES, payload);
+        return new DataInputStream(new ByteArrayInputStream(payload));
+    }
+
+    /** Sequence of the last record in the intact frame at {@code offset}. */
+    private static long lastSequence(ByteBuffer buffer, int offset, int length) {
+        try {
+            DataInputStream frame = frame(buffer, offset, length);
+            long sequence = 0;
+            while (frame.available() > 0) {
+                sequence = JournalRecord.read(frame).sequence();
+            }
+            return sequence;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private long segmentCapacity() {
+        return (long) segmentSizeMb << 20;
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory())) {
+            List<Path> segments = new ArrayList<>(files
+                    .filter(path -> path.getFileName().toString().startsWith(SEGMENT_PREFIX))
+                    .filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .toList());
+            segments.sort(null);
+            return segments;
+        }
+    }
+
+    private static long firstSequence(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+}
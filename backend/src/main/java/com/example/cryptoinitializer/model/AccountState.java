@@ -0,0 +1,57 @@
+package com.example.cryptoinitializer.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable cash and positions of one account. Every trade produces a new state, so a
+ * reader holding a state always sees a balance and holdings that belong together.
+ * Positions stay in the map after they are closed so their realized P&L is kept.
+ *
+ * @param balance cash, as a {@link FixedPoint} value
+ */
+public record AccountState(String userId,
+                           @JsonSerialize(using = FixedPointSerializer.class) long balance,
+                           Map<String, Position> positions) {
+
+    public AccountState {
+        positions = Map.copyOf(positions);
+    }
+
+    public static AccountState initial(String userId, long balance) {
+        return new AccountState(userId, balance, Map.of());
+    }
+
+    /** Quantity held per symbol, open positions only. */
+    @JsonProperty("holdings")
+    public Map<String, BigDecimal> holdings() {
+        Map<String, BigDecimal> holdings = new HashMap<>();
+        for (Position position : positions.values()) {
+            if (position.isOpen()) {
+                holdings.put(position.symbol(), FixedPoint.toBigDecimal(position.quantity()));
+            }
+        }
+        return holdings;
+    }
+
+    public long holding(String symbol) {
+        Position position = positions.get(symbol);
+        return position == null ? 0 : position.quantity();
+    }
+
+    public Position position(String symbol) {
+        Position position = positions.get(symbol);
+        return position == null ? Position.empty(symbol) : position;
+    }
+
+    /** Returns the state after moving {@code cashDelta} in or out of the balance and replacing one position. */
+    public AccountState with(long cashDelta, Position position) {
+        Map<String, Position> next = new HashMap<>(positions);
+        next.put(position.symbol(), position);
+        return new AccountState(userId, FixedPoint.add(balance, cashDelta), next);
+    }
+}
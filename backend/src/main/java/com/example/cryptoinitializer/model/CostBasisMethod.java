@@ -0,0 +1,11 @@
+package com.example.cryptoinitializer.model;
+
+/** How the cost of sold units is determined when realizing profit or loss. */
+public enum CostBasisMethod {
+    /** Every unit costs the running average purchase price. */
+    AVERAGE,
+    /** Oldest purchase lots are sold first. */
+    FIFO,
+    /** Newest purchase lots are sold first. */
+    LIFO
+}
@@ -1,18 +1,34 @@
 package com.example.cryptoinitializer.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 
 public class CryptoCurrency {
     private String symbol;
     private String name;
-    private BigDecimal price;
+    private long price; // FixedPoint
+    private long lastUpdated; // Epoch millis of the tick that set the price
+    private boolean stale;
 
     public CryptoCurrency() {}
 
-    public CryptoCurrency(String symbol, String name, BigDecimal price) {
+    public CryptoCurrency(String symbol, String name, long price) {
+        this(symbol, name, price, System.currentTimeMillis(), false);
+    }
+
+    public CryptoCurrency(String symbol, String name, long price, long lastUpdated, boolean stale) {
         this.symbol = symbol;
         this.name = name;
         this.price = price;
+        this.lastUpdated = lastUpdated;
+        this.stale = stale;
+    }
+
+    /** A copy with the stale flag set or cleared; the price and its time are kept. */
+    public CryptoCurrency withStale(boolean stale) {
+        return new CryptoCurrency(symbol, name, price, lastUpdated, stale);
     }
 
     // Getters and Setters
@@ -22,6 +38,17 @@ public class CryptoCurrency {
     public String getName() { return name; }
     public void setName(String name) { this.name = name; }
 
-    public BigDecimal getPrice() { return price; }
-    public void setPrice(BigDecimal price) { this.price = price; }
+    public BigDecimal getPrice() { return FixedPoint.toBigDecimal(price); }
+    public void setPrice(BigDecimal price) { this.price = FixedPoint.fromBigDecimal(price, RoundingMode.HALF_UP); }
+
+    public long getLastUpdated() { return lastUpdated; }
+    public void setLastUpdated(long lastUpdated) { this.lastUpdated = lastUpdated; }
+
+    /** True while the feed is down or the symbol has not ticked for too long. */
+    public boolean isStale() { return stale; }
+    public void setStale(boolean stale) { this.stale = stale; }
+
+    /** The price as a {@link FixedPoint} value, for the trade path. */
+    @JsonIgnore
+    public long getPriceValue() { return price; }
 }
@@ -0,0 +1,42 @@
+package com.example.cryptoinitializer.model;
+
+import java.util.List;
+
+/**
+ * Health of the market data feed, for clients that need to know whether prices can be
+ * trusted.
+ *
+ * @param connected whether the source is connected and delivering frames
+ * @param symbols   one entry per configured symbol, priced or not
+ * @param pipeline  counters and latencies of the ingestion pipeline
+ */
+public record FeedStatus(boolean connected, List<SymbolStatus> symbols, Pipeline pipeline) {
+
+    /**
+     * @param priced        whether a price has been received at all
+     * @param stale         whether the price is currently flagged stale
+     * @param lastTickAgeMs time since the feed last mentioned the symbol, null if never
+     * @param gaps          how many times the symbol has gone stale since startup
+     */
+    public record SymbolStatus(String symbol, boolean priced, boolean stale, Long lastTickAgeMs, long gaps) {
+    }
+
+    /**
+     * @param queueDepth frames waiting to be decoded
+     * @param received   frames offered by the source
+     * @param dropped    frames refused because the queue was full
+     * @param decoded    frames decoded
+     * @param ticks      symbol updates found in decoded frames
+     * @param applied    symbol updates applied after conflation
+     * @param conflated  symbol updates superseded by a later one in the same batch
+     * @param queueWait  time from receipt until decoding started
+     * @param decode     time to decode one frame
+     * @param apply      time to apply one batch
+     */
+    public record Pipeline(int queueDepth, int capacity, long received, long dropped, long decoded, long ticks,
+                           long applied, long conflated, Latency queueWait, Latency decode, Latency apply) {
+    }
+
+    public record Latency(long count, double meanMicros, double maxMicros) {
+    }
+}
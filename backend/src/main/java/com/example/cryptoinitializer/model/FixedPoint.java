@@ -0,0 +1,285 @@
+package com.example.cryptoinitializer.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Fixed-point arithmetic on {@code long} values counting 1e-8 units, used for prices,
+ * quantities and cash on the ticker and trade paths.
+ *
+ * <p>All operations are allocation-free. Every operation that can lose precision takes an
+ * explicit {@link RoundingMode}, and every operation that can overflow throws
+ * {@link ArithmeticException} instead of wrapping. Products are formed in 128 bits before
+ * dividing, so {@code price * quantity} is exact however large the intermediate value.
+ * {@link BigDecimal} is only used at the JSON boundary.
+ */
+public final class FixedPoint {
+    public static final int DECIMALS = 8;
+    public static final long SCALE = 100_000_000L;
+    public static final long ZERO = 0L;
+    public static final long ONE = SCALE;
+
+    private static final long[] POWERS_OF_TEN = new long[19];
+    private static final long LOW_32 = 0xFFFF_FFFFL;
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private FixedPoint() {}
+
+    public static long fromBigDecimal(BigDecimal value, RoundingMode roundingMode) {
+        return value.setScale(DECIMALS, roundingMode).unscaledValue().longValueExact();
+    }
+
+    /** Converts to a BigDecimal without trailing zeros, e.g. {@code 97000.2} rather than {@code 97000.20000000}. */
+    public static BigDecimal toBigDecimal(long value) {
+        BigDecimal decimal = BigDecimal.valueOf(value, DECIMALS).stripTrailingZeros();
+        return decimal.scale() < 0 ? decimal.setScale(0) : decimal;
+    }
+
+    public static long fromLong(long whole) {
+        return Math.multiplyExact(whole, SCALE);
+    }
+
+    public static String toString(long value) {
+        return toBigDecimal(value).toPlainString();
+    }
+
+    public static long add(long a, long b) {
+        return Math.addExact(a, b);
+    }
+
+    public static long subtract(long a, long b) {
+        return Math.subtractExact(a, b);
+    }
+
+    /** {@code a * b}, both fixed-point. */
+    public static long multiply(long a, long b, RoundingMode roundingMode) {
+        return multiplyDivide(a, b, SCALE, roundingMode);
+    }
+
+    /** {@code a / b}, both fixed-point. */
+    public static long divide(long a, long b, RoundingMode roundingMode) {
+        return multiplyDivide(a, SCALE, b, roundingMode);
+    }
+
+    /**
+     * {@code a * b / c} with a 128-bit intermediate product, rounded once. Works for any
+     * mix of fixed-point and plain values as long as the scales cancel out.
+     */
+    public static long multiplyDivide(long a, long b, long c, RoundingMode roundingMode) {
+        if (c == 0) {
+            throw new ArithmeticException("Division by zero");
+        }
+        boolean negative = (a < 0) ^ (b < 0) ^ (c < 0);
+        // Magnitudes as unsigned longs; Math.abs(Long.MIN_VALUE) is 2^63 when read unsigned
+        long x = Math.abs(a);
+        long y = Math.abs(b);
+        long divisor = Math.abs(c);
+
+        long high = Math.unsignedMultiplyHigh(x, y);
+        long low = x * y;
+
+        long quotient;
+        long remainder;
+        if (high == 0) {
+            quotient = Long.divideUnsigned(low, divisor);
+            remainder = low - quotient * divisor;
+        } else {
+            if (Long.compareUnsigned(high, divisor) >= 0) {
+                throw new ArithmeticException("Fixed-point overflow");
+            }
+            quotient = divideUnsigned128(high, low, divisor);
+            // The remainder is below the divisor, so the low 64 bits of the difference are exact
+            remainder = low - quotient * divisor;
+        }
+        return round(quotient, remainder, divisor, negative, roundingMode);
+    }
+
+    public static long parse(CharSequence text) {
+        int length = text.length();
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = text.charAt(i);
+        }
+        return parse(chars, 0, length);
+    }
+
+    /**
+     * Parses a decimal number such as {@code 97000.2}, {@code -0.5} or {@code 1.612e-05},
+     * rounding half-up to 8 decimals. Digits past the 18th significant one are ignored.
+     *
+     * @throws NumberFormatException if the text is not a number or does not fit
+     */
+    public static long parse(char[] chars, int offset, int length) {
+        int end = offset + length;
+        int i = offset;
+        if (i == end) {
+            throw new NumberFormatException("Empty number");
+        }
+        boolean negative = false;
+        if (chars[i] == '-' || chars[i] == '+') {
+            negative = chars[i] == '-';
+            i++;
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int exponent = 0;
+        boolean seenDigit = false;
+        boolean seenPoint = false;
+        for (; i < end; i++) {
+            char ch = chars[i];
+            if (ch >= '0' && ch <= '9') {
+                seenDigit = true;
+                if (digits < 18) {
+                    if (mantissa != 0 || ch != '0') {
+                        digits++;
+                    }
+                    mantissa = mantissa * 10 + (ch - '0');
+                    if (seenPoint) {
+                        exponent--;
+                    }
+                } else if (!seenPoint) {
+                    exponent++;
+                }
+            } else if (ch == '.' && !seenPoint) {
+                seenPoint = true;
+            } else if (ch == 'e' || ch == 'E') {
+                break;
+            } else {
+                throw new NumberFormatException("Invalid number: " + new String(chars, offset, length));
+            }
+        }
+        if (!seenDigit) {
+            throw new NumberFormatException("Invalid number: " + new String(chars, offset, length));
+        }
+
+        if (i < end) {
+            // Exponent part
+            i++;
+            boolean negativeExponent = false;
+            if (i < end && (chars[i] == '-' || chars[i] == '+')) {
+                negativeExponent = chars[i] == '-';
+                i++;
+            }
+            if (i == end) {
+                throw new NumberFormatException("Invalid number: " + new String(chars, offset, length));
+            }
+            int value = 0;
+            for (; i < end; i++) {
+                char ch = chars[i];
+                if (ch < '0' || ch > '9' || value > 10_000) {
+                    throw new NumberFormatException("Invalid number: " + new String(chars, offset, length));
+                }
+                value = value * 10 + (ch - '0');
+            }
+            exponent += negativeExponent ? -value : value;
+        }
+
+        int shift = exponent + DECIMALS;
+        long result;
+        if (mantissa == 0) {
+            result = 0;
+        } else if (shift >= 0) {
+            if (shift >= POWERS_OF_TEN.length) {
+                throw new NumberFormatException("Number out of range: " + new String(chars, offset, length));
+            }
+            long power = POWERS_OF_TEN[shift];
+            if (mantissa > Long.MAX_VALUE / power) {
+                throw new NumberFormatException("Number out of range: " + new String(chars, offset, length));
+            }
+            result = mantissa * power;
+        } else if (-shift >= POWERS_OF_TEN.length) {
+            result = 0;
+        } else {
+            long power = POWERS_OF_TEN[-shift];
+            result = mantissa / power;
+            if (mantissa % power >= power - mantissa % power) {
+                result++;
+            }
+        }
+        return negative ? -result : result;
+    }
+
+    private static long round(long quotient, long remainder, long divisor, boolean negative, RoundingMode roundingMode) {
+        if (remainder != 0) {
+            boolean increment = switch (roundingMode) {
+                case UNNECESSARY -> throw new ArithmeticException("Rounding necessary");
+                case DOWN -> false;
+                case UP -> true;
+                case FLOOR -> negative;
+                case CEILING -> !negative;
+                case HALF_UP -> Long.compareUnsigned(remainder, divisor - remainder) >= 0;
+                case HALF_DOWN -> Long.compareUnsigned(remainder, divisor - remainder) > 0;
+                case HALF_EVEN -> {
+                    int half = Long.compareUnsigned(remainder, divisor - remainder);
+                    yield half > 0 || (half == 0 && (quotient & 1) == 1);
+                }
+            };
+            if (increment) {
+                if (quotient == -1L) {
+                    throw new ArithmeticException("Fixed-point overflow");
+                }
+                quotient++;
+            }
+        }
+        // The magnitude must fit: up to 2^63 - 1 positive, 2^63 negative
+        if (negative) {
+            if (Long.compareUnsigned(quotient, Long.MIN_VALUE) > 0) {
+                throw new ArithmeticException("Fixed-point overflow");
+            }
+            return -quotient;
+        }
+        if (quotient < 0) {
+            throw new ArithmeticException("Fixed-point overflow");
+        }
+        return quotient;
+    }
+
+    /**
+     * Unsigned division of the 128-bit value {@code high:low} by {@code divisor}, where
+     * {@code high < divisor} so the quotient fits in 64 bits (Hacker's Delight, divlu).
+     */
+    private static long divideUnsigned128(long high, long low, long divisor) {
+        final long base = 1L << 32;
+        int shift = Long.numberOfLeadingZeros(divisor);
+        divisor <<= shift;
+        long divisorHigh = divisor >>> 32;
+        long divisorLow = divisor & LOW_32;
+
+        long numerator32 = shift == 0 ? high : (high << shift) | (low >>> (64 - shift));
+        long numerator10 = low << shift;
+        long numerator1 = numerator10 >>> 32;
+        long numerator0 = numerator10 & LOW_32;
+
+        long q1 = Long.divideUnsigned(numerator32, divisorHigh);
+        long rhat = numerator32 - q1 * divisorHigh;
+        while (Long.compareUnsigned(q1, base) >= 0
+                || Long.compareUnsigned(q1 * divisorLow, (rhat << 32) + numerator1) > 0) {
+            q1--;
+            rhat += divisorHigh;
+            if (Long.compareUnsigned(rhat, base) >= 0) {
+                break;
+            }
+        }
+
+        long numerator21 = (numerator32 << 32) + numerator1 - q1 * divisor;
+        long q0 = Long.divideUnsigned(numerator21, divisorHigh);
+        rhat = numerator21 - q0 * divisorHigh;
+        while (Long.compareUnsigned(q0, base) >= 0
+                || Long.compareUnsigned(q0 * divisorLow, (rhat << 32) + numerator0) > 0) {
+            q0--;
+            rhat += divisorHigh;
+            if (Long.compareUnsigned(rhat, base) >= 0) {
+                break;
+            }
+        }
+
+        return (q1 << 32) + q0;
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.cryptoinitializer.model;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+import java.io.IOException;
+
+/** Reads a decimal number, as {@link FixedPointSerializer} writes it, into a {@link FixedPoint} long. */
+public class FixedPointDeserializer extends StdDeserializer<Long> {
+
+    public FixedPointDeserializer() {
+        super(Long.class);
+    }
+
+    @Override
+    public Long deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+        try {
+            return FixedPoint.parse(parser.getText());
+        } catch (NumberFormatException e) {
+            return (Long) context.handleWeirdStringValue(Long.class, parser.getText(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.cryptoinitializer.model;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+/** Writes a {@link FixedPoint} long as the decimal number it stands for. */
+public class FixedPointSerializer extends StdSerializer<Long> {
+
+    public FixedPointSerializer() {
+        super(Long.class);
+    }
+
+    @Override
+    public void serialize(Long value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeNumber(FixedPoint.toBigDecimal(value));
+    }
+}
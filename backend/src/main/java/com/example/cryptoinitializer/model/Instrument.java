@@ -0,0 +1,10 @@
+package com.example.cryptoinitializer.model;
+
+/**
+ * A pair the simulator follows and trades.
+ *
+ * @param symbol the Kraken v2 symbol, e.g. {@code BTC/USD}
+ * @param name   what to show for it, e.g. {@code Bitcoin}
+ */
+public record Instrument(String symbol, String name) {
+}
@@ -0,0 +1,9 @@
+package com.example.cryptoinitializer.model;
+
+/**
+ * Units bought in one fill and still held, with what they cost. Both are
+ * {@link FixedPoint} values; keeping the cost rather than the price means the lots of a
+ * position always add up to its total cost exactly.
+ */
+public record Lot(long quantity, long cost) {
+}
@@ -0,0 +1,115 @@
+package com.example.cryptoinitializer.model;
+
+/**
+ * Immutable double-ended queue of purchase lots, oldest to newest.
+ *
+ * <p>Kept as two linked lists, oldest-first and newest-first, that share structure with
+ * the queue they were derived from, so adding or removing a lot is O(1) without copying.
+ * A list is only reversed when the end being consumed runs dry; since a position is
+ * always consumed from the same end (front for FIFO, back for LIFO), every lot is moved
+ * at most once and the cost is amortized O(1) per lot.
+ */
+public final class LotQueue {
+    private static final LotQueue EMPTY = new LotQueue(null, null, 0);
+
+    private record Node(Lot lot, Node next) {}
+
+    private final Node oldestFirst;
+    private final Node newestFirst;
+    private final int size;
+
+    private LotQueue(Node oldestFirst, Node newestFirst, int size) {
+        this.oldestFirst = oldestFirst;
+        this.newestFirst = newestFirst;
+        this.size = size;
+    }
+
+    public static LotQueue empty() {
+        return EMPTY;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public LotQueue addNewest(Lot lot) {
+        return new LotQueue(oldestFirst, new Node(lot, newestFirst), size + 1);
+    }
+
+    public LotQueue addOldest(Lot lot) {
+        return new LotQueue(new Node(lot, oldestFirst), newestFirst, size + 1);
+    }
+
+    /** The oldest lot, or null if empty. */
+    public Lot oldest() {
+        if (oldestFirst != null) {
+            return oldestFirst.lot;
+        }
+        Node node = newestFirst;
+        if (node == null) {
+            return null;
+        }
+        while (node.next != null) {
+            node = node.next;
+        }
+        return node.lot;
+    }
+
+    /** The newest lot, or null if empty. */
+    public Lot newest() {
+        if (newestFirst != null) {
+            return newestFirst.lot;
+        }
+        Node node = oldestFirst;
+        if (node == null) {
+            return null;
+        }
+        while (node.next != null) {
+            node = node.next;
+        }
+        return node.lot;
+    }
+
+    public LotQueue removeOldest() {
+        if (size == 0) {
+            return this;
+        }
+        if (oldestFirst == null) {
+            return new LotQueue(reverse(newestFirst).next, null, size - 1);
+        }
+        return new LotQueue(oldestFirst.next, newestFirst, size - 1);
+    }
+
+    public LotQueue removeNewest() {
+        if (size == 0) {
+            return this;
+        }
+        if (newestFirst == null) {
+            return new LotQueue(null, reverse(oldestFirst).next, size - 1);
+        }
+        return new LotQueue(oldestFirst, newestFirst.next, size - 1);
+    }
+
+    /** Moves every lot to the list consumed by {@code fromOldest}, if that list is empty. */
+    public LotQueue prepare(boolean fromOldest) {
+        if (fromOldest && oldestFirst == null && newestFirst != null) {
+            return new LotQueue(reverse(newestFirst), null, size);
+        }
+        if (!fromOldest && newestFirst == null && oldestFirst != null) {
+            return new LotQueue(null, reverse(oldestFirst), size);
+        }
+        return this;
+    }
+
+    private static Node reverse(Node node) {
+        Node reversed = null;
+        for (; node != null; node = node.next) {
+            reversed = new Node(node.lot, reversed);
+        }
+        return reversed;
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.cryptoinitializer.model;
+
+import java.util.List;
+
+/**
+ * Immutable view of all prices as of one market version, together with the JSON of the
+ * top pairs so it can be served without serializing again.
+ *
+ * @param version number of ticks applied when the snapshot was taken
+ * @param prices  every priced pair, never modified after construction
+ * @param json    the top {@code crypto.market.top-size} of them by 24-hour volume, as
+ *                JSON; callers must not modify it
+ * @param etag    entity tag identifying this version
+ */
+public record MarketSnapshot(long version, List<CryptoCurrency> prices, byte[] json, String etag) {
+}
@@ -0,0 +1,102 @@
+package com.example.cryptoinitializer.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.math.RoundingMode;
+
+/**
+ * Running position in one symbol, updated incrementally on every fill so that realizing
+ * profit or loss never has to look at transaction history. Amounts are {@link FixedPoint}
+ * values.
+ *
+ * @param quantity    units currently held
+ * @param totalCost   cost basis of the units currently held
+ * @param realizedPnl profit or loss realized by sells so far
+ * @param lots        open purchase lots, only kept for {@link CostBasisMethod#FIFO} and
+ *                    {@link CostBasisMethod#LIFO}
+ */
+public record Position(String symbol,
+                       @JsonSerialize(using = FixedPointSerializer.class) long quantity,
+                       @JsonSerialize(using = FixedPointSerializer.class) long totalCost,
+                       @JsonSerialize(using = FixedPointSerializer.class) long realizedPnl,
+                       @JsonIgnore LotQueue lots) {
+
+    public static Position empty(String symbol) {
+        return new Position(symbol, 0, 0, 0, LotQueue.empty());
+    }
+
+    public boolean isOpen() {
+        return quantity > 0;
+    }
+
+    @JsonProperty("averagePrice")
+    @JsonSerialize(using = FixedPointSerializer.class)
+    public long averagePrice() {
+        if (!isOpen()) {
+            return 0;
+        }
+        return FixedPoint.divide(totalCost, quantity, RoundingMode.HALF_UP);
+    }
+
+    /** The position after buying {@code quantity} units for {@code total}. */
+    public Position buy(long quantity, long total, CostBasisMethod method) {
+        LotQueue nextLots = method == CostBasisMethod.AVERAGE ? lots : lots.addNewest(new Lot(quantity, total));
+        return new Position(symbol, FixedPoint.add(this.quantity, quantity), FixedPoint.add(totalCost, total),
+                realizedPnl, nextLots);
+    }
+
+    /**
+     * The position after selling {@code quantity} units for {@code proceeds}. The profit or
+     * loss of this sell is the difference between the two positions' {@code realizedPnl}.
+     */
+    public Position sell(long quantity, long proceeds, CostBasisMethod method) {
+        if (quantity > this.quantity) {
+            throw new IllegalArgumentException("Insufficient holdings");
+        }
+        long remainingQuantity = this.quantity - quantity;
+        if (remainingQuantity == 0) {
+            // Closing out: the whole cost basis is realized, no rounding residue is left behind
+            return new Position(symbol, 0, 0,
+                    FixedPoint.add(realizedPnl, FixedPoint.subtract(proceeds, totalCost)), LotQueue.empty());
+        }
+
+        long soldCost;
+        LotQueue nextLots = lots;
+        if (method == CostBasisMethod.AVERAGE || lots.isEmpty()) {
+            // Positions opened under the average method carry no lots; cost them at the average
+            soldCost = FixedPoint.multiplyDivide(totalCost, quantity, this.quantity, RoundingMode.HALF_UP);
+        } else {
+            boolean fromOldest = method == CostBasisMethod.FIFO;
+            soldCost = 0;
+            long remaining = quantity;
+            while (remaining > 0 && !nextLots.isEmpty()) {
+                nextLots = nextLots.prepare(fromOldest);
+                Lot lot = fromOldest ? nextLots.oldest() : nextLots.newest();
+                nextLots = fromOldest ? nextLots.removeOldest() : nextLots.removeNewest();
+
+                if (lot.quantity() <= remaining) {
+                    soldCost = FixedPoint.add(soldCost, lot.cost());
+                    remaining -= lot.quantity();
+                } else {
+                    long portion = FixedPoint.multiplyDivide(lot.cost(), remaining, lot.quantity(), RoundingMode.HALF_UP);
+                    soldCost = FixedPoint.add(soldCost, portion);
+                    Lot rest = new Lot(lot.quantity() - remaining, lot.cost() - portion);
+                    nextLots = fromOldest ? nextLots.addOldest(rest) : nextLots.addNewest(rest);
+                    remaining = 0;
+                }
+            }
+            if (remaining > 0) {
+                // Units bought under the average method have no lots; once the lots run out,
+                // cost the rest at the average of what is left
+                long uncovered = this.quantity - (quantity - remaining);
+                soldCost = FixedPoint.add(soldCost, FixedPoint.multiplyDivide(
+                        FixedPoint.subtract(totalCost, soldCost), remaining, uncovered, RoundingMode.HALF_UP));
+            }
+        }
+
+        return new Position(symbol, remainingQuantity, FixedPoint.subtract(totalCost, soldCost),
+                FixedPoint.add(realizedPnl, FixedPoint.subtract(proceeds, soldCost)), nextLots);
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.cryptoinitializer.model;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Process-wide interning of symbols to dense ids, so that stored trades can refer to a
+ * symbol with an int instead of a String. Ids are assigned on first use and never reused.
+ */
+public final class SymbolTable {
+    private static final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private static volatile String[] names = new String[64];
+    private static int count;
+
+    private SymbolTable() {
+    }
+
+    public static int id(String symbol) {
+        Integer id = ids.get(symbol);
+        return id != null ? id : register(symbol);
+    }
+
+    /** The symbol's id, or -1 if it has never been used, without registering it. */
+    public static int find(String symbol) {
+        Integer id = ids.get(symbol);
+        return id != null ? id : -1;
+    }
+
+    public static String name(int id) {
+        return names[id];
+    }
+
+    private static synchronized int register(String symbol) {
+        Integer existing = ids.get(symbol);
+        if (existing != null) {
+            return existing;
+        }
+        int id = count++;
+        String[] current = names;
+        if (id == current.length) {
+            current = Arrays.copyOf(current, current.length * 2);
+        }
+        current[id] = symbol;
+        // Publish the name before the id can be looked up
+        names = current;
+        ids.put(symbol, id);
+        return id;
+    }
+}
@@ -1,48 +1,123 @@
 package com.example.cryptoinitializer.model;
 
+import com.example.cryptoinitializer.history.TransactionHistory;
+import com.fasterxml.jackson.annotation.JsonValue;
+
 import java.math.BigDecimal;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
 
+/**
+ * A user's account. Reads go through an immutable {@link AccountState} and never block.
+ * Writes are sequenced per account: a writer takes {@link #lock()}, reads
+ * {@link #state()}, validates against it and publishes the result with
+ * {@link #setState(AccountState)} before unlocking. Accounts never share a lock, so
+ * trades for different users do not contend. The transaction history is appended under
+ * the same lock and can be read at any time.
+ *
+ * <p>An account evicted from memory is marked under its lock and must not be written
+ * again; a writer that finds the mark after locking looks the account up afresh.
+ *
+ * <p>The account serializes as its current state, so a response never mixes the balance
+ * of one trade with the holdings of another.
+ */
 public class UserAccount {
-    private static final BigDecimal INITIAL_BALANCE = new BigDecimal("10000.00");
+    private static final long INITIAL_BALANCE = FixedPoint.fromLong(10_000);
 
-    private String userId;
-    private BigDecimal balance;
-    private Map<String, BigDecimal> holdings;
+    private final String userId;
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private volatile AccountState state;
+    private volatile TransactionHistory history;
+    private long journalSequence;
+    private volatile boolean evicted;
 
     public UserAccount(String userId) {
         this.userId = userId;
-        this.balance = INITIAL_BALANCE;
-        this.holdings = new HashMap<>();
+        this.state = AccountState.initial(userId, INITIAL_BALANCE);
+        this.history = new TransactionHistory(userId);
     }
 
-    public void reset() {
-        this.balance = INITIAL_BALANCE;
-        this.holdings.clear();
+    public void lock() {
+        writeLock.lock();
     }
 
-    // Getters and Setters
-    public String getUserId() { return userId; }
+    /** Locks the account if nobody holds it, not even the calling thread. */
+    public boolean tryLock() {
+        return !writeLock.isHeldByCurrentThread() && writeLock.tryLock();
+    }
 
-    public BigDecimal getBalance() { return balance; }
-    public void setBalance(BigDecimal balance) { this.balance = balance; }
+    public void unlock() {
+        writeLock.unlock();
+    }
 
-    public Map<String, BigDecimal> getHoldings() { return holdings; }
-    public void setHoldings(Map<String, BigDecimal> holdings) { this.holdings = holdings; }
+    /** Whether this copy was evicted; a newer one may have been loaded since. */
+    public boolean isEvicted() {
+        return evicted;
+    }
 
-    public BigDecimal getHolding(String symbol) {
-        return holdings.getOrDefault(symbol, BigDecimal.ZERO);
+    /** Marks the account evicted. The caller must hold the lock. */
+    public void markEvicted() {
+        if (!writeLock.isHeldByCurrentThread()) {
+            throw new IllegalStateException("Account " + userId + " evicted without holding its lock");
+        }
+        this.evicted = true;
     }
 
-    public void updateHolding(String symbol, BigDecimal amount) {
-        BigDecimal currentAmount = getHolding(symbol);
-        BigDecimal newAmount = currentAmount.add(amount);
+    /** The current state; safe to call without holding the lock. Also what gets serialized. */
+    @JsonValue
+    public AccountState state() {
+        return state;
+    }
 
-        if (newAmount.compareTo(BigDecimal.ZERO) <= 0) {
-            holdings.remove(symbol);
-        } else {
-            holdings.put(symbol, newAmount);
+    /** Publishes a new state. The caller must hold the lock. */
+    public void setState(AccountState state) {
+        if (!writeLock.isHeldByCurrentThread()) {
+            throw new IllegalStateException("Account " + userId + " updated without holding its lock");
         }
+        this.state = state;
+    }
+
+    public TransactionHistory history() {
+        return history;
+    }
+
+    /** Replaces the history, e.g. with one restored from a snapshot. The caller must hold the lock. */
+    public void setHistory(TransactionHistory history) {
+        if (!writeLock.isHeldByCurrentThread()) {
+            throw new IllegalStateException("Account " + userId + " updated without holding its lock");
+        }
+        this.history = history;
+    }
+
+    /**
+     * Restores the initial balance and drops all holdings and history. Readers of the old
+     * history keep a consistent view of it. The caller must hold the lock.
+     */
+    public void reset() {
+        setState(AccountState.initial(userId, INITIAL_BALANCE));
+        setHistory(new TransactionHistory(userId));
+    }
+
+    /** Sequence of the last journal record applied to this account. Guarded by the lock. */
+    public long getJournalSequence() {
+        return journalSequence;
+    }
+
+    public void setJournalSequence(long journalSequence) {
+        if (!writeLock.isHeldByCurrentThread()) {
+            throw new IllegalStateException("Account " + userId + " updated without holding its lock");
+        }
+        this.journalSequence = journalSequence;
+    }
+
+    // Getters
+    public String getUserId() { return userId; }
+
+    public BigDecimal getBalance() { return FixedPoint.toBigDecimal(state.balance()); }
+
+    public Map<String, BigDecimal> getHoldings() { return state.holdings(); }
+
+    public BigDecimal getHolding(String symbol) {
+        return FixedPoint.toBigDecimal(state.holding(symbol));
     }
-}
\ No newline at end of file
+}
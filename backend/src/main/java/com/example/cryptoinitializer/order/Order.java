@@ -0,0 +1,110 @@
+package com.example.cryptoinitializer.order;
+
+import com.example.cryptoinitializer.model.FixedPoint;
+import com.example.cryptoinitializer.model.FixedPointSerializer;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A resting order. Amounts are {@link FixedPoint} values; prices that do not apply to the
+ * order type are 0. The status only moves forward, through {@link #transition}, so a
+ * cancel and a fill racing for the same order cannot both win.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class Order {
+    private final long id;
+    private final String userId;
+    private final String symbol;
+    private final OrderSide side;
+    private final OrderType type;
+    private final long quantity;
+    private final long limitPrice;
+    private final long stopPrice;
+    private final LocalDateTime createdAt = LocalDateTime.now();
+    private final AtomicReference<OrderStatus> status = new AtomicReference<>(OrderStatus.OPEN);
+    // Guarded by the book's lock
+    private boolean stopReached;
+    private volatile String transactionId;
+    private volatile String rejectReason;
+
+    public Order(long id, String userId, String symbol, OrderSide side, OrderType type,
+                 long quantity, long limitPrice, long stopPrice) {
+        this.id = id;
+        this.userId = userId;
+        this.symbol = symbol;
+        this.side = side;
+        this.type = type;
+        this.quantity = quantity;
+        this.limitPrice = limitPrice;
+        this.stopPrice = stopPrice;
+        this.stopReached = type == OrderType.LIMIT;
+    }
+
+    public boolean transition(OrderStatus from, OrderStatus to) {
+        return status.compareAndSet(from, to);
+    }
+
+    /**
+     * Whether the order currently rests on its limit price. A stop-limit order rests on its
+     * stop price until the stop is reached.
+     */
+    boolean restsOnLimit() {
+        return type != OrderType.STOP && stopReached;
+    }
+
+    /** The price level the order rests on in the book. */
+    long restingPrice() {
+        return restsOnLimit() ? limitPrice : stopPrice;
+    }
+
+    /** Whether the order rests in the levels that fire when the price rises to them. */
+    boolean firesOnRise() {
+        // Limit buys and reached stop-limit buys wait for the price to fall; stops are the reverse
+        return restsOnLimit() == (side == OrderSide.SELL);
+    }
+
+    void reachStop() {
+        stopReached = true;
+    }
+
+    void filled(String transactionId) {
+        this.transactionId = transactionId;
+        status.set(OrderStatus.FILLED);
+    }
+
+    void rejected(String reason) {
+        this.rejectReason = reason;
+        status.set(OrderStatus.REJECTED);
+    }
+
+    // Getters
+    public long getId() { return id; }
+
+    public String getUserId() { return userId; }
+
+    public String getSymbol() { return symbol; }
+
+    public OrderSide getSide() { return side; }
+
+    public OrderType getType() { return type; }
+
+    @JsonSerialize(using = FixedPointSerializer.class)
+    public long getQuantity() { return quantity; }
+
+    @JsonSerialize(using = FixedPointSerializer.class)
+    public long getLimitPrice() { return limitPrice; }
+
+    @JsonSerialize(using = FixedPointSerializer.class)
+    public long getStopPrice() { return stopPrice; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+
+    public OrderStatus getStatus() { return status.get(); }
+
+    public String getTransactionId() { return transactionId; }
+
+    public String getRejectReason() { return rejectReason; }
+}
@@ -0,0 +1,112 @@
+package com.example.cryptoinitializer.order;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongConsumer;
+
+/**
+ * Resting orders of one symbol, indexed by the price level they trigger at.
+ *
+ * <p>Every order rests in one of two {@link PriceLevels}: those that fire when the price
+ * falls to them (limit buys, stop sells, reached stop-limit buys) and those that fire when
+ * it rises (limit sells, stop buys, reached stop-limit sells). A tick only touches the
+ * levels it crosses. A stop-limit order whose stop is crossed moves to its limit level,
+ * where the same tick may cross it again.
+ *
+ * <p>Thread-safe: ticks, placements and cancels each take the book's lock briefly. Fills
+ * are executed by the caller after the lock is released.
+ */
+public final class OrderBook {
+    private final ReentrantLock lock = new ReentrantLock();
+    private final PriceLevels onFall = new PriceLevels(false);
+    private final PriceLevels onRise = new PriceLevels(true);
+    private final Map<Long, Order> resting = new HashMap<>();
+
+    // Ids popped by the current match; guarded by lock
+    private long[] popped = new long[64];
+    private int poppedCount;
+    private final LongConsumer popper = this::pop;
+
+    public void add(Order order) {
+        lock.lock();
+        try {
+            resting.put(order.getId(), order);
+            levels(order).add(order.restingPrice(), order.getId());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Takes an open order out of the book. Returns false if it already fired or was cancelled. */
+    public boolean cancel(Order order) {
+        lock.lock();
+        try {
+            if (resting.remove(order.getId()) == null) {
+                return false;
+            }
+            levels(order).remove(order.restingPrice(), order.getId());
+            return order.transition(OrderStatus.OPEN, OrderStatus.CANCELLED);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Applies a tick: removes every order the price crosses and returns those to fill, in
+     * the order they fired, all marked {@link OrderStatus#TRIGGERED}.
+     */
+    public List<Order> match(long price) {
+        lock.lock();
+        try {
+            List<Order> fills = null;
+            boolean stopsReached = true;
+            while (stopsReached) {
+                stopsReached = false;
+                poppedCount = 0;
+                onFall.fire(price, popper);
+                onRise.fire(price, popper);
+                for (int i = 0; i < poppedCount; i++) {
+                    Order order = resting.remove(popped[i]);
+                    if (order.getType() == OrderType.STOP_LIMIT && !order.restsOnLimit()) {
+                        order.reachStop();
+                        resting.put(order.getId(), order);
+                        levels(order).add(order.restingPrice(), order.getId());
+                        stopsReached = true;
+                    } else if (order.transition(OrderStatus.OPEN, OrderStatus.TRIGGERED)) {
+                        if (fills == null) {
+                            fills = new ArrayList<>();
+                        }
+                        fills.add(order);
+                    }
+                }
+            }
+            return fills == null ? List.of() : fills;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return resting.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void pop(long orderId) {
+        if (poppedCount == popped.length) {
+            popped = Arrays.copyOf(popped, poppedCount * 2);
+        }
+        popped[poppedCount++] = orderId;
+    }
+
+    private PriceLevels levels(Order order) {
+        return order.firesOnRise() ? onRise : onFall;
+    }
+}
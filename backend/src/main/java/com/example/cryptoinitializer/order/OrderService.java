@@ -0,0 +1,166 @@
+package com.example.cryptoinitializer.order;
+
+import com.example.cryptoinitializer.model.CryptoCurrency;
+import com.example.cryptoinitializer.model.FixedPoint;
+import com.example.cryptoinitializer.model.Transaction;
+import com.example.cryptoinitializer.service.CryptoDataService;
+import com.example.cryptoinitializer.service.PriceUpdateListener;
+import com.example.cryptoinitializer.service.UserService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Accepts limit, stop and stop-limit orders and fills them as ticks cross them.
+ *
+ * <p>Matching runs on the feed thread and only pops the crossed levels of that symbol's
+ * {@link OrderBook}. Fills go through {@link UserService} at the crossing tick's price on
+ * virtual threads, so waiting for the journal never holds up the feed. Funds are not
+ * reserved when an order is placed; a fill the account can no longer afford or cover is
+ * rejected. Resting orders live in memory only and do not survive a restart.
+ */
+@Service
+public class OrderService implements PriceUpdateListener {
+    private static final Logger logger = LoggerFactory.getLogger(OrderService.class);
+
+    @Autowired
+    private CryptoDataService cryptoDataService;
+
+    @Autowired
+    private UserService userService;
+
+    private final Map<String, OrderBook> books = new ConcurrentHashMap<>();
+    private final Map<Long, Order> openOrders = new ConcurrentHashMap<>();
+    private final Map<String, Map<Long, Order>> openOrdersByUser = new ConcurrentHashMap<>();
+    private final AtomicLong nextOrderId = new AtomicLong();
+    private final ExecutorService fillExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @PostConstruct
+    public void init() {
+        cryptoDataService.addPriceListener(this);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        cryptoDataService.removePriceListener(this);
+        fillExecutor.shutdown();
+        fillExecutor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    public Order placeOrder(String userId, String symbol, OrderSide side, OrderType type,
+                            BigDecimal quantity, BigDecimal limitPrice, BigDecimal stopPrice) {
+        if (side == null || type == null) {
+            throw new IllegalArgumentException("Order side and type are required");
+        }
+        CryptoCurrency crypto = cryptoDataService.getCryptoCurrency(symbol);
+        if (crypto == null) {
+            throw new IllegalArgumentException("Cryptocurrency not found: " + symbol);
+        }
+        long limit = type == OrderType.STOP ? 0 : positive(limitPrice, "Limit price");
+        long stop = type == OrderType.LIMIT ? 0 : positive(stopPrice, "Stop price");
+        Order order = new Order(nextOrderId.incrementAndGet(), userId, symbol, side, type,
+                positive(quantity, "Quantity"), limit, stop);
+
+        openOrders.put(order.getId(), order);
+        // Added inside compute, so forgetting the user's last order cannot drop the map in between
+        openOrdersByUser.compute(userId, (k, orders) -> {
+            Map<Long, Order> updated = orders == null ? new ConcurrentSkipListMap<>() : orders;
+            updated.put(order.getId(), order);
+            return updated;
+        });
+        OrderBook book = books.computeIfAbsent(symbol, k -> new OrderBook());
+        book.add(order);
+        // An order that is already marketable fills against the current price, unless that
+        // price is stale, in which case it waits for the next tick
+        if (!crypto.isStale()) {
+            fill(book.match(crypto.getPriceValue()), crypto.getPriceValue());
+        }
+        return order;
+    }
+
+    public Order cancelOrder(String userId, long orderId) {
+        Order order = openOrders.get(orderId);
+        if (order == null || !order.getUserId().equals(userId)) {
+            throw new IllegalArgumentException("Order not found: " + orderId);
+        }
+        if (!books.get(order.getSymbol()).cancel(order)) {
+            throw new IllegalArgumentException("Order is no longer open: " + orderId);
+        }
+        forget(order);
+        return order;
+    }
+
+    /** The user's open and triggered orders, oldest first. */
+    public List<Order> getOpenOrders(String userId) {
+        Map<Long, Order> orders = openOrdersByUser.get(userId);
+        return orders == null ? List.of() : List.copyOf(orders.values());
+    }
+
+    @Override
+    public void onPriceUpdate(CryptoCurrency crypto) {
+        OrderBook book = books.get(crypto.getSymbol());
+        if (book != null) {
+            fill(book.match(crypto.getPriceValue()), crypto.getPriceValue());
+        }
+    }
+
+    private void fill(List<Order> orders, long price) {
+        for (Order order : orders) {
+            fillExecutor.execute(() -> fill(order, price));
+        }
+    }
+
+    private void fill(Order order, long price) {
+        try {
+            Transaction transaction = order.getSide() == OrderSide.BUY
+                    ? userService.buyCryptoAt(order.getUserId(), order.getSymbol(), order.getQuantity(), price)
+                    : userService.sellCryptoAt(order.getUserId(), order.getSymbol(), order.getQuantity(), price);
+            order.filled(transaction.getId());
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            order.rejected(e.getMessage());
+            logger.debug("Rejected order {} of {}: {}", order.getId(), order.getUserId(), e.getMessage());
+        } finally {
+            forget(order);
+        }
+    }
+
+    private void forget(Order order) {
+        openOrders.remove(order.getId());
+        // Users without open orders do not keep an empty map
+        openOrdersByUser.computeIfPresent(order.getUserId(), (k, orders) -> {
+            orders.remove(order.getId());
+            return orders.isEmpty() ? null : orders;
+        });
+    }
+
+    private static long positive(BigDecimal value, String name) {
+        if (value == null) {
+            throw new IllegalArgumentException(name + " is required");
+        }
+        long fixed;
+        try {
+            fixed = FixedPoint.fromBigDecimal(value, RoundingMode.UNNECESSARY);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException(name + " must have at most " + FixedPoint.DECIMALS
+                    + " decimal places");
+        }
+        if (fixed <= 0) {
+            throw new IllegalArgumentException(name + " must be greater than zero");
+        }
+        return fixed;
+    }
+}
@@ -0,0 +1,5 @@
+package com.example.cryptoinitializer.order;
+
+public enum OrderSide {
+    BUY, SELL
+}
@@ -0,0 +1,12 @@
+package com.example.cryptoinitializer.order;
+
+public enum OrderStatus {
+    /** Resting in the book. */
+    OPEN,
+    /** Crossed by a tick; the fill is being executed. */
+    TRIGGERED,
+    FILLED,
+    CANCELLED,
+    /** Crossed, but the account could not afford or cover the fill. */
+    REJECTED
+}
@@ -0,0 +1,10 @@
+package com.example.cryptoinitializer.order;
+
+public enum OrderType {
+    /** Fills once the price is at or better than the limit price. */
+    LIMIT,
+    /** Fills at the market once the price reaches the stop price. */
+    STOP,
+    /** Becomes a limit order once the price reaches the stop price. */
+    STOP_LIMIT
+}
@@ -0,0 +1,122 @@
+package com.example.cryptoinitializer.order;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * The price levels of one trigger direction in a book, as parallel primitive arrays.
+ *
+ * <p>Levels are sorted so that the ones a tick crosses are always at the end: ascending
+ * price for levels that fire when the price falls to them, descending for levels that
+ * fire when it rises (stored as negated keys, so both directions sort ascending). A tick
+ * that crosses nothing costs one comparison; one that does pops exactly the levels it
+ * crosses. Each level keeps its order ids in arrival order. Not thread-safe.
+ */
+final class PriceLevels {
+    private final boolean firesOnRise;
+    private long[] keys = new long[16];
+    private long[][] orders = new long[16][];
+    private int[] counts = new int[16];
+    private int levels;
+    private int orderCount;
+
+    PriceLevels(boolean firesOnRise) {
+        this.firesOnRise = firesOnRise;
+    }
+
+    int levelCount() {
+        return levels;
+    }
+
+    int orderCount() {
+        return orderCount;
+    }
+
+    void add(long price, long orderId) {
+        long key = key(price);
+        int index = Arrays.binarySearch(keys, 0, levels, key);
+        if (index < 0) {
+            index = -index - 1;
+            insertLevel(index, key);
+        }
+        long[] level = orders[index];
+        int count = counts[index];
+        if (count == level.length) {
+            level = Arrays.copyOf(level, count * 2);
+            orders[index] = level;
+        }
+        level[count] = orderId;
+        counts[index] = count + 1;
+        orderCount++;
+    }
+
+    boolean remove(long price, long orderId) {
+        int index = Arrays.binarySearch(keys, 0, levels, key(price));
+        if (index < 0) {
+            return false;
+        }
+        long[] level = orders[index];
+        int count = counts[index];
+        for (int i = 0; i < count; i++) {
+            if (level[i] == orderId) {
+                System.arraycopy(level, i + 1, level, i, count - i - 1);
+                counts[index] = count - 1;
+                orderCount--;
+                if (count == 1) {
+                    removeLevel(index);
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Removes every order on a level that {@code price} reaches, passing each id to {@code fired}. */
+    int fire(long price, LongConsumer fired) {
+        long key = key(price);
+        int firedCount = 0;
+        while (levels > 0 && keys[levels - 1] >= key) {
+            int index = levels - 1;
+            long[] level = orders[index];
+            int count = counts[index];
+            // Drop the level before handing out its orders, so a consumer may add to the book
+            removeLevel(index);
+            orderCount -= count;
+            for (int i = 0; i < count; i++) {
+                fired.accept(level[i]);
+            }
+            firedCount += count;
+        }
+        return firedCount;
+    }
+
+    private long key(long price) {
+        // A falling price reaches every level at or above it: ascending, crossed ones last.
+        // A rising price reaches every level at or below it: negated, crossed ones last.
+        return firesOnRise ? -price : price;
+    }
+
+    private void insertLevel(int index, long key) {
+        if (levels == keys.length) {
+            int capacity = levels * 2;
+            keys = Arrays.copyOf(keys, capacity);
+            orders = Arrays.copyOf(orders, capacity);
+            counts = Arrays.copyOf(counts, capacity);
+        }
+        System.arraycopy(keys, index, keys, index + 1, levels - index);
+        System.arraycopy(orders, index, orders, index + 1, levels - index);
+        System.arraycopy(counts, index, counts, index + 1, levels - index);
+        keys[index] = key;
+        orders[index] = new long[4];
+        counts[index] = 0;
+        levels++;
+    }
+
+    private void removeLevel(int index) {
+        System.arraycopy(keys, index + 1, keys, index, levels - index - 1);
+        System.arraycopy(orders, index + 1, orders, index, levels - index - 1);
+        System.arraycopy(counts, index + 1, counts, index, levels - index - 1);
+        levels--;
+        orders[levels] = null;
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.cryptoinitializer.portfolio;
+
+import com.example.cryptoinitializer.model.FixedPointDeserializer;
+import com.example.cryptoinitializer.model.FixedPointSerializer;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.util.List;
+
+/**
+ * Users ranked by equity.
+ *
+ * @param computedAt epoch millis of the ranking, which may lag the latest ticks by up to
+ *                   {@code crypto.portfolio.leaderboard-refresh-ms}
+ * @param users      number of users ranked
+ * @param entries    the top users, best first
+ */
+public record Leaderboard(long computedAt, int users, List<Entry> entries) {
+
+    public record Entry(int rank, String userId,
+                        @JsonSerialize(using = FixedPointSerializer.class)
+                        @JsonDeserialize(using = FixedPointDeserializer.class) long equity) {
+    }
+}
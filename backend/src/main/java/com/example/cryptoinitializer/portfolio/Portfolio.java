@@ -0,0 +1,39 @@
+package com.example.cryptoinitializer.portfolio;
+
+import com.example.cryptoinitializer.model.FixedPointSerializer;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.util.List;
+
+/**
+ * A user's account marked to market. Amounts are {@link com.example.cryptoinitializer.model.FixedPoint}
+ * values.
+ *
+ * @param marketValue   value of all open positions at the latest prices
+ * @param equity        cash plus market value
+ * @param costBasis     cost basis of all open positions
+ * @param unrealizedPnl market value minus cost basis
+ * @param holdings      open positions, largest first
+ */
+public record Portfolio(String userId,
+                        @JsonSerialize(using = FixedPointSerializer.class) long cash,
+                        @JsonSerialize(using = FixedPointSerializer.class) long marketValue,
+                        @JsonSerialize(using = FixedPointSerializer.class) long equity,
+                        @JsonSerialize(using = FixedPointSerializer.class) long costBasis,
+                        @JsonSerialize(using = FixedPointSerializer.class) long unrealizedPnl,
+                        List<Holding> holdings) {
+
+    /**
+     * @param price      the price the position is marked at; its average price until the
+     *                   symbol has a quote
+     * @param allocation share of the account's equity in this position, e.g. 0.25
+     */
+    public record Holding(String symbol,
+                          @JsonSerialize(using = FixedPointSerializer.class) long quantity,
+                          @JsonSerialize(using = FixedPointSerializer.class) long price,
+                          @JsonSerialize(using = FixedPointSerializer.class) long marketValue,
+                          @JsonSerialize(using = FixedPointSerializer.class) long costBasis,
+                          @JsonSerialize(using = FixedPointSerializer.class) long unrealizedPnl,
+                          @JsonSerialize(using = FixedPointSerializer.class) long allocation) {
+    }
+}
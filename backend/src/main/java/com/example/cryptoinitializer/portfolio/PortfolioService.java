@@ -0,0 +1,222 @@
+package com.example.cryptoinitializer.portfolio;
+
+import com.example.cryptoinitializer.model.AccountState;
+import com.example.cryptoinitializer.model.CryptoCurrency;
+import com.example.cryptoinitializer.model.Position;
+import com.example.cryptoinitializer.service.AccountListener;
+import com.example.cryptoinitializer.service.CryptoDataService;
+import com.example.cryptoinitializer.service.PriceUpdateListener;
+import com.example.cryptoinitializer.service.UserService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps every account marked to market. Trades, resets and recovery update the account's
+ * {@link UserValuation}; a price change revalues only the positions in that symbol, found
+ * through an index from each symbol to the users holding it, so a tick costs time in
+ * proportion to its holders rather than to all users. Valuations are kept for every user,
+ * including accounts the store has evicted to disk, and hold only cash and open positions.
+ *
+ * <p>A valuation reads the symbol's price while holding its lock, after joining the
+ * symbol's holders. A tick publishes its price before revaluing the holders, so a position
+ * it misses was valued at that price or a later one.
+ *
+ * <p>The leaderboard is ranked from the running equity of every user, at most once per
+ * {@code crypto.portfolio.leaderboard-refresh-ms}, however many clients ask for it.
+ */
+@Service
+public class PortfolioService implements PriceUpdateListener, AccountListener {
+    public static final int DEFAULT_LEADERBOARD_SIZE = 10;
+    public static final int MAX_LEADERBOARD_SIZE = 100;
+
+    private final Map<String, UserValuation> valuations = new ConcurrentHashMap<>();
+    private final Map<String, Set<UserValuation>> holders = new ConcurrentHashMap<>();
+    private final ReentrantLock leaderboardLock = new ReentrantLock();
+    private volatile Leaderboard leaderboard;
+
+    @Autowired
+    private CryptoDataService cryptoDataService;
+
+    @Autowired
+    private UserService userService;
+
+    @Value("${crypto.portfolio.leaderboard-refresh-ms:1000}")
+    private long leaderboardRefreshMs = 1000;
+
+    @PostConstruct
+    public void init() {
+        userService.addAccountListener(this);
+        cryptoDataService.addPriceListener(this);
+        // Accounts recovered before we were listening; anything that changed since wins
+        userService.forEachAccount(snapshot -> {
+            AccountState state = snapshot.state();
+            UserValuation valuation = new UserValuation(state.userId());
+            valuation.lock();
+            try {
+                if (valuations.putIfAbsent(state.userId(), valuation) == null) {
+                    apply(valuation, state, true);
+                }
+            } finally {
+                valuation.unlock();
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        cryptoDataService.removePriceListener(this);
+        userService.removeAccountListener(this);
+    }
+
+    @Override
+    public void onAccountChange(AccountState state) {
+        UserValuation valuation = valuations.computeIfAbsent(state.userId(), UserValuation::new);
+        valuation.lock();
+        try {
+            apply(valuation, state, true);
+        } finally {
+            valuation.unlock();
+        }
+    }
+
+    @Override
+    public void onPriceUpdate(CryptoCurrency crypto) {
+        Set<UserValuation> symbolHolders = holders.get(crypto.getSymbol());
+        if (symbolHolders == null) {
+            return;
+        }
+        long price = crypto.getPriceValue();
+        for (UserValuation valuation : symbolHolders) {
+            valuation.lock();
+            try {
+                valuation.mark(crypto.getSymbol(), price);
+            } finally {
+                valuation.unlock();
+            }
+        }
+    }
+
+    /** The user's account marked at the latest prices. */
+    public Portfolio getPortfolio(String userId) {
+        UserValuation valuation = valuations.get(userId);
+        if (valuation == null) {
+            // Never traded; valued on the spot and not kept
+            valuation = new UserValuation(userId);
+            apply(valuation, userService.getUserAccount(userId).state(), false);
+        }
+        valuation.lock();
+        try {
+            return valuation.toPortfolio();
+        } finally {
+            valuation.unlock();
+        }
+    }
+
+    /** The {@code limit} users with the highest equity. */
+    public Leaderboard getLeaderboard(int limit) {
+        if (limit < 1 || limit > MAX_LEADERBOARD_SIZE) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_LEADERBOARD_SIZE);
+        }
+        Leaderboard ranked = currentLeaderboard();
+        if (ranked.entries().size() <= limit) {
+            return ranked;
+        }
+        return new Leaderboard(ranked.computedAt(), ranked.users(), ranked.entries().subList(0, limit));
+    }
+
+    private Leaderboard currentLeaderboard() {
+        Leaderboard ranked = leaderboard;
+        if (ranked != null && System.currentTimeMillis() - ranked.computedAt() < leaderboardRefreshMs) {
+            return ranked;
+        }
+        leaderboardLock.lock();
+        try {
+            ranked = leaderboard;
+            long now = System.currentTimeMillis();
+            if (ranked == null || now - ranked.computedAt() >= leaderboardRefreshMs) {
+                ranked = rank(now);
+                leaderboard = ranked;
+            }
+            return ranked;
+        } finally {
+            leaderboardLock.unlock();
+        }
+    }
+
+    private record Ranked(String userId, long equity) {
+    }
+
+    /** One pass over all users keeping the best {@link #MAX_LEADERBOARD_SIZE} in a min-heap. */
+    private Leaderboard rank(long now) {
+        Comparator<Ranked> order = Comparator.comparingLong(Ranked::equity)
+                .thenComparing(Ranked::userId, Comparator.reverseOrder());
+        PriorityQueue<Ranked> top = new PriorityQueue<>(MAX_LEADERBOARD_SIZE + 1, order);
+        int users = 0;
+        for (UserValuation valuation : valuations.values()) {
+            users++;
+            long equity = valuation.equity();
+            if (top.size() == MAX_LEADERBOARD_SIZE && equity < top.peek().equity()) {
+                continue;
+            }
+            top.add(new Ranked(valuation.userId(), equity));
+            if (top.size() > MAX_LEADERBOARD_SIZE) {
+                top.poll();
+            }
+        }
+        List<Ranked> best = new ArrayList<>(top);
+        best.sort(order.reversed());
+        List<Leaderboard.Entry> entries = new ArrayList<>(best.size());
+        for (int i = 0; i < best.size(); i++) {
+            entries.add(new Leaderboard.Entry(i + 1, best.get(i).userId(), best.get(i).equity()));
+        }
+        return new Leaderboard(now, users, List.copyOf(entries));
+    }
+
+    /**
+     * Brings {@code valuation} in line with {@code state}, joining and leaving symbols'
+     * holders if {@code indexed}. The caller holds the valuation's lock unless nobody else
+     * can see it yet.
+     */
+    private void apply(UserValuation valuation, AccountState state, boolean indexed) {
+        List<String> closed = new ArrayList<>();
+        for (String symbol : valuation.symbols()) {
+            Position position = state.positions().get(symbol);
+            if (position == null || !position.isOpen()) {
+                closed.add(symbol);
+            }
+        }
+        for (String symbol : closed) {
+            valuation.removePosition(symbol);
+            if (indexed) {
+                holders.get(symbol).remove(valuation);
+            }
+        }
+        valuation.setCash(state.balance());
+        for (Position position : state.positions().values()) {
+            if (!position.isOpen()) {
+                continue;
+            }
+            if (indexed && !valuation.holds(position.symbol())) {
+                holders.computeIfAbsent(position.symbol(), k -> ConcurrentHashMap.newKeySet()).add(valuation);
+            }
+            valuation.setPosition(position.symbol(), position.quantity(), position.totalCost(), markPrice(position));
+        }
+    }
+
+    private long markPrice(Position position) {
+        CryptoCurrency crypto = cryptoDataService.getCryptoCurrency(position.symbol());
+        return crypto != null ? crypto.getPriceValue() : position.averagePrice();
+    }
+}
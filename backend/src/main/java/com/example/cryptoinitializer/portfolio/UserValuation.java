@@ -0,0 +1,116 @@
+package com.example.cryptoinitializer.portfolio;
+
+import com.example.cryptoinitializer.model.FixedPoint;
+
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Running valuation of one account: its cash and open positions, each marked at the last
+ * price applied to it, and their sum. Marking a position adjusts the sum by the change in
+ * that position's value alone. Guarded by {@link #lock()}; {@link #equity()} may be read
+ * without it. A lock rather than the object's monitor, as it is taken under the account's
+ * lock on request threads, and a virtual thread waiting for a monitor pins its carrier.
+ */
+final class UserValuation {
+    private final String userId;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<String, Line> lines = new HashMap<>();
+    private long cash;
+    private long marketValue;
+    private volatile long equity;
+
+    private static final class Line {
+        long quantity;
+        long cost;
+        long price;
+        long value;
+    }
+
+    UserValuation(String userId) {
+        this.userId = userId;
+    }
+
+    void lock() {
+        lock.lock();
+    }
+
+    void unlock() {
+        lock.unlock();
+    }
+
+    String userId() {
+        return userId;
+    }
+
+    long equity() {
+        return equity;
+    }
+
+    boolean holds(String symbol) {
+        return lines.containsKey(symbol);
+    }
+
+    Iterable<String> symbols() {
+        return lines.keySet();
+    }
+
+    void setCash(long cash) {
+        this.cash = cash;
+        equity = cash + marketValue;
+    }
+
+    /** Sets a position and marks it at {@code price}. */
+    void setPosition(String symbol, long quantity, long cost, long price) {
+        Line line = lines.computeIfAbsent(symbol, k -> new Line());
+        line.quantity = quantity;
+        line.cost = cost;
+        mark(line, price);
+    }
+
+    void removePosition(String symbol) {
+        Line line = lines.remove(symbol);
+        if (line != null) {
+            marketValue -= line.value;
+            equity = cash + marketValue;
+        }
+    }
+
+    /** Marks the position in {@code symbol}, if there is one, at {@code price}. */
+    void mark(String symbol, long price) {
+        Line line = lines.get(symbol);
+        if (line != null) {
+            mark(line, price);
+        }
+    }
+
+    private void mark(Line line, long price) {
+        long value = FixedPoint.multiply(line.quantity, price, RoundingMode.HALF_UP);
+        marketValue += value - line.value;
+        line.price = price;
+        line.value = value;
+        equity = cash + marketValue;
+    }
+
+    Portfolio toPortfolio() {
+        List<Portfolio.Holding> holdings = new ArrayList<>(lines.size());
+        long costBasis = 0;
+        long total = equity;
+        for (Map.Entry<String, Line> entry : lines.entrySet()) {
+            Line line = entry.getValue();
+            long allocation = total > 0 ? FixedPoint.divide(line.value, total, RoundingMode.HALF_UP) : 0;
+            holdings.add(new Portfolio.Holding(entry.getKey(), line.quantity, line.price, line.value, line.cost,
+                    line.value - line.cost, allocation));
+            costBasis += line.cost;
+        }
+        holdings.sort(Comparator.comparingLong(Portfolio.Holding::marketValue).reversed()
+                .thenComparing(Portfolio.Holding::symbol));
+        return new Portfolio(userId, cash, marketValue, total, costBasis, marketValue - costBasis,
+                List.copyOf(holdings));
+    }
+}
@@ -0,0 +1,264 @@
+package com.example.cryptoinitializer.push;
+
+import com.example.cryptoinitializer.model.CryptoCurrency;
+import com.example.cryptoinitializer.service.CryptoDataService;
+import com.example.cryptoinitializer.service.MarketSnapshotService;
+import com.example.cryptoinitializer.service.PriceUpdateListener;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Pushes price changes to browsers over {@code /ws/prices}.
+ *
+ * <p>The feed thread only records which symbols changed. Every coalescing window the
+ * changed symbols are turned into one delta frame that is shared by all subscribers, so a
+ * symbol that ticked ten times in the window is sent once with its latest price.
+ *
+ * <p>Each subscriber has at most one send in flight. While a send is in flight, further
+ * changes are folded into that subscriber's backlog of symbols, which can never hold more
+ * than one entry per symbol; once the send completes a catch-up delta is built from the
+ * latest prices. A subscriber whose send takes longer than the send time limit is
+ * disconnected, so a slow browser costs a bounded amount of memory and never blocks the
+ * feed thread or other subscribers.
+ */
+@Component
+public class PriceStreamHandler extends TextWebSocketHandler implements PriceUpdateListener {
+    private static final Logger logger = LoggerFactory.getLogger(PriceStreamHandler.class);
+
+    @Autowired
+    private CryptoDataService cryptoDataService;
+
+    @Autowired
+    private MarketSnapshotService marketSnapshotService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${crypto.push.send-time-limit-ms:5000}")
+    private long sendTimeLimitMs;
+
+    private final Set<String> changedSymbols = ConcurrentHashMap.newKeySet();
+    private final Map<String, Subscriber> subscribers = new ConcurrentHashMap<>();
+    private final ExecutorService sendExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @PostConstruct
+    public void init() {
+        cryptoDataService.addPriceListener(this);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        cryptoDataService.removePriceListener(this);
+        sendExecutor.shutdownNow();
+    }
+
+    @Override
+    public void onPriceUpdate(CryptoCurrency crypto) {
+        changedSymbols.add(crypto.getSymbol());
+    }
+
+    @Override
+    public void onStatusChange(CryptoCurrency crypto) {
+        changedSymbols.add(crypto.getSymbol());
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+        // Registered before the snapshot is read, still busy, so anything a flush drains
+        // in between lands in its backlog and follows the snapshot
+        Subscriber subscriber = new Subscriber(session);
+        subscribers.put(session.getId(), subscriber);
+        TextMessage snapshot;
+        try {
+            snapshot = encode(PriceStreamMessage.SNAPSHOT, marketSnapshotService.getSnapshot().prices());
+        } catch (JsonProcessingException e) {
+            subscribers.remove(session.getId());
+            throw e;
+        }
+        subscriber.start(snapshot);
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        subscribers.remove(session.getId());
+    }
+
+    @Override
+    public void handleTransportError(WebSocketSession session, Throwable exception) {
+        logger.debug("Transport error on price stream session {}", session.getId(), exception);
+        drop(session, CloseStatus.SERVER_ERROR);
+    }
+
+    @Scheduled(fixedDelayString = "${crypto.push.coalesce-window-ms:250}")
+    public void flush() {
+        List<String> changed = drainChangedSymbols();
+
+        if (subscribers.isEmpty() || changed.isEmpty()) {
+            evictSlowSubscribers();
+            return;
+        }
+
+        TextMessage delta;
+        try {
+            delta = encode(PriceStreamMessage.DELTA, pricesFor(changed));
+        } catch (JsonProcessingException e) {
+            logger.error("Failed to encode price delta", e);
+            return;
+        }
+
+        for (Subscriber subscriber : subscribers.values()) {
+            subscriber.publish(delta, changed);
+        }
+        evictSlowSubscribers();
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    private List<String> drainChangedSymbols() {
+        List<String> changed = new ArrayList<>(changedSymbols.size());
+        for (Iterator<String> it = changedSymbols.iterator(); it.hasNext(); ) {
+            changed.add(it.next());
+            it.remove();
+        }
+        return changed;
+    }
+
+    private void evictSlowSubscribers() {
+        long now = System.nanoTime();
+        long limit = TimeUnit.MILLISECONDS.toNanos(sendTimeLimitMs);
+        for (Subscriber subscriber : subscribers.values()) {
+            long startedAt = subscriber.sendStartedAt;
+            if (startedAt != 0 && now - startedAt > limit) {
+                logger.warn("Closing slow price stream subscriber {}", subscriber.session.getId());
+                drop(subscriber.session, CloseStatus.SESSION_NOT_RELIABLE);
+            }
+        }
+    }
+
+    private void drop(WebSocketSession session, CloseStatus status) {
+        subscribers.remove(session.getId());
+        try {
+            session.close(status);
+        } catch (Exception e) {
+            logger.debug("Failed to close price stream session {}", session.getId(), e);
+        }
+    }
+
+    private List<CryptoCurrency> pricesFor(Collection<String> symbols) {
+        List<CryptoCurrency> prices = new ArrayList<>(symbols.size());
+        for (String symbol : symbols) {
+            CryptoCurrency crypto = cryptoDataService.getCryptoCurrency(symbol);
+            if (crypto != null) {
+                prices.add(crypto);
+            }
+        }
+        return prices;
+    }
+
+    private TextMessage encode(String type, List<CryptoCurrency> prices) throws JsonProcessingException {
+        return new TextMessage(objectMapper.writeValueAsString(new PriceStreamMessage(type, prices)));
+    }
+
+    private final class Subscriber {
+        private final WebSocketSession session;
+        private final Set<String> backlog = ConcurrentHashMap.newKeySet();
+        private final AtomicBoolean busy = new AtomicBoolean(true);
+        private volatile long sendStartedAt;
+
+        Subscriber(WebSocketSession session) {
+            this.session = session;
+        }
+
+        void start(TextMessage snapshot) {
+            dispatch(snapshot);
+        }
+
+        void publish(TextMessage delta, List<String> changed) {
+            if (busy.compareAndSet(false, true)) {
+                if (backlog.isEmpty()) {
+                    dispatch(delta);
+                    return;
+                }
+                backlog.addAll(changed);
+                dispatchBacklog();
+            } else {
+                backlog.addAll(changed);
+            }
+        }
+
+        private void dispatch(TextMessage message) {
+            sendStartedAt = System.nanoTime();
+            try {
+                sendExecutor.execute(() -> send(message));
+            } catch (Exception e) {
+                sendStartedAt = 0;
+                busy.set(false);
+            }
+        }
+
+        private void dispatchBacklog() {
+            List<String> pending = new ArrayList<>(backlog.size());
+            for (Iterator<String> it = backlog.iterator(); it.hasNext(); ) {
+                pending.add(it.next());
+                it.remove();
+            }
+            try {
+                dispatch(encode(PriceStreamMessage.DELTA, pricesFor(pending)));
+            } catch (JsonProcessingException e) {
+                logger.error("Failed to encode price delta", e);
+                busy.set(false);
+            }
+        }
+
+        private void send(TextMessage message) {
+            try {
+                if (session.isOpen()) {
+                    session.sendMessage(message);
+                }
+            } catch (Exception e) {
+                logger.debug("Failed to send to price stream session {}", session.getId(), e);
+                drop(session, CloseStatus.SERVER_ERROR);
+                return;
+            } finally {
+                sendStartedAt = 0;
+            }
+            // Catch up on whatever changed while this send was in flight
+            while (true) {
+                if (!backlog.isEmpty()) {
+                    dispatchBacklog();
+                    return;
+                }
+                busy.set(false);
+                if (backlog.isEmpty() || !busy.compareAndSet(false, true)) {
+                    return;
+                }
+            }
+        }
+    }
+}
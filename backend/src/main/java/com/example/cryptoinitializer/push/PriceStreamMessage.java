@@ -0,0 +1,15 @@
+package com.example.cryptoinitializer.push;
+
+import com.example.cryptoinitializer.model.CryptoCurrency;
+
+import java.util.List;
+
+/**
+ * Frame sent to price stream subscribers. The first frame on a connection is a
+ * {@code snapshot} of every known price; after that only {@code delta} frames with the
+ * symbols that changed are sent.
+ */
+public record PriceStreamMessage(String type, List<CryptoCurrency> prices) {
+    public static final String SNAPSHOT = "snapshot";
+    public static final String DELTA = "delta";
+}
@@ -0,0 +1,29 @@
+package com.example.cryptoinitializer.push;
+
+import com.example.cryptoinitializer.cluster.TickBroadcaster;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+@Configuration
+@EnableWebSocket
+public class WebSocketConfig implements WebSocketConfigurer {
+
+    @Autowired
+    private PriceStreamHandler priceStreamHandler;
+
+    // Only with crypto.cluster.enabled
+    @Autowired(required = false)
+    private TickBroadcaster tickBroadcaster;
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        registry.addHandler(priceStreamHandler, "/ws/prices")
+                .setAllowedOrigins("*");
+        if (tickBroadcaster != null) {
+            registry.addHandler(tickBroadcaster, "/ws/cluster/ticks");
+        }
+    }
+}
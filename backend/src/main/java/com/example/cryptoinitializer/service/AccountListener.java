@@ -0,0 +1,13 @@
+package com.example.cryptoinitializer.service;
+
+import com.example.cryptoinitializer.model.AccountState;
+
+/**
+ * Notified every time an account's state changes, by a trade, a reset or recovery. Called
+ * while the account is locked, so calls for one account arrive in order; implementations
+ * must return quickly and must not lock accounts themselves.
+ */
+@FunctionalInterface
+public interface AccountListener {
+    void onAccountChange(AccountState state);
+}
@@ -1,180 +1,425 @@
 package com.example.cryptoinitializer.service;
 
-import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import com.example.cryptoinitializer.feed.KrakenTickerDecoder;
+import com.example.cryptoinitializer.feed.MarketDataSource;
+import com.example.cryptoinitializer.feed.TickPipeline;
+import com.example.cryptoinitializer.feed.TickerState;
 import com.example.cryptoinitializer.model.CryptoCurrency;
+import com.example.cryptoinitializer.model.FeedStatus;
+import com.example.cryptoinitializer.model.FixedPoint;
+import com.example.cryptoinitializer.model.Instrument;
+import com.example.cryptoinitializer.model.SymbolTable;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.web.socket.TextMessage;
-import org.springframework.web.socket.WebSocketHandler;
-import org.springframework.web.socket.WebSocketHttpHeaders;
-import org.springframework.web.socket.WebSocketSession;
-import org.springframework.web.socket.client.standard.StandardWebSocketClient;
-import org.springframework.web.socket.handler.TextWebSocketHandler;
-
-import java.math.BigDecimal;
-import java.net.URI;
+
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
 
+/**
+ * Prices of the pairs in the {@link SymbolUniverse}, kept current from the market data
+ * source. Pairs added to or removed from the universe are picked up by the decoder, the
+ * source's subscriptions and the meters while the feed runs.
+ *
+ * <p>Everything kept per pair lives in one {@link Market}, found on the tick path by the
+ * {@link SymbolTable} id the decoder already attached to the tick, so applying a tick
+ * hashes no symbol however many pairs are followed.
+ */
 @Service
-public class CryptoDataService {
+public class CryptoDataService implements SymbolListener {
     private static final Logger logger = LoggerFactory.getLogger(CryptoDataService.class);
-    private static final String KRAKEN_WS_URL = "wss://ws.kraken.com/v2";
+    public static final int DEFAULT_TOP_SIZE = 20;
 
     private final ObjectMapper objectMapper = new ObjectMapper();
-    private WebSocketSession webSocketSession;
-    private WebSocketHandler webSocketHandler;
-    private final Map<String, CryptoCurrency> cryptoMap = new ConcurrentHashMap<>();
-
-    // Mapping between symbols and names
-    private final Map<String, String> cryptoNames = new HashMap<String, String>() {{
-        put("BTC/USD", "Bitcoin");
-        put("ETH/USD", "Ethereum");
-        put("SOL/USD", "Solana");
-        put("XRP/USD", "Ripple");
-        put("ADA/USD", "Cardano");
-        put("DOT/USD", "Polkadot");
-        put("DOGE/USD", "Dogecoin");
-        put("SHIB/USD", "Shiba Inu");
-        put("MATIC/USD", "Polygon");
-        put("LINK/USD", "Chainlink");
-        put("AVAX/USD", "Avalanche");
-        put("UNI/USD", "Uniswap");
-        put("LTC/USD", "Litecoin");
-        put("ALGO/USD", "Algorand");
-        put("ATOM/USD", "Cosmos");
-        put("XTZ/USD", "Tezos");
-        put("EOS/USD", "EOS");
-        put("BCH/USD", "Bitcoin Cash");
-        put("XLM/USD", "Stellar");
-        put("TRX/USD", "TRON");
-    }};
+    private final List<PriceUpdateListener> priceListeners = new CopyOnWriteArrayList<>();
+    private final List<TickListener> tickListeners = new CopyOnWriteArrayList<>();
+    private final AtomicLong version = new AtomicLong();
+
+    // Indexed by SymbolTable id; grown, never shrunk, under symbolsLock. Removed pairs keep
+    // their entry, unlisted, so their counters carry on if they are added back
+    private volatile Market[] markets = new Market[64];
+    private final ReentrantLock symbolsLock = new ReentrantLock();
+
+    @Autowired
+    private MarketDataSource marketDataSource;
+
+    @Autowired
+    private SymbolUniverse symbolUniverse;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${crypto.feed.stale-after-ms:60000}")
+    private long staleAfterMs = 60000;
+
+    @Value("${crypto.feed.pipeline.capacity:4096}")
+    private int pipelineCapacity = 4096;
+
+    private TickPipeline pipeline;
+
+    // Decodes only on the pipeline's apply thread
+    private KrakenTickerDecoder tickerDecoder;
+
+    /** What is kept per pair. */
+    private static final class Market {
+        final String symbol;
+        volatile String name;
+        volatile boolean listed;
+        final AtomicReference<CryptoCurrency> price = new AtomicReference<>();
+        // Epoch millis of the last frame mentioning the pair, how many ticks were applied for
+        // it and how often it went stale
+        final AtomicLong lastTickAt = new AtomicLong();
+        final AtomicLong ticks = new AtomicLong();
+        final AtomicLong gaps = new AtomicLong();
+        // 24-hour volume in the quote currency, for ranking; written on the apply thread
+        volatile double quoteVolume;
+        final List<Meter> meters = new ArrayList<>();
 
+        Market(String symbol) {
+            this.symbol = symbol;
+        }
+    }
+
+    /** Starts the feed without waiting for it, prices arrive once it connects. */
     @PostConstruct
     public void init() {
-        connectWebSocket();
+        List<Instrument> instruments = symbolUniverse.getInstruments();
+        List<String> symbols = symbols(instruments);
+        tickerDecoder = new KrakenTickerDecoder(objectMapper, symbols);
+        pipeline = new TickPipeline(pipelineCapacity, tickerDecoder, this::applyTicker);
+        bindMetrics();
+        symbolsLock.lock();
+        try {
+            list(instruments);
+        } finally {
+            symbolsLock.unlock();
+        }
+        symbolUniverse.addListener(this);
+        pipeline.start();
+        marketDataSource.start(symbols, pipeline::offer);
     }
 
-    private void connectWebSocket() {
-        try {
-            StandardWebSocketClient client = new StandardWebSocketClient();
+    /**
+     * The pipeline's meters and whether the feed is connected. Per pair meters are
+     * registered as pairs are listed, see {@link #bindMetrics(Market)}.
+     */
+    private void bindMetrics() {
+        pipeline.bindTo(meterRegistry);
+        Gauge.builder("crypto.feed.connected", marketDataSource, source -> source.isConnected() ? 1 : 0)
+                .description("Whether the market data source is connected and delivering frames")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Per pair, the ticks applied ({@code rate()} of which is the tick rate), the time
+     * since the last one and how often it went stale. All read state the feed keeps anyway.
+     */
+    private void bindMetrics(Market market) {
+        String symbol = market.symbol;
+        market.meters.add(FunctionCounter.builder("crypto.feed.symbol.ticks", market.ticks, AtomicLong::get)
+                .description("Ticks applied for the symbol")
+                .tag("symbol", symbol)
+                .register(meterRegistry));
+        market.meters.add(TimeGauge.builder("crypto.feed.symbol.last.tick.age", market.lastTickAt,
+                        TimeUnit.MILLISECONDS,
+                        tickAt -> tickAt.get() == 0 ? Double.NaN : System.currentTimeMillis() - tickAt.get())
+                .description("Time since the feed last mentioned the symbol")
+                .tag("symbol", symbol)
+                .register(meterRegistry));
+        market.meters.add(FunctionCounter.builder("crypto.feed.symbol.gaps", market.gaps, AtomicLong::get)
+                .description("Times the symbol's price went stale")
+                .tag("symbol", symbol)
+                .register(meterRegistry));
+    }
+
+    @PreDestroy
+    public void stop() {
+        symbolUniverse.removeListener(this);
+        marketDataSource.stop();
+        pipeline.stop();
+    }
 
-            webSocketHandler = new TextWebSocketHandler() {
-                @Override
-                public void handleTextMessage(WebSocketSession session, TextMessage message) {
-                    processMessage(message);
+    /**
+     * Follows the universe's pairs from now on: new pairs are subscribed to, and removed
+     * ones are dropped from the prices, after their last price is flagged stale.
+     */
+    @Override
+    public void onSymbolsChanged(List<Instrument> instruments) {
+        List<String> symbols = symbols(instruments);
+        symbolsLock.lock();
+        try {
+            list(instruments);
+            Set<String> wanted = new HashSet<>(symbols);
+            for (Market market : markets) {
+                if (market != null && market.listed && !wanted.contains(market.symbol)) {
+                    delist(market);
                 }
-            };
+            }
+            tickerDecoder.setSymbols(symbols);
+            marketDataSource.updateSymbols(symbols);
+        } finally {
+            symbolsLock.unlock();
+        }
+    }
 
-            webSocketSession = client.execute(
-                    webSocketHandler,
-                    new WebSocketHttpHeaders(),
-                    URI.create(KRAKEN_WS_URL)
-            ).get();
+    /** Lists every one of {@code instruments} not listed yet; the caller holds {@link #symbolsLock}. */
+    private void list(List<Instrument> instruments) {
+        for (Instrument instrument : instruments) {
+            int id = SymbolTable.id(instrument.symbol());
+            Market[] current = markets;
+            if (id >= current.length) {
+                current = Arrays.copyOf(current, Math.max(current.length * 2, id + 1));
+            }
+            Market market = current[id];
+            if (market == null) {
+                market = new Market(instrument.symbol());
+                current[id] = market;
+            }
+            // Publishes the grown array, and the new entry, before the decoder can produce ticks for it
+            markets = current;
+            market.name = instrument.name();
+            if (!market.listed) {
+                market.listed = true;
+                bindMetrics(market);
+            }
+        }
+    }
 
-            logger.info("WebSocket connection established successfully");
-            sendSubscriptionMessage();
-        } catch (Exception e) {
-            logger.error("Failed to connect to WebSocket", e);
+    private void delist(Market market) {
+        market.listed = false;
+        market.meters.forEach(meterRegistry::remove);
+        market.meters.clear();
+        CryptoCurrency last = market.price.getAndSet(null);
+        if (last != null) {
+            version.incrementAndGet();
+            CryptoCurrency stale = last.withStale(true);
+            for (PriceUpdateListener listener : priceListeners) {
+                try {
+                    listener.onStatusChange(stale);
+                } catch (Exception e) {
+                    logger.error("Price listener failed for {}", market.symbol, e);
+                }
+            }
         }
     }
 
-    private void sendSubscriptionMessage() {
-        if (webSocketSession == null || !webSocketSession.isOpen()) {
-            logger.warn("WebSocket session is not open, cannot send subscription message");
+    private static List<String> symbols(List<Instrument> instruments) {
+        return instruments.stream().map(Instrument::symbol).toList();
+    }
+
+    private Market market(int id) {
+        Market[] current = markets;
+        return id >= 0 && id < current.length ? current[id] : null;
+    }
+
+    /**
+     * Decodes one Kraken v2 frame and applies any price changes in it on the calling
+     * thread. Frames from the market data source go through the pipeline instead; this is
+     * for tests and benchmarks feeding the service directly while their source delivers
+     * nothing, as the pipeline's decoder is not safe to share with its apply thread.
+     */
+    void processMessage(String payload) {
+        pipeline.process(payload);
+    }
+
+    private void applyTicker(TickerState ticker) {
+        Market market = market(ticker.getId());
+        if (market == null || !market.listed) {
+            // Removed while its tick was on the way
+            return;
+        }
+        String symbol = market.symbol;
+        long now = System.currentTimeMillis();
+        market.lastTickAt.set(now);
+        market.ticks.incrementAndGet();
+        if (ticker.hasVolume()) {
+            long reference = ticker.hasLast() ? ticker.getLast() : ticker.hasAsk() ? ticker.getAsk() : 0;
+            double quoteVolume = (double) ticker.getVolume() / FixedPoint.SCALE * reference / FixedPoint.SCALE;
+            if (quoteVolume != market.quoteVolume) {
+                market.quoteVolume = quoteVolume;
+                // The top list is ranked by volume, so a new volume alone can reorder it
+                version.incrementAndGet();
+            }
+        }
+        for (TickListener listener : tickListeners) {
+            try {
+                listener.onTick(ticker, now);
+            } catch (Exception e) {
+                logger.error("Tick listener failed for {}", symbol, e);
+            }
+        }
+        // Ticks that only move bid/volume leave the ask, and so the price, untouched. Compared
+        // with the published price rather than the last frame, as ticks may have been conflated
+        CryptoCurrency current = market.price.get();
+        if (!ticker.hasAsk() || (current != null && current.getPriceValue() == ticker.getAsk())) {
+            // but they do show the price is current again
+            if (current != null && current.isStale()) {
+                publishStatus(market, current, current.withStale(false));
+            }
             return;
         }
 
-        try {
-            List<String> pairs = new ArrayList<>(cryptoNames.keySet());
+        // Published entries are never mutated, so readers always see a whole tick
+        long price = ticker.getAsk();
+        CryptoCurrency crypto = new CryptoCurrency(symbol, market.name, price, now, false);
+        market.price.set(crypto);
+        if (!market.listed) {
+            // Lost a race with the removal, which has already told the listeners
+            market.price.compareAndSet(crypto, null);
+            return;
+        }
+        version.incrementAndGet();
+
+        // Once per tick, so only at DEBUG; the tick meters show the rate
+        if (logger.isDebugEnabled()) {
+            logger.debug("Updated price for {}: {}", symbol, crypto.getPrice());
+        }
 
-            String subscribeMessage = objectMapper.writeValueAsString(Map.of(
-                    "method", "subscribe",
-                    "params", Map.of(
-                            "channel", "ticker",
-                            "symbol", pairs
-                    )
-            ));
+        for (PriceUpdateListener listener : priceListeners) {
+            try {
+                listener.onPriceUpdate(crypto);
+            } catch (Exception e) {
+                logger.error("Price listener failed for {}", symbol, e);
+            }
+        }
+    }
 
-            logger.info("Sending subscription message: {}", subscribeMessage);
-            webSocketSession.sendMessage(new TextMessage(subscribeMessage));
-        } catch (Exception e) {
-            logger.error("Error sending subscription message", e);
+    /**
+     * Flags prices stale while the feed is down or once their symbol has not been
+     * mentioned for {@code crypto.feed.stale-after-ms}. The flag is cleared by the next
+     * tick for the symbol, so a resubscribe snapshot clears every symbol it covers.
+     */
+    @Scheduled(fixedDelayString = "${crypto.feed.stale-check-ms:1000}")
+    public void checkStaleness() {
+        boolean connected = marketDataSource.isConnected();
+        long now = System.currentTimeMillis();
+        for (Market market : markets) {
+            CryptoCurrency crypto = market == null ? null : market.price.get();
+            if (crypto == null) {
+                continue;
+            }
+            long age = now - market.lastTickAt.get();
+            if (crypto.isStale() || (connected && age <= staleAfterMs)) {
+                continue;
+            }
+            // Only marks what is still current, a tick that just replaced it wins
+            if (publishStatus(market, crypto, crypto.withStale(true))) {
+                market.gaps.incrementAndGet();
+                logger.warn("Price for {} is stale: {}", market.symbol,
+                        connected ? "no ticks for " + age + " ms" : "feed disconnected");
+            }
         }
     }
 
-    private void processMessage(TextMessage message) {
-        try {
-            String payload = message.getPayload();
-            logger.info("Received WebSocket message: {}", payload);
-
-            JsonNode jsonNode = objectMapper.readTree(payload);
-
-            // Check for either "ticker" type or "update" type
-            if (jsonNode.has("type") &&
-                    ("ticker".equals(jsonNode.get("type").asText()) || "update".equals(jsonNode.get("type").asText()))) {
-
-                if (jsonNode.has("channel") && "ticker".equals(jsonNode.get("channel").asText())) {
-                    JsonNode dataArray = jsonNode.get("data");
-                    logger.info("Received ticker data with {} entries", dataArray.size());
-
-                    for (JsonNode tickerData : dataArray) {
-                        String symbol = tickerData.get("symbol").asText();
-                        logger.info("Processing ticker for symbol: {}", symbol);
-
-                        if (cryptoNames.containsKey(symbol)) {
-                            // Handle both array format and direct number format for "ask"
-                            BigDecimal price;
-                            JsonNode askNode = tickerData.get("ask");
-
-                            if (askNode.isArray()) {
-                                price = new BigDecimal(askNode.get(0).asText());
-                            } else {
-                                price = new BigDecimal(askNode.asText());
-                            }
-
-                            cryptoMap.compute(symbol, (k, crypto) -> {
-                                if (crypto == null) {
-                                    return new CryptoCurrency(symbol, cryptoNames.get(symbol), price);
-                                }
-                                crypto.setPrice(price);
-                                return crypto;
-                            });
-
-                            logger.info("Updated price for {}: {}", symbol, price);
-                        } else {
-                            logger.debug("Ignoring unknown symbol: {}", symbol);
-                        }
-                    }
-                }
-            } else if (jsonNode.has("result") && jsonNode.has("method")) {
-                // Handle subscription response message
-                logger.info("Received response for method '{}': {}",
-                        jsonNode.get("method").asText(),
-                        jsonNode.get("result").asText());
+    private boolean publishStatus(Market market, CryptoCurrency current, CryptoCurrency updated) {
+        if (!market.price.compareAndSet(current, updated)) {
+            return false;
+        }
+        version.incrementAndGet();
+        for (PriceUpdateListener listener : priceListeners) {
+            try {
+                listener.onStatusChange(updated);
+            } catch (Exception e) {
+                logger.error("Price listener failed for {}", updated.getSymbol(), e);
             }
-        } catch (Exception e) {
-            logger.error("Error processing WebSocket message", e);
         }
+        return true;
     }
 
-    @Scheduled(fixedDelay = 60000)
-    public void checkConnection() {
-        if (webSocketSession == null || !webSocketSession.isOpen()) {
-            logger.info("WebSocket connection lost, reconnecting...");
-            connectWebSocket();
+    public FeedStatus getFeedStatus() {
+        long now = System.currentTimeMillis();
+        List<FeedStatus.SymbolStatus> symbols = new ArrayList<>();
+        for (Market market : markets) {
+            if (market == null || !market.listed) {
+                continue;
+            }
+            CryptoCurrency crypto = market.price.get();
+            long tickAt = market.lastTickAt.get();
+            symbols.add(new FeedStatus.SymbolStatus(market.symbol, crypto != null, crypto == null || crypto.isStale(),
+                    tickAt == 0 ? null : now - tickAt, market.gaps.get()));
         }
+        symbols.sort(Comparator.comparing(FeedStatus.SymbolStatus::symbol));
+        return new FeedStatus(marketDataSource.isConnected(), symbols, pipeline.stats());
     }
 
-    public List<CryptoCurrency> getTop20Cryptocurrencies() {
-        return new ArrayList<>(cryptoMap.values());
+    public void addPriceListener(PriceUpdateListener listener) {
+        priceListeners.add(listener);
+    }
+
+    public void removePriceListener(PriceUpdateListener listener) {
+        priceListeners.remove(listener);
+    }
+
+    public void addTickListener(TickListener listener) {
+        tickListeners.add(listener);
+    }
+
+    public void removeTickListener(TickListener listener) {
+        tickListeners.remove(listener);
+    }
+
+    /** Number of ticks applied so far; moves forward every time a price changes. */
+    public long getVersion() {
+        return version.get();
+    }
+
+    private record Ranked(CryptoCurrency crypto, double quoteVolume) {
+    }
+
+    /**
+     * The {@code limit} priced pairs with the highest 24-hour volume in their quote
+     * currency, highest first; pairs the feed reports no volume for come last, by symbol.
+     * One pass over all pairs keeping the best {@code limit} in a min-heap.
+     */
+    public List<CryptoCurrency> getTopCryptocurrencies(int limit) {
+        Comparator<Ranked> order = Comparator.comparingDouble(Ranked::quoteVolume)
+                .thenComparing(ranked -> ranked.crypto().getSymbol(), Comparator.reverseOrder());
+        PriorityQueue<Ranked> top = new PriorityQueue<>(limit + 1, order);
+        for (Market market : markets) {
+            CryptoCurrency crypto = market == null ? null : market.price.get();
+            if (crypto == null) {
+                continue;
+            }
+            top.add(new Ranked(crypto, market.quoteVolume));
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+        List<Ranked> best = new ArrayList<>(top);
+        best.sort(order.reversed());
+        return best.stream().map(Ranked::crypto).toList();
+    }
+
+    /** Every priced pair, in no particular order. */
+    public List<CryptoCurrency> getCryptocurrencies() {
+        List<CryptoCurrency> prices = new ArrayList<>();
+        for (Market market : markets) {
+            CryptoCurrency crypto = market == null ? null : market.price.get();
+            if (crypto != null) {
+                prices.add(crypto);
+            }
+        }
+        return prices;
     }
 
+    /** The current price of a pair, null if it is not followed or not priced yet. */
     public CryptoCurrency getCryptoCurrency(String symbol) {
-        return cryptoMap.get(symbol);
+        Market market = market(SymbolTable.find(symbol));
+        return market == null ? null : market.price.get();
     }
 }
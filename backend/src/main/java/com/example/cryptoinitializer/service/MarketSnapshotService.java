@@ -0,0 +1,65 @@
+package com.example.cryptoinitializer.service;
+
+import com.example.cryptoinitializer.model.CryptoCurrency;
+import com.example.cryptoinitializer.model.MarketSnapshot;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Serves the current {@link MarketSnapshot}.
+ *
+ * <p>Snapshots are built lazily: the first read after the market version moves copies the
+ * prices and serializes them once, and every read until the next tick gets the same bytes.
+ * Serialization therefore runs at most once per tick, however many clients are polling.
+ * Only the top {@code crypto.market.top-size} pairs are serialized, however many are
+ * followed.
+ */
+@Service
+public class MarketSnapshotService {
+    // Distinguishes versions across restarts, so a stale ETag never matches by accident
+    private final String epoch = Long.toHexString(System.currentTimeMillis());
+    private final ReentrantLock buildLock = new ReentrantLock();
+    private volatile MarketSnapshot current;
+
+    @Value("${crypto.market.top-size:" + CryptoDataService.DEFAULT_TOP_SIZE + "}")
+    private int topSize = CryptoDataService.DEFAULT_TOP_SIZE;
+
+    @Autowired
+    private CryptoDataService cryptoDataService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    public MarketSnapshot getSnapshot() {
+        MarketSnapshot snapshot = current;
+        if (snapshot != null && snapshot.version() == cryptoDataService.getVersion()) {
+            return snapshot;
+        }
+
+        buildLock.lock();
+        try {
+            snapshot = current;
+            long version = cryptoDataService.getVersion();
+            if (snapshot != null && snapshot.version() == version) {
+                return snapshot;
+            }
+            // Prices are read after the version, so they are at least as new as it
+            List<CryptoCurrency> prices = List.copyOf(cryptoDataService.getCryptocurrencies());
+            List<CryptoCurrency> top = cryptoDataService.getTopCryptocurrencies(topSize);
+            snapshot = new MarketSnapshot(version, prices, objectMapper.writeValueAsBytes(top),
+                    "\"" + epoch + "-" + version + "\"");
+            current = snapshot;
+            return snapshot;
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize market snapshot", e);
+        } finally {
+            buildLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.cryptoinitializer.service;
+
+import com.example.cryptoinitializer.model.CryptoCurrency;
+
+/**
+ * Notified on the feed's apply thread every time a symbol's price changes.
+ * Implementations must return quickly and must not block.
+ */
+@FunctionalInterface
+public interface PriceUpdateListener {
+    void onPriceUpdate(CryptoCurrency crypto);
+
+    /**
+     * Notified when a symbol goes stale or recovers without its price changing. May be
+     * called from the staleness check as well as the apply thread.
+     */
+    default void onStatusChange(CryptoCurrency crypto) {
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.cryptoinitializer.service;
+
+import com.example.cryptoinitializer.model.Instrument;
+
+import java.util.List;
+
+/** Notified every time a pair is added to or removed from the {@link SymbolUniverse}. */
+@FunctionalInterface
+public interface SymbolListener {
+
+    /** {@code instruments} is the whole universe after the change, in the order they were added. */
+    void onSymbolsChanged(List<Instrument> instruments);
+}
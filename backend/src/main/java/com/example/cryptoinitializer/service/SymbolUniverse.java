@@ -0,0 +1,215 @@
+package com.example.cryptoinitializer.service;
+
+import com.example.cryptoinitializer.model.Instrument;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+
+/**
+ * The pairs the simulator follows and trades. They are read from an instrument file, one
+ * {@code symbol,name} line per pair with {@code #} starting a comment: the one bundled as
+ * {@code instruments.csv}, or {@code crypto.symbols.file} if set. Pairs can be added and
+ * removed at runtime; with {@code crypto.symbols.file} set each change is written back to
+ * it, so it survives a restart, and a missing file starts out as the bundled list.
+ *
+ * <p>Changes are made one at a time and {@link SymbolListener}s are told about each before
+ * the next can start.
+ */
+@Service
+public class SymbolUniverse {
+    private static final Logger logger = LoggerFactory.getLogger(SymbolUniverse.class);
+    private static final String BUNDLED = "/instruments.csv";
+    // Kraken's BASE/QUOTE; short enough for TickCodec's one byte length
+    private static final Pattern SYMBOL = Pattern.compile("[A-Z0-9]{1,16}/[A-Z0-9]{1,8}");
+    private static final int MAX_NAME_LENGTH = 64;
+
+    @Value("${crypto.symbols.file:}")
+    private String file = "";
+
+    /** Keeps the decoder's table, the meters and the subscriptions within bounds. */
+    @Value("${crypto.symbols.max:500}")
+    private int maxSymbols = 500;
+
+    private final ReentrantLock changeLock = new ReentrantLock();
+    private final List<SymbolListener> listeners = new CopyOnWriteArrayList<>();
+    // Replaced as a whole on every change, in the order the pairs were added
+    private volatile Map<String, Instrument> instruments;
+
+    public SymbolUniverse() {
+        try (InputStream bundled = SymbolUniverse.class.getResourceAsStream(BUNDLED)) {
+            if (bundled == null) {
+                throw new IllegalStateException("Missing " + BUNDLED);
+            }
+            instruments = read(new InputStreamReader(bundled, StandardCharsets.UTF_8), BUNDLED);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read " + BUNDLED, e);
+        }
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        if (file.isEmpty()) {
+            return;
+        }
+        Path path = Path.of(file);
+        if (Files.exists(path)) {
+            try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                instruments = read(reader, file);
+            }
+        }
+        logger.info("Following {} pairs from {}", instruments.size(), Files.exists(path) ? file : BUNDLED);
+    }
+
+    /** Every pair, in the order they were added. */
+    public List<Instrument> getInstruments() {
+        return List.copyOf(instruments.values());
+    }
+
+    public Instrument getInstrument(String symbol) {
+        return instruments.get(symbol);
+    }
+
+    public int size() {
+        return instruments.size();
+    }
+
+    /**
+     * Adds a pair, or renames it if it is already there.
+     *
+     * @throws IllegalArgumentException if the symbol or name is not valid or the universe
+     *                                  is full
+     */
+    public Instrument add(String symbol, String name) {
+        validate(symbol, name);
+        Instrument instrument = new Instrument(symbol, name.strip());
+        changeLock.lock();
+        try {
+            Map<String, Instrument> current = instruments;
+            if (instrument.equals(current.get(symbol))) {
+                return instrument;
+            }
+            if (!current.containsKey(symbol) && current.size() >= maxSymbols) {
+                throw new IllegalArgumentException("Already following the maximum of " + maxSymbols + " pairs");
+            }
+            Map<String, Instrument> updated = new LinkedHashMap<>(current);
+            updated.put(symbol, instrument);
+            publish(updated);
+            logger.info("Added {} ({})", symbol, instrument.name());
+            return instrument;
+        } finally {
+            changeLock.unlock();
+        }
+    }
+
+    /** Removes a pair; returns false if it was not there. Positions in it are kept. */
+    public boolean remove(String symbol) {
+        changeLock.lock();
+        try {
+            Map<String, Instrument> current = instruments;
+            if (!current.containsKey(symbol)) {
+                return false;
+            }
+            Map<String, Instrument> updated = new LinkedHashMap<>(current);
+            updated.remove(symbol);
+            publish(updated);
+            logger.info("Removed {}", symbol);
+            return true;
+        } finally {
+            changeLock.unlock();
+        }
+    }
+
+    public void addListener(SymbolListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(SymbolListener listener) {
+        listeners.remove(listener);
+    }
+
+    /** Saves, then publishes, then notifies; the caller holds {@link #changeLock}. */
+    private void publish(Map<String, Instrument> updated) {
+        if (!file.isEmpty()) {
+            save(Path.of(file), updated);
+        }
+        instruments = updated;
+        List<Instrument> all = List.copyOf(updated.values());
+        for (SymbolListener listener : listeners) {
+            try {
+                listener.onSymbolsChanged(all);
+            } catch (Exception e) {
+                logger.error("Symbol listener failed", e);
+            }
+        }
+    }
+
+    private static void validate(String symbol, String name) {
+        if (symbol == null || !SYMBOL.matcher(symbol).matches()) {
+            throw new IllegalArgumentException("Symbol must look like BTC/USD, got " + symbol);
+        }
+        if (name == null || name.isBlank() || name.length() > MAX_NAME_LENGTH
+                || name.chars().anyMatch(Character::isISOControl)) {
+            throw new IllegalArgumentException("Name must be 1 to " + MAX_NAME_LENGTH + " characters on one line");
+        }
+    }
+
+    static Map<String, Instrument> read(Reader source, String origin) throws IOException {
+        Map<String, Instrument> read = new LinkedHashMap<>();
+        BufferedReader reader = new BufferedReader(source);
+        String line;
+        int number = 0;
+        while ((line = reader.readLine()) != null) {
+            number++;
+            line = line.strip();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            int comma = line.indexOf(',');
+            String symbol = comma < 0 ? line : line.substring(0, comma).strip();
+            String name = comma < 0 ? "" : line.substring(comma + 1).strip();
+            try {
+                validate(symbol, name);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalStateException(origin + " line " + number + ": " + e.getMessage());
+            }
+            read.put(symbol, new Instrument(symbol, name));
+        }
+        return read;
+    }
+
+    private static void save(Path path, Map<String, Instrument> instruments) {
+        try {
+            Path directory = path.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            Path temp = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+            try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                for (Instrument instrument : instruments.values()) {
+                    writer.write(instrument.symbol() + "," + instrument.name() + "\n");
+                }
+            }
+            Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot save the pairs to " + path, e);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.cryptoinitializer.service;
+
+import com.example.cryptoinitializer.feed.TickerState;
+
+/**
+ * Notified on the feed's apply thread for every tick applied, whether or not it moved
+ * the price. {@code ticker} is updated in place by later ticks, so it must not be kept
+ * beyond the call. Implementations must return quickly and must not block.
+ */
+@FunctionalInterface
+public interface TickListener {
+    void onTick(TickerState ticker, long epochMillis);
+}
@@ -1,138 +1,515 @@
 package com.example.cryptoinitializer.service;
 
+import com.example.cryptoinitializer.account.AccountStore;
+import com.example.cryptoinitializer.history.TransactionHistory;
+import com.example.cryptoinitializer.history.TransactionPage;
+import com.example.cryptoinitializer.history.TransactionQuery;
+import com.example.cryptoinitializer.journal.AccountSnapshot;
+import com.example.cryptoinitializer.journal.JournalRecord;
+import com.example.cryptoinitializer.journal.TradeJournal;
+import com.example.cryptoinitializer.model.AccountState;
+import com.example.cryptoinitializer.model.CostBasisMethod;
 import com.example.cryptoinitializer.model.CryptoCurrency;
+import com.example.cryptoinitializer.model.FixedPoint;
+import com.example.cryptoinitializer.model.Position;
 import com.example.cryptoinitializer.model.Transaction;
 import com.example.cryptoinitializer.model.UserAccount;
+import com.example.cryptoinitializer.trade.BatchTrade;
+import com.example.cryptoinitializer.trade.TradeMetrics;
+import com.example.cryptoinitializer.trade.TradeOutcome;
+import com.example.cryptoinitializer.trade.TradeRejectedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 @Service
 public class UserService {
-    private final Map<String, UserAccount> userAccounts = new ConcurrentHashMap<>();
-    private final Map<String, List<Transaction>> userTransactions = new ConcurrentHashMap<>();
+    private static final Logger logger = LoggerFactory.getLogger(UserService.class);
+
+    @Autowired
+    private AccountStore accountStore;
 
     @Autowired
     private CryptoDataService cryptoDataService;
 
+    @Autowired
+    private TradeJournal tradeJournal;
+
+    @Autowired
+    private TradeMetrics tradeMetrics;
+
+    @Value("${crypto.trading.cost-basis:AVERAGE}")
+    private CostBasisMethod costBasisMethod = CostBasisMethod.AVERAGE;
+
+    private final List<AccountListener> accountListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * The user's account. A user who has never traded gets a fresh account that is not
+     * stored, so looking around does not fill the store.
+     */
     public UserAccount getUserAccount(String userId) {
-        return userAccounts.computeIfAbsent(userId, UserAccount::new);
+        UserAccount account = accountStore.get(userId);
+        return account != null ? account : new UserAccount(userId);
     }
 
+    /** The user's whole history, oldest first, as of this call. */
     public List<Transaction> getUserTransactions(String userId) {
-        return userTransactions.computeIfAbsent(userId, k -> new ArrayList<>());
+        return getUserAccount(userId).history().view();
+    }
+
+    public TransactionPage queryTransactions(String userId, TransactionQuery query) {
+        return getUserAccount(userId).history().query(query);
     }
 
     public Transaction buyCrypto(String userId, String symbol, BigDecimal quantity) {
-        UserAccount account = getUserAccount(userId);
-        CryptoCurrency crypto = cryptoDataService.getCryptoCurrency(symbol);
+        return measured(JournalRecord.Type.BUY,
+                () -> trade(JournalRecord.Type.BUY, userId, symbol, toQuantity(quantity), currentPrice(symbol)));
+    }
 
-        if (crypto == null) {
-            throw new IllegalArgumentException("Cryptocurrency not found: " + symbol);
+    /** Buys {@code quantity} ({@link FixedPoint}) units at the current ask. */
+    public Transaction buyCrypto(String userId, String symbol, long quantity) {
+        return measured(JournalRecord.Type.BUY,
+                () -> trade(JournalRecord.Type.BUY, userId, symbol, quantity, currentPrice(symbol)));
+    }
+
+    /** Buys {@code quantity} units at {@code price}, e.g. the tick that triggered an order. */
+    public Transaction buyCryptoAt(String userId, String symbol, long quantity, long price) {
+        return measured(JournalRecord.Type.BUY,
+                () -> trade(JournalRecord.Type.BUY, userId, symbol, quantity, price));
+    }
+
+    public Transaction sellCrypto(String userId, String symbol, BigDecimal quantity) {
+        return measured(JournalRecord.Type.SELL,
+                () -> trade(JournalRecord.Type.SELL, userId, symbol, toQuantity(quantity), currentPrice(symbol)));
+    }
+
+    /** Sells {@code quantity} ({@link FixedPoint}) units at the current ask. */
+    public Transaction sellCrypto(String userId, String symbol, long quantity) {
+        return measured(JournalRecord.Type.SELL,
+                () -> trade(JournalRecord.Type.SELL, userId, symbol, quantity, currentPrice(symbol)));
+    }
+
+    /** Sells {@code quantity} units at {@code price}, e.g. the tick that triggered an order. */
+    public Transaction sellCryptoAt(String userId, String symbol, long quantity, long price) {
+        return measured(JournalRecord.Type.SELL,
+                () -> trade(JournalRecord.Type.SELL, userId, symbol, quantity, price));
+    }
+
+    /** Runs a single trade, recording its latency and, if it is rejected, why. */
+    private Transaction measured(JournalRecord.Type type, Supplier<Transaction> trade) {
+        long start = System.nanoTime();
+        try {
+            Transaction transaction = trade.get();
+            tradeMetrics.executed(type, System.nanoTime() - start);
+            return transaction;
+        } catch (TradeRejectedException e) {
+            tradeMetrics.rejected(type, e.getReason(), System.nanoTime() - start);
+            throw e;
         }
+    }
 
-        if (quantity.compareTo(BigDecimal.ZERO) <= 0) {
-            throw new IllegalArgumentException("Quantity must be greater than zero");
+    /**
+     * Executes the trades in order as one unit: if any is rejected, none is applied. The
+     * accounts involved are locked together, in user id order so that batches sharing
+     * accounts cannot deadlock, and every record goes to the journal in one frame, so a
+     * crash cannot keep half a batch either. Users without an account are validated
+     * against a fresh one; their accounts are only created, and the batch run again on
+     * them, once it is known to go through.
+     */
+    public List<TradeOutcome> executeAllOrNothing(List<BatchTrade> trades) {
+        Set<String> userIds = new TreeSet<>();
+        for (BatchTrade trade : trades) {
+            userIds.add(trade.userId());
         }
+        Set<String> create = new HashSet<>();
+        List<JournalRecord> records = new ArrayList<>(trades.size());
+        long last;
+        while (true) {
+            Map<String, UserAccount> accounts = new HashMap<>();
+            Set<String> missing = new HashSet<>();
+            List<UserAccount> locked = new ArrayList<>(userIds.size());
+            records.clear();
+            try {
+                for (String userId : userIds) {
+                    UserAccount account = lockAccount(userId, create.contains(userId));
+                    if (account == null) {
+                        missing.add(userId);
+                        account = new UserAccount(userId);
+                    } else {
+                        locked.add(account);
+                    }
+                    accounts.put(userId, account);
+                }
 
-        BigDecimal total = crypto.getPrice().multiply(quantity);
+                // Each trade is validated against the state the previous ones leave behind
+                Map<String, AccountState> states = new HashMap<>();
+                for (int i = 0; i < trades.size(); i++) {
+                    BatchTrade trade = trades.get(i);
+                    AccountState state = states.computeIfAbsent(trade.userId(), userId -> accounts.get(userId).state());
+                    try {
+                        Prepared prepared = prepare(state, trade.type(), trade.userId(), trade.symbol(),
+                                trade.quantity(), trade.price());
+                        records.add(prepared.record());
+                        states.put(trade.userId(), prepared.after());
+                    } catch (IllegalArgumentException e) {
+                        countRejection(trade.type(), e);
+                        List<TradeOutcome> outcomes = new ArrayList<>(trades.size());
+                        for (BatchTrade skipped : trades) {
+                            outcomes.add(skipped == trade ? TradeOutcome.rejected(trade.index(), e.getMessage())
+                                    : TradeOutcome.skipped(skipped.index()));
+                        }
+                        return outcomes;
+                    }
+                }
+                if (!missing.isEmpty()) {
+                    create.addAll(missing);
+                    continue;
+                }
 
-        if (total.compareTo(account.getBalance()) > 0) {
-            throw new IllegalArgumentException("Insufficient balance");
+                long first = tradeJournal.appendAll(records);
+                for (int i = 0; i < records.size(); i++) {
+                    JournalRecord record = records.get(i);
+                    UserAccount account = accounts.get(record.userId());
+                    account.setJournalSequence(first == 0 ? 0 : first + i);
+                    account.history().add(record);
+                }
+                states.forEach((userId, state) -> setState(accounts.get(userId), state));
+                last = first == 0 ? 0 : first + records.size() - 1;
+                break;
+            } finally {
+                locked.forEach(UserAccount::unlock);
+            }
         }
+        tradeJournal.awaitDurable(last);
 
-        // Update account
-        account.setBalance(account.getBalance().subtract(total));
-        account.updateHolding(symbol, quantity);
+        List<TradeOutcome> outcomes = new ArrayList<>(trades.size());
+        for (int i = 0; i < trades.size(); i++) {
+            outcomes.add(TradeOutcome.executed(trades.get(i).index(), records.get(i).toTransaction()));
+        }
+        return outcomes;
+    }
 
-        // Create transaction record
-        Transaction transaction = new Transaction();
-        transaction.setId(UUID.randomUUID().toString());
-        transaction.setUserId(userId);
-        transaction.setCryptoSymbol(symbol);
-        transaction.setType(Transaction.TransactionType.BUY);
-        transaction.setQuantity(quantity);
-        transaction.setPrice(crypto.getPrice());
-        transaction.setTotal(total);
-        transaction.setProfitLoss(BigDecimal.ZERO); // No profit/loss for buy transactions
+    /**
+     * Executes the trades in order, each on its own, so a rejected trade does not stop the
+     * rest. They share one wait for the journal: everything executed is durable when this
+     * returns.
+     */
+    public List<TradeOutcome> executeEach(List<BatchTrade> trades) {
+        List<TradeOutcome> outcomes = new ArrayList<>(trades.size());
+        long last = 0;
+        for (BatchTrade trade : trades) {
+            try {
+                Appended appended = tradeWithoutWaiting(trade.type(), trade.userId(), trade.symbol(),
+                        trade.quantity(), trade.price());
+                last = Math.max(last, appended.sequence());
+                outcomes.add(TradeOutcome.executed(trade.index(), appended.transaction()));
+            } catch (IllegalArgumentException e) {
+                countRejection(trade.type(), e);
+                outcomes.add(TradeOutcome.rejected(trade.index(), e.getMessage()));
+            }
+        }
+        tradeJournal.awaitDurable(last);
+        return outcomes;
+    }
 
-        // Save transaction
-        userTransactions.get(userId).add(transaction);
+    private void countRejection(JournalRecord.Type type, IllegalArgumentException e) {
+        if (e instanceof TradeRejectedException rejected) {
+            tradeMetrics.rejected(type, rejected.getReason());
+        }
+    }
 
-        return transaction;
+    private Transaction trade(JournalRecord.Type type, String userId, String symbol, long quantity, long price) {
+        Appended appended = tradeWithoutWaiting(type, userId, symbol, quantity, price);
+        // Wait for the disk outside the lock, so this account's next trade can share the flush
+        tradeJournal.awaitDurable(appended.sequence());
+        return appended.transaction();
     }
 
-    public Transaction sellCrypto(String userId, String symbol, BigDecimal quantity) {
-        UserAccount account = getUserAccount(userId);
-        CryptoCurrency crypto = cryptoDataService.getCryptoCurrency(symbol);
+    /** Executes a trade whose journal record may not be on disk yet. */
+    private Appended tradeWithoutWaiting(JournalRecord.Type type, String userId, String symbol, long quantity,
+                                         long price) {
+        UserAccount account = lockAccount(userId, false);
+        if (account == null) {
+            // Only a trade that goes through creates the account, so it is first checked
+            // against a fresh one; a sell never does, a fresh account holds nothing
+            prepare(new UserAccount(userId).state(), type, userId, symbol, quantity, price);
+            account = lockAccount(userId, true);
+        }
+        try {
+            Prepared prepared = prepare(account.state(), type, userId, symbol, quantity, price);
 
-        if (crypto == null) {
-            throw new IllegalArgumentException("Cryptocurrency not found: " + symbol);
+            // Journal the trade before applying it, a failed write leaves the account untouched
+            long sequence = tradeJournal.append(prepared.record());
+
+            // Update account
+            setState(account, prepared.after());
+            account.setJournalSequence(sequence);
+
+            // Save transaction
+            account.history().add(prepared.record());
+            return new Appended(prepared.record().toTransaction(), sequence);
+        } finally {
+            account.unlock();
+        }
+    }
+
+    /** A validated trade: its record, not yet sequenced, and the account state after it. */
+    private record Prepared(JournalRecord record, AccountState after) {
+    }
+
+    private record Appended(Transaction transaction, long sequence) {
+    }
+
+    /**
+     * Validates a buy or sell against {@code state}.
+     *
+     * @throws TradeRejectedException if the account cannot afford or cover it
+     */
+    private Prepared prepare(AccountState state, JournalRecord.Type type, String userId, String symbol,
+                             long quantity, long price) {
+        if (type == JournalRecord.Type.BUY) {
+            AccountState after = buy(state, symbol, quantity, price, costBasisMethod);
+            long total = FixedPoint.subtract(state.balance(), after.balance());
+            JournalRecord record = JournalRecord.trade(JournalRecord.Type.BUY, userId, symbol,
+                    quantity, price, total, 0); // No profit/loss for buy transactions
+            return new Prepared(record, after);
         }
 
-        if (quantity.compareTo(BigDecimal.ZERO) <= 0) {
-            throw new IllegalArgumentException("Quantity must be greater than zero");
+        AccountState after = sell(state, symbol, quantity, price, costBasisMethod);
+        long total = FixedPoint.subtract(after.balance(), state.balance());
+        long profitLoss = FixedPoint.subtract(after.position(symbol).realizedPnl(),
+                state.position(symbol).realizedPnl());
+        JournalRecord record = JournalRecord.trade(JournalRecord.Type.SELL, userId, symbol,
+                quantity, price, total, profitLoss);
+        return new Prepared(record, after);
+    }
+
+    /**
+     * The state after buying {@code quantity} of {@code symbol} at {@code price}. The rules
+     * every buy follows, whether for a live account or a simulated one.
+     *
+     * @throws TradeRejectedException if the account cannot afford it
+     */
+    public static AccountState buy(AccountState state, String symbol, long quantity, long price,
+                                   CostBasisMethod costBasisMethod) {
+        checkQuantity(quantity);
+        // Costs round up and proceeds round down, so fractions of a unit never favour the user
+        long total = tradeValue(price, quantity, RoundingMode.UP);
+        if (total > state.balance()) {
+            throw new TradeRejectedException(TradeRejectedException.Reason.INSUFFICIENT_BALANCE,
+                    "Insufficient balance");
         }
+        return state.with(-total, state.position(symbol).buy(quantity, total, costBasisMethod));
+    }
 
-        BigDecimal currentHolding = account.getHolding(symbol);
-        if (quantity.compareTo(currentHolding) > 0) {
-            throw new IllegalArgumentException("Insufficient holdings");
+    /**
+     * The state after selling {@code quantity} of {@code symbol} at {@code price}, with the
+     * profit or loss realized against the position's cost basis.
+     *
+     * @throws TradeRejectedException if the account does not hold that much
+     */
+    public static AccountState sell(AccountState state, String symbol, long quantity, long price,
+                                    CostBasisMethod costBasisMethod) {
+        checkQuantity(quantity);
+        long total = tradeValue(price, quantity, RoundingMode.DOWN);
+        if (quantity > state.holding(symbol)) {
+            throw new TradeRejectedException(TradeRejectedException.Reason.INSUFFICIENT_HOLDINGS,
+                    "Insufficient holdings");
         }
+        return state.with(total, state.position(symbol).sell(quantity, total, costBasisMethod));
+    }
 
-        BigDecimal total = crypto.getPrice().multiply(quantity);
+    public void resetAccount(String userId) {
+        long sequence;
+        UserAccount account = lockAccount(userId);
+        try {
+            sequence = tradeJournal.append(JournalRecord.reset(userId));
+            account.reset();
+            account.setJournalSequence(sequence);
+            publish(account.state());
+        } finally {
+            account.unlock();
+        }
+        tradeJournal.awaitDurable(sequence);
+    }
 
-        // Calculate profit/loss
-        BigDecimal avgPurchasePrice = calculateAveragePurchasePrice(userId, symbol);
-        BigDecimal purchaseValue = avgPurchasePrice.multiply(quantity);
-        BigDecimal profitLoss = total.subtract(purchaseValue);
+    /** Passes a consistent copy of every account to {@code consumer}, one account at a time. */
+    public void forEachAccount(Consumer<AccountSnapshot> consumer) {
+        accountStore.forEach(consumer);
+    }
 
-        // Update account
-        account.setBalance(account.getBalance().add(total));
-        account.updateHolding(symbol, quantity.negate());
+    /** Replaces an account with its snapshot. Only used during recovery. */
+    public void restore(AccountSnapshot snapshot) {
+        UserAccount account = lockAccount(snapshot.state().userId());
+        try {
+            snapshot.applyTo(account);
+            publish(account.state());
+        } finally {
+            account.unlock();
+        }
+    }
 
-        // Create transaction record
-        Transaction transaction = new Transaction();
-        transaction.setId(UUID.randomUUID().toString());
-        transaction.setUserId(userId);
-        transaction.setCryptoSymbol(symbol);
-        transaction.setType(Transaction.TransactionType.SELL);
-        transaction.setQuantity(quantity);
-        transaction.setPrice(crypto.getPrice());
-        transaction.setTotal(total);
-        transaction.setProfitLoss(profitLoss);
+    /**
+     * Appends trades restored from the history files to an account's history, after
+     * dropping the trades it holds if it was reset. Only used during recovery.
+     */
+    public void restoreHistory(String userId, boolean reset, List<JournalRecord> trades) {
+        UserAccount account = lockAccount(userId);
+        try {
+            TransactionHistory history = reset ? new TransactionHistory(userId) : account.history();
+            trades.forEach(history::add);
+            account.setHistory(history);
+        } finally {
+            account.unlock();
+        }
+    }
 
-        // Save transaction
-        userTransactions.get(userId).add(transaction);
+    /**
+     * Applies a journaled trade or reset. If the account's restored state already reflects
+     * the record, which snapshots keep without the trades, only its history is rebuilt,
+     * skipping trades it already holds. Balances are not checked again; the record was
+     * valid when it was written. Only used during recovery.
+     */
+    public void replay(JournalRecord record) {
+        UserAccount account = lockAccount(record.userId());
+        try {
+            if (record.sequence() <= account.getJournalSequence()) {
+                TransactionHistory history = account.history();
+                if (record.type() == JournalRecord.Type.RESET) {
+                    account.setHistory(new TransactionHistory(record.userId()));
+                } else if (history.size() == 0 || history.record(history.size() - 1).sequence() < record.sequence()) {
+                    history.add(record);
+                }
+                return;
+            }
+            AccountState state = account.state();
+            switch (record.type()) {
+                case BUY -> {
+                    Position position = state.position(record.symbol()).buy(record.quantity(), record.total(),
+                            costBasisMethod);
+                    setState(account, state.with(-record.total(), position));
+                    account.history().add(record);
+                }
+                case SELL -> {
+                    Position position = state.position(record.symbol()).sell(record.quantity(), record.total(),
+                            costBasisMethod);
+                    setState(account, state.with(record.total(), position));
+                    account.history().add(record);
+                }
+                case RESET -> {
+                    account.reset();
+                    publish(account.state());
+                }
+            }
+            account.setJournalSequence(record.sequence());
+        } finally {
+            account.unlock();
+        }
+    }
 
-        return transaction;
+    public void addAccountListener(AccountListener listener) {
+        accountListeners.add(listener);
     }
 
-    public void resetAccount(String userId) {
-        UserAccount account = getUserAccount(userId);
-        account.reset();
-        userTransactions.get(userId).clear();
+    public void removeAccountListener(AccountListener listener) {
+        accountListeners.remove(listener);
     }
 
-    private BigDecimal calculateAveragePurchasePrice(String userId, String symbol) {
-        List<Transaction> transactions = getUserTransactions(userId);
-        BigDecimal totalCost = BigDecimal.ZERO;
-        BigDecimal totalQuantity = BigDecimal.ZERO;
+    /** Publishes a new state of a locked account and tells the listeners. */
+    private void setState(UserAccount account, AccountState state) {
+        account.setState(state);
+        publish(state);
+    }
 
-        for (Transaction transaction : transactions) {
-            if (transaction.getCryptoSymbol().equals(symbol) &&
-                    transaction.getType() == Transaction.TransactionType.BUY) {
-                totalCost = totalCost.add(transaction.getTotal());
-                totalQuantity = totalQuantity.add(transaction.getQuantity());
+    private void publish(AccountState state) {
+        for (AccountListener listener : accountListeners) {
+            try {
+                listener.onAccountChange(state);
+            } catch (Exception e) {
+                // The change is journaled already, a listener cannot undo it
+                logger.error("Account listener failed for {}", state.userId(), e);
             }
         }
+    }
+
+    /** Looks up the account, creating it if needed, and locks it. */
+    private UserAccount lockAccount(String userId) {
+        return lockAccount(userId, true);
+    }
+
+    /**
+     * Looks up the account, creating it if {@code create} is set, and locks it. Returns null
+     * if it does not exist and is not created. An account evicted between the lookup and
+     * the lock is looked up again.
+     */
+    private UserAccount lockAccount(String userId, boolean create) {
+        while (true) {
+            UserAccount account = create ? accountStore.getOrCreate(userId) : accountStore.get(userId);
+            if (account == null) {
+                return null;
+            }
+            account.lock();
+            if (!account.isEvicted()) {
+                return account;
+            }
+            account.unlock();
+            // The store may still be swapping it out
+            Thread.yield();
+        }
+    }
+
+    private long currentPrice(String symbol) {
+        return tradablePrice(symbol, cryptoDataService.getCryptoCurrency(symbol));
+    }
 
-        if (totalQuantity.compareTo(BigDecimal.ZERO) == 0) {
-            return BigDecimal.ZERO;
+    /**
+     * The price to trade {@code symbol} at, given its current quote.
+     *
+     * @throws TradeRejectedException if there is no quote or it is stale
+     */
+    public static long tradablePrice(String symbol, CryptoCurrency crypto) {
+        if (crypto == null) {
+            throw new TradeRejectedException(TradeRejectedException.Reason.UNKNOWN_SYMBOL,
+                    "Cryptocurrency not found: " + symbol);
+        }
+        if (crypto.isStale()) {
+            throw new TradeRejectedException(TradeRejectedException.Reason.STALE_PRICE,
+                    "Price for " + symbol + " is stale, try again shortly");
+        }
+        return crypto.getPriceValue();
+    }
+
+    private static void checkQuantity(long quantity) {
+        if (quantity <= 0) {
+            throw new TradeRejectedException(TradeRejectedException.Reason.INVALID_QUANTITY,
+                    "Quantity must be greater than zero");
         }
+    }
 
-        return totalCost.divide(totalQuantity, 8, BigDecimal.ROUND_HALF_UP);
+    /** Converts a quantity to {@link FixedPoint}, rejecting more decimals than it holds. */
+    public static long toQuantity(BigDecimal quantity) {
+        try {
+            return FixedPoint.fromBigDecimal(quantity, RoundingMode.UNNECESSARY);
+        } catch (ArithmeticException e) {
+            throw new TradeRejectedException(TradeRejectedException.Reason.INVALID_QUANTITY,
+                    "Quantity must have at most " + FixedPoint.DECIMALS + " decimal places and fit the account");
+        }
+    }
+
+    private static long tradeValue(long price, long quantity, RoundingMode roundingMode) {
+        try {
+            return FixedPoint.multiply(price, quantity, roundingMode);
+        } catch (ArithmeticException e) {
+            throw new TradeRejectedException(TradeRejectedException.Reason.INVALID_QUANTITY, "Quantity too large");
+        }
     }
-}
\ No newline at end of file
+}
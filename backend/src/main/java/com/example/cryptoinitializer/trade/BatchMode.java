@@ -0,0 +1,8 @@
+package com.example.cryptoinitializer.trade;
+
+public enum BatchMode {
+    /** Either every trade executes or none does. */
+    ALL_OR_NOTHING,
+    /** Every trade that can execute does; the others are rejected individually. */
+    BEST_EFFORT
+}
@@ -0,0 +1,15 @@
+package com.example.cryptoinitializer.trade;
+
+import com.example.cryptoinitializer.journal.JournalRecord;
+
+/**
+ * A trade of a batch, parsed and priced.
+ *
+ * @param index    position of the trade in the request
+ * @param type     {@link JournalRecord.Type#BUY} or {@link JournalRecord.Type#SELL}
+ * @param quantity {@link com.example.cryptoinitializer.model.FixedPoint FixedPoint} units
+ * @param price    {@link com.example.cryptoinitializer.model.FixedPoint FixedPoint} price per unit
+ */
+public record BatchTrade(int index, JournalRecord.Type type, String userId, String symbol, long quantity,
+                         long price) {
+}
@@ -0,0 +1,11 @@
+package com.example.cryptoinitializer.trade;
+
+import java.util.List;
+
+/**
+ * Trades to execute together, for one user or many.
+ *
+ * @param mode defaults to {@link BatchMode#ALL_OR_NOTHING}
+ */
+public record BatchTradeRequest(BatchMode mode, List<TradeInstruction> trades) {
+}
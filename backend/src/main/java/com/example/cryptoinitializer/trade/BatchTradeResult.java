@@ -0,0 +1,11 @@
+package com.example.cryptoinitializer.trade;
+
+import java.util.List;
+
+/**
+ * @param priceVersion market version of the prices every trade was executed at
+ * @param executed     number of trades executed
+ * @param results      one outcome per trade, in request order
+ */
+public record BatchTradeResult(BatchMode mode, long priceVersion, int executed, List<TradeOutcome> results) {
+}
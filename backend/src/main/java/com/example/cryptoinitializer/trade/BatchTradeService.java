@@ -0,0 +1,115 @@
+package com.example.cryptoinitializer.trade;
+
+import com.example.cryptoinitializer.journal.JournalRecord;
+import com.example.cryptoinitializer.model.CryptoCurrency;
+import com.example.cryptoinitializer.model.MarketSnapshot;
+import com.example.cryptoinitializer.order.OrderSide;
+import com.example.cryptoinitializer.service.MarketSnapshotService;
+import com.example.cryptoinitializer.service.UserService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Executes batches of trades for bots and load generators. Every trade of a batch is
+ * priced from one {@link MarketSnapshot}, so a tick arriving halfway through does not
+ * split the batch across two prices, and the whole batch shares one wait for the journal.
+ * Trades that cannot even be parsed or priced are rejected up front; in an all-or-nothing
+ * batch that skips all the others.
+ */
+@Service
+public class BatchTradeService {
+
+    @Value("${crypto.trading.batch.max-size:1000}")
+    private int maxBatchSize = 1000;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private MarketSnapshotService marketSnapshotService;
+
+    @Autowired
+    private TradeMetrics tradeMetrics;
+
+    public BatchTradeResult execute(BatchTradeRequest request) {
+        List<TradeInstruction> instructions = request == null ? null : request.trades();
+        if (instructions == null || instructions.isEmpty()) {
+            throw new IllegalArgumentException("A batch needs at least one trade");
+        }
+        if (instructions.size() > maxBatchSize) {
+            throw new IllegalArgumentException("A batch holds at most " + maxBatchSize + " trades");
+        }
+        BatchMode mode = request.mode() == null ? BatchMode.ALL_OR_NOTHING : request.mode();
+        long start = System.nanoTime();
+
+        MarketSnapshot snapshot = marketSnapshotService.getSnapshot();
+        Map<String, CryptoCurrency> prices = new HashMap<>();
+        for (CryptoCurrency crypto : snapshot.prices()) {
+            prices.put(crypto.getSymbol(), crypto);
+        }
+
+        TradeOutcome[] outcomes = new TradeOutcome[instructions.size()];
+        List<BatchTrade> trades = new ArrayList<>(instructions.size());
+        for (int i = 0; i < instructions.size(); i++) {
+            try {
+                trades.add(parse(i, instructions.get(i), prices));
+            } catch (TradeRejectedException e) {
+                TradeInstruction instruction = instructions.get(i);
+                tradeMetrics.rejected(instruction == null ? null : typeOf(instruction.side()), e.getReason());
+                outcomes[i] = TradeOutcome.rejected(i, e.getMessage());
+            }
+        }
+
+        if (mode == BatchMode.ALL_OR_NOTHING && trades.size() < instructions.size()) {
+            for (BatchTrade trade : trades) {
+                outcomes[trade.index()] = TradeOutcome.skipped(trade.index());
+            }
+        } else {
+            List<TradeOutcome> executed = mode == BatchMode.ALL_OR_NOTHING
+                    ? userService.executeAllOrNothing(trades)
+                    : userService.executeEach(trades);
+            for (TradeOutcome outcome : executed) {
+                outcomes[outcome.index()] = outcome;
+            }
+        }
+
+        int executed = 0;
+        for (TradeOutcome outcome : outcomes) {
+            if (outcome.status() == TradeOutcome.Status.EXECUTED) {
+                executed++;
+            }
+        }
+        tradeMetrics.batch(mode, System.nanoTime() - start);
+        return new BatchTradeResult(mode, snapshot.version(), executed, Arrays.asList(outcomes));
+    }
+
+    private static BatchTrade parse(int index, TradeInstruction instruction, Map<String, CryptoCurrency> prices) {
+        if (instruction == null || instruction.userId() == null || instruction.userId().isBlank()
+                || instruction.symbol() == null || instruction.side() == null || instruction.quantity() == null) {
+            throw new TradeRejectedException(TradeRejectedException.Reason.INVALID_REQUEST,
+                    "userId, symbol, side and quantity are required");
+        }
+        long quantity = UserService.toQuantity(instruction.quantity());
+        if (quantity <= 0) {
+            throw new TradeRejectedException(TradeRejectedException.Reason.INVALID_QUANTITY,
+                    "Quantity must be greater than zero");
+        }
+        long price = UserService.tradablePrice(instruction.symbol(), prices.get(instruction.symbol()));
+        return new BatchTrade(index, typeOf(instruction.side()), instruction.userId(), instruction.symbol(),
+                quantity, price);
+    }
+
+    private static JournalRecord.Type typeOf(OrderSide side) {
+        if (side == null) {
+            return null;
+        }
+        return side == OrderSide.BUY ? JournalRecord.Type.BUY : JournalRecord.Type.SELL;
+    }
+}
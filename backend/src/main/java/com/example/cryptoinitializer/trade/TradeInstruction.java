@@ -0,0 +1,9 @@
+package com.example.cryptoinitializer.trade;
+
+import com.example.cryptoinitializer.order.OrderSide;
+
+import java.math.BigDecimal;
+
+/** One trade of a batch, as submitted. */
+public record TradeInstruction(String userId, String symbol, OrderSide side, BigDecimal quantity) {
+}
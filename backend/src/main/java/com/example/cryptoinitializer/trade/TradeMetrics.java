@@ -0,0 +1,86 @@
+package com.example.cryptoinitializer.trade;
+
+import com.example.cryptoinitializer.journal.JournalRecord;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meters of the trade path, all registered up front so recording is a plain update:
+ * <ul>
+ *   <li>{@code crypto.trades}: latency of single trades, including the wait for the
+ *       journal, by {@code side} and {@code outcome}</li>
+ *   <li>{@code crypto.trades.rejected}: rejected trades, single or batched, by
+ *       {@code side} ({@code unknown} for batched trades without one) and {@code reason}</li>
+ *   <li>{@code crypto.trades.batch}: latency of whole batches by {@code mode}</li>
+ * </ul>
+ */
+@Component
+public class TradeMetrics {
+    private final Map<JournalRecord.Type, Timer> executed = new EnumMap<>(JournalRecord.Type.class);
+    private final Map<JournalRecord.Type, Timer> rejectedLatency = new EnumMap<>(JournalRecord.Type.class);
+    private final Map<JournalRecord.Type, Map<TradeRejectedException.Reason, Counter>> rejected =
+            new EnumMap<>(JournalRecord.Type.class);
+    private final Map<TradeRejectedException.Reason, Counter> rejectedWithoutSide;
+    private final Map<BatchMode, Timer> batches = new EnumMap<>(BatchMode.class);
+
+    public TradeMetrics(MeterRegistry registry) {
+        for (JournalRecord.Type type : new JournalRecord.Type[]{JournalRecord.Type.BUY, JournalRecord.Type.SELL}) {
+            String side = type.name().toLowerCase();
+            executed.put(type, tradeTimer(registry, side, "executed"));
+            rejectedLatency.put(type, tradeTimer(registry, side, "rejected"));
+            rejected.put(type, rejectionCounters(registry, side));
+        }
+        rejectedWithoutSide = rejectionCounters(registry, "unknown");
+        for (BatchMode mode : BatchMode.values()) {
+            batches.put(mode, Timer.builder("crypto.trades.batch")
+                    .description("Time to execute a batch of trades")
+                    .tag("mode", mode.name().toLowerCase())
+                    .register(registry));
+        }
+    }
+
+    private static Map<TradeRejectedException.Reason, Counter> rejectionCounters(MeterRegistry registry, String side) {
+        Map<TradeRejectedException.Reason, Counter> counters = new EnumMap<>(TradeRejectedException.Reason.class);
+        for (TradeRejectedException.Reason reason : TradeRejectedException.Reason.values()) {
+            counters.put(reason, Counter.builder("crypto.trades.rejected")
+                    .description("Trades refused before they touched the account")
+                    .tag("side", side)
+                    .tag("reason", reason.name().toLowerCase())
+                    .register(registry));
+        }
+        return counters;
+    }
+
+    private static Timer tradeTimer(MeterRegistry registry, String side, String outcome) {
+        return Timer.builder("crypto.trades")
+                .description("Time to execute a single trade until it is durable")
+                .tag("side", side)
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    public void executed(JournalRecord.Type type, long nanos) {
+        executed.get(type).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /** A single trade rejected after {@code nanos}. */
+    public void rejected(JournalRecord.Type type, TradeRejectedException.Reason reason, long nanos) {
+        rejectedLatency.get(type).record(nanos, TimeUnit.NANOSECONDS);
+        rejected(type, reason);
+    }
+
+    /** A batched trade rejected; {@code type} is null if the trade did not say. */
+    public void rejected(JournalRecord.Type type, TradeRejectedException.Reason reason) {
+        (type == null ? rejectedWithoutSide : rejected.get(type)).get(reason).increment();
+    }
+
+    public void batch(BatchMode mode, long nanos) {
+        batches.get(mode).record(nanos, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.cryptoinitializer.trade;
+
+import com.example.cryptoinitializer.model.Transaction;
+
+/**
+ * What happened to one trade of a batch.
+ *
+ * @param index       position of the trade in the request
+ * @param transaction the executed trade, or null
+ * @param error       why the trade was rejected, or null
+ */
+public record TradeOutcome(int index, Status status, Transaction transaction, String error) {
+
+    public enum Status {
+        EXECUTED,
+        REJECTED,
+        /** Valid, but not executed because another trade of an all-or-nothing batch was rejected. */
+        SKIPPED
+    }
+
+    public static TradeOutcome executed(int index, Transaction transaction) {
+        return new TradeOutcome(index, Status.EXECUTED, transaction, null);
+    }
+
+    public static TradeOutcome rejected(int index, String error) {
+        return new TradeOutcome(index, Status.REJECTED, null, error);
+    }
+
+    public static TradeOutcome skipped(int index) {
+        return new TradeOutcome(index, Status.SKIPPED, null, null);
+    }
+}
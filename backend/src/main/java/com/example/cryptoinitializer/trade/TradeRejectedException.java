@@ -0,0 +1,29 @@
+package com.example.cryptoinitializer.trade;
+
+/**
+ * A trade refused before it touched the account. Still an {@link IllegalArgumentException},
+ * so callers reporting bad requests need not tell the two apart, but it also carries a
+ * {@link Reason} that can be counted without parsing the message.
+ */
+public class TradeRejectedException extends IllegalArgumentException {
+
+    public enum Reason {
+        INSUFFICIENT_BALANCE,
+        INSUFFICIENT_HOLDINGS,
+        UNKNOWN_SYMBOL,
+        STALE_PRICE,
+        INVALID_QUANTITY,
+        INVALID_REQUEST
+    }
+
+    private final Reason reason;
+
+    public TradeRejectedException(Reason reason, String message) {
+        super(message);
+        this.reason = reason;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+}
@@ -3,7 +3,10 @@ package com.example.cryptoinitializer;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+@SpringBootTest(properties = {
+		"crypto.journal.dir=target/test-journal",
+		"crypto.feed.source=synthetic"
+})
 class CryptoinitializerApplicationTests {
 
 	@Test
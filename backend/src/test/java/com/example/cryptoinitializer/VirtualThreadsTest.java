@@ -0,0 +1,50 @@
+package com.example.cryptoinitializer;
+
+import org.apache.tomcat.util.threads.VirtualThreadExecutor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.embedded.tomcat.TomcatWebServer;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.ScheduledAnnotationBeanPostProcessor;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+		"crypto.journal.dir=target/test-journal-virtual",
+		"crypto.feed.source=synthetic",
+		"spring.threads.virtual.enabled=true"
+})
+class VirtualThreadsTest {
+
+	@Autowired
+	private ServletWebServerApplicationContext context;
+
+	@Autowired
+	private ScheduledAnnotationBeanPostProcessor scheduledProcessor;
+
+	@Test
+	void requestsAreHandledOnVirtualThreads() {
+		TomcatWebServer server = (TomcatWebServer) context.getWebServer();
+		assertThat(server.getTomcat().getConnector().getProtocolHandler().getExecutor())
+				.isInstanceOf(VirtualThreadExecutor.class);
+	}
+
+	@Test
+	void scheduledTasksRunOnVirtualThreads() throws Exception {
+		ScheduledTaskRegistrar registrar =
+				(ScheduledTaskRegistrar) ReflectionTestUtils.getField(scheduledProcessor, "registrar");
+		TaskScheduler scheduler = registrar.getScheduler();
+		CompletableFuture<Boolean> virtual = new CompletableFuture<>();
+		scheduler.schedule(() -> virtual.complete(Thread.currentThread().isVirtual()), Instant.now());
+		assertThat(virtual.get(5, TimeUnit.SECONDS)).isTrue();
+	}
+
+}
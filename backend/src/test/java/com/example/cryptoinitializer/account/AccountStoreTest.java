@@ -0,0 +1,234 @@
+package com.example.cryptoinitializer.account;
+
+import com.example.cryptoinitializer.journal.AccountSnapshot;
+import com.example.cryptoinitializer.journal.JournalRecord;
+import com.example.cryptoinitializer.model.FixedPoint;
+import com.example.cryptoinitializer.service.UserService;
+import com.example.cryptoinitializer.service.UserServiceConcurrencyTest;
+import com.example.cryptoinitializer.trade.BatchTrade;
+import com.example.cryptoinitializer.trade.TradeOutcome;
+import com.example.cryptoinitializer.trade.TradeRejectedException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class AccountStoreTest {
+
+    @TempDir
+    Path directory;
+
+    public static AccountStore newStore(int maxResident) {
+        try {
+            return newStore(Files.createTempDirectory("accounts"), maxResident, EvictionPolicy.Type.W_TINY_LFU);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static AccountStore newStore(Path directory, int maxResident, EvictionPolicy.Type policy) throws IOException {
+        AccountStore store = new AccountStore();
+        ReflectionTestUtils.setField(store, "spillDir", directory.toString());
+        ReflectionTestUtils.setField(store, "maxResident", maxResident);
+        ReflectionTestUtils.setField(store, "policyType", policy);
+        store.open();
+        return store;
+    }
+
+    private static UserService users(AccountStore store) {
+        UserService users = UserServiceConcurrencyTest.newUserService(new BigDecimal("100"));
+        ReflectionTestUtils.setField(users, "accountStore", store);
+        return users;
+    }
+
+    @Test
+    void lookingUpUnknownUsersCreatesNothing() throws IOException {
+        AccountStore store = newStore(directory, 10, EvictionPolicy.Type.LRU);
+        UserService users = users(store);
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(users.getUserAccount("crawler-" + i).getBalance()).isEqualByComparingTo("10000");
+            assertThat(users.getUserTransactions("crawler-" + i)).isEmpty();
+        }
+
+        assertThat(store.stats().resident()).isZero();
+        assertThat(store.stats().misses()).isEqualTo(200);
+
+        // Nor do trades that are rejected, alone or in a batch; a buy that goes through does
+        for (int i = 0; i < 100; i++) {
+            String userId = "crawler-" + i;
+            assertThatThrownBy(() -> users.sellCrypto(userId, "BTC/USD", BigDecimal.ONE))
+                    .isInstanceOf(TradeRejectedException.class);
+            assertThatThrownBy(() -> users.buyCrypto(userId, "BTC/USD", new BigDecimal("1000")))
+                    .isInstanceOf(TradeRejectedException.class);
+        }
+        List<TradeOutcome> outcomes = users.executeAllOrNothing(List.of(
+                new BatchTrade(0, JournalRecord.Type.BUY, "crawler-0", "BTC/USD", FixedPoint.parse("1"),
+                        FixedPoint.parse("100")),
+                new BatchTrade(1, JournalRecord.Type.SELL, "crawler-1", "BTC/USD", FixedPoint.parse("1"),
+                        FixedPoint.parse("100"))));
+        assertThat(outcomes).extracting(TradeOutcome::status)
+                .containsExactly(TradeOutcome.Status.SKIPPED, TradeOutcome.Status.REJECTED);
+        assertThat(store.stats().resident()).isZero();
+
+        outcomes = users.executeAllOrNothing(List.of(
+                new BatchTrade(0, JournalRecord.Type.BUY, "crawler-0", "BTC/USD", FixedPoint.parse("1"),
+                        FixedPoint.parse("100")),
+                new BatchTrade(1, JournalRecord.Type.SELL, "crawler-0", "BTC/USD", FixedPoint.parse("0.5"),
+                        FixedPoint.parse("100"))));
+        assertThat(outcomes).extracting(TradeOutcome::status)
+                .containsExactly(TradeOutcome.Status.EXECUTED, TradeOutcome.Status.EXECUTED);
+        users.buyCrypto("crawler-1", "BTC/USD", BigDecimal.ONE);
+        assertThat(store.stats().resident()).isEqualTo(2);
+        assertThat(users.getUserAccount("crawler-0").getHolding("BTC/USD")).isEqualByComparingTo("0.5");
+    }
+
+    @Test
+    void evictedAccountsAreLoadedBackOnTheirNextLookup() throws IOException {
+        AccountStore store = newStore(directory, 2, EvictionPolicy.Type.LRU);
+        UserService users = users(store);
+
+        users.buyCrypto("alice", "BTC/USD", new BigDecimal("1.5"));
+        users.buyCrypto("bob", "BTC/USD", BigDecimal.ONE);
+        users.buyCrypto("carol", "BTC/USD", BigDecimal.ONE);
+
+        AccountStoreStats evicted = store.stats();
+        assertThat(evicted.resident()).isEqualTo(2);
+        assertThat(evicted.spilled()).isEqualTo(1);
+        assertThat(evicted.evictions()).isEqualTo(1);
+
+        // alice was least recently used; she comes back with her holdings and history
+        users.sellCrypto("alice", "BTC/USD", new BigDecimal("0.5"));
+        assertThat(users.getUserAccount("alice").getHolding("BTC/USD")).isEqualByComparingTo("1");
+        assertThat(users.getUserTransactions("alice")).hasSize(2);
+        assertThat(store.stats().loads()).isEqualTo(1);
+        assertThat(store.stats().resident()).isEqualTo(2);
+    }
+
+    @Test
+    void iterationCoversSpilledAccounts() throws IOException {
+        AccountStore store = newStore(directory, 3, EvictionPolicy.Type.W_TINY_LFU);
+        UserService users = users(store);
+        for (int i = 0; i < 10; i++) {
+            users.buyCrypto("user-" + i, "BTC/USD", BigDecimal.ONE);
+        }
+
+        List<AccountSnapshot> snapshots = new ArrayList<>();
+        users.forEachAccount(snapshots::add);
+
+        assertThat(snapshots).extracting(snapshot -> snapshot.state().userId()).doesNotHaveDuplicates().hasSize(10);
+        // Spilled accounts are read without their trades, which iterations have no use for
+        assertThat(snapshots).allSatisfy(snapshot -> {
+            assertThat(snapshot.history()).isEmpty();
+            assertThat(snapshot.state().holding("BTC/USD")).isEqualTo(FixedPoint.parse("1"));
+        });
+        assertThat(store.stats().spilled()).isEqualTo(7);
+    }
+
+    @Test
+    void idleAccountsExpire() throws Exception {
+        AccountStore store = newStore(directory, 10, EvictionPolicy.Type.LRU);
+        ReflectionTestUtils.setField(store, "expireAfterAccessMs", 1L);
+        UserService users = users(store);
+        users.buyCrypto("alice", "BTC/USD", BigDecimal.ONE);
+        Thread.sleep(5);
+
+        store.expireIdle();
+
+        assertThat(store.stats().resident()).isZero();
+        assertThat(store.stats().expirations()).isEqualTo(1);
+        assertThat(users.getUserAccount("alice").getHolding("BTC/USD")).isEqualByComparingTo("1");
+    }
+
+    @Test
+    void tradesAreNotLostWhileAccountsAreEvicted() throws Exception {
+        AccountStore store = newStore(directory, 4, EvictionPolicy.Type.W_TINY_LFU);
+        UserService users = users(store);
+        int userCount = 16;
+        AtomicInteger trades = new AtomicInteger();
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 200; i++) {
+                    users.buyCrypto("user-" + ((thread * 7 + i) % userCount), "BTC/USD", new BigDecimal("0.01"));
+                    trades.incrementAndGet();
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        BigDecimal held = BigDecimal.ZERO;
+        for (int i = 0; i < userCount; i++) {
+            var account = users.getUserAccount("user-" + i);
+            // Every trade is in the balance, the holdings and the history of the same copy
+            assertThat(account.getBalance()).isEqualByComparingTo(
+                    new BigDecimal("10000").subtract(account.getHolding("BTC/USD").multiply(new BigDecimal("100"))));
+            assertThat(account.getHolding("BTC/USD")).isEqualByComparingTo(
+                    new BigDecimal("0.01").multiply(BigDecimal.valueOf(users.getUserTransactions("user-" + i).size())));
+            held = held.add(account.getHolding("BTC/USD"));
+        }
+        assertThat(held).isEqualByComparingTo(new BigDecimal("0.01").multiply(BigDecimal.valueOf(trades.get())));
+        assertThat(store.stats().evictions()).isPositive();
+    }
+
+    @Test
+    void tinyLfuKeepsFrequentKeysThroughAScan() {
+        int capacity = 100;
+        Set<String> hot = new HashSet<>();
+        for (int i = 0; i < 50; i++) {
+            hot.add("hot-" + i);
+        }
+
+        assertThat(residentHotKeysAfterScan(EvictionPolicy.Type.W_TINY_LFU.create(capacity), capacity, hot))
+                .isGreaterThanOrEqualTo(45);
+        assertThat(residentHotKeysAfterScan(EvictionPolicy.Type.LRU.create(capacity), capacity, hot)).isZero();
+    }
+
+    /** Warms up {@code hot}, then inserts a thousand keys that are never used again. */
+    private static int residentHotKeysAfterScan(EvictionPolicy policy, int capacity, Set<String> hot) {
+        Set<String> resident = new HashSet<>();
+        for (int round = 0; round < 5; round++) {
+            for (String key : hot) {
+                if (resident.add(key)) {
+                    policy.recordInsert(key);
+                } else {
+                    policy.recordAccess(key);
+                }
+            }
+        }
+        for (int i = 0; i < 1000; i++) {
+            String key = "scan-" + i;
+            resident.add(key);
+            policy.recordInsert(key);
+            while (resident.size() > capacity) {
+                String victim = policy.victim();
+                policy.recordRemoval(victim);
+                resident.remove(victim);
+            }
+        }
+        resident.retainAll(hot);
+        return resident.size();
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.cryptoinitializer.backtest;
+
+import com.example.cryptoinitializer.feed.RecordedFrames;
+import com.example.cryptoinitializer.model.AccountState;
+import com.example.cryptoinitializer.model.CostBasisMethod;
+import com.example.cryptoinitializer.model.FixedPoint;
+import com.example.cryptoinitializer.service.UserService;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class BacktesterTest {
+    private static final long BALANCE = FixedPoint.fromLong(1000);
+
+    private final Backtester sequential =
+            new Backtester(CostBasisMethod.AVERAGE, new ForkJoinPool(1), Integer.MAX_VALUE, 4);
+
+    private static TickHistory prices(String symbol, long... prices) {
+        TickHistory.Builder builder = TickHistory.builder();
+        for (int i = 0; i < prices.length; i++) {
+            builder.add(i * 1_000_000L, symbol, FixedPoint.fromLong(prices[i]));
+        }
+        return builder.build();
+    }
+
+    @Test
+    void dcaTradesUnderTheLiveRules() {
+        TickHistory history = prices("BTC/USD", 100, 200, 100, 200);
+        long amount = FixedPoint.fromLong(100);
+
+        BacktestResult result = sequential.run(history, List.of(
+                new Scenario("dca", 3, BALANCE, i -> new DcaStrategy(0, amount, 2))));
+
+        // Buys 0.5 at 200 twice; the same trades on a live account end the same way
+        AccountState expected = AccountState.initial("dca-0", BALANCE);
+        expected = UserService.buy(expected, "BTC/USD", FixedPoint.parse("0.5"), FixedPoint.fromLong(200),
+                CostBasisMethod.AVERAGE);
+        expected = UserService.buy(expected, "BTC/USD", FixedPoint.parse("0.5"), FixedPoint.fromLong(200),
+                CostBasisMethod.AVERAGE);
+        ScenarioResult dca = result.scenarios().get(0);
+        assertThat(dca.trades()).isEqualTo(6);
+        assertThat(dca.rejected()).isZero();
+        assertThat(dca.averageFinalEquity()).isEqualTo(expected.balance() + FixedPoint.fromLong(200));
+        assertThat(result.simulatedTicks()).isEqualTo(12);
+    }
+
+    @Test
+    void tracksDrawdownAlongTheEquityCurve() {
+        TickHistory history = prices("BTC/USD", 100, 150, 75, 120);
+
+        ScenarioResult hold = sequential.run(history, List.of(new Scenario("hold", 1, BALANCE,
+                i -> (account, symbol, price) -> account.buyFor(symbol, account.balance())))).scenarios().get(0);
+
+        assertThat(hold.equityCurve()).extracting(EquityPoint::equity).containsExactly(
+                FixedPoint.fromLong(1000), FixedPoint.fromLong(1500), FixedPoint.fromLong(750),
+                FixedPoint.fromLong(1200));
+        assertThat(hold.equityCurve()).extracting(EquityPoint::epochMicros)
+                .containsExactly(0L, 1_000_000L, 2_000_000L, 3_000_000L);
+        assertThat(hold.equityCurve().get(2).drawdown()).isEqualTo(0.5);
+        assertThat(hold.worstMaxDrawdown()).isEqualTo(0.5);
+        assertThat(hold.averageReturn()).isCloseTo(0.2, within(1e-12));
+    }
+
+    @Test
+    void rebalancesOnceAShareDrifts() {
+        TickHistory history = TickHistory.builder()
+                .add(0, "BTC/USD", FixedPoint.fromLong(100))
+                .add(1, "ETH/USD", FixedPoint.fromLong(100))
+                .add(2, "BTC/USD", FixedPoint.fromLong(200))
+                .build();
+
+        ScenarioResult rebalanced = sequential.run(history, List.of(new Scenario("rebalance", 1, BALANCE,
+                i -> new RebalanceStrategy(new double[] {0.5, 0.5}, 0.1)))).scenarios().get(0);
+
+        // Two buys once both are quoted, then one sell of BTC and a buy of ETH
+        assertThat(rebalanced.trades()).isEqualTo(4);
+        assertThat(rebalanced.averageFinalEquity()).isEqualTo(FixedPoint.fromLong(1500));
+    }
+
+    @Test
+    void resultsDoNotDependOnHowAccountsAreSplit() {
+        TickHistory.Builder builder = TickHistory.builder();
+        SplittableRandom random = new SplittableRandom(7);
+        String[] symbols = {"BTC/USD", "ETH/USD", "SOL/USD"};
+        long[] walk = {FixedPoint.fromLong(97_000), FixedPoint.fromLong(2_700), FixedPoint.fromLong(200)};
+        for (int i = 0; i < 5_000; i++) {
+            int symbol = random.nextInt(symbols.length);
+            walk[symbol] = Math.max(1, Math.round(walk[symbol] * (1 + random.nextGaussian() * 0.002)));
+            builder.add(i, symbols[symbol], walk[symbol]);
+        }
+        TickHistory history = builder.build();
+        List<Scenario> scenarios = List.of(
+                new Scenario("dca", 100, BALANCE, i -> new DcaStrategy(i % 3, FixedPoint.fromLong(10), 10 + i)),
+                new Scenario("rebalance", 100, BALANCE,
+                        i -> new RebalanceStrategy(new double[] {0.4, 0.3, 0.2}, 0.01 + i / 1000.0)),
+                new Scenario("momentum", 100, BALANCE,
+                        i -> new MomentumStrategy(i % 3, 20 + i, 0.001, 0.5)));
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        BacktestResult split = new Backtester(CostBasisMethod.FIFO, pool, 7, 50).run(history, scenarios);
+        BacktestResult whole = new Backtester(CostBasisMethod.FIFO, new ForkJoinPool(1), Integer.MAX_VALUE, 50)
+                .run(history, scenarios);
+        pool.shutdown();
+
+        // Exactly, not just close: nothing is summed in floating point across the split
+        assertThat(split.scenarios()).usingRecursiveComparison().isEqualTo(whole.scenarios());
+        assertThat(split.scenarios()).allSatisfy(scenario -> {
+            assertThat(scenario.trades()).isPositive();
+            assertThat(scenario.equityCurve()).hasSize(50);
+        });
+    }
+
+    @Test
+    void readsTicksFromARecordingLikeTheLiveFeed() throws Exception {
+        TickHistory history = TickHistory.decode(RecordedFrames.load(), List.of("BTC/USD", "ETH/USD"));
+
+        assertThat(history.symbols()).containsExactly("BTC/USD", "ETH/USD");
+        assertThat(history.size()).isGreaterThan(2);
+        assertThat(history.priceAt(0)).isEqualTo(FixedPoint.parse("96972.66"));
+        for (int tick = 1; tick < history.size(); tick++) {
+            assertThat(history.timeAt(tick)).isGreaterThanOrEqualTo(history.timeAt(tick - 1));
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.cryptoinitializer.candle;
+
+import com.example.cryptoinitializer.model.FixedPoint;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CandleBookTest {
+    private static final long T0 = 1_700_000_040_000L; // A whole minute, 4 minutes into a 5-minute bucket
+    private final CandleBook book = new CandleBook();
+
+    private void tick(long offsetMillis, String price) {
+        book.record(T0 + offsetMillis, FixedPoint.parse(price), -1);
+    }
+
+    private List<Candle> all(CandleInterval interval) {
+        return book.query(interval, Long.MIN_VALUE, Long.MAX_VALUE, CandleService.MAX_LIMIT);
+    }
+
+    private static Candle candle(long time, String open, String high, String low, String close, long ticks) {
+        return new Candle(time, FixedPoint.parse(open), FixedPoint.parse(high), FixedPoint.parse(low),
+                FixedPoint.parse(close), 0, ticks);
+    }
+
+    @Test
+    void secondCandlesRollUpIntoMinutes() {
+        tick(0, "100");
+        tick(400, "105");
+        tick(900, "98");
+        tick(1_500, "101");
+        tick(59_999, "110");
+        tick(60_000, "90");
+        tick(61_000, "95");
+
+        assertThat(all(CandleInterval.SECOND_1)).containsExactly(
+                candle(T0, "100", "105", "98", "98", 3),
+                candle(T0 + 1_000, "101", "101", "101", "101", 1),
+                candle(T0 + 59_000, "110", "110", "110", "110", 1),
+                candle(T0 + 60_000, "90", "90", "90", "90", 1),
+                candle(T0 + 61_000, "95", "95", "95", "95", 1));
+        assertThat(all(CandleInterval.MINUTE_1)).containsExactly(
+                candle(T0, "100", "110", "98", "110", 5),
+                // Still open: built from the open and closed seconds not yet rolled up
+                candle(T0 + 60_000, "90", "95", "90", "95", 2));
+        // T0 + 60 s starts a new 5-minute bucket
+        assertThat(all(CandleInterval.MINUTE_5)).containsExactly(
+                candle(T0 - 240_000, "100", "110", "98", "110", 5),
+                candle(T0 + 60_000, "90", "95", "90", "95", 2));
+    }
+
+    @Test
+    void openCandlesOfEveryFinerLevelAreMergedOnRead() {
+        tick(0, "100");
+        tick(1_000, "120");
+
+        List<Candle> hours = all(CandleInterval.HOUR_1);
+        List<Candle> days = all(CandleInterval.DAY_1);
+
+        long hour = CandleInterval.HOUR_1.bucket(T0);
+        assertThat(hours).containsExactly(candle(hour, "100", "120", "100", "120", 2));
+        assertThat(days).containsExactly(candle(CandleInterval.DAY_1.bucket(T0), "100", "120", "100", "120", 2));
+    }
+
+    @Test
+    void rangeAndLimitSelectTheNewestCandles() {
+        for (int i = 0; i < 10; i++) {
+            tick(i * 60_000L, Integer.toString(100 + i));
+        }
+
+        List<Candle> range = book.query(CandleInterval.MINUTE_1, T0 + 120_000, T0 + 300_000, 2);
+        List<Candle> latest = book.query(CandleInterval.MINUTE_1, Long.MIN_VALUE, Long.MAX_VALUE, 1);
+
+        assertThat(range).extracting(Candle::time).containsExactly(T0 + 240_000, T0 + 300_000);
+        assertThat(latest).extracting(Candle::close).containsExactly(FixedPoint.parse("109"));
+    }
+
+    @Test
+    void ringKeepsOnlyTheNewestCandles() {
+        int capacity = CandleInterval.SECOND_1.capacity();
+        for (int i = 0; i < capacity + 10; i++) {
+            tick(i * 1_000L, "100");
+        }
+
+        List<Candle> seconds = all(CandleInterval.SECOND_1);
+
+        assertThat(seconds).hasSize(capacity);
+        assertThat(seconds.get(0).time()).isEqualTo(T0 + 10_000);
+        assertThat(seconds.get(capacity - 1).time()).isEqualTo(T0 + (capacity + 9) * 1_000L);
+    }
+
+    @Test
+    void volumeIsTheGrowthOfTheDailyVolume() {
+        book.record(T0, FixedPoint.parse("100"), FixedPoint.parse("1000"));
+        book.record(T0 + 100, FixedPoint.parse("100"), FixedPoint.parse("1002.5"));
+        // Older trades leaving the 24-hour window shrink it; that is not negative volume
+        book.record(T0 + 200, FixedPoint.parse("100"), FixedPoint.parse("1001"));
+        book.record(T0 + 300, FixedPoint.parse("100"), FixedPoint.parse("1001.5"));
+
+        assertThat(all(CandleInterval.SECOND_1)).extracting(Candle::volume)
+                .containsExactly(FixedPoint.parse("3"));
+    }
+
+    @Test
+    void readersNeverSeeAHalfWrittenCandle() throws Exception {
+        // Each tick moves high and close together, so a torn read shows close above high
+        Thread writer = Thread.ofPlatform().start(() -> {
+            for (int i = 0; i < 200_000; i++) {
+                book.record(T0 + i, FixedPoint.fromLong(i + 1), -1);
+            }
+        });
+        boolean consistent = true;
+        while (writer.isAlive()) {
+            for (Candle candle : book.query(CandleInterval.MINUTE_1, Long.MIN_VALUE, Long.MAX_VALUE, 10)) {
+                consistent &= candle.close() == candle.high() && candle.low() == candle.open()
+                        && candle.ticks() == FixedPoint.toBigDecimal(candle.close() - candle.open()).longValue() + 1;
+            }
+        }
+        writer.join();
+
+        assertThat(consistent).isTrue();
+        assertThat(all(CandleInterval.DAY_1).get(0).ticks()).isEqualTo(200_000);
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.cryptoinitializer.cluster;
+
+import com.example.cryptoinitializer.CryptoinitializerApplication;
+import com.example.cryptoinitializer.service.CryptoDataService;
+import com.example.cryptoinitializer.service.UserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/** Two nodes in one JVM, on localhost, as they would run in two. */
+class ClusterIntegrationTest {
+    private static final String SYMBOL = "BTC/USD";
+
+    private final HttpClient http = HttpClient.newHttpClient();
+    private final List<ConfigurableApplicationContext> contexts = new ArrayList<>();
+    private final Path journals = Path.of("target/test-journal-cluster");
+
+    @AfterEach
+    void stopNodes() throws IOException {
+        contexts.forEach(ConfigurableApplicationContext::close);
+        FileSystemUtils.deleteRecursively(journals);
+    }
+
+    @Test
+    void sharesPricesAndRoutesUsersToTheirOwner() throws Exception {
+        int portA = freePort();
+        int portB = freePort();
+        String nodes = "a=http://localhost:" + portA + ",b=http://localhost:" + portB;
+        ConfigurableApplicationContext a = startNode("a", portA, nodes);
+        ConfigurableApplicationContext b = startNode("b", portB, nodes);
+        ClusterTopology topologyB = b.getBean(ClusterTopology.class);
+
+        // b follows a and sees a's prices
+        awaitTrue(() -> topologyB.feedNode() != null && topologyB.feedNode().id().equals("a")
+                && b.getBean(CryptoDataService.class).getFeedStatus().connected());
+        awaitTrue(() -> samePrice(a, b));
+
+        // A user of a trades through b
+        String userId = userOwnedBy(topologyB, "a");
+        HttpResponse<String> bought = http.send(HttpRequest.newBuilder(
+                        URI.create("http://localhost:" + portB + "/api/user/" + userId + "/buy"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"symbol\":\"" + SYMBOL + "\",\"quantity\":\"0.01\"}"))
+                .build(), HttpResponse.BodyHandlers.ofString());
+
+        assertThat(bought.statusCode()).isEqualTo(200);
+        assertThat(bought.headers().firstValue(ClusterTopology.NODE_HEADER)).hasValue("a");
+        assertThat(a.getBean(UserService.class).getUserTransactions(userId)).hasSize(1);
+        assertThat(b.getBean(UserService.class).getUserTransactions(userId)).isEmpty();
+
+        // b takes over the feed once a is gone
+        a.close();
+        awaitTrue(() -> topologyB.feedNode().id().equals("b")
+                && b.getBean(CryptoDataService.class).getFeedStatus().connected());
+        HttpResponse<String> unavailable = http.send(HttpRequest.newBuilder(
+                        URI.create("http://localhost:" + portB + "/api/user/" + userId + "/account")).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertThat(unavailable.statusCode()).isEqualTo(503);
+    }
+
+    private ConfigurableApplicationContext startNode(String id, int port, String nodes) {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(CryptoinitializerApplication.class)
+                .run("--server.port=" + port,
+                        "--crypto.journal.dir=" + journals.resolve(id),
+                        "--crypto.feed.source=synthetic",
+                        "--crypto.feed.synthetic.ticks-per-second=5",
+                        "--crypto.cluster.enabled=true",
+                        "--crypto.cluster.node-id=" + id,
+                        "--crypto.cluster.nodes=" + nodes,
+                        "--crypto.cluster.election-interval-ms=200",
+                        "--crypto.cluster.heartbeat-timeout-ms=2000",
+                        "--spring.main.banner-mode=off");
+        contexts.add(context);
+        return context;
+    }
+
+    private static boolean samePrice(ConfigurableApplicationContext a, ConfigurableApplicationContext b) {
+        long price = a.getBean(CryptoDataService.class).getCryptoCurrency(SYMBOL).getPriceValue();
+        return price != 0 && price == b.getBean(CryptoDataService.class).getCryptoCurrency(SYMBOL).getPriceValue();
+    }
+
+    private static String userOwnedBy(ClusterTopology topology, String nodeId) {
+        for (int i = 0; ; i++) {
+            if (topology.ownerOf("user-" + i).id().equals(nodeId)) {
+                return "user-" + i;
+            }
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 20_000;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).as("condition met in time").isLessThan(deadline);
+            Thread.sleep(50);
+        }
+    }
+}
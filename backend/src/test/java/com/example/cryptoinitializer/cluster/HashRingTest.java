@@ -0,0 +1,63 @@
+package com.example.cryptoinitializer.cluster;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HashRingTest {
+    private static final int USERS = 30_000;
+
+    private static ClusterNode node(String id) {
+        return new ClusterNode(id, URI.create("http://localhost/" + id));
+    }
+
+    @Test
+    void spreadsUsersEvenly() {
+        List<ClusterNode> nodes = List.of(node("a"), node("b"), node("c"));
+        HashRing ring = new HashRing(nodes, 128);
+
+        Map<ClusterNode, Integer> counts = new HashMap<>();
+        for (int i = 0; i < USERS; i++) {
+            counts.merge(ring.ownerOf("user-" + i), 1, Integer::sum);
+        }
+
+        assertThat(counts).containsOnlyKeys(nodes);
+        for (int count : counts.values()) {
+            assertThat(count).isBetween(USERS / 3 * 8 / 10, USERS / 3 * 12 / 10);
+        }
+    }
+
+    @Test
+    void addingANodeOnlyMovesUsersToIt() {
+        HashRing three = new HashRing(List.of(node("a"), node("b"), node("c")), 128);
+        ClusterNode d = node("d");
+        HashRing four = new HashRing(List.of(node("a"), node("b"), node("c"), d), 128);
+
+        int moved = 0;
+        for (int i = 0; i < USERS; i++) {
+            ClusterNode before = three.ownerOf("user-" + i);
+            ClusterNode after = four.ownerOf("user-" + i);
+            if (!before.equals(after)) {
+                assertThat(after).isEqualTo(d);
+                moved++;
+            }
+        }
+        assertThat(moved).isBetween(USERS / 4 * 8 / 10, USERS / 4 * 12 / 10);
+    }
+
+    @Test
+    void ownersDependOnlyOnTheIds() {
+        HashRing ring = new HashRing(List.of(node("a"), node("b")), 128);
+        HashRing reordered = new HashRing(List.of(node("b"), node("a")), 128);
+
+        for (int i = 0; i < 1000; i++) {
+            assertThat(reordered.ownerOf("user-" + i)).isEqualTo(ring.ownerOf("user-" + i));
+        }
+        assertThat(HashRing.hash("alice")).isEqualTo(HashRing.hash("alice"));
+    }
+}
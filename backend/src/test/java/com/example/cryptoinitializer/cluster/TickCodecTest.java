@@ -0,0 +1,67 @@
+package com.example.cryptoinitializer.cluster;
+
+import com.example.cryptoinitializer.feed.KrakenTickerDecoder;
+import com.example.cryptoinitializer.feed.TickerState;
+import com.example.cryptoinitializer.model.FixedPoint;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TickCodecTest {
+    private static final TickCodec.Tick BTC = new TickCodec.Tick("BTC/USD", 0b1111,
+            FixedPoint.parse("97000.2"), FixedPoint.parse("97000.1"), FixedPoint.parse("97000.15"),
+            FixedPoint.parse("1234.5"));
+    private static final TickCodec.Tick SHIB = new TickCodec.Tick("SHIB/USD", TickCodec.Tick.ASK,
+            FixedPoint.parse("0.00001612"), 0, 0, 0);
+
+    @Test
+    void roundTrips() {
+        byte[] message = TickCodec.encode(TickCodec.Kind.UPDATE, List.of(BTC, SHIB));
+
+        List<TickCodec.Tick> decoded = new ArrayList<>();
+        TickCodec.Kind kind = TickCodec.decode(ByteBuffer.wrap(message), decoded::add);
+
+        assertThat(kind).isEqualTo(TickCodec.Kind.UPDATE);
+        assertThat(decoded).containsExactly(BTC, SHIB);
+        assertThat(message).hasSize(4 + 41 + 18);
+    }
+
+    @Test
+    void heartbeatHasNoTicks() {
+        List<TickCodec.Tick> decoded = new ArrayList<>();
+        TickCodec.Kind kind = TickCodec.decode(
+                ByteBuffer.wrap(TickCodec.encode(TickCodec.Kind.HEARTBEAT, List.of())), decoded::add);
+
+        assertThat(kind).isEqualTo(TickCodec.Kind.HEARTBEAT);
+        assertThat(decoded).isEmpty();
+    }
+
+    @Test
+    void rejectsTruncatedMessages() {
+        byte[] message = TickCodec.encode(TickCodec.Kind.SNAPSHOT, List.of(BTC));
+        ByteBuffer truncated = ByteBuffer.wrap(message, 0, message.length - 3);
+
+        assertThatThrownBy(() -> TickCodec.decode(truncated, tick -> { }))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void krakenFrameDecodesToTheSameValues() throws Exception {
+        KrakenTickerDecoder decoder = new KrakenTickerDecoder(new ObjectMapper(), List.of("BTC/USD", "SHIB/USD"));
+
+        String frame = TickCodec.toKrakenFrame(TickCodec.Kind.SNAPSHOT, List.of(BTC, SHIB));
+
+        assertThat(decoder.decode(frame)).isEqualTo(KrakenTickerDecoder.FrameKind.TICKER);
+        TickerState btc = decoder.getState("BTC/USD");
+        assertThat(TickCodec.Tick.of(btc)).isEqualTo(BTC);
+        TickerState shib = decoder.getState("SHIB/USD");
+        assertThat(shib.getAsk()).isEqualTo(SHIB.ask());
+        assertThat(shib.hasBid()).isFalse();
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.cryptoinitializer.controller;
+
+import com.example.cryptoinitializer.feed.MarketDataSource;
+import com.example.cryptoinitializer.service.CryptoDataService;
+import com.example.cryptoinitializer.service.MarketSnapshotService;
+import com.example.cryptoinitializer.service.SymbolUniverse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.Collection;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class CryptoControllerTest {
+    private final CryptoDataService cryptoDataService = new CryptoDataService();
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(cryptoDataService, "marketDataSource", new IdleSource());
+        ReflectionTestUtils.setField(cryptoDataService, "symbolUniverse", new SymbolUniverse());
+        ReflectionTestUtils.setField(cryptoDataService, "meterRegistry", new SimpleMeterRegistry());
+        cryptoDataService.init();
+        MarketSnapshotService snapshots = new MarketSnapshotService();
+        ReflectionTestUtils.setField(snapshots, "cryptoDataService", cryptoDataService);
+        ReflectionTestUtils.setField(snapshots, "objectMapper", new ObjectMapper());
+        CryptoController controller = new CryptoController();
+        ReflectionTestUtils.setField(controller, "cryptoDataService", cryptoDataService);
+        ReflectionTestUtils.setField(controller, "marketSnapshotService", snapshots);
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+    }
+
+    // Applied inline, as the source never starts the pipeline's own thread feeding
+    private void tick(String fields) {
+        ReflectionTestUtils.invokeMethod(cryptoDataService, "processMessage",
+                "{\"channel\":\"ticker\",\"type\":\"update\",\"data\":[{\"symbol\":\"BTC/USD\"," + fields + "}]}");
+    }
+
+    private String top20ETag(String ifNoneMatch, int expectedStatus) throws Exception {
+        var request = get("/api/crypto/top20");
+        if (ifNoneMatch != null) {
+            request.header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return mockMvc.perform(request)
+                .andExpect(status().is(expectedStatus))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+
+    @Test
+    void top20IsNotModifiedUntilTheNextTick() throws Exception {
+        tick("\"ask\":97000,\"last\":97000,\"volume\":10");
+        String etag = mockMvc.perform(get("/api/crypto/top20"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andExpect(content().string(containsString("BTC/USD")))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        assertThat(top20ETag(etag, 304)).isEqualTo(etag);
+
+        tick("\"ask\":97001,\"last\":97001,\"volume\":10");
+        String afterPrice = top20ETag(etag, 200);
+        assertThat(afterPrice).isNotEqualTo(etag);
+        assertThat(top20ETag(afterPrice, 304)).isEqualTo(afterPrice);
+
+        // Volume alone leaves the price as it is, but can still reorder the top list
+        tick("\"ask\":97001,\"last\":97001,\"volume\":20");
+        assertThat(top20ETag(afterPrice, 200)).isNotEqualTo(afterPrice);
+    }
+
+    private static final class IdleSource implements MarketDataSource {
+        @Override
+        public void start(Collection<String> symbols, Consumer<String> sink) {
+        }
+
+        @Override
+        public void updateSymbols(Collection<String> symbols) {
+        }
+
+        @Override
+        public void stop() {
+        }
+
+        @Override
+        public boolean isConnected() {
+            return true;
+        }
+    }
+}
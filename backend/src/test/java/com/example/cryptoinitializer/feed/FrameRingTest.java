@@ -0,0 +1,64 @@
+package com.example.cryptoinitializer.feed;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FrameRingTest {
+
+    @Test
+    void refusesFramesWhenFullAndWrapsAround() {
+        FrameRing ring = new FrameRing(4);
+        List<String> drained = new ArrayList<>();
+
+        for (int i = 0; i < 4; i++) {
+            assertThat(ring.offer("f" + i, i)).isTrue();
+        }
+        assertThat(ring.offer("f4", 4)).isFalse();
+        assertThat(ring.size()).isEqualTo(4);
+
+        assertThat(ring.drain((frame, at) -> drained.add(frame + "@" + at), 3)).isEqualTo(3);
+        assertThat(ring.offer("f5", 5)).isTrue();
+        assertThat(ring.drain((frame, at) -> drained.add(frame + "@" + at), 10)).isEqualTo(2);
+
+        assertThat(drained).containsExactly("f0@0", "f1@1", "f2@2", "f3@3", "f5@5");
+        assertThat(ring.isEmpty()).isTrue();
+    }
+
+    @Test
+    void concurrentProducerAndConsumerKeepOrder() throws Exception {
+        FrameRing ring = new FrameRing(64);
+        int frames = 200_000;
+        String[] values = new String[frames];
+        for (int i = 0; i < frames; i++) {
+            values[i] = Integer.toString(i);
+        }
+        Thread producer = Thread.ofPlatform().start(() -> {
+            for (int i = 0; i < frames; i++) {
+                while (!ring.offer(values[i], i)) {
+                    // Yield rather than spin, the consumer may share the only core
+                    Thread.yield();
+                }
+            }
+        });
+
+        int[] next = new int[1];
+        boolean[] ordered = {true};
+        while (next[0] < frames) {
+            int drained = ring.drain((frame, at) -> {
+                ordered[0] &= frame == values[next[0]] && at == next[0];
+                next[0]++;
+            }, 16);
+            if (drained == 0) {
+                Thread.yield();
+            }
+        }
+        producer.join();
+
+        assertThat(ordered[0]).isTrue();
+        assertThat(ring.isEmpty()).isTrue();
+    }
+}
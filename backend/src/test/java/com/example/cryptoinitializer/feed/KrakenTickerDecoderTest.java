@@ -0,0 +1,133 @@
+package com.example.cryptoinitializer.feed;
+
+import com.example.cryptoinitializer.model.FixedPoint;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class KrakenTickerDecoderTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final KrakenTickerDecoder decoder =
+            new KrakenTickerDecoder(objectMapper, List.of("BTC/USD", "ETH/USD", "SHIB/USD"));
+
+    @Test
+    void decodesTickerUpdate() throws Exception {
+        String frame = """
+                {"channel":"ticker","type":"update","data":[
+                  {"symbol":"BTC/USD","bid":97000.1,"bid_qty":0.5,"ask":97000.2,"ask_qty":1.25,
+                   "last":97000.1,"volume":1234.5,"vwap":96950.0,"change_pct":-0.3},
+                  {"symbol":"DOGE/USD","ask":0.25}
+                ]}""";
+
+        assertThat(decoder.decode(frame)).isEqualTo(KrakenTickerDecoder.FrameKind.TICKER);
+        assertThat(decoder.getEntryCount()).isEqualTo(2);
+        assertThat(decoder.getUpdatedCount()).isEqualTo(1);
+
+        TickerState btc = decoder.getUpdated(0);
+        assertThat(btc.getSymbol()).isEqualTo("BTC/USD");
+        assertThat(btc.getAsk()).isEqualTo(FixedPoint.parse("97000.2"));
+        assertThat(btc.getBid()).isEqualTo(FixedPoint.parse("97000.1"));
+        assertThat(btc.getLast()).isEqualTo(FixedPoint.parse("97000.1"));
+        assertThat(btc.getVolume()).isEqualTo(FixedPoint.parse("1234.5"));
+        assertThat(btc.isAskChanged()).isTrue();
+    }
+
+    @Test
+    void flagsUnchangedAsk() throws Exception {
+        decoder.decode("{\"channel\":\"ticker\",\"type\":\"update\",\"data\":[{\"symbol\":\"ETH/USD\",\"ask\":2700.5,\"volume\":1}]}");
+        assertThat(decoder.getState("ETH/USD").isAskChanged()).isTrue();
+
+        decoder.decode("{\"channel\":\"ticker\",\"type\":\"update\",\"data\":[{\"symbol\":\"ETH/USD\",\"ask\":2700.50,\"volume\":2}]}");
+
+        TickerState eth = decoder.getState("ETH/USD");
+        assertThat(eth.getAsk()).isEqualTo(FixedPoint.parse("2700.5"));
+        assertThat(eth.isAskChanged()).isFalse();
+        assertThat(eth.getVolume()).isEqualTo(FixedPoint.parse("2"));
+    }
+
+    @Test
+    void acceptsArrayAndExponentAsk() throws Exception {
+        decoder.decode("{\"type\":\"update\",\"data\":[{\"ask\":[1.612e-05,100],\"symbol\":\"SHIB/USD\"}],\"channel\":\"ticker\"}");
+
+        assertThat(decoder.getUpdatedCount()).isEqualTo(1);
+        assertThat(decoder.getState("SHIB/USD").getAsk()).isEqualTo(FixedPoint.parse("0.00001612"));
+    }
+
+    @Test
+    void ignoresNonTickerFrames() throws Exception {
+        assertThat(decoder.decode("{\"channel\":\"heartbeat\"}")).isEqualTo(KrakenTickerDecoder.FrameKind.OTHER);
+        assertThat(decoder.decode("{\"channel\":\"book\",\"type\":\"update\",\"data\":[{\"symbol\":\"BTC/USD\",\"ask\":1}]}"))
+                .isEqualTo(KrakenTickerDecoder.FrameKind.OTHER);
+        assertThat(decoder.getState("BTC/USD").hasAsk()).isFalse();
+    }
+
+    @Test
+    void keepsStateOfSymbolsStillTrackedAfterSetSymbols() throws Exception {
+        decoder.decode("{\"channel\":\"ticker\",\"type\":\"update\",\"data\":[{\"symbol\":\"BTC/USD\",\"ask\":97000}]}");
+        TickerState btc = decoder.getState("BTC/USD");
+
+        decoder.setSymbols(List.of("BTC/USD", "DOGE/USD"));
+        decoder.decode("{\"channel\":\"ticker\",\"type\":\"update\",\"data\":["
+                + "{\"symbol\":\"DOGE/USD\",\"ask\":0.25},{\"symbol\":\"ETH/USD\",\"ask\":2700}]}");
+
+        assertThat(decoder.getSymbolCount()).isEqualTo(2);
+        assertThat(decoder.getState("BTC/USD")).isSameAs(btc);
+        assertThat(btc.getAsk()).isEqualTo(FixedPoint.parse("97000"));
+        assertThat(decoder.getState("ETH/USD")).isNull();
+        assertThat(decoder.getUpdatedCount()).isEqualTo(1);
+        assertThat(decoder.getUpdated(0).getSymbol()).isEqualTo("DOGE/USD");
+    }
+
+    @Test
+    void reportsMethodResponses() throws Exception {
+        String frame = "{\"method\":\"subscribe\",\"result\":{\"channel\":\"ticker\",\"symbol\":\"BTC/USD\"},\"success\":true}";
+
+        assertThat(decoder.decode(frame)).isEqualTo(KrakenTickerDecoder.FrameKind.RESPONSE);
+        assertThat(decoder.getResponseMethod()).isEqualTo("subscribe");
+        assertThat(decoder.getResponseResult()).contains("BTC/USD");
+    }
+
+    @Test
+    void leavesStateUntouchedOnMalformedNumber() throws Exception {
+        decoder.decode("{\"channel\":\"ticker\",\"type\":\"update\",\"data\":[{\"symbol\":\"BTC/USD\",\"ask\":1.5}]}");
+
+        assertThatThrownBy(() -> decoder.decode(
+                "{\"channel\":\"ticker\",\"type\":\"update\",\"data\":[{\"symbol\":\"BTC/USD\",\"ask\":\"oops\"}]}"))
+                .isInstanceOf(NumberFormatException.class);
+
+        decoder.decode("{\"channel\":\"ticker\",\"type\":\"update\",\"data\":[{\"symbol\":\"BTC/USD\",\"bid\":1.4}]}");
+        assertThat(decoder.getUpdatedCount()).isEqualTo(1);
+        assertThat(decoder.getState("BTC/USD").getAsk()).isEqualTo(FixedPoint.parse("1.5"));
+    }
+
+    @Test
+    void matchesTreeDecodingOnRecordedFrames() throws Exception {
+        KrakenTickerDecoder recorded = new KrakenTickerDecoder(objectMapper,
+                List.of("BTC/USD", "ETH/USD", "SOL/USD", "SHIB/USD", "DOGE/USD"));
+        Map<String, Long> expected = new HashMap<>();
+
+        for (String frame : RecordedFrames.load()) {
+            JsonNode node = objectMapper.readTree(frame);
+            if ("update".equals(node.path("type").asText()) && "ticker".equals(node.path("channel").asText())) {
+                for (JsonNode entry : node.get("data")) {
+                    String symbol = entry.get("symbol").asText();
+                    if (recorded.getState(symbol) != null) {
+                        expected.put(symbol, FixedPoint.parse(entry.get("ask").asText()));
+                    }
+                }
+            }
+            recorded.decode(frame);
+        }
+
+        assertThat(expected).isNotEmpty();
+        expected.forEach((symbol, ask) -> assertThat(recorded.getState(symbol).getAsk())
+                .as(symbol).isEqualTo(ask));
+    }
+}
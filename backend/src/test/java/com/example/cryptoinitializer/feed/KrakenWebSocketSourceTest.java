@@ -0,0 +1,30 @@
+package com.example.cryptoinitializer.feed;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KrakenWebSocketSourceTest {
+
+    @Test
+    void startDoesNotWaitForTheConnection() {
+        KrakenWebSocketSource source = new KrakenWebSocketSource();
+        // Nothing listens on the discard port, so every attempt fails and is retried
+        ReflectionTestUtils.setField(source, "url", "ws://127.0.0.1:9/");
+        ReflectionTestUtils.setField(source, "reconnectInitialMs", 10L);
+        ReflectionTestUtils.setField(source, "meterRegistry", new SimpleMeterRegistry());
+
+        long start = System.nanoTime();
+        source.start(List.of("BTC/USD"), frame -> { });
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertThat(elapsedMs).isLessThan(500);
+        assertThat(source.isConnected()).isFalse();
+        source.stop();
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.cryptoinitializer.feed;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Kraken v2 frames recorded from the ticker channel for the 20 default pairs:
+ * a subscribe response, the snapshot, then updates with the odd heartbeat.
+ */
+public final class RecordedFrames {
+    public static final String RESOURCE = "/kraken/ticker-frames.jsonl";
+
+    private RecordedFrames() {}
+
+    public static List<String> load() {
+        try (InputStream in = RecordedFrames.class.getResourceAsStream(RESOURCE)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing test resource " + RESOURCE);
+            }
+            return new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)).lines()
+                    .filter(line -> !line.isBlank())
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.cryptoinitializer.feed;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReplayFeedSourceTest {
+
+    @TempDir
+    Path directory;
+
+    private static ReplayFeedSource source(Path file, double speed) {
+        ReplayFeedSource source = new ReplayFeedSource();
+        ReflectionTestUtils.setField(source, "file", file.toString());
+        ReflectionTestUtils.setField(source, "speed", speed);
+        ReflectionTestUtils.setField(source, "loop", false);
+        return source;
+    }
+
+    private static List<String> replay(ReplayFeedSource source, int expected) throws InterruptedException {
+        List<String> frames = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(expected);
+        source.start(List.of(), frame -> {
+            frames.add(frame);
+            done.countDown();
+        });
+        assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+        source.stop();
+        return frames;
+    }
+
+    @Test
+    void replaysUntimedRecordingAtMaxSpeed() throws Exception {
+        List<String> recorded = RecordedFrames.load();
+        Path file = directory.resolve("frames.jsonl");
+        Files.write(file, recorded);
+
+        assertThat(replay(source(file, 0), recorded.size())).containsExactlyElementsOf(recorded);
+    }
+
+    @Test
+    void keepsRecordedSpacingScaledBySpeed() throws Exception {
+        Path file = directory.resolve("timed.log");
+        Files.writeString(file, ReplayFeedSource.formatLine(1_000_000, "a")
+                + ReplayFeedSource.formatLine(1_400_000, "b")
+                + ReplayFeedSource.formatLine(1_800_000, "c"));
+
+        long start = System.nanoTime();
+        List<String> frames = replay(source(file, 4), 3);
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertThat(frames).containsExactly("a", "b", "c");
+        // 800 ms of recording at 4x
+        assertThat(elapsedMs).isGreaterThanOrEqualTo(200);
+    }
+
+    @Test
+    void recorderOutputReadsBack() {
+        assertThat(ReplayFeedSource.formatLine(42, "{\"channel\":\"heartbeat\"}"))
+                .isEqualTo("42\t{\"channel\":\"heartbeat\"}\n");
+    }
+}
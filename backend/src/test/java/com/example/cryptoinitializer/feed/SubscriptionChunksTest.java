@@ -0,0 +1,55 @@
+package com.example.cryptoinitializer.feed;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SubscriptionChunksTest {
+    private final SubscriptionChunks chunks = new SubscriptionChunks(2);
+
+    @Test
+    void splitsSymbolsIntoFullConnections() {
+        List<SubscriptionChunks.Change> changes = chunks.update(List.of("A/USD", "B/USD", "C/USD"));
+
+        assertThat(changes).containsExactly(
+                new SubscriptionChunks.Change(0, List.of("A/USD", "B/USD"), List.of()),
+                new SubscriptionChunks.Change(1, List.of("C/USD"), List.of()));
+        assertThat(chunks.size()).isEqualTo(2);
+        assertThat(chunks.update(List.of("C/USD", "B/USD", "A/USD"))).isEmpty();
+    }
+
+    @Test
+    void changesOnlyTheConnectionsInvolved() {
+        chunks.update(List.of("A/USD", "B/USD", "C/USD", "D/USD"));
+
+        List<SubscriptionChunks.Change> changes = chunks.update(List.of("A/USD", "C/USD", "D/USD", "E/USD"));
+
+        // E takes the place B left, rather than shifting every symbol after it
+        assertThat(changes).containsExactly(
+                new SubscriptionChunks.Change(0, List.of("E/USD"), List.of("B/USD")));
+        assertThat(chunks.symbols(0)).containsExactly("A/USD", "E/USD");
+        assertThat(chunks.symbols(1)).containsExactly("C/USD", "D/USD");
+    }
+
+    @Test
+    void emptiedConnectionKeepsItsIndexAndIsFilledFirst() {
+        chunks.update(List.of("A/USD", "B/USD", "C/USD"));
+
+        assertThat(chunks.update(List.of("A/USD", "B/USD"))).containsExactly(
+                new SubscriptionChunks.Change(1, List.of(), List.of("C/USD")));
+        assertThat(chunks.size()).isEqualTo(2);
+        assertThat(chunks.symbols(1)).isEmpty();
+
+        assertThat(chunks.update(List.of("A/USD", "B/USD", "D/USD", "E/USD", "F/USD"))).containsExactly(
+                new SubscriptionChunks.Change(1, List.of("D/USD", "E/USD"), List.of()),
+                new SubscriptionChunks.Change(2, List.of("F/USD"), List.of()));
+    }
+
+    @Test
+    void rejectsConnectionsWithoutRoom() {
+        assertThatThrownBy(() -> new SubscriptionChunks(0)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.cryptoinitializer.feed;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SyntheticFeedSourceTest {
+    private static final String[] SYMBOLS = {"BTC/USD", "ETH/USD", "SHIB/USD"};
+
+    @Test
+    void framesDecodeLikeKrakenTicks() throws Exception {
+        KrakenTickerDecoder decoder = new KrakenTickerDecoder(new ObjectMapper(), List.of(SYMBOLS));
+        SyntheticFeedSource.Walk walk = new SyntheticFeedSource.Walk(SYMBOLS, 7, 50);
+
+        assertThat(decoder.decode(walk.snapshot())).isEqualTo(KrakenTickerDecoder.FrameKind.TICKER);
+        assertThat(decoder.getUpdatedCount()).isEqualTo(SYMBOLS.length);
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(decoder.decode(walk.next())).isEqualTo(KrakenTickerDecoder.FrameKind.TICKER);
+            TickerState ticker = decoder.getUpdated(0);
+            assertThat(ticker.getAsk()).isPositive();
+            assertThat(ticker.getBid()).isLessThan(ticker.getAsk());
+        }
+    }
+
+    @Test
+    void seedMakesTheWalkRepeatable() {
+        SyntheticFeedSource.Walk first = new SyntheticFeedSource.Walk(SYMBOLS, 1, 10);
+        SyntheticFeedSource.Walk second = new SyntheticFeedSource.Walk(SYMBOLS, 1, 10);
+
+        assertThat(second.snapshot()).isEqualTo(first.snapshot());
+        for (int i = 0; i < 100; i++) {
+            assertThat(second.next()).isEqualTo(first.next());
+        }
+    }
+}
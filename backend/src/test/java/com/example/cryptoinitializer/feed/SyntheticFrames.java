@@ -0,0 +1,24 @@
+package com.example.cryptoinitializer.feed;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Kraken v2 frames from {@link SyntheticFeedSource}'s random walk, for any set of pairs:
+ * the snapshot, then single-pair updates spread evenly over the pairs.
+ */
+public final class SyntheticFrames {
+
+    private SyntheticFrames() {}
+
+    public static List<String> generate(Collection<String> symbols, int updates, long seed) {
+        SyntheticFeedSource.Walk walk = new SyntheticFeedSource.Walk(symbols.toArray(new String[0]), seed, 10);
+        List<String> frames = new ArrayList<>(updates + 1);
+        frames.add(walk.snapshot());
+        for (int i = 0; i < updates; i++) {
+            frames.add(walk.next());
+        }
+        return frames;
+    }
+}
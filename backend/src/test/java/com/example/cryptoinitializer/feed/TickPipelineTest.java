@@ -0,0 +1,95 @@
+package com.example.cryptoinitializer.feed;
+
+import com.example.cryptoinitializer.model.FeedStatus;
+import com.example.cryptoinitializer.model.FixedPoint;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TickPipelineTest {
+    private final KrakenTickerDecoder decoder =
+            new KrakenTickerDecoder(new ObjectMapper(), List.of("BTC/USD", "ETH/USD"));
+    private final List<String> applied = new CopyOnWriteArrayList<>();
+    private final Map<String, Long> prices = new ConcurrentHashMap<>();
+    private final TickPipeline pipeline = new TickPipeline(8, decoder, ticker -> {
+        applied.add(ticker.getSymbol());
+        prices.put(ticker.getSymbol(), ticker.getAsk());
+    });
+
+    private static String tick(String symbol, String ask) {
+        return "{\"channel\":\"ticker\",\"type\":\"update\",\"data\":[{\"symbol\":\"" + symbol
+                + "\",\"ask\":" + ask + "}]}";
+    }
+
+    private FeedStatus.Pipeline awaitDrained() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        FeedStatus.Pipeline stats = pipeline.stats();
+        while ((stats.queueDepth() > 0 || stats.decoded() + stats.dropped() < stats.received())
+                && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+            stats = pipeline.stats();
+        }
+        return stats;
+    }
+
+    @Test
+    void burstIsConflatedToOneApplyPerSymbol() throws Exception {
+        // Queued before the apply thread runs, so they all land in one batch
+        for (int i = 1; i <= 5; i++) {
+            pipeline.offer(tick("BTC/USD", "9700" + i));
+        }
+        pipeline.offer(tick("ETH/USD", "2700"));
+        pipeline.offer("{\"channel\":\"heartbeat\"}");
+        pipeline.start();
+        FeedStatus.Pipeline stats = awaitDrained();
+        pipeline.stop();
+
+        assertThat(applied).containsExactlyInAnyOrder("BTC/USD", "ETH/USD");
+        assertThat(prices.get("BTC/USD")).isEqualTo(FixedPoint.parse("97005"));
+        assertThat(stats.received()).isEqualTo(7);
+        assertThat(stats.decoded()).isEqualTo(7);
+        assertThat(stats.ticks()).isEqualTo(6);
+        assertThat(stats.applied()).isEqualTo(2);
+        assertThat(stats.conflated()).isEqualTo(4);
+        assertThat(stats.dropped()).isZero();
+        assertThat(stats.queueWait().count()).isEqualTo(7);
+    }
+
+    @Test
+    void fullQueueDropsInsteadOfBlocking() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            pipeline.offer(tick("BTC/USD", Integer.toString(100 + i)));
+        }
+        assertThat(pipeline.stats().queueDepth()).isEqualTo(8);
+
+        pipeline.start();
+        FeedStatus.Pipeline stats = awaitDrained();
+        // Wakes the parked apply thread
+        pipeline.offer(tick("ETH/USD", "2700"));
+        stats = awaitDrained();
+        pipeline.stop();
+
+        assertThat(stats.dropped()).isEqualTo(2);
+        assertThat(stats.decoded()).isEqualTo(9);
+        assertThat(prices).containsEntry("BTC/USD", FixedPoint.parse("107"))
+                .containsEntry("ETH/USD", FixedPoint.parse("2700"));
+    }
+
+    @Test
+    void inlineProcessingIsRefusedOnceFramesAreOffered() {
+        pipeline.process(tick("BTC/USD", "97000"));
+        assertThat(prices.get("BTC/USD")).isEqualTo(FixedPoint.parse("97000"));
+
+        pipeline.offer(tick("ETH/USD", "2700"));
+        assertThatThrownBy(() -> pipeline.process(tick("BTC/USD", "97001")))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.cryptoinitializer.history;
+
+import com.example.cryptoinitializer.journal.JournalRecord;
+import com.example.cryptoinitializer.model.FixedPoint;
+import com.example.cryptoinitializer.model.Transaction;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TransactionHistoryTest {
+    private static final LocalDateTime START = LocalDateTime.of(2025, 3, 1, 12, 0);
+
+    private static JournalRecord transaction(int i, String symbol, JournalRecord.Type type) {
+        return new JournalRecord(0, type, id(i), "alice", symbol, FixedPoint.ONE, FixedPoint.fromLong(100),
+                FixedPoint.fromLong(100), 0, START.plusMinutes(i));
+    }
+
+    private static String id(int i) {
+        return new UUID(0, i).toString();
+    }
+
+    /** Even entries are BTC buys, odd entries ETH sells, one minute apart. */
+    private static TransactionHistory history(int size) {
+        TransactionHistory history = new TransactionHistory("alice");
+        for (int i = 0; i < size; i++) {
+            history.add(i % 2 == 0
+                    ? transaction(i, "BTC/USD", JournalRecord.Type.BUY)
+                    : transaction(i, "ETH/USD", JournalRecord.Type.SELL));
+        }
+        return history;
+    }
+
+    private static List<String> ids(TransactionPage page) {
+        return page.transactions().stream().map(Transaction::getId).toList();
+    }
+
+    @Test
+    void columnsRoundTripEveryField() {
+        JournalRecord sell = new JournalRecord(0, JournalRecord.Type.SELL, UUID.randomUUID().toString(), "alice",
+                "ETH/USD", FixedPoint.parse("0.12345678"), FixedPoint.parse("3456.78"), FixedPoint.parse("426.76"),
+                FixedPoint.parse("-12.5"), LocalDateTime.of(2025, 3, 1, 12, 0, 1, 123_456_789));
+        TransactionHistory history = new TransactionHistory("alice");
+        history.add(sell);
+
+        assertThat(history.record(0)).isEqualTo(sell);
+        Transaction transaction = history.view().get(0);
+        assertThat(transaction.getUserId()).isEqualTo("alice");
+        assertThat(transaction.getType()).isEqualTo(Transaction.TransactionType.SELL);
+        assertThat(transaction.getProfitLoss()).isEqualByComparingTo("-12.5");
+    }
+
+    @Test
+    void pagesWalkBackwardsThroughHistory() {
+        TransactionHistory history = history(5);
+
+        TransactionPage first = history.query(TransactionQuery.latest(2));
+        TransactionPage second = history.query(new TransactionQuery(null, null, null, null, first.nextCursor(), 2));
+        TransactionPage third = history.query(new TransactionQuery(null, null, null, null, second.nextCursor(), 2));
+
+        assertThat(ids(first)).containsExactly(id(4), id(3));
+        assertThat(ids(second)).containsExactly(id(2), id(1));
+        assertThat(ids(third)).containsExactly(id(0));
+        assertThat(third.nextCursor()).isNull();
+    }
+
+    @Test
+    void cursorIsStableWhileNewTradesArrive() {
+        TransactionHistory history = history(4);
+        TransactionPage first = history.query(TransactionQuery.latest(2));
+
+        history.add(transaction(4, "BTC/USD", JournalRecord.Type.BUY));
+        TransactionPage second = history.query(new TransactionQuery(null, null, null, null, first.nextCursor(), 2));
+
+        assertThat(ids(second)).containsExactly(id(1), id(0));
+    }
+
+    @Test
+    void filtersBySymbolTypeAndTimeRange() {
+        TransactionHistory history = history(20);
+
+        TransactionQuery btcInRange = new TransactionQuery("BTC/USD", null, START.plusMinutes(5),
+                START.plusMinutes(12), null, 10);
+        assertThat(ids(history.query(btcInRange))).containsExactly(id(12), id(10), id(8), id(6));
+
+        TransactionQuery sells = new TransactionQuery(null, Transaction.TransactionType.SELL, null,
+                START.plusMinutes(6), null, 2);
+        TransactionPage page = history.query(sells);
+        assertThat(ids(page)).containsExactly(id(5), id(3));
+        assertThat(ids(history.query(new TransactionQuery(null, Transaction.TransactionType.SELL, null,
+                START.plusMinutes(6), page.nextCursor(), 2)))).containsExactly(id(1));
+
+        assertThat(history.query(new TransactionQuery("SOL/USD", null, null, null, null, 10)).transactions())
+                .isEmpty();
+        assertThat(history.query(new TransactionQuery("BTC/USD", Transaction.TransactionType.SELL, null, null,
+                null, 10)).transactions()).isEmpty();
+    }
+
+    @Test
+    void rejectsBadCursorAndLimit() {
+        TransactionHistory history = history(3);
+
+        assertThatThrownBy(() -> history.query(new TransactionQuery(null, null, null, null, "abc", 10)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> TransactionQuery.latest(0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> TransactionQuery.latest(TransactionQuery.MAX_LIMIT + 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void readersSeeConsistentPrefixesWhileAppending() throws Exception {
+        TransactionHistory history = new TransactionHistory("alice");
+        AtomicBoolean done = new AtomicBoolean();
+        List<Throwable> failures = new ArrayList<>();
+
+        Thread reader = new Thread(() -> {
+            try {
+                while (!done.get()) {
+                    List<Transaction> view = history.view();
+                    for (int i = 0; i < view.size(); i++) {
+                        assertThat(view.get(i).getId()).isEqualTo(id(i));
+                    }
+                    List<Transaction> btc = history.query(new TransactionQuery("BTC/USD", null, null, null, null,
+                            TransactionQuery.MAX_LIMIT)).transactions();
+                    btc.forEach(transaction -> assertThat(transaction.getCryptoSymbol()).isEqualTo("BTC/USD"));
+                }
+            } catch (Throwable e) {
+                failures.add(e);
+            }
+        });
+        reader.start();
+        for (int i = 0; i < 50_000; i++) {
+            history.add(transaction(i, i % 3 == 0 ? "BTC/USD" : "ETH/USD", JournalRecord.Type.BUY));
+        }
+        done.set(true);
+        reader.join();
+
+        assertThat(failures).isEmpty();
+        assertThat(history.view()).hasSize(50_000);
+    }
+}
@@ -0,0 +1,265 @@
+package com.example.cryptoinitializer.journal;
+
+import com.example.cryptoinitializer.model.CostBasisMethod;
+import com.example.cryptoinitializer.model.FixedPoint;
+import com.example.cryptoinitializer.model.Transaction;
+import com.example.cryptoinitializer.service.UserService;
+import com.example.cryptoinitializer.service.UserServiceConcurrencyTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TradeJournalTest {
+
+    @TempDir
+    Path directory;
+
+    static TradeJournal openJournal(Path directory) throws IOException {
+        TradeJournal journal = new TradeJournal();
+        ReflectionTestUtils.setField(journal, "directory", directory.toString());
+        ReflectionTestUtils.setField(journal, "segmentSizeMb", 1);
+        journal.open();
+        return journal;
+    }
+
+    private static JournalRecord buy(String userId, String quantity) {
+        return JournalRecord.trade(JournalRecord.Type.BUY, userId, "BTC/USD", FixedPoint.parse(quantity),
+                FixedPoint.parse("100"), FixedPoint.parse(quantity) * 100, 0);
+    }
+
+    private static List<JournalRecord> readAll(TradeJournal journal) throws IOException {
+        List<JournalRecord> records = new ArrayList<>();
+        journal.replay(records::add);
+        return records;
+    }
+
+    private List<Path> files(String prefix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().startsWith(prefix)).sorted().toList();
+        }
+    }
+
+    @Test
+    void recordsSurviveReopen() throws IOException {
+        TradeJournal journal = openJournal(directory);
+        JournalRecord first = buy("alice", "1");
+        assertThat(journal.append(first)).isEqualTo(1);
+        assertThat(journal.append(buy("bob", "2"))).isEqualTo(2);
+        journal.awaitDurable(journal.append(JournalRecord.reset("alice")));
+        journal.close();
+
+        TradeJournal reopened = openJournal(directory);
+        List<JournalRecord> records = readAll(reopened);
+
+        assertThat(records).extracting(JournalRecord::sequence).containsExactly(1L, 2L, 3L);
+        assertThat(records.get(0)).isEqualTo(first.withSequence(1));
+        assertThat(records.get(2).type()).isEqualTo(JournalRecord.Type.RESET);
+        assertThat(reopened.append(buy("alice", "1"))).isEqualTo(4);
+        reopened.close();
+    }
+
+    @Test
+    void tornWriteAtTheTailIsDropped() throws IOException {
+        TradeJournal journal = openJournal(directory);
+        journal.append(buy("alice", "1"));
+        journal.awaitDurable(journal.append(buy("alice", "2")));
+        journal.close();
+
+        // Corrupt the last byte of the second record, as if the crash hit mid-write
+        Path segment = files("journal-").get(0);
+        List<JournalRecord> intact = new ArrayList<>();
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            int firstLength = file.readInt();
+            file.seek(8 + firstLength);
+            long lastByte = 8 + firstLength + 8 + file.readInt() - 1;
+            file.seek(lastByte);
+            int value = file.read();
+            file.seek(lastByte);
+            file.write(value ^ 0xff);
+        }
+
+        TradeJournal reopened = openJournal(directory);
+        reopened.replay(intact::add);
+
+        assertThat(intact).extracting(JournalRecord::sequence).containsExactly(1L);
+        assertThat(reopened.append(buy("alice", "3"))).isEqualTo(2);
+        reopened.close();
+        assertThat(readAll(openJournal(directory))).extracting(JournalRecord::quantity)
+                .containsExactly(FixedPoint.parse("1"), FixedPoint.parse("3"));
+    }
+
+    @Test
+    void recordsAppendedTogetherSurviveOrVanishTogether() throws IOException {
+        TradeJournal journal = openJournal(directory);
+        journal.append(buy("alice", "1"));
+        assertThat(journal.appendAll(List.of(buy("alice", "2"), buy("bob", "3"), JournalRecord.reset("carol"))))
+                .isEqualTo(2);
+        journal.awaitDurable(journal.lastSequence());
+        journal.close();
+
+        TradeJournal reopened = openJournal(directory);
+        assertThat(readAll(reopened)).extracting(JournalRecord::sequence).containsExactly(1L, 2L, 3L, 4L);
+        assertThat(reopened.append(buy("alice", "1"))).isEqualTo(5);
+        reopened.awaitDurable(reopened.appendAll(List.of(buy("dave", "1"), buy("dave", "2"))) + 1);
+        reopened.close();
+
+        // A crash tearing the last batch drops both of its records, not just the torn one
+        Path segment = files("journal-").get(0);
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            long offset = 0;
+            int length;
+            long last = 0;
+            while ((length = file.readInt()) > 0) {
+                last = offset;
+                offset += 8 + length;
+                file.seek(offset);
+            }
+            file.seek(last + 8);
+            int value = file.read();
+            file.seek(last + 8);
+            file.write(value ^ 0xff);
+        }
+        assertThat(readAll(openJournal(directory))).extracting(JournalRecord::sequence)
+                .containsExactly(1L, 2L, 3L, 4L, 5L);
+    }
+
+    @Test
+    void rollsToNewSegmentsWhenFull() throws IOException {
+        TradeJournal journal = openJournal(directory);
+        long last = 0;
+        for (int i = 0; i < 20_000; i++) {
+            last = journal.append(buy("user-" + (i % 10), "1"));
+        }
+        journal.awaitDurable(last);
+        journal.close();
+
+        assertThat(files("journal-")).hasSizeGreaterThan(1);
+        assertThat(readAll(openJournal(directory))).hasSize(20_000);
+    }
+
+    @Test
+    void recoveryRestoresSnapshotAndJournalTail() throws IOException {
+        TradeJournal journal = openJournal(directory);
+        UserService users = UserServiceConcurrencyTest.newUserService(new BigDecimal("100"), journal);
+        ReflectionTestUtils.setField(users, "costBasisMethod", CostBasisMethod.FIFO);
+        JournalService journalService = newJournalService(journal, users);
+
+        users.buyCrypto("alice", "BTC/USD", new BigDecimal("3"));
+        users.buyCrypto("bob", "BTC/USD", new BigDecimal("1.5"));
+        users.buyCrypto("alice", "BTC/USD", new BigDecimal("2"));
+        users.resetAccount("bob");
+        assertThat(journalService.snapshot()).isNotNull();
+        // Only the journal tail after the snapshot is applied to the state
+        users.sellCrypto("alice", "BTC/USD", new BigDecimal("4"));
+        users.buyCrypto("carol", "BTC/USD", new BigDecimal("0.25"));
+        journal.close();
+
+        TradeJournal reopened = openJournal(directory);
+        UserService recovered = UserServiceConcurrencyTest.newUserService(new BigDecimal("100"), reopened);
+        ReflectionTestUtils.setField(recovered, "costBasisMethod", CostBasisMethod.FIFO);
+        newJournalService(reopened, recovered).recover();
+
+        for (String userId : List.of("alice", "bob", "carol")) {
+            assertThat(recovered.getUserAccount(userId).state()).usingRecursiveComparison()
+                    .isEqualTo(users.getUserAccount(userId).state());
+            assertThat(recovered.getUserTransactions(userId)).extracting(Transaction::getId)
+                    .containsExactlyElementsOf(users.getUserTransactions(userId).stream()
+                            .map(Transaction::getId).toList());
+        }
+        assertThat(recovered.getUserAccount("alice").getHolding("BTC/USD")).isEqualByComparingTo("1");
+        assertThat(recovered.getUserTransactions("alice").get(2).getProfitLoss()).isEqualByComparingTo("0");
+        assertThat(files("snapshot-")).hasSize(1);
+        reopened.close();
+    }
+
+    @Test
+    void recoveryOnlyReplaysTheJournalAfterTheSnapshot() throws IOException {
+        TradeJournal journal = openJournal(directory);
+        ReflectionTestUtils.setField(journal, "sync", false);
+        UserService users = UserServiceConcurrencyTest.newUserService(new BigDecimal("100"), journal);
+        JournalService journalService = newJournalService(journal, users);
+
+        // Enough to roll over, so the snapshot falls in the second segment
+        for (int i = 0; i < 12_000; i++) {
+            users.buyCrypto("user-" + (i % 10), "BTC/USD", new BigDecimal("0.001"));
+        }
+        users.resetAccount("user-0");
+        users.buyCrypto("user-0", "BTC/USD", new BigDecimal("1"));
+        journalService.snapshot();
+        long snapshotSequence = journal.lastSequence() + 1;
+        users.sellCrypto("user-1", "BTC/USD", new BigDecimal("0.5"));
+        users.buyCrypto("user-2", "BTC/USD", new BigDecimal("0.25"));
+        journal.close();
+
+        // The first segment is gone; the one left starts with records the snapshot holds
+        List<Path> segments = files("journal-");
+        assertThat(segments).hasSize(1);
+        assertThat(Long.parseLong(segments.get(0).getFileName().toString().replaceAll("\\D", "")))
+                .isGreaterThan(1).isLessThan(snapshotSequence);
+
+        TradeJournal reopened = openJournal(directory);
+        List<Long> replayed = new ArrayList<>();
+        UserService recovered = UserServiceConcurrencyTest.newUserService(new UserService() {
+            @Override
+            public void replay(JournalRecord record) {
+                replayed.add(record.sequence());
+                super.replay(record);
+            }
+        }, new BigDecimal("100"), reopened);
+        newJournalService(reopened, recovered).recover();
+
+        assertThat(replayed).containsExactly(snapshotSequence, snapshotSequence + 1);
+        for (int i = 0; i < 10; i++) {
+            String userId = "user-" + i;
+            assertThat(recovered.getUserAccount(userId).state()).usingRecursiveComparison()
+                    .isEqualTo(users.getUserAccount(userId).state());
+            assertThat(recovered.getUserTransactions(userId)).extracting(Transaction::getId)
+                    .containsExactlyElementsOf(users.getUserTransactions(userId).stream()
+                            .map(Transaction::getId).toList());
+        }
+        assertThat(recovered.getUserTransactions("user-0")).hasSize(1);
+        reopened.close();
+    }
+
+    @Test
+    void snapshotsDoNotGrowWithTrades() throws IOException {
+        TradeJournal journal = openJournal(directory);
+        UserService users = UserServiceConcurrencyTest.newUserService(new BigDecimal("100"), journal);
+        JournalService journalService = newJournalService(journal, users);
+
+        users.buyCrypto("alice", "BTC/USD", new BigDecimal("0.01"));
+        long firstSize = Files.size(journalService.snapshot());
+        for (int i = 0; i < 200; i++) {
+            users.buyCrypto("alice", "BTC/USD", new BigDecimal("0.01"));
+        }
+        assertThat(Files.size(journalService.snapshot())).isEqualTo(firstSize);
+        journal.close();
+
+        // The trades come back from the history written with each snapshot, merged on startup
+        assertThat(files("history-")).hasSize(2);
+        TradeJournal reopened = openJournal(directory);
+        UserService recovered = UserServiceConcurrencyTest.newUserService(new BigDecimal("100"), reopened);
+        newJournalService(reopened, recovered).recover();
+        assertThat(recovered.getUserTransactions("alice")).hasSize(201);
+        assertThat(files("history-")).hasSize(1);
+        reopened.close();
+    }
+
+    static JournalService newJournalService(TradeJournal journal, UserService users) {
+        JournalService journalService = new JournalService();
+        ReflectionTestUtils.setField(journalService, "tradeJournal", journal);
+        ReflectionTestUtils.setField(journalService, "userService", users);
+        return journalService;
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.cryptoinitializer.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FixedPointTest {
+
+    @Test
+    void parsesPlainAndExponentNotation() {
+        assertThat(FixedPoint.parse("97000.2")).isEqualTo(9_700_020_000_000L);
+        assertThat(FixedPoint.parse("-0.5")).isEqualTo(-50_000_000L);
+        assertThat(FixedPoint.parse("1.612e-05")).isEqualTo(1_612L);
+        assertThat(FixedPoint.parse("2E3")).isEqualTo(200_000_000_000L);
+        assertThat(FixedPoint.parse("0.000000015")).isEqualTo(2L);
+        assertThat(FixedPoint.parse("0.000000014")).isEqualTo(1L);
+        assertThat(FixedPoint.parse("10")).isEqualTo(FixedPoint.fromLong(10));
+    }
+
+    @Test
+    void rejectsMalformedNumbers() {
+        for (String text : new String[] {"", "-", "abc", "1.2.3", "1e", "1e+", "12a"}) {
+            assertThatThrownBy(() -> FixedPoint.parse(text)).as(text).isInstanceOf(NumberFormatException.class);
+        }
+        assertThatThrownBy(() -> FixedPoint.parse("1e20")).isInstanceOf(NumberFormatException.class);
+    }
+
+    @Test
+    void convertsToCompactBigDecimal() {
+        assertThat(FixedPoint.toBigDecimal(FixedPoint.parse("10000")).toString()).isEqualTo("10000");
+        assertThat(FixedPoint.toBigDecimal(FixedPoint.parse("0.00001612")).toPlainString()).isEqualTo("0.00001612");
+        assertThat(FixedPoint.fromBigDecimal(new BigDecimal("1.234567891"), RoundingMode.DOWN)).isEqualTo(123_456_789L);
+    }
+
+    @Test
+    void multiplyDivideMatchesBigDecimal() {
+        SplittableRandom random = new SplittableRandom(42);
+        RoundingMode[] modes = {RoundingMode.DOWN, RoundingMode.UP, RoundingMode.FLOOR, RoundingMode.CEILING,
+                RoundingMode.HALF_UP, RoundingMode.HALF_DOWN, RoundingMode.HALF_EVEN};
+
+        for (int i = 0; i < 200_000; i++) {
+            long a = randomValue(random);
+            long b = randomValue(random);
+            long c = randomValue(random);
+            if (c == 0) {
+                continue;
+            }
+            RoundingMode mode = modes[random.nextInt(modes.length)];
+            BigInteger exact = new BigDecimal(BigInteger.valueOf(a).multiply(BigInteger.valueOf(b)))
+                    .divide(BigDecimal.valueOf(c), 0, mode).toBigInteger();
+
+            if (exact.bitLength() < 64) {
+                assertThat(FixedPoint.multiplyDivide(a, b, c, mode))
+                        .as("%d * %d / %d %s", a, b, c, mode)
+                        .isEqualTo(exact.longValueExact());
+            } else {
+                assertThatThrownBy(() -> FixedPoint.multiplyDivide(a, b, c, mode))
+                        .as("%d * %d / %d %s", a, b, c, mode)
+                        .isInstanceOf(ArithmeticException.class);
+            }
+        }
+    }
+
+    @Test
+    void multipliesPriceByQuantityBeyond64Bits() {
+        long price = FixedPoint.parse("97000.12345678");
+        long quantity = FixedPoint.parse("1234.5");
+
+        assertThat(FixedPoint.multiply(price, quantity, RoundingMode.HALF_UP))
+                .isEqualTo(FixedPoint.parse("119746652.40739491"));
+        assertThat(FixedPoint.divide(FixedPoint.ONE, FixedPoint.fromLong(3), RoundingMode.HALF_UP))
+                .isEqualTo(33_333_333L);
+    }
+
+    @Test
+    void signalsOverflowAndInexactness() {
+        assertThatThrownBy(() -> FixedPoint.multiply(Long.MAX_VALUE, FixedPoint.fromLong(2), RoundingMode.DOWN))
+                .isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> FixedPoint.add(Long.MAX_VALUE, 1)).isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> FixedPoint.divide(1, 0, RoundingMode.DOWN)).isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> FixedPoint.divide(1, FixedPoint.fromLong(3), RoundingMode.UNNECESSARY))
+                .isInstanceOf(ArithmeticException.class);
+        assertThat(FixedPoint.multiplyDivide(Long.MIN_VALUE, 1, 1, RoundingMode.DOWN)).isEqualTo(Long.MIN_VALUE);
+    }
+
+    private static long randomValue(SplittableRandom random) {
+        return switch (random.nextInt(4)) {
+            case 0 -> random.nextLong();
+            case 1 -> random.nextLong(-1_000_000, 1_000_000);
+            case 2 -> random.nextLong() >> random.nextInt(64);
+            default -> random.nextLong(-10_000_000_000_000L, 10_000_000_000_000L);
+        };
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.cryptoinitializer.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.RoundingMode;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PositionTest {
+
+    private static long fixed(String value) {
+        return FixedPoint.parse(value);
+    }
+
+    private static Position buy(Position position, String quantity, String price, CostBasisMethod method) {
+        long q = fixed(quantity);
+        return position.buy(q, FixedPoint.multiply(q, fixed(price), RoundingMode.UNNECESSARY), method);
+    }
+
+    private static Position sell(Position position, String quantity, String price, CostBasisMethod method) {
+        long q = fixed(quantity);
+        return position.sell(q, FixedPoint.multiply(q, fixed(price), RoundingMode.UNNECESSARY), method);
+    }
+
+    private static Position twoLots(CostBasisMethod method) {
+        Position position = buy(Position.empty("BTC/USD"), "1", "100", method);
+        return buy(position, "1", "200", method);
+    }
+
+    @Test
+    void averageCostRealizesAgainstRunningAverage() {
+        Position after = sell(twoLots(CostBasisMethod.AVERAGE), "1", "180", CostBasisMethod.AVERAGE);
+
+        assertThat(after.realizedPnl()).isEqualTo(fixed("30"));
+        assertThat(after.quantity()).isEqualTo(fixed("1"));
+        assertThat(after.averagePrice()).isEqualTo(fixed("150"));
+    }
+
+    @Test
+    void fifoSellsOldestLotFirst() {
+        Position after = sell(twoLots(CostBasisMethod.FIFO), "1.5", "180", CostBasisMethod.FIFO);
+
+        // 1 @ 100 + 0.5 @ 200 = 200 cost for 270 proceeds
+        assertThat(after.realizedPnl()).isEqualTo(fixed("70"));
+        assertThat(after.totalCost()).isEqualTo(fixed("100"));
+        assertThat(after.lots().size()).isEqualTo(1);
+        assertThat(after.lots().oldest().quantity()).isEqualTo(fixed("0.5"));
+    }
+
+    @Test
+    void lifoSellsNewestLotFirst() {
+        Position after = sell(twoLots(CostBasisMethod.LIFO), "1.5", "180", CostBasisMethod.LIFO);
+
+        // 1 @ 200 + 0.5 @ 100 = 250 cost for 270 proceeds
+        assertThat(after.realizedPnl()).isEqualTo(fixed("20"));
+        assertThat(after.totalCost()).isEqualTo(fixed("50"));
+        assertThat(after.lots().newest().cost()).isEqualTo(fixed("50"));
+    }
+
+    @Test
+    void realizedPnlSurvivesClosingAndReopening() {
+        Position position = sell(twoLots(CostBasisMethod.FIFO), "2", "150", CostBasisMethod.FIFO);
+        assertThat(position.isOpen()).isFalse();
+        assertThat(position.realizedPnl()).isEqualTo(fixed("0"));
+
+        position = buy(position, "1", "300", CostBasisMethod.FIFO);
+        position = sell(position, "1", "330", CostBasisMethod.FIFO);
+
+        // Earlier lots no longer count towards the cost basis
+        assertThat(position.realizedPnl()).isEqualTo(fixed("30"));
+    }
+
+    @Test
+    void fifoConsumesManyLotsInOrder() {
+        Position position = Position.empty("ETH/USD");
+        for (int i = 1; i <= 1_000; i++) {
+            position = buy(position, "1", Integer.toString(i), CostBasisMethod.FIFO);
+        }
+        for (int i = 1; i <= 999; i++) {
+            Position next = sell(position, "1", "0", CostBasisMethod.FIFO);
+            assertThat(position.realizedPnl() - next.realizedPnl()).isEqualTo(FixedPoint.fromLong(i));
+            position = next;
+        }
+        assertThat(position.totalCost()).isEqualTo(fixed("1000"));
+    }
+
+    @Test
+    void unitsWithoutLotsAreCostedAtTheirAverage() {
+        // 2 @ 150 on average, then a lot of 1 @ 300 once the method changes
+        Position position = buy(twoLots(CostBasisMethod.AVERAGE), "1", "300", CostBasisMethod.FIFO);
+
+        Position after = sell(position, "2", "250", CostBasisMethod.FIFO);
+
+        // 1 @ 300 from the lot + 1 @ 150 from the average = 450 cost for 500 proceeds
+        assertThat(after.realizedPnl()).isEqualTo(fixed("50"));
+        assertThat(after.quantity()).isEqualTo(fixed("1"));
+        assertThat(after.totalCost()).isEqualTo(fixed("150"));
+        assertThat(after.lots().isEmpty()).isTrue();
+    }
+
+    @Test
+    void rejectsOverselling() {
+        assertThatThrownBy(() -> sell(twoLots(CostBasisMethod.AVERAGE), "3", "1", CostBasisMethod.AVERAGE))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Insufficient holdings");
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.cryptoinitializer.order;
+
+import com.example.cryptoinitializer.model.FixedPoint;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OrderBookTest {
+    private long nextId;
+
+    private Order order(OrderSide side, OrderType type, String limit, String stop) {
+        return new Order(++nextId, "alice", "BTC/USD", side, type, FixedPoint.ONE,
+                limit == null ? 0 : FixedPoint.parse(limit), stop == null ? 0 : FixedPoint.parse(stop));
+    }
+
+    private static List<Long> ids(List<Order> orders) {
+        return orders.stream().map(Order::getId).toList();
+    }
+
+    private static List<Order> tick(OrderBook book, String price) {
+        return book.match(FixedPoint.parse(price));
+    }
+
+    @Test
+    void limitOrdersFireWhenPriceReachesThem() {
+        OrderBook book = new OrderBook();
+        Order buy = order(OrderSide.BUY, OrderType.LIMIT, "95", null);
+        Order sell = order(OrderSide.SELL, OrderType.LIMIT, "105", null);
+        book.add(buy);
+        book.add(sell);
+
+        assertThat(tick(book, "100")).isEmpty();
+        assertThat(tick(book, "95")).containsExactly(buy);
+        assertThat(tick(book, "110")).containsExactly(sell);
+        assertThat(buy.getStatus()).isEqualTo(OrderStatus.TRIGGERED);
+        assertThat(book.size()).isZero();
+    }
+
+    @Test
+    void stopOrdersFireWhenPriceBreaksThrough() {
+        OrderBook book = new OrderBook();
+        Order stopLoss = order(OrderSide.SELL, OrderType.STOP, null, "90");
+        Order breakout = order(OrderSide.BUY, OrderType.STOP, null, "110");
+        book.add(stopLoss);
+        book.add(breakout);
+
+        assertThat(tick(book, "95")).isEmpty();
+        assertThat(tick(book, "112")).containsExactly(breakout);
+        assertThat(tick(book, "80")).containsExactly(stopLoss);
+    }
+
+    @Test
+    void tickOnlyPopsLevelsItCrossesInPriceThenArrivalOrder() {
+        OrderBook book = new OrderBook();
+        Order at99 = order(OrderSide.BUY, OrderType.LIMIT, "99", null);
+        Order at98 = order(OrderSide.BUY, OrderType.LIMIT, "98", null);
+        Order alsoAt99 = order(OrderSide.BUY, OrderType.LIMIT, "99", null);
+        Order at90 = order(OrderSide.BUY, OrderType.LIMIT, "90", null);
+        List.of(at99, at98, alsoAt99, at90).forEach(book::add);
+
+        assertThat(ids(tick(book, "98"))).containsExactly(at99.getId(), alsoAt99.getId(), at98.getId());
+        assertThat(book.size()).isEqualTo(1);
+        assertThat(at90.getStatus()).isEqualTo(OrderStatus.OPEN);
+    }
+
+    @Test
+    void stopLimitBecomesLimitOnceStopIsReached() {
+        OrderBook book = new OrderBook();
+        // Buy on a breakout above 110, but pay no more than 111
+        Order gapped = order(OrderSide.BUY, OrderType.STOP_LIMIT, "111", "110");
+        Order sameTick = order(OrderSide.BUY, OrderType.STOP_LIMIT, "112", "110");
+        book.add(gapped);
+        book.add(sameTick);
+
+        assertThat(tick(book, "111.5")).containsExactly(sameTick);
+        assertThat(gapped.getStatus()).isEqualTo(OrderStatus.OPEN);
+        // The stop is reached for good: falling back below it now fills at the limit
+        assertThat(tick(book, "109")).containsExactly(gapped);
+    }
+
+    @Test
+    void cancelledOrdersNeverFire() {
+        OrderBook book = new OrderBook();
+        Order buy = order(OrderSide.BUY, OrderType.LIMIT, "95", null);
+        book.add(buy);
+
+        assertThat(book.cancel(buy)).isTrue();
+        assertThat(book.cancel(buy)).isFalse();
+        assertThat(tick(book, "90")).isEmpty();
+        assertThat(buy.getStatus()).isEqualTo(OrderStatus.CANCELLED);
+    }
+}
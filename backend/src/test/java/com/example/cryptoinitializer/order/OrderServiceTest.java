@@ -0,0 +1,79 @@
+package com.example.cryptoinitializer.order;
+
+import com.example.cryptoinitializer.model.CryptoCurrency;
+import com.example.cryptoinitializer.model.FixedPoint;
+import com.example.cryptoinitializer.service.CryptoDataService;
+import com.example.cryptoinitializer.service.UserService;
+import com.example.cryptoinitializer.service.UserServiceConcurrencyTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OrderServiceTest {
+    private final UserService userService = UserServiceConcurrencyTest.newUserService(new BigDecimal("100"));
+    private final OrderService orderService = new OrderService();
+
+    OrderServiceTest() {
+        ReflectionTestUtils.setField(orderService, "userService", userService);
+        ReflectionTestUtils.setField(orderService, "cryptoDataService",
+                ReflectionTestUtils.getField(userService, "cryptoDataService"));
+    }
+
+    private static CryptoCurrency tick(String price) {
+        return new CryptoCurrency("BTC/USD", "Bitcoin", FixedPoint.parse(price));
+    }
+
+    private static void awaitSettled(Order order) throws InterruptedException {
+        for (int i = 0; i < 500 && (order.getStatus() == OrderStatus.OPEN
+                || order.getStatus() == OrderStatus.TRIGGERED); i++) {
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    void crossedOrderFillsAtTickPrice() throws InterruptedException {
+        Order order = orderService.placeOrder("alice", "BTC/USD", OrderSide.BUY, OrderType.LIMIT,
+                new BigDecimal("2"), new BigDecimal("90"), null);
+        assertThat(orderService.getOpenOrders("alice")).containsExactly(order);
+
+        orderService.onPriceUpdate(tick("89.5"));
+        awaitSettled(order);
+
+        assertThat(order.getStatus()).isEqualTo(OrderStatus.FILLED);
+        assertThat(userService.getUserAccount("alice").getBalance()).isEqualByComparingTo("9821");
+        assertThat(userService.getUserTransactions("alice").get(0).getId()).isEqualTo(order.getTransactionId());
+        assertThat(orderService.getOpenOrders("alice")).isEmpty();
+        // Nothing is kept for a user once their last order is gone
+        assertThat((Map<?, ?>) ReflectionTestUtils.getField(orderService, "openOrdersByUser")).isEmpty();
+    }
+
+    @Test
+    void fillTheAccountCannotCoverIsRejected() throws InterruptedException {
+        Order order = orderService.placeOrder("alice", "BTC/USD", OrderSide.SELL, OrderType.STOP,
+                new BigDecimal("1"), null, new BigDecimal("95"));
+
+        orderService.onPriceUpdate(tick("94"));
+        awaitSettled(order);
+
+        assertThat(order.getStatus()).isEqualTo(OrderStatus.REJECTED);
+        assertThat(order.getRejectReason()).isEqualTo("Insufficient holdings");
+        assertThatThrownBy(() -> orderService.cancelOrder("alice", order.getId()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void rejectsIncompleteOrders() {
+        assertThatThrownBy(() -> orderService.placeOrder("alice", "BTC/USD", OrderSide.BUY, OrderType.STOP_LIMIT,
+                BigDecimal.ONE, new BigDecimal("100"), null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Stop price is required");
+        assertThatThrownBy(() -> orderService.placeOrder("alice", "XYZ/USD", OrderSide.BUY, OrderType.LIMIT,
+                BigDecimal.ONE, new BigDecimal("100"), null))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
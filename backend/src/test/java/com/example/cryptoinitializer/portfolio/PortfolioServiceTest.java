@@ -0,0 +1,134 @@
+package com.example.cryptoinitializer.portfolio;
+
+import com.example.cryptoinitializer.model.CryptoCurrency;
+import com.example.cryptoinitializer.model.FixedPoint;
+import com.example.cryptoinitializer.service.CryptoDataService;
+import com.example.cryptoinitializer.service.UserService;
+import com.example.cryptoinitializer.service.UserServiceConcurrencyTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PortfolioServiceTest {
+    private final Map<String, CryptoCurrency> prices = new ConcurrentHashMap<>();
+    private final UserService userService = UserServiceConcurrencyTest.newUserService(new BigDecimal("100"));
+    private final PortfolioService portfolioService = new PortfolioService();
+
+    PortfolioServiceTest() {
+        CryptoDataService market = new CryptoDataService() {
+            @Override
+            public CryptoCurrency getCryptoCurrency(String symbol) {
+                return prices.get(symbol);
+            }
+
+            @Override
+            public List<CryptoCurrency> getCryptocurrencies() {
+                return List.copyOf(prices.values());
+            }
+        };
+        ReflectionTestUtils.setField(userService, "cryptoDataService", market);
+        ReflectionTestUtils.setField(portfolioService, "cryptoDataService", market);
+        ReflectionTestUtils.setField(portfolioService, "userService", userService);
+        ReflectionTestUtils.setField(portfolioService, "leaderboardRefreshMs", 0L);
+        tick("BTC/USD", "100");
+        tick("ETH/USD", "10");
+    }
+
+    private void tick(String symbol, String price) {
+        CryptoCurrency crypto = new CryptoCurrency(symbol, symbol, FixedPoint.parse(price));
+        prices.put(symbol, crypto);
+        portfolioService.onPriceUpdate(crypto);
+    }
+
+    @Test
+    void holdingsAreMarkedAtTheLatestTick() {
+        portfolioService.init();
+        userService.buyCrypto("alice", "BTC/USD", new BigDecimal("10"));
+        userService.buyCrypto("alice", "ETH/USD", new BigDecimal("100"));
+
+        tick("BTC/USD", "150");
+
+        Portfolio portfolio = portfolioService.getPortfolio("alice");
+        assertThat(portfolio.cash()).isEqualTo(FixedPoint.parse("8000"));
+        assertThat(portfolio.marketValue()).isEqualTo(FixedPoint.parse("2500"));
+        assertThat(portfolio.equity()).isEqualTo(FixedPoint.parse("10500"));
+        assertThat(portfolio.unrealizedPnl()).isEqualTo(FixedPoint.parse("500"));
+        assertThat(portfolio.holdings()).extracting(Portfolio.Holding::symbol).containsExactly("BTC/USD", "ETH/USD");
+
+        Portfolio.Holding btc = portfolio.holdings().get(0);
+        assertThat(btc.price()).isEqualTo(FixedPoint.parse("150"));
+        assertThat(btc.marketValue()).isEqualTo(FixedPoint.parse("1500"));
+        assertThat(btc.costBasis()).isEqualTo(FixedPoint.parse("1000"));
+        assertThat(btc.unrealizedPnl()).isEqualTo(FixedPoint.parse("500"));
+        assertThat(btc.allocation()).isEqualTo(FixedPoint.parse("0.14285714"));
+    }
+
+    @Test
+    void ticksOnlyRevalueHoldersOfTheirSymbol() {
+        portfolioService.init();
+        userService.buyCrypto("alice", "BTC/USD", new BigDecimal("10"));
+        userService.buyCrypto("bob", "ETH/USD", new BigDecimal("100"));
+        userService.sellCrypto("alice", "BTC/USD", new BigDecimal("10"));
+
+        @SuppressWarnings("unchecked")
+        Map<String, Set<UserValuation>> holders =
+                (Map<String, Set<UserValuation>>) ReflectionTestUtils.getField(portfolioService, "holders");
+        assertThat(holders.get("BTC/USD")).isEmpty();
+        assertThat(holders.get("ETH/USD")).extracting(UserValuation::userId).containsExactly("bob");
+
+        tick("BTC/USD", "200");
+        tick("ETH/USD", "12");
+
+        assertThat(portfolioService.getPortfolio("alice").equity()).isEqualTo(FixedPoint.parse("10000"));
+        assertThat(portfolioService.getPortfolio("alice").holdings()).isEmpty();
+        assertThat(portfolioService.getPortfolio("bob").equity()).isEqualTo(FixedPoint.parse("10200"));
+    }
+
+    @Test
+    void accountsTradedBeforeStartupAreValued() {
+        userService.buyCrypto("alice", "BTC/USD", new BigDecimal("10"));
+
+        portfolioService.init();
+        tick("BTC/USD", "90");
+
+        assertThat(portfolioService.getPortfolio("alice").equity()).isEqualTo(FixedPoint.parse("9900"));
+        assertThat(portfolioService.getLeaderboard(10).users()).isEqualTo(1);
+    }
+
+    @Test
+    void unknownUsersAreValuedWithoutBeingKept() {
+        portfolioService.init();
+
+        Portfolio portfolio = portfolioService.getPortfolio("visitor");
+
+        assertThat(portfolio.equity()).isEqualTo(FixedPoint.parse("10000"));
+        assertThat(portfolio.holdings()).isEmpty();
+        assertThat(portfolioService.getLeaderboard(10).users()).isZero();
+    }
+
+    @Test
+    void leaderboardRanksUsersByEquity() {
+        portfolioService.init();
+        userService.buyCrypto("alice", "BTC/USD", new BigDecimal("50"));
+        userService.buyCrypto("bob", "ETH/USD", new BigDecimal("500"));
+        userService.resetAccount("carol");
+
+        tick("BTC/USD", "110");
+        tick("ETH/USD", "9");
+
+        Leaderboard leaderboard = portfolioService.getLeaderboard(2);
+        assertThat(leaderboard.users()).isEqualTo(3);
+        assertThat(leaderboard.entries()).extracting(Leaderboard.Entry::userId).containsExactly("alice", "carol");
+        assertThat(leaderboard.entries().get(0).equity()).isEqualTo(FixedPoint.parse("10500"));
+        assertThat(leaderboard.entries().get(1).rank()).isEqualTo(2);
+        assertThatThrownBy(() -> portfolioService.getLeaderboard(0)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
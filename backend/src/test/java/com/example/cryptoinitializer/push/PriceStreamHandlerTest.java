@@ -0,0 +1,221 @@
+package com.example.cryptoinitializer.push;
+
+import com.example.cryptoinitializer.model.CryptoCurrency;
+import com.example.cryptoinitializer.model.FixedPoint;
+import com.example.cryptoinitializer.model.MarketSnapshot;
+import com.example.cryptoinitializer.service.CryptoDataService;
+import com.example.cryptoinitializer.service.MarketSnapshotService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketExtension;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.security.Principal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PriceStreamHandlerTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, CryptoCurrency> prices = new ConcurrentHashMap<>();
+    private final PriceStreamHandler handler = new PriceStreamHandler();
+    private final BlockingSession session = new BlockingSession();
+
+    PriceStreamHandlerTest() {
+        CryptoDataService market = new CryptoDataService() {
+            @Override
+            public CryptoCurrency getCryptoCurrency(String symbol) {
+                return prices.get(symbol);
+            }
+        };
+        MarketSnapshotService snapshots = new MarketSnapshotService() {
+            @Override
+            public MarketSnapshot getSnapshot() {
+                return new MarketSnapshot(0, List.copyOf(prices.values()), new byte[0], "\"0\"");
+            }
+        };
+        ReflectionTestUtils.setField(handler, "cryptoDataService", market);
+        ReflectionTestUtils.setField(handler, "marketSnapshotService", snapshots);
+        ReflectionTestUtils.setField(handler, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(handler, "sendTimeLimitMs", 5000L);
+        tick("BTC/USD", "100");
+    }
+
+    @AfterEach
+    void tearDown() {
+        session.release.countDown();
+        handler.shutdown();
+    }
+
+    private void tick(String symbol, String price) {
+        CryptoCurrency crypto = new CryptoCurrency(symbol, symbol, FixedPoint.parse(price));
+        prices.put(symbol, crypto);
+        handler.onPriceUpdate(crypto);
+    }
+
+    private Map<String, String> pricesIn(String frame) throws Exception {
+        PriceStreamMessage message = objectMapper.readValue(frame, PriceStreamMessage.class);
+        return message.prices().stream().collect(Collectors.toMap(CryptoCurrency::getSymbol,
+                crypto -> crypto.getPrice().stripTrailingZeros().toPlainString()));
+    }
+
+    @Test
+    void changesDuringASendCoalesceToTheLatestPricePerSymbol() throws Exception {
+        handler.afterConnectionEstablished(session);
+        assertThat(session.sending.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // The snapshot is still being sent, so these only go to the subscriber's backlog
+        tick("BTC/USD", "101");
+        handler.flush();
+        tick("BTC/USD", "102");
+        tick("ETH/USD", "10");
+        handler.flush();
+        tick("ETH/USD", "11");
+        handler.flush();
+        assertThat(session.sent).isEmpty();
+
+        session.release.countDown();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (session.sent.size() < 2 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        Thread.sleep(50);
+
+        assertThat(session.sent).hasSize(2);
+        assertThat(objectMapper.readValue(session.sent.get(0), PriceStreamMessage.class).type())
+                .isEqualTo(PriceStreamMessage.SNAPSHOT);
+        PriceStreamMessage delta = objectMapper.readValue(session.sent.get(1), PriceStreamMessage.class);
+        assertThat(delta.type()).isEqualTo(PriceStreamMessage.DELTA);
+        assertThat(pricesIn(session.sent.get(1))).isEqualTo(Map.of("BTC/USD", "102", "ETH/USD", "11"));
+    }
+
+    @Test
+    void subscriberIsClosedOnceASendOutlastsTheTimeLimit() throws Exception {
+        ReflectionTestUtils.setField(handler, "sendTimeLimitMs", 1000L);
+        handler.afterConnectionEstablished(session);
+        assertThat(session.sending.await(5, TimeUnit.SECONDS)).isTrue();
+
+        handler.flush();
+        assertThat(session.closeStatus).isNull();
+
+        Thread.sleep(1100);
+        handler.flush();
+
+        assertThat(session.closeStatus).isEqualTo(CloseStatus.SESSION_NOT_RELIABLE);
+        assertThat(handler.getSubscriberCount()).isZero();
+    }
+
+    /** A session whose sends block until {@link #release} is counted down. */
+    private static final class BlockingSession implements WebSocketSession {
+        final CountDownLatch sending = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<String> sent = new CopyOnWriteArrayList<>();
+        volatile CloseStatus closeStatus;
+
+        @Override
+        public void sendMessage(WebSocketMessage<?> message) throws IOException {
+            sending.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while sending", e);
+            }
+            sent.add(((TextMessage) message).getPayload());
+        }
+
+        @Override
+        public boolean isOpen() {
+            return closeStatus == null;
+        }
+
+        @Override
+        public void close() {
+            close(CloseStatus.NORMAL);
+        }
+
+        @Override
+        public void close(CloseStatus status) {
+            closeStatus = status;
+        }
+
+        @Override
+        public String getId() {
+            return "session-1";
+        }
+
+        @Override
+        public URI getUri() {
+            return URI.create("ws://localhost/ws/prices");
+        }
+
+        @Override
+        public HttpHeaders getHandshakeHeaders() {
+            return new HttpHeaders();
+        }
+
+        @Override
+        public Map<String, Object> getAttributes() {
+            return new HashMap<>();
+        }
+
+        @Override
+        public Principal getPrincipal() {
+            return null;
+        }
+
+        @Override
+        public InetSocketAddress getLocalAddress() {
+            return null;
+        }
+
+        @Override
+        public InetSocketAddress getRemoteAddress() {
+            return null;
+        }
+
+        @Override
+        public String getAcceptedProtocol() {
+            return null;
+        }
+
+        @Override
+        public void setTextMessageSizeLimit(int messageSizeLimit) {
+        }
+
+        @Override
+        public int getTextMessageSizeLimit() {
+            return Integer.MAX_VALUE;
+        }
+
+        @Override
+        public void setBinaryMessageSizeLimit(int messageSizeLimit) {
+        }
+
+        @Override
+        public int getBinaryMessageSizeLimit() {
+            return Integer.MAX_VALUE;
+        }
+
+        @Override
+        public List<WebSocketExtension> getExtensions() {
+            return List.of();
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.cryptoinitializer.service;
+
+import com.example.cryptoinitializer.feed.MarketDataSource;
+import com.example.cryptoinitializer.model.CryptoCurrency;
+import com.example.cryptoinitializer.model.FeedStatus;
+import com.example.cryptoinitializer.model.FixedPoint;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CryptoDataServiceTest {
+    private final FakeSource source = new FakeSource();
+    private final SymbolUniverse universe = new SymbolUniverse();
+    private final CryptoDataService service = new CryptoDataService();
+    private final List<CryptoCurrency> statusChanges = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(service, "marketDataSource", source);
+        ReflectionTestUtils.setField(service, "symbolUniverse", universe);
+        ReflectionTestUtils.setField(service, "meterRegistry", new SimpleMeterRegistry());
+        service.addPriceListener(new PriceUpdateListener() {
+            @Override
+            public void onPriceUpdate(CryptoCurrency crypto) {
+            }
+
+            @Override
+            public void onStatusChange(CryptoCurrency crypto) {
+                statusChanges.add(crypto);
+            }
+        });
+        service.init();
+    }
+
+    private static String tick(String symbol, String ask) {
+        return "{\"channel\":\"ticker\",\"type\":\"update\",\"data\":[{\"symbol\":\"" + symbol
+                + "\",\"ask\":" + ask + "}]}";
+    }
+
+    @Test
+    void disconnectFlagsPricesStaleUntilTheNextTick() {
+        service.processMessage(tick("BTC/USD", "97000.5"));
+        service.processMessage(tick("ETH/USD", "2700"));
+        service.checkStaleness();
+        assertThat(service.getCryptoCurrency("BTC/USD").isStale()).isFalse();
+
+        source.connected = false;
+        long version = service.getVersion();
+        service.checkStaleness();
+        service.checkStaleness();
+
+        CryptoCurrency btc = service.getCryptoCurrency("BTC/USD");
+        assertThat(btc.isStale()).isTrue();
+        assertThat(btc.getPriceValue()).isEqualTo(FixedPoint.parse("97000.5"));
+        assertThat(service.getVersion()).isEqualTo(version + 2);
+        assertThat(statusChanges).extracting(CryptoCurrency::getSymbol)
+                .containsExactlyInAnyOrder("BTC/USD", "ETH/USD");
+
+        // The resubscribe snapshot clears the flag; an unchanged ask still counts as a tick
+        source.connected = true;
+        service.processMessage("{\"channel\":\"ticker\",\"type\":\"snapshot\",\"data\":["
+                + "{\"symbol\":\"BTC/USD\",\"ask\":97000.5},{\"symbol\":\"ETH/USD\",\"ask\":2701}]}");
+
+        assertThat(service.getCryptoCurrency("BTC/USD").isStale()).isFalse();
+        assertThat(service.getCryptoCurrency("ETH/USD").isStale()).isFalse();
+        assertThat(service.getCryptoCurrency("ETH/USD").getPriceValue()).isEqualTo(FixedPoint.parse("2701"));
+    }
+
+    @Test
+    void quietSymbolGoesStaleAndCountsAsGap() {
+        ReflectionTestUtils.setField(service, "staleAfterMs", -1L);
+        service.processMessage(tick("BTC/USD", "97000"));
+
+        service.checkStaleness();
+
+        FeedStatus status = service.getFeedStatus();
+        assertThat(status.connected()).isTrue();
+        FeedStatus.SymbolStatus btc = status.symbols().stream()
+                .filter(symbol -> symbol.symbol().equals("BTC/USD")).findFirst().orElseThrow();
+        assertThat(btc.priced()).isTrue();
+        assertThat(btc.stale()).isTrue();
+        assertThat(btc.gaps()).isEqualTo(1);
+        assertThat(btc.lastTickAgeMs()).isNotNull();
+        // Symbols never priced are reported as missing rather than left out
+        assertThat(status.symbols()).filteredOn(symbol -> !symbol.priced())
+                .hasSize(19)
+                .allMatch(symbol -> symbol.stale() && symbol.lastTickAgeMs() == null);
+    }
+
+    @Test
+    void pairsAddedAtRuntimeArePricedAndRankedByVolume() {
+        universe.add("PEPE/USD", "Pepe");
+        assertThat(source.symbols).contains("PEPE/USD");
+
+        service.processMessage("{\"channel\":\"ticker\",\"type\":\"update\",\"data\":["
+                + "{\"symbol\":\"BTC/USD\",\"ask\":97000,\"last\":97000,\"volume\":10},"
+                + "{\"symbol\":\"ETH/USD\",\"ask\":2700,\"last\":2700,\"volume\":1000},"
+                + "{\"symbol\":\"PEPE/USD\",\"ask\":7,\"last\":7,\"volume\":1000}]}");
+
+        assertThat(service.getCryptoCurrency("PEPE/USD").getName()).isEqualTo("Pepe");
+        // 2.7M, 970k and 7k of USD traded
+        assertThat(service.getTopCryptocurrencies(2)).extracting(CryptoCurrency::getSymbol)
+                .containsExactly("ETH/USD", "BTC/USD");
+        assertThat(service.getTopCryptocurrencies(20)).extracting(CryptoCurrency::getSymbol)
+                .containsExactly("ETH/USD", "BTC/USD", "PEPE/USD");
+
+        universe.remove("PEPE/USD");
+        service.processMessage(tick("PEPE/USD", "8"));
+
+        assertThat(source.symbols).doesNotContain("PEPE/USD");
+        assertThat(service.getCryptoCurrency("PEPE/USD")).isNull();
+        assertThat(service.getCryptocurrencies()).extracting(CryptoCurrency::getSymbol)
+                .containsExactlyInAnyOrder("BTC/USD", "ETH/USD");
+        assertThat(statusChanges).extracting(CryptoCurrency::getSymbol).containsExactly("PEPE/USD");
+        assertThat(service.getFeedStatus().symbols()).hasSize(20);
+    }
+
+    private static final class FakeSource implements MarketDataSource {
+        private Consumer<String> sink;
+        private volatile boolean connected = true;
+        private volatile List<String> symbols;
+
+        @Override
+        public void start(Collection<String> symbols, Consumer<String> sink) {
+            this.sink = sink;
+            this.symbols = List.copyOf(symbols);
+        }
+
+        @Override
+        public void updateSymbols(Collection<String> symbols) {
+            this.symbols = List.copyOf(symbols);
+        }
+
+        @Override
+        public void stop() {
+        }
+
+        @Override
+        public boolean isConnected() {
+            return connected;
+        }
+    }
+}
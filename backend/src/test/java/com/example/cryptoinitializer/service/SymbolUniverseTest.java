@@ -0,0 +1,80 @@
+package com.example.cryptoinitializer.service;
+
+import com.example.cryptoinitializer.model.Instrument;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SymbolUniverseTest {
+    @TempDir
+    Path dir;
+
+    private SymbolUniverse universe(Path file) throws Exception {
+        SymbolUniverse universe = new SymbolUniverse();
+        ReflectionTestUtils.setField(universe, "file", file.toString());
+        universe.init();
+        return universe;
+    }
+
+    @Test
+    void startsFromTheBundledPairs() {
+        SymbolUniverse universe = new SymbolUniverse();
+
+        assertThat(universe.size()).isEqualTo(20);
+        assertThat(universe.getInstruments().get(0)).isEqualTo(new Instrument("BTC/USD", "Bitcoin"));
+    }
+
+    @Test
+    void changesSurviveARestart() throws Exception {
+        Path file = dir.resolve("instruments.csv");
+        SymbolUniverse universe = universe(file);
+        List<List<Instrument>> notified = new ArrayList<>();
+        universe.addListener(notified::add);
+
+        universe.add("PEPE/USD", "Pepe");
+        universe.add("PEPE/USD", "Pepe");
+        assertThat(universe.remove("BTC/USD")).isTrue();
+        assertThat(universe.remove("BTC/USD")).isFalse();
+
+        // Adding a pair twice is no change
+        assertThat(notified).hasSize(2);
+        assertThat(notified.get(1)).contains(new Instrument("PEPE/USD", "Pepe"))
+                .doesNotContain(new Instrument("BTC/USD", "Bitcoin"));
+        SymbolUniverse restarted = universe(file);
+        assertThat(restarted.getInstruments()).isEqualTo(universe.getInstruments());
+        assertThat(restarted.getInstrument("PEPE/USD").name()).isEqualTo("Pepe");
+        assertThat(restarted.getInstrument("BTC/USD")).isNull();
+    }
+
+    @Test
+    void rejectsMalformedPairsAndAFullUniverse() throws Exception {
+        SymbolUniverse universe = universe(dir.resolve("instruments.csv"));
+        ReflectionTestUtils.setField(universe, "maxSymbols", 21);
+
+        assertThatThrownBy(() -> universe.add("pepe-usd", "Pepe")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> universe.add("PEPE/USD", "Pe\npe")).isInstanceOf(IllegalArgumentException.class);
+        universe.add("PEPE/USD", "Pepe");
+        assertThatThrownBy(() -> universe.add("TON/USD", "Toncoin"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("maximum of 21");
+        // Renaming needs no room
+        universe.add("PEPE/USD", "Pepe Coin");
+        assertThat(Files.readString(dir.resolve("instruments.csv"))).contains("PEPE/USD,Pepe Coin\n");
+    }
+
+    @Test
+    void reportsTheLineOfAMalformedFile() {
+        assertThatThrownBy(() -> SymbolUniverse.read(new StringReader("# pairs\nBTC/USD,Bitcoin\nETH\n"), "test.csv"))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageStartingWith("test.csv line 3:");
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.cryptoinitializer.service;
+
+import com.example.cryptoinitializer.account.AccountStoreTest;
+import com.example.cryptoinitializer.journal.TradeJournal;
+import com.example.cryptoinitializer.model.CryptoCurrency;
+import com.example.cryptoinitializer.model.FixedPoint;
+import com.example.cryptoinitializer.model.Transaction;
+import com.example.cryptoinitializer.model.UserAccount;
+import com.example.cryptoinitializer.trade.TradeMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class UserServiceConcurrencyTest {
+    private static final int THREADS = Math.max(8, Runtime.getRuntime().availableProcessors() * 2);
+    private static final BigDecimal INITIAL_BALANCE = new BigDecimal("10000.00");
+
+    private final UserService userService = newUserService(new BigDecimal("100"));
+
+    public static UserService newUserService(BigDecimal btcPrice) {
+        TradeJournal journal = new TradeJournal();
+        ReflectionTestUtils.setField(journal, "enabled", false);
+        return newUserService(btcPrice, journal);
+    }
+
+    public static UserService newUserService(BigDecimal btcPrice, TradeJournal journal) {
+        return newUserService(new UserService(), btcPrice, journal);
+    }
+
+    public static <T extends UserService> T newUserService(T userService, BigDecimal btcPrice, TradeJournal journal) {
+        CryptoCurrency btc = new CryptoCurrency("BTC/USD", "Bitcoin",
+                FixedPoint.fromBigDecimal(btcPrice, RoundingMode.UNNECESSARY));
+        CryptoDataService prices = new CryptoDataService() {
+            @Override
+            public CryptoCurrency getCryptoCurrency(String symbol) {
+                return "BTC/USD".equals(symbol) ? btc : null;
+            }
+
+            @Override
+            public List<CryptoCurrency> getCryptocurrencies() {
+                return List.of(btc);
+            }
+        };
+        ReflectionTestUtils.setField(userService, "cryptoDataService", prices);
+        ReflectionTestUtils.setField(userService, "tradeJournal", journal);
+        ReflectionTestUtils.setField(userService, "accountStore", AccountStoreTest.newStore(10_000));
+        ReflectionTestUtils.setField(userService, "tradeMetrics", new TradeMetrics(new SimpleMeterRegistry()));
+        return userService;
+    }
+
+    @Test
+    void parallelBuysNeverOverdraw() throws Exception {
+        // 10000 / (100 * 1) = exactly 100 buys can succeed
+        AtomicInteger accepted = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+
+        runConcurrently(THREADS, 50, (thread, i) -> {
+            try {
+                userService.buyCrypto("alice", "BTC/USD", BigDecimal.ONE);
+                accepted.incrementAndGet();
+            } catch (IllegalArgumentException e) {
+                assertThat(e).hasMessage("Insufficient balance");
+                rejected.incrementAndGet();
+            }
+        });
+
+        UserAccount account = userService.getUserAccount("alice");
+        assertThat(accepted.get()).isEqualTo(100);
+        assertThat(rejected.get()).isEqualTo(THREADS * 50 - 100);
+        assertThat(account.getBalance()).isEqualByComparingTo("0");
+        assertThat(account.getHolding("BTC/USD")).isEqualByComparingTo("100");
+        assertThat(userService.getUserTransactions("alice")).hasSize(100);
+    }
+
+    @Test
+    void mixedTradesConserveValue() throws Exception {
+        runConcurrently(THREADS, 2_000, (thread, i) -> {
+            String userId = "user-" + (thread % 4);
+            try {
+                if ((i & 1) == 0) {
+                    userService.buyCrypto(userId, "BTC/USD", new BigDecimal("0.5"));
+                } else {
+                    userService.sellCrypto(userId, "BTC/USD", new BigDecimal("0.5"));
+                }
+            } catch (IllegalArgumentException e) {
+                // Insufficient balance or holdings are legitimate outcomes under contention
+            }
+        });
+
+        for (int u = 0; u < 4; u++) {
+            String userId = "user-" + u;
+            UserAccount account = userService.getUserAccount(userId);
+            BigDecimal value = account.getBalance()
+                    .add(account.getHolding("BTC/USD").multiply(new BigDecimal("100")));
+
+            assertThat(account.getBalance().signum()).isNotNegative();
+            assertThat(value).isEqualByComparingTo(INITIAL_BALANCE);
+
+            // Replaying the recorded transactions must give the same balance: nothing lost
+            BigDecimal replayed = INITIAL_BALANCE;
+            for (Transaction tx : userService.getUserTransactions(userId)) {
+                replayed = tx.getType() == Transaction.TransactionType.BUY
+                        ? replayed.subtract(tx.getTotal())
+                        : replayed.add(tx.getTotal());
+            }
+            assertThat(replayed).isEqualByComparingTo(account.getBalance());
+        }
+    }
+
+    interface Step {
+        void run(int thread, int iteration);
+    }
+
+    static void runConcurrently(int threads, int iterations, Step step) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < iterations; i++) {
+                        step.run(thread, i);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.cryptoinitializer.trade;
+
+import com.example.cryptoinitializer.order.OrderSide;
+import com.example.cryptoinitializer.service.MarketSnapshotService;
+import com.example.cryptoinitializer.service.UserService;
+import com.example.cryptoinitializer.service.UserServiceConcurrencyTest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class BatchTradeServiceTest {
+    private final UserService users = UserServiceConcurrencyTest.newUserService(new BigDecimal("100"));
+    private final BatchTradeService batches = newBatchTradeService(users);
+
+    /** A service pricing trades with the BTC/USD quote of {@code users}. */
+    public static BatchTradeService newBatchTradeService(UserService users) {
+        MarketSnapshotService snapshots = new MarketSnapshotService();
+        ReflectionTestUtils.setField(snapshots, "cryptoDataService",
+                ReflectionTestUtils.getField(users, "cryptoDataService"));
+        ReflectionTestUtils.setField(snapshots, "objectMapper", new ObjectMapper());
+        BatchTradeService batches = new BatchTradeService();
+        ReflectionTestUtils.setField(batches, "userService", users);
+        ReflectionTestUtils.setField(batches, "marketSnapshotService", snapshots);
+        ReflectionTestUtils.setField(batches, "tradeMetrics", new TradeMetrics(new SimpleMeterRegistry()));
+        return batches;
+    }
+
+    private static TradeInstruction buy(String userId, String quantity) {
+        return new TradeInstruction(userId, "BTC/USD", OrderSide.BUY, new BigDecimal(quantity));
+    }
+
+    private static TradeInstruction sell(String userId, String quantity) {
+        return new TradeInstruction(userId, "BTC/USD", OrderSide.SELL, new BigDecimal(quantity));
+    }
+
+    @Test
+    void allOrNothingValidatesEachTradeAgainstThePreviousOnes() {
+        BatchTradeResult result = batches.execute(new BatchTradeRequest(null, List.of(
+                buy("alice", "60"), sell("alice", "20"), buy("bob", "1"), buy("alice", "60"))));
+
+        // alice can afford the last buy only because the sell came first
+        assertThat(result.mode()).isEqualTo(BatchMode.ALL_OR_NOTHING);
+        assertThat(result.executed()).isEqualTo(4);
+        assertThat(result.results()).extracting(TradeOutcome::index).containsExactly(0, 1, 2, 3);
+        assertThat(users.getUserAccount("alice").getBalance()).isEqualByComparingTo("0");
+        assertThat(users.getUserAccount("alice").getHolding("BTC/USD")).isEqualByComparingTo("100");
+        assertThat(users.getUserTransactions("alice")).hasSize(3);
+    }
+
+    @Test
+    void allOrNothingAppliesNothingIfOneTradeIsRejected() {
+        BatchTradeResult result = batches.execute(new BatchTradeRequest(BatchMode.ALL_OR_NOTHING, List.of(
+                buy("alice", "1"), buy("bob", "1"), sell("bob", "2"))));
+
+        assertThat(result.executed()).isZero();
+        assertThat(result.results()).extracting(TradeOutcome::status).containsExactly(
+                TradeOutcome.Status.SKIPPED, TradeOutcome.Status.SKIPPED, TradeOutcome.Status.REJECTED);
+        assertThat(result.results().get(2).error()).isEqualTo("Insufficient holdings");
+        assertThat(users.getUserAccount("alice").getBalance()).isEqualByComparingTo("10000");
+        assertThat(users.getUserTransactions("bob")).isEmpty();
+    }
+
+    @Test
+    void bestEffortExecutesEverythingItCan() {
+        BatchTradeResult result = batches.execute(new BatchTradeRequest(BatchMode.BEST_EFFORT, List.of(
+                buy("alice", "1"),
+                new TradeInstruction("alice", "DOGE/USD", OrderSide.BUY, BigDecimal.ONE),
+                sell("alice", "2"),
+                buy("alice", "0.000000001"),
+                sell("alice", "1"))));
+
+        assertThat(result.executed()).isEqualTo(2);
+        assertThat(result.results()).extracting(TradeOutcome::status).containsExactly(
+                TradeOutcome.Status.EXECUTED, TradeOutcome.Status.REJECTED, TradeOutcome.Status.REJECTED,
+                TradeOutcome.Status.REJECTED, TradeOutcome.Status.EXECUTED);
+        assertThat(result.results().get(1).error()).isEqualTo("Cryptocurrency not found: DOGE/USD");
+        assertThat(result.results().get(4).transaction().getType().name()).isEqualTo("SELL");
+        assertThat(users.getUserAccount("alice").getBalance()).isEqualByComparingTo("10000");
+    }
+
+    @Test
+    void emptyAndOversizedBatchesAreRejected() {
+        ReflectionTestUtils.setField(batches, "maxBatchSize", 2);
+
+        assertThatThrownBy(() -> batches.execute(new BatchTradeRequest(null, List.of())))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> batches.execute(new BatchTradeRequest(null,
+                List.of(buy("a", "1"), buy("b", "1"), buy("c", "1")))))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("A batch holds at most 2 trades");
+    }
+
+    @Test
+    void rejectionsAreCountedByReason() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        TradeMetrics metrics = new TradeMetrics(registry);
+        ReflectionTestUtils.setField(users, "tradeMetrics", metrics);
+        ReflectionTestUtils.setField(batches, "tradeMetrics", metrics);
+
+        users.buyCrypto("alice", "BTC/USD", BigDecimal.ONE);
+        assertThatThrownBy(() -> users.sellCrypto("alice", "BTC/USD", BigDecimal.TEN))
+                .isInstanceOf(IllegalArgumentException.class);
+        batches.execute(new BatchTradeRequest(BatchMode.BEST_EFFORT, List.of(
+                sell("bob", "1"),
+                new TradeInstruction("bob", "DOGE/USD", OrderSide.BUY, BigDecimal.ONE),
+                new TradeInstruction("bob", "BTC/USD", null, BigDecimal.ONE))));
+
+        assertThat(registry.get("crypto.trades").tags("side", "buy", "outcome", "executed").timer().count())
+                .isEqualTo(1);
+        assertThat(registry.get("crypto.trades").tags("side", "sell", "outcome", "rejected").timer().count())
+                .isEqualTo(1);
+        assertThat(registry.get("crypto.trades.rejected").tags("side", "sell", "reason", "insufficient_holdings")
+                .counter().count()).isEqualTo(2);
+        assertThat(registry.get("crypto.trades.rejected").tags("side", "buy", "reason", "unknown_symbol")
+                .counter().count()).isEqualTo(1);
+        assertThat(registry.get("crypto.trades.rejected").tags("side", "unknown", "reason", "invalid_request")
+                .counter().count()).isEqualTo(1);
+        assertThat(registry.get("crypto.trades.batch").tags("mode", "best_effort").timer().count()).isEqualTo(1);
+    }
+}
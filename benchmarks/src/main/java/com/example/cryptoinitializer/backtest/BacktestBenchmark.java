@@ -0,0 +1,83 @@
+package com.example.cryptoinitializer.backtest;
+
+import com.example.cryptoinitializer.BenchmarkRunner;
+import com.example.cryptoinitializer.model.CostBasisMethod;
+import com.example.cryptoinitializer.model.FixedPoint;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.RunnerException;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Backtester} throughput: the three {@link StandardScenarios} over a random walk
+ * of the 20 bundled pairs. The {@code simulatedTicks} secondary result is what to track,
+ * in ticks processed by an account per second; the primary one counts whole backtests.
+ * {@code cores} is the parallelism of the fork/join pool, {@code all} for every core.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class BacktestBenchmark {
+    @Param({"1", "all"})
+    public String cores;
+
+    @Param({"300"})
+    public int accountsPerScenario;
+
+    @Param({"20000"})
+    public int ticks;
+
+    private TickHistory history;
+    private List<Scenario> scenarios;
+    private ForkJoinPool pool;
+    private Backtester backtester;
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Simulated {
+        public long simulatedTicks;
+    }
+
+    @Setup
+    public void setUp() {
+        history = StandardScenarios.synthetic(ticks, 42);
+        scenarios = StandardScenarios.of(history, accountsPerScenario, FixedPoint.fromLong(10_000));
+        pool = new ForkJoinPool("all".equals(cores) ? Runtime.getRuntime().availableProcessors()
+                : Integer.parseInt(cores));
+        backtester = new Backtester(CostBasisMethod.AVERAGE, pool, Backtester.DEFAULT_BATCH_SIZE,
+                Backtester.DEFAULT_CURVE_POINTS);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public BacktestResult run(Simulated simulated) {
+        BacktestResult result = backtester.run(history, scenarios);
+        simulated.simulatedTicks += result.simulatedTicks();
+        return result;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        BenchmarkRunner.run(BacktestBenchmark.class, args);
+    }
+}
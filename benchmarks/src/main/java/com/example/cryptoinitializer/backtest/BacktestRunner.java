@@ -0,0 +1,86 @@
+package com.example.cryptoinitializer.backtest;
+
+import com.example.cryptoinitializer.model.CostBasisMethod;
+import com.example.cryptoinitializer.model.FixedPoint;
+import com.example.cryptoinitializer.model.Instrument;
+import com.example.cryptoinitializer.service.SymbolUniverse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Backtests the {@link StandardScenarios} offline and prints, per scenario, returns,
+ * drawdowns and trade counts, followed by the throughput in simulated ticks per second.
+ * Arguments are {@code name=value}:
+ * <ul>
+ *   <li>{@code file}: a recording as {@code crypto.feed.kraken.record-file} writes it;
+ *       without one, a random walk of {@code ticks} ticks over the bundled pairs</li>
+ *   <li>{@code ticks}: length of the random walk, default 100000</li>
+ *   <li>{@code accounts}: accounts per scenario, default 1000</li>
+ *   <li>{@code balance}: starting cash per account, default 10000</li>
+ *   <li>{@code cost-basis}: {@code AVERAGE} (default), {@code FIFO} or {@code LIFO}</li>
+ *   <li>{@code parallelism}: cores to use, default all</li>
+ *   <li>{@code out}: also write the whole result, equity curves included, to this JSON file</li>
+ * </ul>
+ */
+public final class BacktestRunner {
+
+    private BacktestRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (equals < 0) {
+                throw new IllegalArgumentException("Expected name=value, got " + arg);
+            }
+            options.put(arg.substring(0, equals), arg.substring(equals + 1));
+        }
+        TickHistory history;
+        if (options.containsKey("file")) {
+            List<String> symbols = new SymbolUniverse().getInstruments().stream().map(Instrument::symbol).toList();
+            history = TickHistory.load(Path.of(options.get("file")), symbols);
+        } else {
+            history = StandardScenarios.synthetic(Integer.parseInt(options.getOrDefault("ticks", "100000")), 42);
+        }
+        int accounts = Integer.parseInt(options.getOrDefault("accounts", "1000"));
+        long balance = FixedPoint.parse(options.getOrDefault("balance", "10000"));
+        CostBasisMethod costBasis = CostBasisMethod.valueOf(options.getOrDefault("cost-basis", "AVERAGE"));
+        int parallelism = Integer.parseInt(options.getOrDefault("parallelism",
+                String.valueOf(Runtime.getRuntime().availableProcessors())));
+
+        System.out.printf("%d ticks of %d pairs, %d accounts per scenario, %d cores%n", history.size(),
+                history.symbols().size(), accounts, parallelism);
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        BacktestResult result;
+        try {
+            result = new Backtester(costBasis, pool, Backtester.DEFAULT_BATCH_SIZE, Backtester.DEFAULT_CURVE_POINTS)
+                    .run(history, StandardScenarios.of(history, accounts, balance));
+        } finally {
+            pool.shutdown();
+        }
+
+        System.out.printf("%n%-10s %10s %9s %9s %9s %9s %9s %9s%n",
+                "scenario", "equity", "return", "worst", "best", "avg dd", "max dd", "trades");
+        for (ScenarioResult scenario : result.scenarios()) {
+            System.out.printf("%-10s %10s %8.2f%% %8.2f%% %8.2f%% %8.2f%% %8.2f%% %9d%n", scenario.name(),
+                    FixedPoint.toString(scenario.averageFinalEquity()), scenario.averageReturn() * 100,
+                    scenario.worstReturn() * 100, scenario.bestReturn() * 100,
+                    scenario.averageMaxDrawdown() * 100, scenario.worstMaxDrawdown() * 100, scenario.trades());
+        }
+        System.out.printf("%n%d simulated ticks in %.2f s: %.0f ticks/s%n", result.simulatedTicks(),
+                result.elapsedNanos() / 1e9, result.ticksPerSecond());
+
+        if (options.containsKey("out")) {
+            new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT)
+                    .writeValue(Path.of(options.get("out")).toFile(), result);
+            System.out.println("Result written to " + options.get("out"));
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.cryptoinitializer.backtest;
+
+import com.example.cryptoinitializer.feed.SyntheticFrames;
+import com.example.cryptoinitializer.model.Instrument;
+import com.example.cryptoinitializer.service.SymbolUniverse;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The scenarios {@link BacktestRunner} and {@link BacktestBenchmark} run: dollar-cost
+ * averaging, threshold rebalancing and momentum, each over the first {@value #PAIRS}
+ * pairs of the history and with parameters that vary from account to account.
+ */
+final class StandardScenarios {
+    static final int PAIRS = 5;
+
+    private StandardScenarios() {
+    }
+
+    static List<Scenario> of(TickHistory history, int accountsPerScenario, long initialBalance) {
+        int pairs = Math.min(PAIRS, history.symbols().size());
+        double[] targets = new double[pairs];
+        // 90% invested, spread evenly
+        Arrays.fill(targets, 0.9 / pairs);
+        return List.of(
+                new Scenario("dca", accountsPerScenario, initialBalance,
+                        i -> new DcaStrategy(i % pairs, initialBalance / 200, 20 + i % 80)),
+                new Scenario("rebalance", accountsPerScenario, initialBalance,
+                        i -> new RebalanceStrategy(targets, 0.005 + i % 10 * 0.002)),
+                new Scenario("momentum", accountsPerScenario, initialBalance,
+                        i -> new MomentumStrategy(i % pairs, 20 + i % 80, 0.002, 0.5)));
+    }
+
+    /** A random walk over the bundled pairs, {@code ticks} long. */
+    static TickHistory synthetic(int ticks, long seed) {
+        List<String> symbols = new SymbolUniverse().getInstruments().stream().map(Instrument::symbol).toList();
+        try {
+            return TickHistory.decode(SyntheticFrames.generate(symbols, ticks, seed), symbols);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
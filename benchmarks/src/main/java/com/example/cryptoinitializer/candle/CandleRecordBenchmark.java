@@ -0,0 +1,65 @@
+package com.example.cryptoinitializer.candle;
+
+import com.example.cryptoinitializer.BenchmarkRunner;
+import com.example.cryptoinitializer.model.FixedPoint;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.RunnerException;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of recording one tick, including the roll-ups it triggers, and of reading a page
+ * of candles. Ticks advance the clock by 50 ms, so a second closes every 20 ticks and
+ * every interval rolls over regularly. {@code gc.alloc.rate.norm} should show that
+ * recording allocates nothing.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CandleRecordBenchmark {
+    private final SplittableRandom random = new SplittableRandom(1);
+    private CandleBook book;
+    private long time;
+    private long price;
+
+    @Setup
+    public void setUp() {
+        book = new CandleBook();
+        time = 1_700_000_000_000L;
+        price = FixedPoint.fromLong(97_000);
+        // Fill every ring once, so reads see full buffers
+        for (int i = 0; i < 2_000_000; i++) {
+            record();
+        }
+    }
+
+    @Benchmark
+    public void record() {
+        time += 50;
+        price += random.nextLong(-FixedPoint.ONE, FixedPoint.ONE + 1);
+        book.record(time, price, -1);
+    }
+
+    @Benchmark
+    public List<Candle> query500Minutes() {
+        return book.query(CandleInterval.MINUTE_1, Long.MIN_VALUE, Long.MAX_VALUE, 500);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        BenchmarkRunner.run(CandleRecordBenchmark.class, args);
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.cryptoinitializer.controller;
+
+import com.example.cryptoinitializer.BenchmarkRunner;
+import com.example.cryptoinitializer.history.TransactionPage;
+import com.example.cryptoinitializer.history.TransactionQuery;
+import com.example.cryptoinitializer.model.CryptoCurrency;
+import com.example.cryptoinitializer.model.FixedPoint;
+import com.example.cryptoinitializer.model.UserAccount;
+import com.example.cryptoinitializer.service.CryptoDataService;
+import com.example.cryptoinitializer.service.UserService;
+import com.example.cryptoinitializer.service.UserServiceConcurrencyTest;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.RunnerException;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writing the bodies of the busiest GETs with an {@link ObjectMapper} configured the way
+ * Spring Boot configures the application's: the top 20 prices (once per tick, see
+ * {@code MarketSnapshotService}), an account with {@code positions} open positions, and a
+ * full page of {@value TransactionQuery#DEFAULT_LIMIT} transactions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonSerializationBenchmark {
+    @Param({"1", "20"})
+    public int positions;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private List<CryptoCurrency> top20;
+    private UserAccount account;
+    private TransactionPage transactions;
+
+    @Setup
+    public void setUp() {
+        top20 = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            String symbol = "SYM" + i + "/USD";
+            top20.add(new CryptoCurrency(symbol, "Coin " + i, FixedPoint.parse("1234.56789") + i,
+                    System.currentTimeMillis(), false));
+        }
+        CryptoDataService market = new CryptoDataService() {
+            @Override
+            public CryptoCurrency getCryptoCurrency(String symbol) {
+                return top20.get(Integer.parseInt(symbol.substring(3, symbol.indexOf('/'))));
+            }
+        };
+        UserService userService = UserServiceConcurrencyTest.newUserService(new BigDecimal("100"));
+        ReflectionTestUtils.setField(userService, "cryptoDataService", market);
+        for (int i = 0; i < TransactionQuery.DEFAULT_LIMIT; i++) {
+            userService.buyCrypto("bench", top20.get(i % positions).getSymbol(), new BigDecimal("0.001"));
+        }
+        account = userService.getUserAccount("bench");
+        transactions = userService.queryTransactions("bench",
+                new TransactionQuery(null, null, null, null, null, TransactionQuery.DEFAULT_LIMIT));
+    }
+
+    @Benchmark
+    public byte[] top20() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(top20);
+    }
+
+    @Benchmark
+    public byte[] account() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(account);
+    }
+
+    @Benchmark
+    public byte[] transactions() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(transactions);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        BenchmarkRunner.run(JsonSerializationBenchmark.class, args);
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.cryptoinitializer.feed;
+
+import com.example.cryptoinitializer.BenchmarkRunner;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.RunnerException;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time the receive thread spends per recorded frame: decoding and applying it inline, as
+ * before the pipeline, versus only offering it to the pipeline. The apply callback stores
+ * the ask in a map, standing in for the price map update. The pipeline's counters are
+ * printed at teardown to show how much was conflated or dropped.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TickPipelineBenchmark {
+    private static final Set<String> SYMBOLS = Set.of(
+            "BTC/USD", "ETH/USD", "SOL/USD", "XRP/USD", "ADA/USD", "DOT/USD", "DOGE/USD",
+            "SHIB/USD", "MATIC/USD", "LINK/USD", "AVAX/USD", "UNI/USD", "LTC/USD", "ALGO/USD",
+            "ATOM/USD", "XTZ/USD", "EOS/USD", "BCH/USD", "XLM/USD", "TRX/USD");
+
+    private final ConcurrentHashMap<String, Long> prices = new ConcurrentHashMap<>();
+    private TickPipeline inline;
+    private TickPipeline queued;
+    private String[] frames;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Outside Spring Boot logback logs at DEBUG, which would dominate the measurement
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(TickPipeline.class))
+                .setLevel(ch.qos.logback.classic.Level.WARN);
+        List<String> recorded = RecordedFrames.load();
+        frames = recorded.toArray(new String[0]);
+        inline = new TickPipeline(2, new KrakenTickerDecoder(new ObjectMapper(), SYMBOLS),
+                ticker -> prices.put(ticker.getSymbol(), ticker.getAsk()));
+        queued = new TickPipeline(4096, new KrakenTickerDecoder(new ObjectMapper(), SYMBOLS),
+                ticker -> prices.put(ticker.getSymbol(), ticker.getAsk()));
+        queued.start();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.out.println();
+        System.out.println(queued.stats());
+        queued.stop();
+    }
+
+    private String nextFrame() {
+        String frame = frames[next];
+        next = next + 1 == frames.length ? 0 : next + 1;
+        return frame;
+    }
+
+    @Benchmark
+    public void decodeOnReceiveThread() {
+        inline.process(nextFrame());
+    }
+
+    @Benchmark
+    public boolean offerToPipeline() {
+        return queued.offer(nextFrame());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        BenchmarkRunner.run(TickPipelineBenchmark.class, args);
+    }
+}
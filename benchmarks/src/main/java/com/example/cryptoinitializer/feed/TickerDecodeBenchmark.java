@@ -0,0 +1,100 @@
+package com.example.cryptoinitializer.feed;
+
+import com.example.cryptoinitializer.BenchmarkRunner;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.RunnerException;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the old {@code readTree} ticker path with {@link KrakenTickerDecoder} on
+ * recorded frames. {@code gc.alloc.rate.norm} shows the bytes allocated per frame.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TickerDecodeBenchmark {
+    private static final Set<String> SYMBOLS = Set.of(
+            "BTC/USD", "ETH/USD", "SOL/USD", "XRP/USD", "ADA/USD", "DOT/USD", "DOGE/USD",
+            "SHIB/USD", "MATIC/USD", "LINK/USD", "AVAX/USD", "UNI/USD", "LTC/USD", "ALGO/USD",
+            "ATOM/USD", "XTZ/USD", "EOS/USD", "BCH/USD", "XLM/USD", "TRX/USD");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, BigDecimal> treePrices = new HashMap<>();
+    private KrakenTickerDecoder decoder;
+    private String[] frames;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        List<String> recorded = RecordedFrames.load();
+        frames = recorded.toArray(new String[0]);
+        decoder = new KrakenTickerDecoder(objectMapper, SYMBOLS);
+    }
+
+    private String nextFrame() {
+        String frame = frames[next];
+        next = next + 1 == frames.length ? 0 : next + 1;
+        return frame;
+    }
+
+    /** The pre-decoder implementation of {@code processMessage}, minus logging. */
+    @Benchmark
+    public void readTree(Blackhole blackhole) throws IOException {
+        JsonNode jsonNode = objectMapper.readTree(nextFrame());
+        if (jsonNode.has("type") &&
+                ("ticker".equals(jsonNode.get("type").asText()) || "update".equals(jsonNode.get("type").asText()))) {
+            if (jsonNode.has("channel") && "ticker".equals(jsonNode.get("channel").asText())) {
+                for (JsonNode tickerData : jsonNode.get("data")) {
+                    String symbol = tickerData.get("symbol").asText();
+                    if (SYMBOLS.contains(symbol)) {
+                        JsonNode askNode = tickerData.get("ask");
+                        BigDecimal price = askNode.isArray()
+                                ? new BigDecimal(askNode.get(0).asText())
+                                : new BigDecimal(askNode.asText());
+                        treePrices.put(symbol, price);
+                    }
+                }
+            }
+        } else if (jsonNode.has("result") && jsonNode.has("method")) {
+            blackhole.consume(jsonNode.get("method").asText());
+        }
+    }
+
+    @Benchmark
+    public void streaming(Blackhole blackhole) throws IOException {
+        KrakenTickerDecoder.FrameKind kind = decoder.decode(nextFrame());
+        if (kind == KrakenTickerDecoder.FrameKind.TICKER) {
+            for (int i = 0; i < decoder.getUpdatedCount(); i++) {
+                blackhole.consume(decoder.getUpdated(i).getAsk());
+            }
+        } else {
+            blackhole.consume(kind);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        BenchmarkRunner.run(TickerDecodeBenchmark.class, args);
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.cryptoinitializer.history;
+
+import com.example.cryptoinitializer.BenchmarkRunner;
+import com.example.cryptoinitializer.journal.JournalRecord;
+import com.example.cryptoinitializer.model.FixedPoint;
+import com.example.cryptoinitializer.model.Transaction;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.RunnerException;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Retained heap per stored trade: a list of {@link Transaction} objects, as the history
+ * used to be kept, against the columnar {@link TransactionHistory}. Reported as the
+ * {@code bytesPerTrade} secondary result; the timing is incidental. JMH sums event
+ * counters over iterations, hence a single measured one.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g", "-XX:+UseParallelGC"})
+@State(Scope.Benchmark)
+public class HistoryFootprintBenchmark {
+    private static final String[] SYMBOLS = {"BTC/USD", "ETH/USD", "SOL/USD", "XRP/USD", "ADA/USD"};
+    private static final LocalDateTime START = LocalDateTime.of(2025, 3, 1, 12, 0);
+
+    @Param({"objects", "columns"})
+    public String layout;
+
+    @Param({"200000"})
+    public int trades;
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Footprint {
+        public double bytesPerTrade;
+    }
+
+    @Benchmark
+    public Object store(Footprint footprint) {
+        long before = usedHeap();
+        Object store = "objects".equals(layout) ? objects() : columns();
+        long after = usedHeap();
+        footprint.bytesPerTrade = (after - before) / (double) trades;
+        return store;
+    }
+
+    private List<Transaction> objects() {
+        List<Transaction> list = new ArrayList<>();
+        for (int i = 0; i < trades; i++) {
+            list.add(trade(i).toTransaction());
+        }
+        return list;
+    }
+
+    private TransactionHistory columns() {
+        TransactionHistory history = new TransactionHistory("bench");
+        for (int i = 0; i < trades; i++) {
+            history.add(trade(i));
+        }
+        return history;
+    }
+
+    private static JournalRecord trade(int i) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long quantity = random.nextLong(1, FixedPoint.fromLong(10));
+        long price = random.nextLong(1, FixedPoint.fromLong(100_000));
+        return new JournalRecord(0, i % 2 == 0 ? JournalRecord.Type.BUY : JournalRecord.Type.SELL,
+                UUID.randomUUID().toString(), "bench", SYMBOLS[i % SYMBOLS.length], quantity, price,
+                random.nextLong(1, FixedPoint.fromLong(1_000_000)), random.nextLong(-FixedPoint.fromLong(1000),
+                FixedPoint.fromLong(1000)), START.plusNanos(i * 1_000_003L));
+    }
+
+    private static long usedHeap() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        BenchmarkRunner.run(HistoryFootprintBenchmark.class, args);
+    }
+}
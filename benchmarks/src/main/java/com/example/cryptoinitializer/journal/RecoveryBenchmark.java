@@ -0,0 +1,102 @@
+package com.example.cryptoinitializer.journal;
+
+import com.example.cryptoinitializer.BenchmarkRunner;
+import com.example.cryptoinitializer.service.UserService;
+import com.example.cryptoinitializer.service.UserServiceConcurrencyTest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.RunnerException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Startup recovery time for a history of {@code trades} buy/sell fills over 1000
+ * accounts, either all replayed from the journal or loaded from a snapshot taken at the
+ * end.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class RecoveryBenchmark {
+    private static final int ACCOUNTS = 1000;
+    private static final BigDecimal QUANTITY = new BigDecimal("0.001");
+
+    @Param({"100000", "1000000"})
+    public int trades;
+
+    @Param({"journal", "snapshot"})
+    public String source;
+
+    private Path directory;
+    private TradeJournal journal;
+
+    @Setup(Level.Trial)
+    public void record() throws IOException {
+        directory = Files.createTempDirectory("recovery-bench");
+        TradeJournal writer = openJournal();
+        ReflectionTestUtils.setField(writer, "sync", false);
+        UserService users = UserServiceConcurrencyTest.newUserService(new BigDecimal("100"), writer);
+        for (int i = 0; i < trades / 2; i++) {
+            String userId = "user-" + (i % ACCOUNTS);
+            users.buyCrypto(userId, "BTC/USD", QUANTITY);
+            users.sellCrypto(userId, "BTC/USD", QUANTITY);
+        }
+        if ("snapshot".equals(source)) {
+            TradeJournalTest.newJournalService(writer, users).snapshot();
+        }
+        writer.close();
+    }
+
+    @Setup(Level.Invocation)
+    public void open() throws IOException {
+        journal = openJournal();
+    }
+
+    @TearDown(Level.Invocation)
+    public void close() throws IOException {
+        journal.close();
+    }
+
+    @TearDown(Level.Trial)
+    public void delete() throws IOException {
+        FileSystemUtils.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public UserService recover() throws IOException {
+        UserService users = UserServiceConcurrencyTest.newUserService(new BigDecimal("100"), journal);
+        TradeJournalTest.newJournalService(journal, users).recover();
+        return users;
+    }
+
+    private TradeJournal openJournal() throws IOException {
+        TradeJournal journal = new TradeJournal();
+        ReflectionTestUtils.setField(journal, "directory", directory.toString());
+        journal.open();
+        return journal;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        BenchmarkRunner.run(RecoveryBenchmark.class, args);
+    }
+}
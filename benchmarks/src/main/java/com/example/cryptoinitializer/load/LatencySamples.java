@@ -0,0 +1,47 @@
+package com.example.cryptoinitializer.load;
+
+import java.util.Arrays;
+
+/** Latencies in nanoseconds recorded by one client thread, merged once the run is over. */
+final class LatencySamples {
+    private long[] samples = new long[1024];
+    private int size;
+    private long errors;
+
+    void record(long nanos, boolean error) {
+        if (size == samples.length) {
+            samples = Arrays.copyOf(samples, size * 2);
+        }
+        samples[size++] = nanos;
+        if (error) {
+            errors++;
+        }
+    }
+
+    void addAll(LatencySamples other) {
+        if (size + other.size > samples.length) {
+            samples = Arrays.copyOf(samples, Math.max(samples.length * 2, size + other.size));
+        }
+        System.arraycopy(other.samples, 0, samples, size, other.size);
+        size += other.size;
+        errors += other.errors;
+    }
+
+    int count() {
+        return size;
+    }
+
+    long errors() {
+        return errors;
+    }
+
+    /** The {@code quantile} (0 to 1) in nanoseconds; sorts the samples, so call after recording. */
+    long quantile(double quantile) {
+        if (size == 0) {
+            return 0;
+        }
+        Arrays.sort(samples, 0, size);
+        int rank = (int) Math.ceil(quantile * size);
+        return samples[Math.max(rank, 1) - 1];
+    }
+}
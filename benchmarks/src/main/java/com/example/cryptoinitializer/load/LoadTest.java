@@ -0,0 +1,224 @@
+package com.example.cryptoinitializer.load;
+
+import com.example.cryptoinitializer.CryptoinitializerApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drives a mix of top 20, account and trade requests from {@code clients} concurrent
+ * clients, each sending its next request as soon as the last one is answered, and reports
+ * throughput and p50/p99 latency per request type. By default it starts the application
+ * itself under the {@code loadtest} profile, once with Tomcat's platform thread pool and
+ * once with virtual threads, and also reports where virtual threads pinned their carrier.
+ * Arguments are {@code name=value}:
+ * <ul>
+ *   <li>{@code modes}: {@code platform}, {@code virtual} or both (default), comma separated</li>
+ *   <li>{@code clients}: concurrent clients, default 400, i.e. twice Tomcat's default pool</li>
+ *   <li>{@code warmup}, {@code duration}: seconds before and of measuring, default 10 and 30</li>
+ *   <li>{@code mix}: relative weights, default {@code top20:6,account:3,trade:1}</li>
+ *   <li>{@code url}: measure an application already running there instead</li>
+ * </ul>
+ * Every client trades on its own account, buying and then selling a small amount of BTC.
+ */
+public final class LoadTest {
+    private static final String SYMBOL = "BTC/USD";
+    private static final String QUANTITY = "0.0001";
+
+    enum Operation {
+        TOP20, ACCOUNT, TRADE
+    }
+
+    record Options(List<String> modes, int clients, int warmupSeconds, int durationSeconds,
+                   Map<Operation, Integer> mix, String url) {
+
+        static Options parse(String[] args) {
+            Map<String, String> values = new HashMap<>();
+            for (String arg : args) {
+                int equals = arg.indexOf('=');
+                if (equals < 0) {
+                    throw new IllegalArgumentException("Expected name=value, got " + arg);
+                }
+                values.put(arg.substring(0, equals), arg.substring(equals + 1));
+            }
+            Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+            for (String weight : values.getOrDefault("mix", "top20:6,account:3,trade:1").split(",")) {
+                String[] parts = weight.split(":");
+                mix.put(Operation.valueOf(parts[0].trim().toUpperCase()), Integer.parseInt(parts[1].trim()));
+            }
+            String url = values.get("url");
+            List<String> modes = url != null ? List.of("external")
+                    : List.of(values.getOrDefault("modes", "platform,virtual").split(","));
+            for (String mode : modes) {
+                if (!mode.equals("platform") && !mode.equals("virtual") && !mode.equals("external")) {
+                    throw new IllegalArgumentException("Unknown mode " + mode);
+                }
+            }
+            return new Options(modes, Integer.parseInt(values.getOrDefault("clients", "400")),
+                    Integer.parseInt(values.getOrDefault("warmup", "10")),
+                    Integer.parseInt(values.getOrDefault("duration", "30")), mix, url);
+        }
+
+        Operation pick(ThreadLocalRandom random) {
+            int total = mix.values().stream().mapToInt(Integer::intValue).sum();
+            int roll = random.nextInt(total);
+            for (Map.Entry<Operation, Integer> weight : mix.entrySet()) {
+                roll -= weight.getValue();
+                if (roll < 0) {
+                    return weight.getKey();
+                }
+            }
+            throw new IllegalStateException();
+        }
+    }
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = Options.parse(args);
+        System.out.printf("%d clients, %d s warmup, %d s measured, mix %s%n", options.clients(),
+                options.warmupSeconds(), options.durationSeconds(), options.mix());
+        for (String mode : options.modes()) {
+            if (options.url() != null) {
+                report(mode, run(options, options.url()), Map.of(), options.durationSeconds());
+                continue;
+            }
+            Path journal = Files.createTempDirectory("crypto-sim-loadtest");
+            // As arguments, since application.properties overrides the builder's default properties
+            ConfigurableApplicationContext context = new SpringApplicationBuilder(CryptoinitializerApplication.class)
+                    .profiles("loadtest")
+                    .run("--server.port=0",
+                            "--crypto.journal.dir=" + journal,
+                            "--spring.threads.virtual.enabled=" + mode.equals("virtual"));
+            try (PinningMonitor pinning = new PinningMonitor()) {
+                int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+                Map<Operation, LatencySamples> results = run(options, "http://localhost:" + port);
+                report(mode, results, pinning.stop(), options.durationSeconds());
+            } finally {
+                context.close();
+                FileSystemUtils.deleteRecursively(journal);
+            }
+        }
+    }
+
+    private static Map<Operation, LatencySamples> run(Options options, String baseUrl) throws Exception {
+        HttpClient http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        long measureFrom = System.nanoTime() + TimeUnit.SECONDS.toNanos(options.warmupSeconds());
+        long measureUntil = measureFrom + TimeUnit.SECONDS.toNanos(options.durationSeconds());
+        List<Future<Map<Operation, LatencySamples>>> clients = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < options.clients(); i++) {
+                Client client = new Client(http, baseUrl, "load-" + i);
+                clients.add(executor.submit(() -> client.run(options, measureFrom, measureUntil)));
+            }
+        }
+        Map<Operation, LatencySamples> merged = new EnumMap<>(Operation.class);
+        for (Operation operation : options.mix().keySet()) {
+            merged.put(operation, new LatencySamples());
+        }
+        for (Future<Map<Operation, LatencySamples>> client : clients) {
+            client.get().forEach((operation, samples) -> merged.get(operation).addAll(samples));
+        }
+        return merged;
+    }
+
+    /** One closed-loop client with its own account. */
+    private static final class Client {
+        private final HttpClient http;
+        private final String baseUrl;
+        private final String userId;
+        private boolean holding;
+
+        Client(HttpClient http, String baseUrl, String userId) {
+            this.http = http;
+            this.baseUrl = baseUrl;
+            this.userId = userId;
+        }
+
+        Map<Operation, LatencySamples> run(Options options, long measureFrom, long measureUntil)
+                throws InterruptedException {
+            Map<Operation, LatencySamples> samples = new EnumMap<>(Operation.class);
+            for (Operation operation : options.mix().keySet()) {
+                samples.put(operation, new LatencySamples());
+            }
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            long start;
+            while ((start = System.nanoTime()) < measureUntil) {
+                Operation operation = options.pick(random);
+                boolean error;
+                try {
+                    error = send(operation) >= 400;
+                } catch (IOException e) {
+                    error = true;
+                }
+                if (start >= measureFrom) {
+                    samples.get(operation).record(System.nanoTime() - start, error);
+                }
+            }
+            return samples;
+        }
+
+        private int send(Operation operation) throws IOException, InterruptedException {
+            HttpRequest request = switch (operation) {
+                case TOP20 -> HttpRequest.newBuilder(URI.create(baseUrl + "/api/crypto/top20")).GET().build();
+                case ACCOUNT -> HttpRequest.newBuilder(URI.create(baseUrl + "/api/user/" + userId + "/account"))
+                        .GET().build();
+                case TRADE -> HttpRequest.newBuilder(URI.create(baseUrl + "/api/user/" + userId
+                                + (holding ? "/sell" : "/buy")))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(
+                                "{\"symbol\":\"" + SYMBOL + "\",\"quantity\":\"" + QUANTITY + "\"}"))
+                        .build();
+            };
+            int status = http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            if (operation == Operation.TRADE && status < 400) {
+                holding = !holding;
+            }
+            return status;
+        }
+    }
+
+    private static void report(String mode, Map<Operation, LatencySamples> results, Map<String, Long> pinning,
+                               int seconds) {
+        LatencySamples all = new LatencySamples();
+        results.values().forEach(all::addAll);
+        System.out.printf("%n%-9s %-8s %10s %8s %10s %9s %9s %9s%n",
+                "mode", "request", "count", "errors", "req/s", "p50 ms", "p99 ms", "max ms");
+        results.forEach((operation, samples) -> row(mode, operation.name().toLowerCase(), samples, seconds));
+        row(mode, "all", all, seconds);
+        if (mode.equals("virtual")) {
+            System.out.printf("%nVirtual threads pinned (events by site):%s%n", pinning.isEmpty() ? " none" : "");
+            pinning.forEach((site, count) -> System.out.printf("  %8d  %s%n", count, site));
+        }
+    }
+
+    private static void row(String mode, String name, LatencySamples samples, int seconds) {
+        System.out.printf("%-9s %-8s %10d %8d %10.1f %9.2f %9.2f %9.2f%n", mode, name, samples.count(),
+                samples.errors(), (double) samples.count() / seconds, samples.quantile(0.5) / 1e6,
+                samples.quantile(0.99) / 1e6, samples.quantile(1) / 1e6);
+    }
+}
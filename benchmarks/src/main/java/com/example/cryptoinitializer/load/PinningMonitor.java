@@ -0,0 +1,80 @@
+package com.example.cryptoinitializer.load;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordedThread;
+import jdk.jfr.consumer.RecordingStream;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts, through JFR, the places where virtual threads pinned their carrier: parking while
+ * pinned ({@code jdk.VirtualThreadPinned}, e.g. blocking I/O or a lock inside
+ * {@code synchronized}) and waiting to enter a contended monitor
+ * ({@code jdk.JavaMonitorEnter}), which pins until the monitor is acquired. Each is keyed by
+ * the innermost application frame. Events on the load test's own client threads are left out.
+ */
+final class PinningMonitor implements AutoCloseable {
+    private static final String APPLICATION_PACKAGE = "com.example.cryptoinitializer.";
+    private static final String CLIENT_PACKAGE = PinningMonitor.class.getPackageName() + ".";
+
+    private final RecordingStream stream = new RecordingStream();
+    private final Map<String, LongAdder> sites = new ConcurrentHashMap<>();
+
+    PinningMonitor() {
+        stream.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO).withStackTrace();
+        stream.enable("jdk.JavaMonitorEnter").withThreshold(Duration.ZERO).withStackTrace();
+        stream.onEvent("jdk.VirtualThreadPinned", event -> count("pinned", event));
+        stream.onEvent("jdk.JavaMonitorEnter", event -> {
+            RecordedThread thread = event.getThread();
+            if (thread != null && thread.isVirtual()) {
+                count("monitor", event);
+            }
+        });
+        stream.startAsync();
+    }
+
+    private void count(String kind, RecordedEvent event) {
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        List<RecordedFrame> frames = stackTrace == null ? List.of() : stackTrace.getFrames();
+        RecordedFrame site = frames.isEmpty() ? null : frames.get(0);
+        boolean found = false;
+        for (RecordedFrame frame : frames) {
+            String type = frame.getMethod().getType().getName();
+            if (type.startsWith(CLIENT_PACKAGE)) {
+                return;
+            }
+            if (!found && type.startsWith(APPLICATION_PACKAGE)) {
+                site = frame;
+                found = true;
+            }
+        }
+        sites.computeIfAbsent(kind + " " + describe(site), k -> new LongAdder()).increment();
+    }
+
+    private static String describe(RecordedFrame site) {
+        if (site == null) {
+            return "(no stack trace)";
+        }
+        return site.getMethod().getType().getName() + "." + site.getMethod().getName() + ":" + site.getLineNumber();
+    }
+
+    /** Stops recording and returns the count per site, once every event is in. */
+    Map<String, Long> stop() {
+        stream.stop();
+        Map<String, Long> counts = new TreeMap<>();
+        sites.forEach((site, count) -> counts.put(site, count.sum()));
+        return counts;
+    }
+
+    @Override
+    public void close() {
+        stream.close();
+    }
+}
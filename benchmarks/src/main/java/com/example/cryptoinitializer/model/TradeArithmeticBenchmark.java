@@ -0,0 +1,123 @@
+package com.example.cryptoinitializer.model;
+
+import com.example.cryptoinitializer.BenchmarkRunner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.RunnerException;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The arithmetic of one buy followed by one sell with average-cost P&L, done once with
+ * {@link BigDecimal} the way the trade path used to and once with {@link FixedPoint} the
+ * way it does now. The gc profiler's {@code gc.alloc.rate.norm} compares allocation as well.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TradeArithmeticBenchmark {
+    private static final String[] PRICES = {"97000.12", "2700.55", "0.00001612", "0.25511", "18.4312"};
+    private static final String[] QUANTITIES = {"0.015", "1.25", "250000", "1000", "3.5"};
+
+    private BigDecimal[] bigPrices;
+    private BigDecimal[] bigQuantities;
+    private long[] fixedPrices;
+    private long[] fixedQuantities;
+    private int next;
+
+    // Per-representation account: balance, position quantity and position cost
+    private BigDecimal bigBalance;
+    private BigDecimal bigHeld;
+    private BigDecimal bigCost;
+    private long fixedBalance;
+    private long fixedHeld;
+    private long fixedCost;
+
+    @Setup
+    public void setUp() {
+        bigPrices = new BigDecimal[PRICES.length];
+        bigQuantities = new BigDecimal[PRICES.length];
+        fixedPrices = new long[PRICES.length];
+        fixedQuantities = new long[PRICES.length];
+        for (int i = 0; i < PRICES.length; i++) {
+            bigPrices[i] = new BigDecimal(PRICES[i]);
+            bigQuantities[i] = new BigDecimal(QUANTITIES[i]);
+            fixedPrices[i] = FixedPoint.parse(PRICES[i]);
+            fixedQuantities[i] = FixedPoint.parse(QUANTITIES[i]);
+        }
+        bigBalance = new BigDecimal("1000000000");
+        bigHeld = BigDecimal.ONE;
+        bigCost = BigDecimal.ONE;
+        fixedBalance = FixedPoint.fromLong(1_000_000_000);
+        fixedHeld = FixedPoint.ONE;
+        fixedCost = FixedPoint.ONE;
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimalBuySell() {
+        int i = next++ % PRICES.length;
+        BigDecimal price = bigPrices[i];
+        BigDecimal quantity = bigQuantities[i];
+
+        // Buy
+        BigDecimal total = price.multiply(quantity);
+        if (total.compareTo(bigBalance) > 0) {
+            throw new IllegalStateException();
+        }
+        bigBalance = bigBalance.subtract(total);
+        bigHeld = bigHeld.add(quantity);
+        bigCost = bigCost.add(total);
+
+        // Sell
+        BigDecimal proceeds = price.multiply(quantity);
+        BigDecimal average = bigCost.divide(bigHeld, 8, RoundingMode.HALF_UP);
+        BigDecimal soldCost = average.multiply(quantity);
+        BigDecimal profitLoss = proceeds.subtract(soldCost);
+        bigBalance = bigBalance.add(proceeds);
+        bigHeld = bigHeld.subtract(quantity);
+        bigCost = bigCost.subtract(soldCost);
+        return profitLoss;
+    }
+
+    @Benchmark
+    public long fixedPointBuySell() {
+        int i = next++ % PRICES.length;
+        long price = fixedPrices[i];
+        long quantity = fixedQuantities[i];
+
+        // Buy
+        long total = FixedPoint.multiply(price, quantity, RoundingMode.UP);
+        if (total > fixedBalance) {
+            throw new IllegalStateException();
+        }
+        fixedBalance = FixedPoint.subtract(fixedBalance, total);
+        fixedHeld = FixedPoint.add(fixedHeld, quantity);
+        fixedCost = FixedPoint.add(fixedCost, total);
+
+        // Sell
+        long proceeds = FixedPoint.multiply(price, quantity, RoundingMode.DOWN);
+        long soldCost = FixedPoint.multiplyDivide(fixedCost, quantity, fixedHeld, RoundingMode.HALF_UP);
+        long profitLoss = FixedPoint.subtract(proceeds, soldCost);
+        fixedBalance = FixedPoint.add(fixedBalance, proceeds);
+        fixedHeld = FixedPoint.subtract(fixedHeld, quantity);
+        fixedCost = FixedPoint.subtract(fixedCost, soldCost);
+        return profitLoss;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        BenchmarkRunner.run(TradeArithmeticBenchmark.class, args);
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.cryptoinitializer.order;
+
+import com.example.cryptoinitializer.BenchmarkRunner;
+import com.example.cryptoinitializer.model.FixedPoint;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.RunnerException;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Matching cost per tick with {@code ordersPerBook} resting orders in each of 20 books,
+ * spread over +/-10% around the price in cent steps. Each tick moves one symbol's price by
+ * a random walk step of up to {@code stepBasisPoints}; every order it crosses is replaced
+ * by a new one, so the books stay the same size.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Thread)
+public class OrderMatchingBenchmark {
+    private static final int SYMBOLS = 20;
+    private static final long BASE_PRICE = FixedPoint.fromLong(100);
+    private static final OrderSide[] SIDES = OrderSide.values();
+    private static final OrderType[] TYPES = OrderType.values();
+
+    @Param({"1000", "15000"})
+    public int ordersPerBook;
+
+    @Param({"1", "10"})
+    public int stepBasisPoints;
+
+    private final SplittableRandom random = new SplittableRandom(42);
+    private OrderBook[] books;
+    private long[] prices;
+    private long nextId;
+    private int symbol;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        books = new OrderBook[SYMBOLS];
+        prices = new long[SYMBOLS];
+        for (int i = 0; i < SYMBOLS; i++) {
+            books[i] = new OrderBook();
+            prices[i] = BASE_PRICE;
+            for (int j = 0; j < ordersPerBook; j++) {
+                books[i].add(newOrder(i));
+            }
+            // Settle anything placed on the wrong side of the starting price
+            refill(i, books[i].match(prices[i]));
+        }
+    }
+
+    @Benchmark
+    public int tick() {
+        int i = symbol;
+        symbol = (symbol + 1) % SYMBOLS;
+        long step = BASE_PRICE / 10_000 * random.nextInt(-stepBasisPoints, stepBasisPoints + 1);
+        prices[i] = Math.max(BASE_PRICE / 2, Math.min(BASE_PRICE * 2, prices[i] + step));
+        List<Order> fills = books[i].match(prices[i]);
+        refill(i, fills);
+        return fills.size();
+    }
+
+    private void refill(int book, List<Order> fills) {
+        for (int k = 0; k < fills.size(); k++) {
+            books[book].add(newOrder(book));
+        }
+    }
+
+    private Order newOrder(int book) {
+        // Cent-spaced levels within 10% of the current price
+        long offset = FixedPoint.fromLong(1) / 100 * random.nextInt(1, 1001);
+        OrderSide side = SIDES[random.nextInt(SIDES.length)];
+        OrderType type = TYPES[random.nextInt(TYPES.length)];
+        boolean below = (side == OrderSide.BUY) == (type == OrderType.LIMIT);
+        long trigger = below ? prices[book] - offset : prices[book] + offset;
+        long limit = type == OrderType.STOP ? 0 : trigger;
+        long stop = type == OrderType.LIMIT ? 0 : trigger;
+        return new Order(++nextId, "bench", "SYM" + book, side, type, FixedPoint.ONE, limit, stop);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        BenchmarkRunner.run(OrderMatchingBenchmark.class, args);
+    }
+}
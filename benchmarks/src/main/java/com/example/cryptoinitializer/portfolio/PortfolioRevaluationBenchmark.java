@@ -0,0 +1,104 @@
+package com.example.cryptoinitializer.portfolio;
+
+import com.example.cryptoinitializer.BenchmarkRunner;
+import com.example.cryptoinitializer.model.AccountState;
+import com.example.cryptoinitializer.model.CryptoCurrency;
+import com.example.cryptoinitializer.model.FixedPoint;
+import com.example.cryptoinitializer.model.LotQueue;
+import com.example.cryptoinitializer.model.Position;
+import com.example.cryptoinitializer.service.CryptoDataService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.RunnerException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a tick and of re-ranking the leaderboard with {@code users} accounts spread
+ * over {@value #SYMBOLS} symbols, one position each. {@code tick} revalues the holders of
+ * one symbol through the index; {@code tickScanningAll} does what the index avoids,
+ * visiting every account to find them.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PortfolioRevaluationBenchmark {
+    private static final int SYMBOLS = 20;
+
+    @Param({"10000", "100000"})
+    public int users;
+
+    private PortfolioService portfolioService;
+    private Map<String, UserValuation> valuations;
+    private CryptoCurrency[] up;
+    private CryptoCurrency[] down;
+    private int next;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        portfolioService = new PortfolioService();
+        ReflectionTestUtils.setField(portfolioService, "cryptoDataService", new CryptoDataService());
+        ReflectionTestUtils.setField(portfolioService, "leaderboardRefreshMs", 0L);
+        for (int i = 0; i < users; i++) {
+            String symbol = "SYM" + i % SYMBOLS + "/USD";
+            long quantity = FixedPoint.fromLong(1 + i % 7);
+            Position position = new Position(symbol, quantity, quantity * 100, 0, LotQueue.empty());
+            portfolioService.onAccountChange(new AccountState("user-" + i, FixedPoint.fromLong(i % 1000),
+                    Map.of(symbol, position)));
+        }
+        valuations = (Map<String, UserValuation>) ReflectionTestUtils.getField(portfolioService, "valuations");
+        up = new CryptoCurrency[SYMBOLS];
+        down = new CryptoCurrency[SYMBOLS];
+        for (int s = 0; s < SYMBOLS; s++) {
+            up[s] = new CryptoCurrency("SYM" + s + "/USD", "", FixedPoint.fromLong(101));
+            down[s] = new CryptoCurrency("SYM" + s + "/USD", "", FixedPoint.fromLong(99));
+        }
+    }
+
+    private CryptoCurrency nextTick() {
+        int n = next++;
+        return ((n / SYMBOLS) & 1) == 0 ? up[n % SYMBOLS] : down[n % SYMBOLS];
+    }
+
+    @Benchmark
+    public void tick() {
+        portfolioService.onPriceUpdate(nextTick());
+    }
+
+    @Benchmark
+    public void tickScanningAll() {
+        CryptoCurrency crypto = nextTick();
+        for (UserValuation valuation : valuations.values()) {
+            valuation.lock();
+            try {
+                valuation.mark(crypto.getSymbol(), crypto.getPriceValue());
+            } finally {
+                valuation.unlock();
+            }
+        }
+    }
+
+    @Benchmark
+    public Leaderboard rankLeaderboard() {
+        return portfolioService.getLeaderboard(PortfolioService.MAX_LEADERBOARD_SIZE);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        BenchmarkRunner.run(PortfolioRevaluationBenchmark.class, args);
+    }
+}
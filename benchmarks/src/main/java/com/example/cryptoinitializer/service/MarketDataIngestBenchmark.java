@@ -0,0 +1,107 @@
+package com.example.cryptoinitializer.service;
+
+import com.example.cryptoinitializer.BenchmarkRunner;
+import com.example.cryptoinitializer.feed.MarketDataSource;
+import com.example.cryptoinitializer.feed.SyntheticFrames;
+import com.example.cryptoinitializer.model.Instrument;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.RunnerException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * {@link CryptoDataService#processMessage} over Kraken frames: decoding, applying the
+ * ticks and publishing new prices, i.e. everything a frame costs between the socket and
+ * the listeners. With {@code listeners} set to {@code price} a no-op price listener is
+ * registered, to show the cost of fanning out.
+ *
+ * <p>{@code symbols} is the number of pairs followed: the 20 bundled ones, topped up with
+ * made-up pairs. The frames are a random walk over all of them, so a larger universe
+ * should cost no more per frame.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MarketDataIngestBenchmark {
+    @Param({"none", "price"})
+    public String listeners;
+
+    @Param({"20", "500"})
+    public int symbols;
+
+    private CryptoDataService cryptoDataService;
+    private String[] frames;
+    private int next;
+
+    /** Delivers nothing, frames are fed to the service directly. */
+    private static final class SilentSource implements MarketDataSource {
+        @Override
+        public void start(Collection<String> symbols, Consumer<String> sink) {
+        }
+
+        @Override
+        public void stop() {
+        }
+
+        @Override
+        public boolean isConnected() {
+            return true;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        SymbolUniverse universe = new SymbolUniverse();
+        ReflectionTestUtils.setField(universe, "maxSymbols", symbols);
+        for (int i = universe.size(); i < symbols; i++) {
+            universe.add(String.format("X%03d/USD", i), "Pair " + i);
+        }
+        List<String> pairs = universe.getInstruments().stream().map(Instrument::symbol).toList();
+        frames = SyntheticFrames.generate(pairs, 10_000, 42).toArray(new String[0]);
+        cryptoDataService = new CryptoDataService();
+        ReflectionTestUtils.setField(cryptoDataService, "marketDataSource", new SilentSource());
+        ReflectionTestUtils.setField(cryptoDataService, "symbolUniverse", universe);
+        ReflectionTestUtils.setField(cryptoDataService, "meterRegistry", new SimpleMeterRegistry());
+        cryptoDataService.init();
+        if ("price".equals(listeners)) {
+            cryptoDataService.addPriceListener(crypto -> {
+            });
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        cryptoDataService.stop();
+    }
+
+    @Benchmark
+    public long processMessage() {
+        String frame = frames[next];
+        next = next + 1 == frames.length ? 0 : next + 1;
+        cryptoDataService.processMessage(frame);
+        return cryptoDataService.getVersion();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        BenchmarkRunner.run(MarketDataIngestBenchmark.class, args);
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.cryptoinitializer.service;
+
+import com.example.cryptoinitializer.BenchmarkRunner;
+import com.example.cryptoinitializer.model.CostBasisMethod;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.RunnerException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sell latency against accounts with growing trade history. Each invocation buys and
+ * then sells the same small quantity, so the history (and, for FIFO/LIFO, the lot
+ * queue) keeps its size; the score should not depend on {@code historyLength}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class SellLatencyBenchmark {
+    private static final BigDecimal QUANTITY = new BigDecimal("0.0001");
+
+    @Param({"10", "10000", "100000"})
+    public int historyLength;
+
+    @Param({"AVERAGE", "FIFO", "LIFO"})
+    public CostBasisMethod costBasis;
+
+    private UserService userService;
+
+    // Fresh account per iteration so the history appended by the benchmark itself stays small
+    @Setup(Level.Iteration)
+    public void setUp() {
+        userService = UserServiceConcurrencyTest.newUserService(new BigDecimal("1"));
+        ReflectionTestUtils.setField(userService, "costBasisMethod", costBasis);
+        for (int i = 0; i < historyLength; i++) {
+            userService.buyCrypto("bench", "BTC/USD", QUANTITY);
+        }
+    }
+
+    @Benchmark
+    public void buyThenSell(Blackhole blackhole) {
+        blackhole.consume(userService.buyCrypto("bench", "BTC/USD", QUANTITY));
+        blackhole.consume(userService.sellCrypto("bench", "BTC/USD", QUANTITY));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        BenchmarkRunner.run(SellLatencyBenchmark.class, args);
+    }
+}
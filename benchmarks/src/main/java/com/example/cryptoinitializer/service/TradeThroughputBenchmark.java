@@ -0,0 +1,77 @@
+package com.example.cryptoinitializer.service;
+
+import com.example.cryptoinitializer.BenchmarkRunner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.infra.ThreadParams;
+import org.openjdk.jmh.runner.RunnerException;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Buy/sell round trips from many threads, either all on one account (worst-case
+ * contention on the account's writer lock) or each thread on its own account (which
+ * should scale with cores since accounts share nothing). {@code singleThread} is the
+ * uncontended baseline to compare them with.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(Threads.MAX)
+public class TradeThroughputBenchmark {
+    private static final BigDecimal QUANTITY = new BigDecimal("0.001");
+
+    @State(Scope.Benchmark)
+    public static class Shared {
+        @Param({"shared", "per-thread"})
+        public String accounts;
+
+        UserService userService;
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            userService = UserServiceConcurrencyTest.newUserService(new BigDecimal("100"));
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Trader {
+        String userId;
+
+        @Setup
+        public void setUp(Shared shared, ThreadParams threadParams) {
+            userId = "shared".equals(shared.accounts) ? "bench" : "bench-" + threadParams.getThreadIndex();
+        }
+    }
+
+    @Benchmark
+    public void buyThenSell(Shared shared, Trader trader, Blackhole blackhole) {
+        blackhole.consume(shared.userService.buyCrypto(trader.userId, "BTC/USD", QUANTITY));
+        blackhole.consume(shared.userService.sellCrypto(trader.userId, "BTC/USD", QUANTITY));
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void singleThread(Shared shared, Trader trader, Blackhole blackhole) {
+        buyThenSell(shared, trader, blackhole);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        BenchmarkRunner.run(TradeThroughputBenchmark.class, args);
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.cryptoinitializer.trade;
+
+import com.example.cryptoinitializer.BenchmarkRunner;
+import com.example.cryptoinitializer.CryptoinitializerApplication;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.RunnerException;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost per trade of the single-trade endpoints against {@code /api/trades/batch}, over
+ * HTTP against the whole application on the synthetic feed. Each batch holds
+ * {@value #TRADES} trades, alternating buys and sells across ten users so balances stay
+ * put; the single-trade run sends the same trades one request each. With {@code sync}
+ * every single trade also waits for its own journal flush, which a batch shares.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BatchTradeBenchmark {
+    private static final int TRADES = 100;
+    private static final int USERS = 10;
+
+    @Param({"ALL_OR_NOTHING", "BEST_EFFORT"})
+    public BatchMode mode;
+
+    @Param({"false", "true"})
+    public boolean sync;
+
+    private Path directory;
+    private ConfigurableApplicationContext application;
+    private URI[] singleUris;
+    private byte[] singleBody;
+    private URI batchUri;
+    private byte[] batchBody;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        directory = Files.createTempDirectory("batch-bench");
+        application = SpringApplication.run(CryptoinitializerApplication.class,
+                "--server.port=0",
+                "--logging.level.root=WARN",
+                "--logging.level.com.example.cryptoinitializer=WARN",
+                "--crypto.feed.source=synthetic",
+                "--crypto.journal.dir=" + directory,
+                "--crypto.journal.sync=" + sync);
+        String base = "http://localhost:" + application.getEnvironment().getProperty("local.server.port");
+
+        singleUris = new URI[TRADES];
+        singleBody = "{\"symbol\":\"BTC/USD\",\"quantity\":\"0.0001\"}".getBytes(StandardCharsets.UTF_8);
+        StringBuilder batch = new StringBuilder("{\"mode\":\"" + mode + "\",\"trades\":[");
+        for (int i = 0; i < TRADES; i++) {
+            String userId = "bot-" + (i / 2) % USERS;
+            String side = i % 2 == 0 ? "buy" : "sell";
+            singleUris[i] = URI.create(base + "/api/user/" + userId + "/" + side);
+            batch.append(i > 0 ? "," : "")
+                    .append("{\"userId\":\"").append(userId)
+                    .append("\",\"symbol\":\"BTC/USD\",\"side\":\"").append(side.toUpperCase())
+                    .append("\",\"quantity\":0.0001}");
+        }
+        batchUri = URI.create(base + "/api/trades/batch");
+        batchBody = batch.append("]}").toString().getBytes(StandardCharsets.UTF_8);
+
+        String response = new String(post(batchUri, batchBody), StandardCharsets.UTF_8);
+        if (!response.contains("\"executed\":" + TRADES)) {
+            throw new IllegalStateException("Batch failed: " + response);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        application.close();
+        FileSystemUtils.deleteRecursively(directory);
+    }
+
+    /**
+     * Posts over a kept-alive connection. HttpURLConnection sends headers and body in one
+     * write, so requests do not stall on delayed ACKs as a split write would.
+     */
+    private static byte[] post(URI uri, byte[] body) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) uri.toURL().openConnection();
+        connection.setRequestMethod("POST");
+        connection.setRequestProperty("Content-Type", "application/json");
+        connection.setDoOutput(true);
+        try (OutputStream out = connection.getOutputStream()) {
+            out.write(body);
+        }
+        if (connection.getResponseCode() != 200) {
+            throw new IllegalStateException("HTTP " + connection.getResponseCode() + " from " + uri);
+        }
+        try (InputStream in = connection.getInputStream()) {
+            return in.readAllBytes();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TRADES)
+    public void singleRequests() throws IOException {
+        for (URI uri : singleUris) {
+            post(uri, singleBody);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TRADES)
+    public byte[] oneBatch() throws IOException {
+        return post(batchUri, batchBody);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        BenchmarkRunner.run(BatchTradeBenchmark.class, args);
+    }
+}
@@ -3,7 +3,7 @@ import './index.css';
 import CryptoList from './components/CryptoList';
 import AccountSummary from './components/AccountSummary';
 import TransactionHistory from './components/TransactionHistory';
-import { getCryptoData, getUserAccount, getUserTransactions, buyCrypto, sellCrypto, resetAccount } from './services/api';
+import { getCryptoData, getUserAccount, getUserTransactions, buyCrypto, sellCrypto, resetAccount, subscribeToPrices } from './services/api';
 
 // Generate a random user ID for this session
 const userId = 'user-' + Math.random().toString(36).substring(2, 15);
@@ -19,13 +19,43 @@ function App() {
   useEffect(() => {
     // Initial data load
     fetchData();
-    
-    // Set up polling for crypto data
-    const interval = setInterval(() => {
-      fetchCryptoData();
-    }, 5000); // Poll every 5 seconds
-    
-    return () => clearInterval(interval);
+
+    // Prices are pushed over the price stream; poll only while it is down
+    let interval = null;
+    let reconnectTimer = null;
+    let unsubscribe = null;
+
+    const connect = () => {
+      unsubscribe = subscribeToPrices({
+        onSnapshot: (prices) => {
+          clearInterval(interval);
+          interval = null;
+          setCryptoData(prices);
+        },
+        onDelta: (prices) => {
+          setCryptoData(current => {
+            const bySymbol = new Map(current.map(crypto => [crypto.symbol, crypto]));
+            prices.forEach(crypto => bySymbol.set(crypto.symbol, crypto));
+            return Array.from(bySymbol.values());
+          });
+        },
+        onClose: () => {
+          if (!interval) {
+            interval = setInterval(() => {
+              fetchCryptoData();
+            }, 5000); // Poll every 5 seconds
+          }
+          reconnectTimer = setTimeout(connect, 5000);
+        }
+      });
+    };
+    connect();
+
+    return () => {
+      clearInterval(interval);
+      clearTimeout(reconnectTimer);
+      unsubscribe();
+    };
   }, []);
 
   const fetchData = async () => {
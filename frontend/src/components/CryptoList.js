@@ -257,6 +257,11 @@ function CryptoList({ cryptoData, onBuy, onSell, holdings }) {
                 }}>
                   {formatPrice(crypto.price)}
                   {renderPriceArrow(direction)}
+                  {crypto.stale && (
+                    <span title="No recent ticks from the feed" style={{ marginLeft: '5px', color: '#999' }}>
+                      (stale)
+                    </span>
+                  )}
                 </td>
                 <td>
                   {parseFloat(holdingAmount) > 0 ? (
@@ -1,6 +1,7 @@
 import axios from 'axios';
 
 const API_BASE_URL = 'http://localhost:8080/api';
+const PRICE_STREAM_URL = 'ws://localhost:8080/ws/prices';
 
 // Fetch crypto data
 export const getCryptoData = async () => {
@@ -13,6 +14,40 @@ export const getCryptoData = async () => {
   }
 };
 
+// Fetch OHLCV candles, oldest first. interval is 1s, 1m, 5m, 1h or 1d
+export const getCandles = async (symbol, interval = '1m', limit = 500) => {
+  try {
+    const response = await axios.get(`${API_BASE_URL}/crypto/${symbol.replace('/', '-')}/candles`, {
+      params: { interval, limit }
+    });
+    return response.data;
+  } catch (error) {
+    console.error('Error fetching candles:', error);
+    throw error;
+  }
+};
+
+// Subscribe to pushed price updates. The first message is a full snapshot,
+// after that only the prices that changed are sent.
+export const subscribeToPrices = ({ onSnapshot, onDelta, onClose }) => {
+  const socket = new WebSocket(PRICE_STREAM_URL);
+
+  socket.onmessage = (event) => {
+    const message = JSON.parse(event.data);
+    if (message.type === 'snapshot') {
+      onSnapshot(message.prices);
+    } else if (message.type === 'delta') {
+      onDelta(message.prices);
+    }
+  };
+  socket.onclose = () => onClose && onClose();
+
+  return () => {
+    socket.onclose = null;
+    socket.close();
+  };
+};
+
 // Fetch user account
 export const getUserAccount = async (userId) => {
   try {
@@ -24,22 +59,22 @@ export const getUserAccount = async (userId) => {
   }
 };
 
-// Fetch user account
+// Fetch the user's portfolio, marked to market on the server
 export const getPortfolioValue = async (userId) => {
   try {
-    const response = await axios.get(`${API_BASE_URL}/user/${userId}/get-portfolio`);
+    const response = await axios.get(`${API_BASE_URL}/user/${userId}/portfolio`);
     return response.data;
   } catch (error) {
-    console.error('Error fetching user account:', error);
+    console.error('Error fetching portfolio:', error);
     throw error;
   }
 };
 
-// Fetch user transactions
-export const getUserTransactions = async (userId) => {
+// Fetch the newest page of user transactions (newest first)
+export const getUserTransactions = async (userId, limit = 100) => {
   try {
-    const response = await axios.get(`${API_BASE_URL}/user/${userId}/transactions`);
-    return response.data;
+    const response = await axios.get(`${API_BASE_URL}/user/${userId}/transactions`, { params: { limit } });
+    return response.data.transactions;
   } catch (error) {
     console.error('Error fetching user transactions:', error);
     throw error;